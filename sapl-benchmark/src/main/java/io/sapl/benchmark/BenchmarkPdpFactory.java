@@ -0,0 +1,137 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.benchmark;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.sapl.functions.FilterFunctionLibrary;
+import io.sapl.functions.StandardFunctionLibrary;
+import io.sapl.functions.TemporalFunctionLibrary;
+import io.sapl.grammar.sapl.CombiningAlgorithm;
+import io.sapl.interpreter.DefaultSAPLInterpreter;
+import io.sapl.interpreter.InitializationException;
+import io.sapl.interpreter.combinators.CombiningAlgorithmFactory;
+import io.sapl.interpreter.combinators.PolicyDocumentCombiningAlgorithm;
+import io.sapl.interpreter.functions.AnnotationFunctionContext;
+import io.sapl.interpreter.pip.AnnotationAttributeContext;
+import io.sapl.pdp.EmbeddedPolicyDecisionPoint;
+import io.sapl.pdp.config.FixedFunctionsAndAttributesPDPConfigurationProvider;
+import io.sapl.pdp.config.VariablesAndCombinatorSource;
+import io.sapl.pip.TimePolicyInformationPoint;
+import io.sapl.prp.GenericInMemoryIndexedPolicyRetrievalPoint;
+import io.sapl.prp.PrpUpdateEvent;
+import io.sapl.prp.PrpUpdateEvent.Type;
+import io.sapl.prp.PrpUpdateEvent.Update;
+import io.sapl.prp.PrpUpdateEventSource;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.UtilityClass;
+import reactor.core.publisher.Flux;
+
+/**
+ * Assembles embedded PDPs from in-memory policy documents, so that benchmarks
+ * measure the decision path without any file system or class path monitoring.
+ */
+@UtilityClass
+public class BenchmarkPdpFactory {
+
+	private static final DefaultSAPLInterpreter INTERPRETER = new DefaultSAPLInterpreter();
+
+	public static EmbeddedPolicyDecisionPoint create(Collection<String> documents, IndexType indexType)
+			throws InitializationException {
+		return create(documents, indexType, PolicyDocumentCombiningAlgorithm.DENY_UNLESS_PERMIT);
+	}
+
+	public static EmbeddedPolicyDecisionPoint create(
+			Collection<String> documents,
+			IndexType indexType,
+			PolicyDocumentCombiningAlgorithm algorithm)
+			throws InitializationException {
+		return create(documents, indexType, algorithm, false);
+	}
+
+	public static EmbeddedPolicyDecisionPoint create(
+			Collection<String> documents,
+			IndexType indexType,
+			PolicyDocumentCombiningAlgorithm algorithm,
+			boolean compileExpressions)
+			throws InitializationException {
+		var functionCtx = new AnnotationFunctionContext(new FilterFunctionLibrary(), new StandardFunctionLibrary(),
+				new TemporalFunctionLibrary());
+		var attributeCtx = new AnnotationAttributeContext(new TimePolicyInformationPoint(Clock.systemUTC()));
+
+		var combiningAlgorithm    = CombiningAlgorithmFactory.getCombiningAlgorithm(algorithm);
+		var configurationProvider = new FixedFunctionsAndAttributesPDPConfigurationProvider(attributeCtx,
+				functionCtx, new StaticVariablesAndCombinatorSource(combiningAlgorithm));
+		var policyRetrievalPoint  = new GenericInMemoryIndexedPolicyRetrievalPoint(
+				indexType.create(attributeCtx, functionCtx), new StaticPrpUpdateEventSource(publish(documents)),
+				compileExpressions);
+		return new EmbeddedPolicyDecisionPoint(configurationProvider, policyRetrievalPoint);
+	}
+
+	private static PrpUpdateEvent publish(Collection<String> documents) {
+		var updates = new ArrayList<Update>(documents.size() + 1);
+		for (var document : documents)
+			updates.add(new Update(Type.PUBLISH, INTERPRETER.parse(document), document));
+		updates.add(new Update(Type.CONSISTENT, null, null));
+		return new PrpUpdateEvent(updates);
+	}
+
+	@RequiredArgsConstructor
+	private static class StaticPrpUpdateEventSource implements PrpUpdateEventSource {
+
+		private final PrpUpdateEvent initialEvent;
+
+		@Override
+		public Flux<PrpUpdateEvent> getUpdates() {
+			return Flux.just(initialEvent);
+		}
+
+		@Override
+		public void dispose() {
+			// nothing to dispose
+		}
+
+	}
+
+	@RequiredArgsConstructor
+	private static class StaticVariablesAndCombinatorSource implements VariablesAndCombinatorSource {
+
+		private final CombiningAlgorithm algorithm;
+
+		@Override
+		public Flux<Optional<CombiningAlgorithm>> getCombiningAlgorithm() {
+			return Flux.just(Optional.of(algorithm));
+		}
+
+		@Override
+		public Flux<Optional<Map<String, JsonNode>>> getVariables() {
+			return Flux.just(Optional.of(Map.of()));
+		}
+
+		@Override
+		public void dispose() {
+			// nothing to dispose
+		}
+
+	}
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the executable benchmark jar. Accepts all JMH command line
+ * options. Unless specified otherwise on the command line, results are written
+ * as machine readable JSON to {@value #DEFAULT_RESULT_FILE}, so that runs can
+ * be compared across commits.
+ */
+public class BenchmarkRunner {
+
+	static final String DEFAULT_RESULT_FILE = "sapl-benchmark-results.json";
+
+	public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+		var commandLineOptions = new CommandLineOptions(args);
+		var options            = new OptionsBuilder().parent(commandLineOptions);
+
+		if (!commandLineOptions.getResultFormat().hasValue())
+			options.resultFormat(ResultFormatType.JSON);
+		if (!commandLineOptions.getResult().hasValue())
+			options.result(DEFAULT_RESULT_FILE);
+		if (commandLineOptions.getIncludes().isEmpty())
+			options.include(BenchmarkRunner.class.getPackageName() + ".*Benchmark");
+
+		new Runner(options.build()).run();
+	}
+
+}
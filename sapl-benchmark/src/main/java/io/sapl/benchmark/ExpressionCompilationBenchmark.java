@@ -0,0 +1,134 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.benchmark;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.interpreter.InitializationException;
+import io.sapl.interpreter.combinators.PolicyDocumentCombiningAlgorithm;
+import io.sapl.pdp.EmbeddedPolicyDecisionPoint;
+
+/**
+ * Compares the interpreted evaluation of policy bodies and obligations with
+ * their evaluation after the attribute-free expressions have been compiled to
+ * closures. Unlike the targets of the {@link SyntheticPolicyCorpus}, the bodies
+ * of the documents used here consist of several conditions with arithmetic,
+ * comparisons and lazy boolean operators, so that the evaluation of the matching
+ * documents dominates the cost of a decision.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExpressionCompilationBenchmark {
+
+	private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+
+	private static final int NUMBER_OF_PREPARED_SUBSCRIPTIONS = 1024;
+
+	private static final int NUMBER_OF_RESOURCE_TYPES = 10;
+
+	private static final String[] ROLES = { "admin", "auditor", "customer", "employee", "guest" };
+
+	@Param({ "100" })
+	int documents;
+
+	@Param({ "false", "true" })
+	boolean compiled;
+
+	private EmbeddedPolicyDecisionPoint pdp;
+
+	private AuthorizationSubscription[] subscriptions;
+
+	private int nextSubscription;
+
+	@Setup(Level.Trial)
+	public void setUp() throws InitializationException {
+		var random    = new Random(4711L);
+		pdp           = BenchmarkPdpFactory.create(generateDocuments(random), IndexType.CANONICAL,
+				PolicyDocumentCombiningAlgorithm.DENY_UNLESS_PERMIT, compiled);
+		subscriptions = new AuthorizationSubscription[NUMBER_OF_PREPARED_SUBSCRIPTIONS];
+		for (int i = 0; i < subscriptions.length; i++)
+			subscriptions[i] = generateSubscription(random);
+		// block until the index has been built
+		pdp.decide(subscriptions[0]).blockFirst();
+	}
+
+	private ArrayList<String> generateDocuments(Random random) {
+		var result = new ArrayList<String>(documents);
+		for (int i = 0; i < documents; i++) {
+			var resourceType = random.nextInt(NUMBER_OF_RESOURCE_TYPES);
+			var role         = ROLES[random.nextInt(ROLES.length)];
+			var offset       = 18 + random.nextInt(30);
+			result.add(String.format("policy \"policy_%d\" permit resource.type == \"type_%d\" where "
+					+ "var limit = subject.age * 2 + %d; "
+					+ "subject.role == \"%s\" || \"%s\" in subject.groups; "
+					+ "limit > 60 && (resource.size / 1024 < subject.quota || subject.name =~ \"user_1.*\"); "
+					+ "obligation { \"type\": \"log\", \"user\": subject.name, \"level\": subject.age %% 3 }",
+					i, resourceType, offset, role, role));
+		}
+		return result;
+	}
+
+	private static AuthorizationSubscription generateSubscription(Random random) {
+		var subject = JSON.objectNode();
+		subject.put("name", "user_" + random.nextInt(1000));
+		subject.put("role", ROLES[random.nextInt(ROLES.length)]);
+		subject.put("age", 16 + random.nextInt(50));
+		subject.put("quota", random.nextInt(100));
+		subject.set("groups", JSON.arrayNode().add(ROLES[random.nextInt(ROLES.length)]));
+
+		var resource = JSON.objectNode();
+		resource.put("type", "type_" + random.nextInt(NUMBER_OF_RESOURCE_TYPES));
+		resource.put("size", random.nextInt(100_000));
+
+		return new AuthorizationSubscription(subject, JSON.textNode("read"), resource, null);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		pdp.dispose();
+	}
+
+	@Benchmark
+	public AuthorizationDecision decide() {
+		nextSubscription = (nextSubscription + 1) % subscriptions.length;
+		return pdp.decide(subscriptions[nextSubscription]).blockFirst();
+	}
+
+}
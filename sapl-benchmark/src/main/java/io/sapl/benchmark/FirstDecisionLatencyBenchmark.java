@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.interpreter.InitializationException;
+import io.sapl.pdp.EmbeddedPolicyDecisionPoint;
+
+/**
+ * Measures the latency distribution from calling
+ * {@link EmbeddedPolicyDecisionPoint#decide(AuthorizationSubscription)} until
+ * the first decision is available, i.e., the cost a request/response style PEP
+ * pays per authorization.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FirstDecisionLatencyBenchmark {
+
+	private static final int NUMBER_OF_PREPARED_SUBSCRIPTIONS = 1024;
+
+	@Param({ "100", "10000" })
+	int documents;
+
+	@Param({ "NAIVE", "CANONICAL" })
+	IndexType index;
+
+	private EmbeddedPolicyDecisionPoint pdp;
+
+	private AuthorizationSubscription[] subscriptions;
+
+	private int nextSubscription;
+
+	@Setup(Level.Trial)
+	public void setUp() throws InitializationException {
+		var corpus = new SyntheticPolicyCorpus(documents, 42L);
+		pdp           = BenchmarkPdpFactory.create(corpus.getDocuments(), index);
+		subscriptions = new AuthorizationSubscription[NUMBER_OF_PREPARED_SUBSCRIPTIONS];
+		for (int i = 0; i < subscriptions.length; i++)
+			subscriptions[i] = corpus.nextSubscription();
+		// block until the index has been built
+		pdp.decide(subscriptions[0]).blockFirst();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		pdp.dispose();
+	}
+
+	@Benchmark
+	public AuthorizationDecision firstDecision() {
+		nextSubscription = (nextSubscription + 1) % subscriptions.length;
+		return pdp.decide(subscriptions[nextSubscription]).blockFirst();
+	}
+
+}
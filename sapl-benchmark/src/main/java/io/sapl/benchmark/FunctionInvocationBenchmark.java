@@ -0,0 +1,134 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.benchmark;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.sapl.api.functions.Function;
+import io.sapl.api.functions.FunctionLibrary;
+import io.sapl.api.interpreter.Val;
+import io.sapl.api.validation.Text;
+import io.sapl.interpreter.InitializationException;
+import io.sapl.interpreter.functions.AnnotationFunctionContext;
+import io.sapl.interpreter.validation.ParameterTypeValidator;
+
+/**
+ * Compares invoking library functions through the method handles and
+ * precomputed validation rules of {@link AnnotationFunctionContext} with the
+ * former reflective path, which validated each parameter against its
+ * annotations and called {@link Method#invoke(Object, Object...)} on each
+ * evaluation.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FunctionInvocationBenchmark {
+
+	private static final Val[] FIXED_ARGUMENTS = { Val.of("left"), Val.of("right") };
+
+	private static final Val[] VAR_ARGS_ARGUMENTS = { Val.of("a"), Val.of("b"), Val.of("c"), Val.of("d") };
+
+	private final BenchmarkLibrary library = new BenchmarkLibrary();
+
+	private AnnotationFunctionContext functionCtx;
+
+	private Method concat;
+
+	private Method concatAll;
+
+	@Setup(Level.Trial)
+	public void setUp() throws InitializationException, NoSuchMethodException {
+		functionCtx = new AnnotationFunctionContext(library);
+		concat      = BenchmarkLibrary.class.getMethod("concat", Val.class, Val.class);
+		concatAll   = BenchmarkLibrary.class.getMethod("concatAll", Val[].class);
+	}
+
+	@Benchmark
+	public Val fixedParametersMethodHandle() {
+		return functionCtx.evaluate("bench.concat", FIXED_ARGUMENTS);
+	}
+
+	@Benchmark
+	public Val fixedParametersReflective() {
+		var parameters = concat.getParameters();
+		for (var i = 0; i < FIXED_ARGUMENTS.length; i++) {
+			var validationResult = ParameterTypeValidator.validateType(FIXED_ARGUMENTS[i], parameters[i]);
+			if (validationResult.isError())
+				return validationResult;
+		}
+		return invokeReflective(concat, (Object[]) FIXED_ARGUMENTS);
+	}
+
+	@Benchmark
+	public Val varArgsMethodHandle() {
+		return functionCtx.evaluate("bench.concatAll", VAR_ARGS_ARGUMENTS);
+	}
+
+	@Benchmark
+	public Val varArgsReflective() {
+		Parameter parameter = concatAll.getParameters()[0];
+		for (var argument : VAR_ARGS_ARGUMENTS) {
+			var validationResult = ParameterTypeValidator.validateType(argument, parameter);
+			if (validationResult.isError())
+				return validationResult;
+		}
+		return invokeReflective(concatAll, new Object[] { VAR_ARGS_ARGUMENTS });
+	}
+
+	private Val invokeReflective(Method method, Object... arguments) {
+		try {
+			return (Val) method.invoke(library, arguments);
+		} catch (ReflectiveOperationException e) {
+			return Val.error(e);
+		}
+	}
+
+	@FunctionLibrary(name = "bench")
+	public static class BenchmarkLibrary {
+
+		@Function
+		public Val concat(@Text Val left, @Text Val right) {
+			return Val.of(left.getText() + right.getText());
+		}
+
+		@Function
+		public Val concatAll(@Text Val... values) {
+			var builder = new StringBuilder();
+			for (var value : values)
+				builder.append(value.getText());
+			return Val.of(builder.toString());
+		}
+
+	}
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.benchmark;
+
+import io.sapl.interpreter.functions.FunctionContext;
+import io.sapl.interpreter.pip.AttributeContext;
+import io.sapl.prp.index.ImmutableParsedDocumentIndex;
+import io.sapl.prp.index.canonical.CanonicalImmutableParsedDocumentIndex;
+import io.sapl.prp.index.canonical.ordering.CostBasedPredicateOrderStrategy;
+import io.sapl.prp.index.naive.NaiveImmutableParsedDocumentIndex;
+
+/**
+ * The document index implementations which can be selected as a benchmark
+ * parameter.
+ */
+public enum IndexType {
+
+	NAIVE {
+		@Override
+		ImmutableParsedDocumentIndex create(AttributeContext attributeCtx, FunctionContext functionCtx) {
+			return new NaiveImmutableParsedDocumentIndex();
+		}
+	},
+
+	CANONICAL {
+		@Override
+		ImmutableParsedDocumentIndex create(AttributeContext attributeCtx, FunctionContext functionCtx) {
+			return new CanonicalImmutableParsedDocumentIndex(attributeCtx, functionCtx);
+		}
+	},
+
+	CANONICAL_COST_BASED {
+		@Override
+		ImmutableParsedDocumentIndex create(AttributeContext attributeCtx, FunctionContext functionCtx) {
+			return new CanonicalImmutableParsedDocumentIndex(new CostBasedPredicateOrderStrategy(), attributeCtx,
+					functionCtx);
+		}
+	};
+
+	abstract ImmutableParsedDocumentIndex create(AttributeContext attributeCtx, FunctionContext functionCtx);
+
+}
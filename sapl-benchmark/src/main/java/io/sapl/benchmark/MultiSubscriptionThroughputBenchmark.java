@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.sapl.api.pdp.IdentifiableAuthorizationDecision;
+import io.sapl.api.pdp.MultiAuthorizationDecision;
+import io.sapl.api.pdp.MultiAuthorizationSubscription;
+import io.sapl.interpreter.InitializationException;
+import io.sapl.pdp.EmbeddedPolicyDecisionPoint;
+
+/**
+ * Measures the sustained throughput of
+ * {@link EmbeddedPolicyDecisionPoint#decide(MultiAuthorizationSubscription)}
+ * and
+ * {@link EmbeddedPolicyDecisionPoint#decideAll(MultiAuthorizationSubscription)}.
+ * One operation is the complete first decision for every subscription
+ * contained in the multi-subscription.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MultiSubscriptionThroughputBenchmark {
+
+	private static final int NUMBER_OF_PREPARED_SUBSCRIPTIONS = 64;
+
+	@Param({ "1000" })
+	int documents;
+
+	@Param({ "10", "100" })
+	int subscriptionsPerMultiSubscription;
+
+	@Param({ "NAIVE", "CANONICAL" })
+	IndexType index;
+
+	private EmbeddedPolicyDecisionPoint pdp;
+
+	private MultiAuthorizationSubscription[] multiSubscriptions;
+
+	private int nextSubscription;
+
+	@Setup(Level.Trial)
+	public void setUp() throws InitializationException {
+		var corpus = new SyntheticPolicyCorpus(documents, 42L);
+		pdp                = BenchmarkPdpFactory.create(corpus.getDocuments(), index);
+		multiSubscriptions = new MultiAuthorizationSubscription[NUMBER_OF_PREPARED_SUBSCRIPTIONS];
+		for (int i = 0; i < multiSubscriptions.length; i++)
+			multiSubscriptions[i] = corpus.nextMultiSubscription(subscriptionsPerMultiSubscription);
+		// block until the index has been built
+		pdp.decideAll(multiSubscriptions[0]).blockFirst();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		pdp.dispose();
+	}
+
+	@Benchmark
+	public IdentifiableAuthorizationDecision decideMulti() {
+		return pdp.decide(nextMultiSubscription()).take(subscriptionsPerMultiSubscription).blockLast();
+	}
+
+	@Benchmark
+	public MultiAuthorizationDecision decideAll() {
+		return pdp.decideAll(nextMultiSubscription()).blockFirst();
+	}
+
+	private MultiAuthorizationSubscription nextMultiSubscription() {
+		nextSubscription = (nextSubscription + 1) % multiSubscriptions.length;
+		return multiSubscriptions[nextSubscription];
+	}
+
+}
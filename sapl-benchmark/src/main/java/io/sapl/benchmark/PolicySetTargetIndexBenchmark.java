@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.interpreter.InitializationException;
+import io.sapl.pdp.EmbeddedPolicyDecisionPoint;
+
+/**
+ * Measures how the cost of a single decision scales with the number of policies
+ * contained in a single policy set. The policies of the set are the documents
+ * of the {@link SyntheticPolicyCorpus}. With the canonical document index, the
+ * targets of the policies of large sets are matched by a per-set index, with
+ * the naive document index they are matched policy by policy.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PolicySetTargetIndexBenchmark {
+
+	private static final int NUMBER_OF_PREPARED_SUBSCRIPTIONS = 1024;
+
+	@Param({ "10", "100", "1000" })
+	int policies;
+
+	@Param({ "NAIVE", "CANONICAL" })
+	IndexType index;
+
+	private EmbeddedPolicyDecisionPoint pdp;
+
+	private AuthorizationSubscription[] subscriptions;
+
+	private int nextSubscription;
+
+	@Setup(Level.Trial)
+	public void setUp() throws InitializationException {
+		var corpus    = new SyntheticPolicyCorpus(policies, 4711L);
+		var policySet = "set \"large_set\" deny-unless-permit " + String.join(" ", corpus.getDocuments());
+		pdp           = BenchmarkPdpFactory.create(List.of(policySet), index);
+		subscriptions = new AuthorizationSubscription[NUMBER_OF_PREPARED_SUBSCRIPTIONS];
+		for (int i = 0; i < subscriptions.length; i++)
+			subscriptions[i] = corpus.nextSubscription();
+		// block until the index has been built
+		pdp.decide(subscriptions[0]).blockFirst();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		pdp.dispose();
+	}
+
+	@Benchmark
+	public AuthorizationDecision decide() {
+		nextSubscription = (nextSubscription + 1) % subscriptions.length;
+		return pdp.decide(subscriptions[nextSubscription]).blockFirst();
+	}
+
+}
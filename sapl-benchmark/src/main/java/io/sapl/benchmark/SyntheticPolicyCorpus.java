@@ -0,0 +1,128 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.api.pdp.MultiAuthorizationSubscription;
+import lombok.Getter;
+
+/**
+ * Generates reproducible synthetic policy documents and matching authorization
+ * subscriptions.
+ *
+ * The targets of the generated documents are conjunctions of equality tests on
+ * the resource type and the action, with some disjunctions, negations and
+ * regular expressions mixed in. The number of distinct resource types grows
+ * with the size of the corpus, so that only a small fraction of the documents
+ * is applicable to an individual subscription regardless of the corpus size.
+ */
+public class SyntheticPolicyCorpus {
+
+	private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+
+	private static final String[] ACTIONS = { "read", "write", "update", "delete", "list" };
+
+	private static final String[] ROLES = { "admin", "auditor", "customer", "employee", "guest" };
+
+	private static final int DOCUMENTS_PER_RESOURCE_TYPE = 10;
+
+	private final Random random;
+
+	private final int numberOfResourceTypes;
+
+	@Getter
+	private final List<String> documents;
+
+	public SyntheticPolicyCorpus(int numberOfDocuments, long seed) {
+		random                = new Random(seed);
+		numberOfResourceTypes = Math.max(1, numberOfDocuments / DOCUMENTS_PER_RESOURCE_TYPE);
+		documents             = new ArrayList<>(numberOfDocuments);
+		for (int i = 0; i < numberOfDocuments; i++)
+			documents.add(generateDocument(i));
+	}
+
+	private String generateDocument(int documentNumber) {
+		var entitlement  = random.nextInt(4) == 0 ? "deny" : "permit";
+		var resourceType = random.nextInt(numberOfResourceTypes);
+		var action       = ACTIONS[random.nextInt(ACTIONS.length)];
+		var role         = ROLES[random.nextInt(ROLES.length)];
+
+		String target;
+		switch (documentNumber % 4) {
+		case 0:
+			target = String.format("resource.type == \"type_%d\" & action.method == \"%s\"", resourceType, action);
+			break;
+		case 1:
+			target = String.format(
+					"resource.type == \"type_%d\" & (action.method == \"%s\" | action.method == \"list\")",
+					resourceType, action);
+			break;
+		case 2:
+			target = String.format("resource.type == \"type_%d\" & !(action.method == \"%s\")", resourceType,
+					action);
+			break;
+		default:
+			target = String.format("resource.type =~ \"type_%d(_.*)?\" & action.method == \"%s\"", resourceType,
+					action);
+		}
+
+		return String.format("policy \"policy_%d\" %s %s where subject.role == \"%s\";", documentNumber,
+				entitlement, target, role);
+	}
+
+	/**
+	 * @return a random authorization subscription drawn from the same value space
+	 *         as the generated targets.
+	 */
+	public AuthorizationSubscription nextSubscription() {
+		ObjectNode subject = JSON.objectNode();
+		subject.put("name", "user_" + random.nextInt(1000));
+		subject.put("role", ROLES[random.nextInt(ROLES.length)]);
+
+		ObjectNode action = JSON.objectNode();
+		action.put("method", ACTIONS[random.nextInt(ACTIONS.length)]);
+
+		ObjectNode resource = JSON.objectNode();
+		resource.put("type", "type_" + random.nextInt(numberOfResourceTypes));
+		resource.put("id", random.nextInt(100_000));
+
+		return new AuthorizationSubscription(subject, action, resource, null);
+	}
+
+	/**
+	 * @param numberOfSubscriptions the number of subscriptions to generate
+	 * @return a multi-subscription sharing a single subject across all contained
+	 *         subscriptions, as is typical for a PEP checking a page of resources.
+	 */
+	public MultiAuthorizationSubscription nextMultiSubscription(int numberOfSubscriptions) {
+		var multiSubscription = new MultiAuthorizationSubscription();
+		var subject           = nextSubscription().getSubject();
+		for (int i = 0; i < numberOfSubscriptions; i++) {
+			var subscription = nextSubscription();
+			multiSubscription.addAuthorizationSubscription("id_" + i, subject, subscription.getAction(),
+					subscription.getResource());
+		}
+		return multiSubscription;
+	}
+
+}
@@ -21,11 +21,15 @@
 
 import io.sapl.api.interpreter.Val;
 import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.Decision;
 import io.sapl.grammar.sapl.AuthorizationDecisionEvaluable;
 import io.sapl.grammar.sapl.Policy;
+import io.sapl.grammar.sapl.PolicySet;
+import io.sapl.grammar.sapl.SAPL;
 import io.sapl.prp.PolicyRetrievalResult;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.util.function.Tuple2;
 import reactor.util.function.Tuples;
 
@@ -34,19 +38,130 @@ public class CombiningAlgorithmImplCustom extends CombiningAlgorithmImpl {
 
 	@Override
 	public Flux<AuthorizationDecision> combineMatchingDocuments(PolicyRetrievalResult policyRetrievalResult) {
-		var                                     matchingSaplDocuments = policyRetrievalResult.getMatchingDocuments();
-		final List<Flux<AuthorizationDecision>> authzDecisionFluxes   = new ArrayList<>(matchingSaplDocuments.size());
+		var matchingSaplDocuments = policyRetrievalResult.getMatchingDocuments();
+		var errorsInTarget        = policyRetrievalResult.isErrorsInTarget();
+		if (matchingSaplDocuments.isEmpty()) {
+			return Flux.just(combineDecisions(new AuthorizationDecision[0], errorsInTarget));
+		}
+
+		var dominatingDecision = dominatingDecision();
+		if (dominatingDecision != null && matchingSaplDocuments.size() > 1) {
+			var documents = matchingSaplDocuments.toArray(new AuthorizationDecisionEvaluable[0]);
+			return combineInOrder(documents, 0, Mono.just(new AuthorizationDecision[0]).flux(), errorsInTarget,
+					dominatingDecision, remainingDocumentsAreConstraintFree(documents, dominatingDecision))
+					.distinctUntilChanged();
+		}
+
+		final List<Flux<AuthorizationDecision>> authzDecisionFluxes = new ArrayList<>(matchingSaplDocuments.size());
 		for (AuthorizationDecisionEvaluable document : matchingSaplDocuments) {
 			log.debug("  |- Evaluate: {} ", document);
 			authzDecisionFluxes.add(document.evaluate());
 		}
-		if (matchingSaplDocuments.isEmpty()) {
-			return Flux.just(combineDecisions(new AuthorizationDecision[0], policyRetrievalResult.isErrorsInTarget()));
-		}
 		return Flux
 				.combineLatest(authzDecisionFluxes,
 						decisions -> Arrays.copyOf(decisions, decisions.length, AuthorizationDecision[].class))
-				.map(decisions -> combineDecisions(decisions, policyRetrievalResult.isErrorsInTarget()));
+				.map(decisions -> combineDecisions(decisions, errorsInTarget));
+	}
+
+	/**
+	 * Evaluates all documents concurrently and combines their decisions in order.
+	 * While a document evaluates to the dominating decision and none of the
+	 * remaining documents can add obligations, advice, or a resource to it, the
+	 * remaining documents are dropped. They are subscribed to again if the
+	 * decision of the dominating document changes.
+	 */
+	private Flux<AuthorizationDecision> combineInOrder(
+			AuthorizationDecisionEvaluable[] documents,
+			int position,
+			Flux<AuthorizationDecision[]> previousDecisions,
+			boolean errorsInTarget,
+			Decision dominatingDecision,
+			boolean[] remainingDocumentsAreConstraintFree) {
+		if (position == documents.length)
+			return previousDecisions.map(decisions -> combineDecisions(decisions, errorsInTarget));
+
+		log.debug("  |- Evaluate: {} ", documents[position]);
+		var decisions = Flux
+				.combineLatest(previousDecisions, documents[position].evaluate().distinctUntilChanged(),
+						(previous, decision) -> {
+							var combined = Arrays.copyOf(previous, position + 1);
+							combined[position] = decision;
+							return combined;
+						})
+				.replay(1).refCount();
+
+		return decisions
+				.map(currentDecisions -> isFinal(currentDecisions, errorsInTarget, dominatingDecision,
+						remainingDocumentsAreConstraintFree[position + 1]))
+				.startWith(false).distinctUntilChanged().switchMap(isFinal -> {
+					if (isFinal) {
+						log.debug("  |- {} is final. Skip remaining documents.", dominatingDecision);
+						return decisions.map(currentDecisions -> combineDecisions(currentDecisions, errorsInTarget));
+					}
+					return combineInOrder(documents, position + 1, decisions, errorsInTarget, dominatingDecision,
+							remainingDocumentsAreConstraintFree);
+				});
+	}
+
+	/**
+	 * @return true, if the last of the decisions is the dominating decision, the
+	 *         remaining documents cannot add constraints to it, and the decisions
+	 *         combine to the dominating decision
+	 */
+	private boolean isFinal(
+			AuthorizationDecision[] decisions,
+			boolean errorsInTarget,
+			Decision dominatingDecision,
+			boolean remainingDocumentsAreConstraintFree) {
+		return decisions[decisions.length - 1].getDecision() == dominatingDecision
+				&& remainingDocumentsAreConstraintFree
+				&& combineDecisions(decisions, errorsInTarget).getDecision() == dominatingDecision;
+	}
+
+	/**
+	 * @return for each position, if none of the documents from this position on
+	 *         can add obligations, advice, or a resource to the dominating decision
+	 */
+	private static boolean[] remainingDocumentsAreConstraintFree(
+			AuthorizationDecisionEvaluable[] documents,
+			Decision dominatingDecision) {
+		var constraintFree = new boolean[documents.length + 1];
+		constraintFree[documents.length] = true;
+		for (var position = documents.length - 1; position >= 0; position--)
+			constraintFree[position] = constraintFree[position + 1]
+					&& !mayAddConstraints(documents[position], dominatingDecision);
+		return constraintFree;
+	}
+
+	private static boolean mayAddConstraints(AuthorizationDecisionEvaluable document, Decision decision) {
+		if (document instanceof SAPL)
+			return mayAddConstraints(((SAPL) document).getPolicyElement(), decision);
+		if (document instanceof Policy)
+			return mayAddConstraints((Policy) document, decision);
+		if (document instanceof PolicySet) {
+			for (var policy : ((PolicySet) document).getPolicies())
+				if (mayAddConstraints(policy, decision))
+					return true;
+			return false;
+		}
+		return true;
+	}
+
+	private static boolean mayAddConstraints(Policy policy, Decision decision) {
+		if (policy.getTransformation() != null)
+			return true;
+		return policy.getEntitlement().getDecision() == decision
+				&& (policy.getObligation() != null || policy.getAdvice() != null);
+	}
+
+	/**
+	 * @return the decision which prevails over all other decisions in this
+	 *         algorithm, or null, if there is none. If a document evaluates to the
+	 *         dominating decision, the decisions of documents which cannot add any
+	 *         constraints to it do not influence the combined decision.
+	 */
+	protected Decision dominatingDecision() {
+		return null;
 	}
 
 	protected Flux<AuthorizationDecision> doCombinePolicies(Iterable<Policy> policies) {
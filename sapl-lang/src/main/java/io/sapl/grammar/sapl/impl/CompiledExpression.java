@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.grammar.sapl.impl;
+
+import java.util.Set;
+
+import io.sapl.api.interpreter.Val;
+import io.sapl.grammar.sapl.impl.ExpressionCompiler.Closure;
+import io.sapl.interpreter.context.AuthorizationContext;
+import lombok.AccessLevel;
+import lombok.Getter;
+import reactor.core.publisher.Flux;
+
+/**
+ * Replaces an attribute-free sub-tree of the AST with a closure computing its
+ * value directly from the variables of the authorization context. It is never
+ * created by the parser, but only by {@link ExpressionCompiler}.
+ */
+public class CompiledExpression extends ExpressionImpl {
+
+	@Getter(AccessLevel.PACKAGE)
+	private final Closure closure;
+
+	/**
+	 * The names of the variables referenced by the replaced sub-tree.
+	 */
+	@Getter
+	private final Set<String> referencedVariables;
+
+	CompiledExpression(Closure closure, Set<String> referencedVariables) {
+		this.closure             = closure;
+		this.referencedVariables = referencedVariables;
+	}
+
+	@Override
+	public Flux<Val> evaluate() {
+		return Flux.deferContextual(ctx -> Flux.just(closure.evaluate(AuthorizationContext.getVariables(ctx))));
+	}
+
+	@Override
+	public String toString() {
+		return "CompiledExpression(" + referencedVariables + ")";
+	}
+
+}
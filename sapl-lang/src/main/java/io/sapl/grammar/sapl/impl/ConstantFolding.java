@@ -0,0 +1,131 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.grammar.sapl.impl;
+
+import java.util.ArrayList;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import io.sapl.api.interpreter.Val;
+import io.sapl.grammar.sapl.BasicValue;
+import io.sapl.grammar.sapl.Expression;
+import io.sapl.grammar.sapl.FalseLiteral;
+import io.sapl.grammar.sapl.NullLiteral;
+import io.sapl.grammar.sapl.NumberLiteral;
+import io.sapl.grammar.sapl.SaplPackage;
+import io.sapl.grammar.sapl.StringLiteral;
+import io.sapl.grammar.sapl.TrueLiteral;
+import io.sapl.grammar.sapl.UndefinedLiteral;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Replaces the constant sub-trees of a document, e.g., object and array
+ * literals or arithmetic operations on literals, by a {@link FoldedExpression}
+ * holding the value the sub-tree evaluates to. Thus, these values are computed
+ * once when the document is loaded instead of on every evaluation.
+ *
+ * A sub-tree is constant, if its {@link ExpressionAnalysis} says so. Function
+ * calls are never folded, as functions are not guaranteed to be pure. Target
+ * expressions are not folded either, as the document index relies on their
+ * structure.
+ */
+@Slf4j
+@UtilityClass
+public class ConstantFolding {
+
+	/**
+	 * Folds the constant sub-trees of a document in place. Documents which have
+	 * not been analyzed are analyzed first.
+	 *
+	 * @param root the root of the tree, usually a SAPL document
+	 * @return the number of folded sub-trees
+	 */
+	public int fold(EObject root) {
+		if (ExpressionAnalysis.of(root) == null)
+			ExpressionAnalysis.analyze(root);
+
+		var foldable = new ArrayList<Expression>();
+		collectFoldableExpressions(root, foldable);
+
+		var folded = 0;
+		for (var expression : foldable) {
+			var value = evaluateConstant(expression);
+			if (value == null)
+				continue;
+
+			var replacement = new FoldedExpression(value);
+			EcoreUtil.replace(expression, replacement);
+			ExpressionAnalysis.analyze(replacement);
+			folded++;
+		}
+		return folded;
+	}
+
+	private static void collectFoldableExpressions(EObject object, ArrayList<Expression> foldable) {
+		var analysis = ExpressionAnalysis.of(object);
+		if (analysis == null || analysis.isInTarget())
+			return;
+
+		if (object instanceof Expression && analysis.isConstant()) {
+			if (isLiteral(object))
+				return;
+			if (canBeReplaced(object)) {
+				foldable.add((Expression) object);
+				return;
+			}
+		}
+
+		for (var child : object.eContents())
+			collectFoldableExpressions(child, foldable);
+	}
+
+	static boolean isLiteral(EObject object) {
+		if (object instanceof FoldedExpression)
+			return true;
+		if (!(object instanceof BasicValue))
+			return false;
+
+		var basicValue = (BasicValue) object;
+		var value      = basicValue.getValue();
+		return basicValue.getSteps().isEmpty() && basicValue.getFilter() == null
+				&& basicValue.getSubtemplate() == null
+				&& (value instanceof StringLiteral || value instanceof NumberLiteral || value instanceof TrueLiteral
+						|| value instanceof FalseLiteral || value instanceof NullLiteral
+						|| value instanceof UndefinedLiteral);
+	}
+
+	static boolean canBeReplaced(EObject object) {
+		// the containment reference has to accept any expression
+		var feature = object.eContainmentFeature();
+		return feature instanceof EReference
+				&& ((EReference) feature).getEReferenceType().isSuperTypeOf(SaplPackage.Literals.EXPRESSION);
+	}
+
+	private static Val evaluateConstant(Expression expression) {
+		try {
+			var values = expression.evaluate().take(2).collectList().block();
+			if (values != null && values.size() == 1)
+				return values.get(0);
+		} catch (RuntimeException e) {
+			log.debug("Constant expression not folded: {}", e.getMessage());
+		}
+		return null;
+	}
+
+}
@@ -30,10 +30,10 @@ public class EagerAndImplCustom extends EagerAndImpl {
 
 	@Override
 	public Flux<Val> evaluate() {
-		return booleanOperator(this, this::and);
+		return booleanOperator(this, EagerAndImplCustom::and);
 	}
 
-	private Val and(Val left, Val right) {
+	static Val and(Val left, Val right) {
 		return Val.of(left.getBoolean() && right.getBoolean());
 	}
 
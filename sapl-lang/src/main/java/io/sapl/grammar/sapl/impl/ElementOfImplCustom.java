@@ -33,10 +33,10 @@ public class ElementOfImplCustom extends ElementOfImpl {
 
 	@Override
 	public Flux<Val> evaluate() {
-		return operator(this, this::elementOf);
+		return operator(this, ElementOfImplCustom::elementOf);
 	}
 
-	private Val elementOf(Val needle, Val haystack) {
+	static Val elementOf(Val needle, Val haystack) {
 		if (needle.isUndefined() || haystack.isUndefined() || !haystack.isArray())
 			return Val.FALSE;
 
@@ -47,16 +47,16 @@ private Val elementOf(Val needle, Val haystack) {
 		return Val.FALSE;
 	}
 
-	private boolean needleAndArrayElementAreEquivalent(Val needle, JsonNode arrayItem) {
+	private static boolean needleAndArrayElementAreEquivalent(Val needle, JsonNode arrayItem) {
 		return (bothValuesAreNumbers(needle, arrayItem) && bothNumbersAreEqual(needle, arrayItem))
 				|| needle.get().equals(arrayItem);
 	}
 
-	private boolean bothValuesAreNumbers(Val needle, JsonNode arrayItem) {
+	private static boolean bothValuesAreNumbers(Val needle, JsonNode arrayItem) {
 		return needle.isNumber() && arrayItem.isNumber();
 	}
 
-	private boolean bothNumbersAreEqual(Val needle, JsonNode arrayItem) {
+	private static boolean bothNumbersAreEqual(Val needle, JsonNode arrayItem) {
 		return needle.get().decimalValue().compareTo(arrayItem.decimalValue()) == 0;
 	}
 
@@ -30,10 +30,10 @@ public class EqualsImplCustom extends EqualsImpl {
 
 	@Override
 	public Flux<Val> evaluate() {
-		return operator(this, this::equals);
+		return operator(this, EqualsImplCustom::equals);
 	}
 
-	private Val equals(Val left, Val right) {
+	static Val equals(Val left, Val right) {
 		if (left.isUndefined() && right.isUndefined())
 			return Val.TRUE;
 
@@ -46,11 +46,11 @@ private Val equals(Val left, Val right) {
 		return Val.of(left.get().equals(right.get()));
 	}
 
-	private boolean bothNumbersAreEqual(Val left, Val right) {
+	private static boolean bothNumbersAreEqual(Val left, Val right) {
 		return left.decimalValue().compareTo(right.decimalValue()) == 0;
 	}
 
-	private boolean bothValuesAreNumbers(Val left, Val right) {
+	private static boolean bothValuesAreNumbers(Val left, Val right) {
 		return left.isNumber() && right.isNumber();
 	}
 
@@ -40,29 +40,7 @@ public class EscapedKeyStepImplCustom extends EscapedKeyStepImpl {
 
 	@Override
 	public Flux<Val> apply(@NonNull Val parentValue) {
-		if (parentValue.isError()) {
-			return Flux.just(parentValue);
-		}
-
-		if (!parentValue.isObject() && !parentValue.isArray()) {
-			return Val.fluxOfUndefined();
-		}
-
-		if (parentValue.isObject()) {
-			if (parentValue.get().has(id)) {
-				return Flux.just(Val.of(parentValue.get().get(id)));
-			} else {
-				return Val.fluxOfUndefined();
-			}
-		}
-
-		var resultArray = Val.JSON.arrayNode();
-		for (var value : parentValue.getArrayNode()) {
-			if (value.has(id)) {
-				resultArray.add(value.get(id));
-			}
-		}
-		return Flux.just(Val.of(resultArray));
+		return Flux.just(KeyStepImplCustom.selectKey(id, parentValue));
 	}
 
 	@Override
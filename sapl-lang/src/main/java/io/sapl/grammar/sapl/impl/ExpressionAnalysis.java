@@ -0,0 +1,195 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.grammar.sapl.impl;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import io.sapl.grammar.sapl.AttributeFinderStep;
+import io.sapl.grammar.sapl.BasicEnvironmentAttribute;
+import io.sapl.grammar.sapl.BasicEnvironmentHeadAttribute;
+import io.sapl.grammar.sapl.BasicFunction;
+import io.sapl.grammar.sapl.BasicIdentifier;
+import io.sapl.grammar.sapl.BasicRelative;
+import io.sapl.grammar.sapl.FilterSimple;
+import io.sapl.grammar.sapl.FilterStatement;
+import io.sapl.grammar.sapl.HeadAttributeFinderStep;
+import io.sapl.grammar.sapl.Policy;
+import io.sapl.grammar.sapl.PolicySet;
+import lombok.Getter;
+
+/**
+ * Properties of a node of the AST and its sub-tree, which are determined once
+ * by {@link #analyze(EObject)} after parsing a document. The analysis is
+ * attached to each node as an EMF adapter, so that evaluation can look up these
+ * properties instead of walking the tree on every evaluation.
+ */
+public class ExpressionAnalysis extends AdapterImpl {
+
+	/**
+	 * The variables holding the elements of the authorization subscription.
+	 */
+	public static final Set<String> SUBSCRIPTION_VARIABLES = Set.of("subject", "action", "resource", "environment");
+
+	/**
+	 * True, if the node is the target expression of a policy or policy set, or a
+	 * part of it.
+	 */
+	@Getter
+	private final boolean inTarget;
+
+	/**
+	 * True, if the sub-tree of the node does not contain any attribute finder.
+	 */
+	@Getter
+	private final boolean attributeFree;
+
+	/**
+	 * True, if the sub-tree of the node neither contains attribute finders, nor
+	 * function calls. Functions are provided by libraries and are not guaranteed
+	 * to be pure.
+	 */
+	@Getter
+	private final boolean sideEffectFree;
+
+	/**
+	 * True, if the sub-tree of the node is side effect free and does not reference
+	 * any variable or relative node. Hence, it always evaluates to the same value.
+	 */
+	@Getter
+	private final boolean constant;
+
+	/**
+	 * The names of the variables referenced in the sub-tree of the node.
+	 */
+	@Getter
+	private final Set<String> referencedVariables;
+
+	private final boolean relativeFree;
+
+	private ExpressionAnalysis(
+			boolean inTarget,
+			boolean attributeFree,
+			boolean sideEffectFree,
+			boolean relativeFree,
+			Set<String> referencedVariables) {
+		this.inTarget            = inTarget;
+		this.attributeFree       = attributeFree;
+		this.sideEffectFree      = sideEffectFree;
+		this.relativeFree        = relativeFree;
+		this.constant            = sideEffectFree && relativeFree && referencedVariables.isEmpty();
+		this.referencedVariables = referencedVariables;
+	}
+
+	/**
+	 * @return true, if the sub-tree of the node is side effect free and only
+	 *         references the elements of the authorization subscription, i.e., its
+	 *         value only depends on the subscription
+	 */
+	public boolean dependsOnlyOnSubscription() {
+		return sideEffectFree && SUBSCRIPTION_VARIABLES.containsAll(referencedVariables);
+	}
+
+	@Override
+	public boolean isAdapterForType(Object type) {
+		return type == ExpressionAnalysis.class;
+	}
+
+	/**
+	 * @param object a node of the AST
+	 * @return the analysis of the node, or null, if the document containing the
+	 *         node has not been analyzed
+	 */
+	public static ExpressionAnalysis of(EObject object) {
+		return (ExpressionAnalysis) EcoreUtil.getExistingAdapter(object, ExpressionAnalysis.class);
+	}
+
+	/**
+	 * Analyzes all nodes of a tree and attaches the results to the nodes. Nodes
+	 * which have already been analyzed are analyzed again.
+	 *
+	 * @param root the root of the tree, usually a SAPL document
+	 * @return the analysis of the root
+	 */
+	public static ExpressionAnalysis analyze(EObject root) {
+		return analyze(root, TargetExpressionUtil.isInTargetExpression(root));
+	}
+
+	private static ExpressionAnalysis analyze(EObject object, boolean inTarget) {
+		var attributeFree       = !isAttributeFinder(object);
+		var functionFree        = !isFunctionCall(object);
+		var relativeFree        = !(object instanceof BasicRelative);
+		var referencedVariables = referencedVariables(object);
+
+		for (var child : object.eContents()) {
+			var childAnalysis = analyze(child, inTarget || isTargetExpression(object, child));
+			attributeFree       = attributeFree && childAnalysis.attributeFree;
+			functionFree        = functionFree && childAnalysis.sideEffectFree;
+			relativeFree        = relativeFree && childAnalysis.relativeFree;
+			referencedVariables = union(referencedVariables, childAnalysis.referencedVariables);
+		}
+
+		var analysis = new ExpressionAnalysis(inTarget, attributeFree, attributeFree && functionFree, relativeFree,
+				referencedVariables);
+
+		object.eAdapters().removeIf(adapter -> adapter instanceof ExpressionAnalysis);
+		object.eAdapters().add(analysis);
+		return analysis;
+	}
+
+	private static Set<String> referencedVariables(EObject object) {
+		if (object instanceof BasicIdentifier)
+			return Set.of(((BasicIdentifier) object).getIdentifier());
+		// compiled sub-trees keep the variables they have been referencing
+		if (object instanceof CompiledExpression)
+			return ((CompiledExpression) object).getReferencedVariables();
+		return Set.of();
+	}
+
+	private static boolean isTargetExpression(EObject container, EObject child) {
+		if (container instanceof Policy)
+			return ((Policy) container).getTargetExpression() == child;
+		if (container instanceof PolicySet)
+			return ((PolicySet) container).getTargetExpression() == child;
+		return false;
+	}
+
+	private static boolean isAttributeFinder(EObject object) {
+		return object instanceof AttributeFinderStep || object instanceof HeadAttributeFinderStep
+				|| object instanceof BasicEnvironmentAttribute || object instanceof BasicEnvironmentHeadAttribute;
+	}
+
+	private static boolean isFunctionCall(EObject object) {
+		return object instanceof BasicFunction || object instanceof FilterSimple || object instanceof FilterStatement;
+	}
+
+	private static Set<String> union(Set<String> first, Set<String> second) {
+		if (second.isEmpty() || first.containsAll(second))
+			return first;
+		if (first.isEmpty())
+			return second;
+
+		var union = new HashSet<String>(first);
+		union.addAll(second);
+		return Collections.unmodifiableSet(union);
+	}
+
+}
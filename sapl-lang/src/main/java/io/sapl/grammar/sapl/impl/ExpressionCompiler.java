@@ -0,0 +1,433 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.grammar.sapl.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.sapl.api.interpreter.Val;
+import io.sapl.grammar.sapl.And;
+import io.sapl.grammar.sapl.Array;
+import io.sapl.grammar.sapl.BasicExpression;
+import io.sapl.grammar.sapl.BasicGroup;
+import io.sapl.grammar.sapl.BasicIdentifier;
+import io.sapl.grammar.sapl.BasicValue;
+import io.sapl.grammar.sapl.BinaryOperator;
+import io.sapl.grammar.sapl.Div;
+import io.sapl.grammar.sapl.EagerAnd;
+import io.sapl.grammar.sapl.EagerOr;
+import io.sapl.grammar.sapl.ElementOf;
+import io.sapl.grammar.sapl.Equals;
+import io.sapl.grammar.sapl.EscapedKeyStep;
+import io.sapl.grammar.sapl.Expression;
+import io.sapl.grammar.sapl.FalseLiteral;
+import io.sapl.grammar.sapl.IndexStep;
+import io.sapl.grammar.sapl.KeyStep;
+import io.sapl.grammar.sapl.Less;
+import io.sapl.grammar.sapl.LessEquals;
+import io.sapl.grammar.sapl.Minus;
+import io.sapl.grammar.sapl.Modulo;
+import io.sapl.grammar.sapl.More;
+import io.sapl.grammar.sapl.MoreEquals;
+import io.sapl.grammar.sapl.Multi;
+import io.sapl.grammar.sapl.Not;
+import io.sapl.grammar.sapl.NotEquals;
+import io.sapl.grammar.sapl.NullLiteral;
+import io.sapl.grammar.sapl.NumberLiteral;
+import io.sapl.grammar.sapl.Or;
+import io.sapl.grammar.sapl.Plus;
+import io.sapl.grammar.sapl.Step;
+import io.sapl.grammar.sapl.StringLiteral;
+import io.sapl.grammar.sapl.TrueLiteral;
+import io.sapl.grammar.sapl.UnaryMinus;
+import io.sapl.grammar.sapl.UnaryOperator;
+import io.sapl.grammar.sapl.UnaryPlus;
+import io.sapl.grammar.sapl.UndefinedLiteral;
+import io.sapl.grammar.sapl.Value;
+import io.sapl.grammar.sapl.XOr;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Translates the attribute-free sub-trees of a document into closures, which
+ * compute the value of the sub-tree directly from the variables of the
+ * authorization context. Each maximal sub-tree the compiler supports is
+ * replaced by a {@link CompiledExpression}, which wraps the single value of the
+ * closure into a Flux. Everything else, i.e., attribute finders, function calls,
+ * filters, sub-templates and the expressions containing them, is still
+ * evaluated reactively by the interpreter.
+ *
+ * The supported subset consists of literals, object and array values,
+ * variables with key and index steps, all arithmetic, comparison and boolean
+ * operators, and regular expressions with a literal pattern. The closures
+ * follow the semantics of the corresponding evaluate() methods of the
+ * *ImplCustom classes. Target expressions are not replaced, as the document
+ * index relies on their structure. Instead, the index evaluates the predicates
+ * of target expressions with the closures of
+ * {@link #compileExpression(Expression)}.
+ */
+@UtilityClass
+public class ExpressionCompiler {
+
+	/**
+	 * The compiled form of an expression.
+	 */
+	@FunctionalInterface
+	public interface Closure {
+
+		/**
+		 * @param variables the variables of the authorization context
+		 * @return the value of the expression
+		 */
+		Val evaluate(Map<String, JsonNode> variables);
+
+	}
+
+	/**
+	 * Replaces the supported sub-trees of a document in place by their compiled
+	 * form. Documents which have not been analyzed are analyzed first.
+	 *
+	 * @param root the root of the tree, usually a SAPL document
+	 * @return the number of compiled sub-trees
+	 */
+	public int compile(EObject root) {
+		if (ExpressionAnalysis.of(root) == null)
+			ExpressionAnalysis.analyze(root);
+
+		var compilable = new ArrayList<Compilation>();
+		collectCompilableExpressions(root, compilable);
+
+		for (var compilation : compilable) {
+			var referencedVariables = ExpressionAnalysis.of(compilation.expression).getReferencedVariables();
+			var replacement         = new CompiledExpression(compilation.closure, referencedVariables);
+			EcoreUtil.replace(compilation.expression, replacement);
+			ExpressionAnalysis.analyze(replacement);
+		}
+		return compilable.size();
+	}
+
+	private static void collectCompilableExpressions(EObject object, List<Compilation> compilable) {
+		var analysis = ExpressionAnalysis.of(object);
+		if (analysis == null || analysis.isInTarget())
+			return;
+
+		if (object instanceof Expression && analysis.isAttributeFree()) {
+			if (object instanceof CompiledExpression || ConstantFolding.isLiteral(object))
+				return;
+
+			if (ConstantFolding.canBeReplaced(object)) {
+				var closure = compileExpression((Expression) object);
+				if (closure != null) {
+					compilable.add(new Compilation((Expression) object, closure));
+					return;
+				}
+			}
+		}
+
+		for (var child : object.eContents())
+			collectCompilableExpressions(child, compilable);
+	}
+
+	/**
+	 * Compiles an expression without modifying the tree.
+	 *
+	 * @param expression an expression
+	 * @return the compiled expression, or null, if the expression is not
+	 *         supported by the compiler
+	 */
+	public static Closure compileExpression(Expression expression) {
+		if (expression instanceof CompiledExpression)
+			return ((CompiledExpression) expression).getClosure();
+		if (expression instanceof FoldedExpression)
+			return constant(((FoldedExpression) expression).getValue());
+		if (expression instanceof BasicExpression)
+			return compileBasicExpression((BasicExpression) expression);
+		if (expression instanceof UnaryOperator)
+			return compileUnaryOperator((UnaryOperator) expression);
+		if (expression instanceof RegexImplCustom)
+			return compileRegex((RegexImplCustom) expression);
+		if (expression instanceof BinaryOperator)
+			return compileBinaryOperator((BinaryOperator) expression);
+		return null;
+	}
+
+	private static Closure compileBinaryOperator(BinaryOperator operator) {
+		if (operator instanceof And || operator instanceof Or) {
+			// lazy operators are not allowed in targets and evaluate to an error there
+			if (TargetExpressionUtil.isInTargetExpression(operator))
+				return null;
+			return operator instanceof And ? lazyAnd(operator) : lazyOr(operator);
+		}
+		if (operator instanceof EagerAnd)
+			return booleanOperator(operator, EagerAndImplCustom::and);
+		if (operator instanceof EagerOr)
+			return booleanOperator(operator, EagerOrImplCustom::or);
+		if (operator instanceof XOr)
+			return booleanOperator(operator, XOrImplCustom::xor);
+		if (operator instanceof Equals)
+			return operator(operator, EqualsImplCustom::equals);
+		if (operator instanceof NotEquals)
+			return operator(operator, Val::notEqual);
+		if (operator instanceof ElementOf)
+			return operator(operator, ElementOfImplCustom::elementOf);
+		if (operator instanceof Plus)
+			return operator(operator, PlusImplCustom::plus);
+		if (operator instanceof Less)
+			return arithmeticOperator(operator, LessImplCustom::lessThan);
+		if (operator instanceof LessEquals)
+			return arithmeticOperator(operator, LessEqualsImplCustom::lessOrEqual);
+		if (operator instanceof More)
+			return arithmeticOperator(operator, MoreImplCustom::moreThan);
+		if (operator instanceof MoreEquals)
+			return arithmeticOperator(operator, MoreEqualsImplCustom::moreOrEqual);
+		if (operator instanceof Minus)
+			return arithmeticOperator(operator, MinusImplCustom::subtract);
+		if (operator instanceof Multi)
+			return arithmeticOperator(operator, MultiImplCustom::multiply);
+		if (operator instanceof Div)
+			return arithmeticOperator(operator, DivImplCustom::divide);
+		if (operator instanceof Modulo)
+			return arithmeticOperator(operator, ModuloImplCustom::divide);
+		return null;
+	}
+
+	private static Closure operator(BinaryOperator operator, BiFunction<Val, Val, Val> transformation) {
+		var left  = compileExpression(operator.getLeft());
+		var right = compileExpression(operator.getRight());
+		if (left == null || right == null)
+			return null;
+
+		var errorOrDo = OperatorUtil.errorOrDo(transformation);
+		return variables -> errorOrDo.apply(left.evaluate(variables), right.evaluate(variables));
+	}
+
+	private static Closure arithmeticOperator(BinaryOperator operator, BiFunction<Val, Val, Val> transformation) {
+		var left  = compileExpression(operator.getLeft());
+		var right = compileExpression(operator.getRight());
+		if (left == null || right == null)
+			return null;
+
+		var errorOrDo = OperatorUtil.errorOrDo(transformation);
+		return variables -> errorOrDo.apply(Val.requireBigDecimal(left.evaluate(variables)),
+				Val.requireBigDecimal(right.evaluate(variables)));
+	}
+
+	private static Closure booleanOperator(BinaryOperator operator, BiFunction<Val, Val, Val> transformation) {
+		var left  = compileExpression(operator.getLeft());
+		var right = compileExpression(operator.getRight());
+		if (left == null || right == null)
+			return null;
+
+		var errorOrDo = OperatorUtil.errorOrDo(transformation);
+		return variables -> errorOrDo.apply(Val.requireBoolean(left.evaluate(variables)),
+				Val.requireBoolean(right.evaluate(variables)));
+	}
+
+	private static Closure lazyAnd(BinaryOperator operator) {
+		var left  = compileExpression(operator.getLeft());
+		var right = compileExpression(operator.getRight());
+		if (left == null || right == null)
+			return null;
+
+		return variables -> {
+			var leftResult = Val.requireBoolean(left.evaluate(variables));
+			if (leftResult.isError())
+				return leftResult;
+			// lazy evaluation of the right expression
+			if (leftResult.getBoolean())
+				return Val.requireBoolean(right.evaluate(variables));
+			return Val.FALSE;
+		};
+	}
+
+	private static Closure lazyOr(BinaryOperator operator) {
+		var left  = compileExpression(operator.getLeft());
+		var right = compileExpression(operator.getRight());
+		if (left == null || right == null)
+			return null;
+
+		return variables -> {
+			var leftResult = Val.requireBoolean(left.evaluate(variables));
+			if (leftResult.isError())
+				return leftResult;
+			// lazy evaluation of the right expression
+			if (!leftResult.getBoolean())
+				return Val.requireBoolean(right.evaluate(variables));
+			return Val.TRUE;
+		};
+	}
+
+	private static Closure compileRegex(RegexImplCustom regex) {
+		var left    = compileExpression(regex.getLeft());
+		var pattern = regex.literalPattern();
+		if (left == null || pattern == null)
+			return null;
+
+		return variables -> RegexImplCustom.matchRegexp(left.evaluate(variables), pattern);
+	}
+
+	private static Closure compileUnaryOperator(UnaryOperator operator) {
+		if (operator instanceof Not)
+			return unaryOperator(operator, Val::requireBoolean, value -> Val.of(!value.get().asBoolean()));
+		if (operator instanceof UnaryMinus)
+			return unaryOperator(operator, Val::requireBigDecimal, UnaryMinusImplCustom::negate);
+		if (operator instanceof UnaryPlus)
+			return unaryOperator(operator, Val::requireBigDecimal, Function.identity());
+		return null;
+	}
+
+	private static Closure unaryOperator(
+			UnaryOperator operator,
+			Function<Val, Val> typeRequirement,
+			Function<Val, Val> transformation) {
+		var expression = compileExpression(operator.getExpression());
+		if (expression == null)
+			return null;
+
+		var errorOrDo = OperatorUtil.errorOrDo(transformation);
+		return variables -> errorOrDo.apply(typeRequirement.apply(expression.evaluate(variables)));
+	}
+
+	private static Closure compileBasicExpression(BasicExpression basic) {
+		if (basic.getFilter() != null || basic.getSubtemplate() != null)
+			return null;
+
+		if (basic instanceof BasicIdentifier) {
+			var identifier = ((BasicIdentifier) basic).getIdentifier();
+			return withSteps(variables -> variable(identifier, variables), ((BasicIdentifier) basic).getSteps());
+		}
+		if (basic instanceof BasicGroup) {
+			var expression = compileExpression(((BasicGroup) basic).getExpression());
+			return expression == null ? null : withSteps(expression, ((BasicGroup) basic).getSteps());
+		}
+		if (basic instanceof BasicValue) {
+			var value = compileValue(((BasicValue) basic).getValue());
+			return value == null ? null : withSteps(value, ((BasicValue) basic).getSteps());
+		}
+		return null;
+	}
+
+	private static Closure withSteps(Closure closure, List<Step> steps) {
+		var result = closure;
+		for (var step : steps) {
+			var previous = result;
+			if (step instanceof KeyStep) {
+				var id = ((KeyStep) step).getId();
+				result = variables -> KeyStepImplCustom.selectKey(id, previous.evaluate(variables));
+			} else if (step instanceof EscapedKeyStep) {
+				var id = ((EscapedKeyStep) step).getId();
+				result = variables -> KeyStepImplCustom.selectKey(id, previous.evaluate(variables));
+			} else if (step instanceof IndexStep) {
+				var index = ((IndexStep) step).getIndex();
+				result = variables -> IndexStepImplCustom.selectIndex(index, previous.evaluate(variables));
+			} else {
+				return null;
+			}
+		}
+		return result;
+	}
+
+	private static Closure compileValue(Value value) {
+		if (value instanceof StringLiteral)
+			return constant(Val.of(((StringLiteral) value).getString()));
+		if (value instanceof NumberLiteral)
+			return constant(Val.of(((NumberLiteral) value).getNumber()));
+		if (value instanceof TrueLiteral)
+			return constant(Val.TRUE);
+		if (value instanceof FalseLiteral)
+			return constant(Val.FALSE);
+		if (value instanceof NullLiteral)
+			return constant(Val.NULL);
+		if (value instanceof UndefinedLiteral)
+			return constant(Val.UNDEFINED);
+		if (value instanceof Array)
+			return compileArray((Array) value);
+		if (value instanceof io.sapl.grammar.sapl.Object)
+			return compileObject((io.sapl.grammar.sapl.Object) value);
+		return null;
+	}
+
+	private static Closure compileArray(Array array) {
+		var items = new Closure[array.getItems().size()];
+		for (var i = 0; i < items.length; i++) {
+			items[i] = compileExpression(array.getItems().get(i));
+			if (items[i] == null)
+				return null;
+		}
+
+		return variables -> {
+			var resultArr = Val.JSON.arrayNode();
+			for (var item : items) {
+				var val = item.evaluate(variables);
+				if (val.isError())
+					return val;
+				// drop undefined
+				val.ifDefined(resultArr::add);
+			}
+			return Val.of(resultArr);
+		};
+	}
+
+	private static Closure compileObject(io.sapl.grammar.sapl.Object object) {
+		var keys   = new String[object.getMembers().size()];
+		var values = new Closure[keys.length];
+		for (var i = 0; i < keys.length; i++) {
+			keys[i]   = object.getMembers().get(i).getKey();
+			values[i] = compileExpression(object.getMembers().get(i).getValue());
+			if (values[i] == null)
+				return null;
+		}
+
+		return variables -> {
+			var result = Val.JSON.objectNode();
+			for (var i = 0; i < keys.length; i++) {
+				var key = keys[i];
+				// omit undefined fields
+				values[i].evaluate(variables).ifDefined(val -> result.set(key, val));
+			}
+			return Val.of(result);
+		};
+	}
+
+	private static Closure constant(Val value) {
+		return variables -> value;
+	}
+
+	private static Val variable(String name, Map<String, JsonNode> variables) {
+		var value = variables.get(name);
+		if (value == null)
+			return Val.UNDEFINED;
+		return Val.of(value);
+	}
+
+	@RequiredArgsConstructor
+	private static class Compilation {
+
+		private final Expression expression;
+
+		private final Closure closure;
+
+	}
+
+}
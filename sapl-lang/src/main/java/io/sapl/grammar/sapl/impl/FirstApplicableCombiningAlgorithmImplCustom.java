@@ -18,9 +18,6 @@
 import static io.sapl.api.pdp.Decision.NOT_APPLICABLE;
 
 import java.util.List;
-import java.util.function.Function;
-
-import org.reactivestreams.Publisher;
 
 import io.sapl.api.pdp.AuthorizationDecision;
 import io.sapl.grammar.sapl.Policy;
@@ -58,20 +55,22 @@ public class FirstApplicableCombiningAlgorithmImplCustom extends FirstApplicable
 
 	@Override
 	public Flux<AuthorizationDecision> combinePolicies(List<Policy> policies) {
-		return Flux.just(AuthorizationDecision.NOT_APPLICABLE).flatMap(combine(0, policies));
+		return combine(0, policies);
 	}
 
-	private Function<AuthorizationDecision, Publisher<? extends AuthorizationDecision>> combine(
-			int policyId,
-			List<Policy> policies) {
+	/**
+	 * Policies after the first applicable one are only subscribed to, while all
+	 * policies before them evaluate to NOT_APPLICABLE.
+	 */
+	private Flux<AuthorizationDecision> combine(int policyId, List<Policy> policies) {
 		if (policyId == policies.size())
-			return Flux::just;
+			return Flux.just(AuthorizationDecision.NOT_APPLICABLE);
 
-		return decision -> evaluatePolicy(policies.get(policyId)).switchMap(newDecision -> {
-			if (newDecision.getDecision() != NOT_APPLICABLE)
-				return Flux.just(newDecision);
+		return evaluatePolicy(policies.get(policyId)).switchMap(decision -> {
+			if (decision.getDecision() != NOT_APPLICABLE)
+				return Flux.just(decision);
 
-			return Flux.just(newDecision).switchMap(combine(policyId + 1, policies));
+			return combine(policyId + 1, policies);
 		});
 	}
 
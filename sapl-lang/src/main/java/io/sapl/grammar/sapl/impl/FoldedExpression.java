@@ -13,18 +13,33 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package io.sapl.prp.index.canonical;
+package io.sapl.grammar.sapl.impl;
 
-import lombok.Value;
+import io.sapl.api.interpreter.Val;
+import lombok.Getter;
+import reactor.core.publisher.Flux;
 
 /**
- * Tuple of a conjunction index number and the number of formulas in F(ci) containing ci .
+ * Replaces a constant sub-tree of the AST with the value it evaluates to. It is
+ * never created by the parser, but only by {@link ConstantFolding}.
  */
-@Value
-public class CTuple {
+public class FoldedExpression extends ExpressionImpl {
 
-	int cI; // conjunction index number
+	@Getter
+	private final Val value;
 
-	long n; // number of formulas containing conjunction
+	FoldedExpression(Val value) {
+		this.value = value;
+	}
+
+	@Override
+	public Flux<Val> evaluate() {
+		return Flux.just(value);
+	}
+
+	@Override
+	public String toString() {
+		return "FoldedExpression(" + value + ")";
+	}
 
 }
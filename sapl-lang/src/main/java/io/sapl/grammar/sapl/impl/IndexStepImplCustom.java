@@ -44,18 +44,22 @@ public class IndexStepImplCustom extends IndexStepImpl {
 
 	@Override
 	public Flux<Val> apply(@NonNull Val parentValue) {
+		return Flux.just(selectIndex(index, parentValue));
+	}
+
+	static Val selectIndex(BigDecimal index, Val parentValue) {
 		if (parentValue.isError()) {
-			return Flux.just(parentValue);
+			return parentValue;
 		}
 		if (!parentValue.isArray()) {
-			return Val.errorFlux(TYPE_MISMATCH_CAN_ONLY_ACCESS_ARRAYS_BY_INDEX_GOT_S, parentValue);
+			return Val.error(TYPE_MISMATCH_CAN_ONLY_ACCESS_ARRAYS_BY_INDEX_GOT_S, parentValue);
 		}
 		var array = parentValue.getArrayNode();
 		var idx   = normalizeIndex(index, array);
 		if (idx < 0 || idx >= array.size()) {
-			return Val.errorFlux(INDEX_OUT_OF_BOUNDS_INDEX_MUST_BE_BETWEEN_0_AND_D_WAS_D, array.size(), idx);
+			return Val.error(INDEX_OUT_OF_BOUNDS_INDEX_MUST_BE_BETWEEN_0_AND_D_WAS_D, array.size(), idx);
 		}
-		return Flux.just(Val.of(array.get(idx)));
+		return Val.of(array.get(idx));
 	}
 
 	private static int normalizeIndex(BigDecimal index, TreeNode array) {
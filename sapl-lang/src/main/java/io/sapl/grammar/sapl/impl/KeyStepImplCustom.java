@@ -40,19 +40,23 @@ public class KeyStepImplCustom extends KeyStepImpl {
 
 	@Override
 	public Flux<Val> apply(@NonNull Val parentValue) {
+		return Flux.just(selectKey(id, parentValue));
+	}
+
+	static Val selectKey(String id, Val parentValue) {
 		if (parentValue.isError()) {
-			return Flux.just(parentValue);
+			return parentValue;
 		}
 
 		if (!parentValue.isObject() && !parentValue.isArray()) {
-			return Val.fluxOfUndefined();
+			return Val.UNDEFINED;
 		}
 
 		if (parentValue.isObject()) {
 			if (parentValue.get().has(id)) {
-				return Flux.just(Val.of(parentValue.get().get(id)));
+				return Val.of(parentValue.get().get(id));
 			} else {
-				return Val.fluxOfUndefined();
+				return Val.UNDEFINED;
 			}
 		}
 
@@ -62,7 +66,7 @@ public Flux<Val> apply(@NonNull Val parentValue) {
 				resultArray.add(value.get(id));
 			}
 		}
-		return Flux.just(Val.of(resultArray));
+		return Val.of(resultArray);
 	}
 
 	@Override
@@ -30,10 +30,10 @@ public class LessEqualsImplCustom extends LessEqualsImpl {
 
 	@Override
 	public Flux<Val> evaluate() {
-		return arithmeticOperator(this, this::lessOrEqual);
+		return arithmeticOperator(this, LessEqualsImplCustom::lessOrEqual);
 	}
 
-	private Val lessOrEqual(Val left, Val right) {
+	static Val lessOrEqual(Val left, Val right) {
 		return Val.of(left.decimalValue().compareTo(right.decimalValue()) <= 0);
 	}
 
@@ -30,10 +30,10 @@ public class LessImplCustom extends LessImpl {
 
 	@Override
 	public Flux<Val> evaluate() {
-		return arithmeticOperator(this, this::lessThan);
+		return arithmeticOperator(this, LessImplCustom::lessThan);
 	}
 
-	private Val lessThan(Val left, Val right) {
+	static Val lessThan(Val left, Val right) {
 		return Val.of(left.decimalValue().compareTo(right.decimalValue()) < 0);
 	}
 
@@ -24,10 +24,10 @@ public class MinusImplCustom extends MinusImpl {
 
 	@Override
 	public Flux<Val> evaluate() {
-		return arithmeticOperator(this, this::subtract);
+		return arithmeticOperator(this, MinusImplCustom::subtract);
 	}
 
-	private Val subtract(Val left, Val right) {
+	static Val subtract(Val left, Val right) {
 		return Val.of(left.decimalValue().subtract(right.decimalValue()));
 	}
 
@@ -29,10 +29,10 @@ public class ModuloImplCustom extends ModuloImpl {
 
 	@Override
 	public Flux<Val> evaluate() {
-		return arithmeticOperator(this, this::divide);
+		return arithmeticOperator(this, ModuloImplCustom::divide);
 	}
 
-	private Val divide(Val dividend, Val divisor) {
+	static Val divide(Val dividend, Val divisor) {
 		if (divisor.decimalValue().compareTo(BigDecimal.ZERO) == 0)
 			return Val.error("Division by zero");
 		return Val.of(dividend.decimalValue().remainder(divisor.decimalValue()));
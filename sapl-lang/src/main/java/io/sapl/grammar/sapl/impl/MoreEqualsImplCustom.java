@@ -30,10 +30,10 @@ public class MoreEqualsImplCustom extends MoreEqualsImpl {
 
 	@Override
 	public Flux<Val> evaluate() {
-		return arithmeticOperator(this, this::moreOrEqual);
+		return arithmeticOperator(this, MoreEqualsImplCustom::moreOrEqual);
 	}
 
-	private Val moreOrEqual(Val left, Val right) {
+	static Val moreOrEqual(Val left, Val right) {
 		return Val.of(left.decimalValue().compareTo(right.decimalValue()) >= 0);
 	}
 
@@ -30,11 +30,11 @@ public class MoreImplCustom extends MoreImpl {
 
 	@Override
 	public Flux<Val> evaluate() {
-		return arithmeticOperator(this, this::moreThan);
+		return arithmeticOperator(this, MoreImplCustom::moreThan);
 
 	}
 
-	private Val moreThan(Val left, Val right) {
+	static Val moreThan(Val left, Val right) {
 		return Val.of(left.decimalValue().compareTo(right.decimalValue()) > 0);
 	}
 
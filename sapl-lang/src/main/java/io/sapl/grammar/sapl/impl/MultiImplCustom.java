@@ -24,10 +24,10 @@ public class MultiImplCustom extends MultiImpl {
 
 	@Override
 	public Flux<Val> evaluate() {
-		return arithmeticOperator(this, this::multiply);
+		return arithmeticOperator(this, MultiImplCustom::multiply);
 	}
 
-	private Val multiply(Val left, Val right) {
+	static Val multiply(Val left, Val right) {
 		return Val.of(left.decimalValue().multiply(right.decimalValue()));
 	}
 
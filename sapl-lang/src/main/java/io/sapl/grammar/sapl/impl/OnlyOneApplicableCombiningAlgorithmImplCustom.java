@@ -21,6 +21,7 @@
 
 import io.sapl.api.pdp.AuthorizationDecision;
 import io.sapl.grammar.sapl.Policy;
+import io.sapl.prp.PolicyRetrievalResult;
 import reactor.core.publisher.Flux;
 
 /**
@@ -46,6 +47,15 @@
  */
 public class OnlyOneApplicableCombiningAlgorithmImplCustom extends OnlyOneApplicableCombiningAlgorithmImpl {
 
+	@Override
+	public Flux<AuthorizationDecision> combineMatchingDocuments(PolicyRetrievalResult policyRetrievalResult) {
+		// the decision is INDETERMINATE without evaluating any of the documents
+		if (policyRetrievalResult.isErrorsInTarget() || policyRetrievalResult.getMatchingDocuments().size() > 1)
+			return Flux.just(AuthorizationDecision.INDETERMINATE);
+
+		return super.combineMatchingDocuments(policyRetrievalResult);
+	}
+
 	@Override
 	protected AuthorizationDecision combineDecisions(AuthorizationDecision[] decisions, boolean errorsInTarget) {
 		if (errorsInTarget || decisions.length > 1)
@@ -24,6 +24,7 @@
 import com.fasterxml.jackson.databind.JsonNode;
 
 import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.Decision;
 import io.sapl.grammar.sapl.Policy;
 import io.sapl.interpreter.combinators.ObligationAdviceCollector;
 import lombok.extern.slf4j.Slf4j;
@@ -75,6 +76,11 @@ protected AuthorizationDecision combineDecisions(AuthorizationDecision[] decisio
 		return finalDecision;
 	}
 
+	@Override
+	protected Decision dominatingDecision() {
+		return DENY;
+	}
+
 	@Override
 	public Flux<AuthorizationDecision> combinePolicies(List<Policy> policies) {
 		return doCombinePolicies(policies);
@@ -88,7 +88,8 @@ private Function<Context, Context> setVariable(String name, Val value) {
 	protected Flux<Val> evaluateCondition(
 			Val previousResult,
 			Condition condition) {
-		return condition.getExpression().evaluate().map(this::assertConditionResultIsBooleanOrError);
+		return SharedExpressionCache.evaluateShared(condition.getExpression())
+				.map(this::assertConditionResultIsBooleanOrError);
 	}
 
 	private Val assertConditionResultIsBooleanOrError(Val conditionResult) {
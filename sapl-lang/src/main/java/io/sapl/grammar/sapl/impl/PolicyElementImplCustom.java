@@ -38,7 +38,7 @@ public Mono<Val> matches() {
 		if (targetExpression == null) {
 			return Mono.just(Val.TRUE);
 		}
-		return targetExpression.evaluate().next().defaultIfEmpty(Val.FALSE).flatMap(result -> {
+		return SharedExpressionCache.evaluateShared(targetExpression).next().defaultIfEmpty(Val.FALSE).flatMap(result -> {
 			if (result.isError() || !result.isBoolean()) {
 				return Val.errorMono(CONDITION_NOT_BOOLEAN, result);
 			}
@@ -19,6 +19,7 @@
 
 import io.sapl.api.pdp.AuthorizationDecision;
 import io.sapl.interpreter.context.AuthorizationContext;
+import io.sapl.prp.index.canonical.CanonicalPolicySetIndex;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
 
@@ -67,6 +68,10 @@ private Flux<AuthorizationDecision> evaluatePolicySet(
 	}
 
 	private Flux<AuthorizationDecision> evaluateAndCombinePoliciesOfSet() {
+		var policyIndex = CanonicalPolicySetIndex.of(this);
+		if (policyIndex != null)
+			return policyIndex.retrievePolicies().flatMapMany(getAlgorithm()::combineMatchingDocuments);
+
 		return getAlgorithm().combinePolicies(policies);
 	}
 
@@ -19,11 +19,18 @@
 import java.util.regex.PatternSyntaxException;
 
 import io.sapl.api.interpreter.Val;
+import io.sapl.grammar.sapl.BasicValue;
+import io.sapl.grammar.sapl.Expression;
+import io.sapl.grammar.sapl.StringLiteral;
 import reactor.core.publisher.Flux;
 
 /**
  * Checks for a value matching a regular expression.
  *
+ * If the regular expression is a string literal, it is compiled once on first
+ * evaluation. Other regular expressions are looked up in the pattern cache of
+ * {@link RegexUtil}.
+ *
  * Grammar: {@code Comparison returns Expression: Prefixed
  * (({Regex.left=current} '=~') right=Prefixed)? ;}
  */
@@ -31,13 +38,56 @@ public class RegexImplCustom extends RegexImpl {
 
 	private static final String REGEX_SYNTAX_ERROR = "Syntax error in regular expression '%s'.";
 
+	private volatile Pattern literalPattern;
+
 	@Override
 	public Flux<Val> evaluate() {
-		var leftFlux  = getLeft().evaluate();
+		var leftFlux = getLeft().evaluate();
+		var pattern  = literalPattern();
+		if (pattern != null)
+			return leftFlux.map(left -> matchRegexp(left, pattern));
+
 		var rightFlux = getRight().evaluate().map(Val::requireText);
 		return Flux.combineLatest(leftFlux, rightFlux, this::matchRegexp);
 	}
 
+	Pattern literalPattern() {
+		if (literalPattern == null) {
+			var regex = stringLiteralValue(getRight());
+			if (regex == null)
+				return null;
+			try {
+				literalPattern = Pattern.compile(regex);
+			} catch (PatternSyntaxException e) {
+				// evaluated dynamically to report the error
+				return null;
+			}
+		}
+		return literalPattern;
+	}
+
+	private static String stringLiteralValue(Expression expression) {
+		if (!(expression instanceof BasicValue))
+			return null;
+
+		var basicValue = (BasicValue) expression;
+		if (!(basicValue.getValue() instanceof StringLiteral) || !basicValue.getSteps().isEmpty()
+				|| basicValue.getFilter() != null || basicValue.getSubtemplate() != null)
+			return null;
+
+		return ((StringLiteral) basicValue.getValue()).getString();
+	}
+
+	static Val matchRegexp(Val left, Pattern pattern) {
+		if (left.isError()) {
+			return left;
+		}
+		if (!left.isTextual()) {
+			return Val.FALSE;
+		}
+		return Val.of(pattern.matcher(left.getText()).matches());
+	}
+
 	private Val matchRegexp(Val left, Val right) {
 		if (left.isError()) {
 			return left;
@@ -49,7 +99,7 @@ private Val matchRegexp(Val left, Val right) {
 			return Val.FALSE;
 		}
 		try {
-			return Val.of(Pattern.matches(right.getText(), left.getText()));
+			return Val.of(RegexUtil.compile(right.getText()).matcher(left.getText()).matches());
 		} catch (PatternSyntaxException e) {
 			return Val.error(REGEX_SYNTAX_ERROR, right);
 		}
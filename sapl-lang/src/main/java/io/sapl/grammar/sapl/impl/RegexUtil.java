@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.grammar.sapl.impl;
+
+import java.util.regex.Pattern;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Bounded, thread-safe cache of compiled regular expressions for the
+ * {@code =~} operator, so that patterns which are not known before evaluation
+ * are not re-compiled on each evaluation. Least recently used patterns are
+ * evicted first.
+ */
+@UtilityClass
+public class RegexUtil {
+
+	static final int MAXIMUM_CACHE_SIZE = 1_000;
+
+	private static final Cache<String, Pattern> PATTERN_CACHE = CacheBuilder.newBuilder()
+			.maximumSize(MAXIMUM_CACHE_SIZE).recordStats().build();
+
+	/**
+	 * Returns the compiled pattern for a regular expression from the cache or
+	 * compiles and caches it.
+	 * 
+	 * @param regex a regular expression
+	 * @return the compiled pattern
+	 * @throws java.util.regex.PatternSyntaxException if the expression's syntax is
+	 *                                                invalid
+	 */
+	public static Pattern compile(String regex) {
+		var pattern = PATTERN_CACHE.getIfPresent(regex);
+		if (pattern == null) {
+			pattern = Pattern.compile(regex);
+			PATTERN_CACHE.put(regex, pattern);
+		}
+		return pattern;
+	}
+
+	/**
+	 * @return hit and miss counts of the pattern cache since start-up
+	 */
+	public static CacheStats cacheStatistics() {
+		return PATTERN_CACHE.stats();
+	}
+
+	/**
+	 * @return the number of patterns currently cached
+	 */
+	public static long cacheSize() {
+		return PATTERN_CACHE.size();
+	}
+
+}
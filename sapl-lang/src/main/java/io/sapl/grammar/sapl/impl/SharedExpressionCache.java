@@ -0,0 +1,181 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.grammar.sapl.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import io.sapl.api.interpreter.Val;
+import io.sapl.grammar.sapl.Expression;
+import io.sapl.grammar.sapl.impl.ExpressionCompiler.Closure;
+import io.sapl.interpreter.context.AuthorizationContext;
+import reactor.core.publisher.Flux;
+
+/**
+ * Memoizes the values of pure expressions which only depend on the elements of
+ * the authorization subscription, for the evaluation of related subscriptions,
+ * e.g., the subscriptions of a multi-subscription, which usually share their
+ * subject. A value is keyed by the expression and the values of the
+ * subscription elements the expression references. Thus, an expression only
+ * referencing the subject is evaluated once for all subscriptions with an equal
+ * subject, independent of their actions and resources.
+ *
+ * The cache is bounded and references the expressions weakly, so that the
+ * documents withdrawn by policy updates are not kept reachable by a
+ * long-running multi-subscription.
+ *
+ * The cache is made available to the evaluation by putting it into the Reactor
+ * context with {@link AuthorizationContext#setSharedExpressionCache}. Without a
+ * cache in the context, expressions are evaluated as usual.
+ */
+public class SharedExpressionCache {
+
+	static final String NOT_SHAREABLE = "Expression cannot be shared: %s";
+
+	static final int MAXIMUM_NUMBER_OF_EXPRESSIONS = 10_000;
+
+	static final int MAXIMUM_NUMBER_OF_VALUES_PER_EXPRESSION = 1_000;
+
+	private final Cache<Expression, SharedValues> expressions = CacheBuilder.newBuilder().weakKeys()
+			.maximumSize(MAXIMUM_NUMBER_OF_EXPRESSIONS).build();
+
+	private final LongAdder reusedValues = new LongAdder();
+
+	/**
+	 * @param expression an expression
+	 * @return true, if the expression is pure, not constant, and only references
+	 *         the elements of the authorization subscription
+	 */
+	public static boolean isShareable(Expression expression) {
+		if (expression == null)
+			return false;
+
+		var analysis = ExpressionAnalysis.of(expression);
+		return analysis != null && !analysis.isConstant() && analysis.dependsOnlyOnSubscription();
+	}
+
+	/**
+	 * Evaluates the expression. If the Reactor context contains a shared
+	 * expression cache and the expression is shareable, its value is looked up in
+	 * the cache.
+	 *
+	 * @param expression an expression
+	 * @return the values of the expression
+	 */
+	public static Flux<Val> evaluateShared(Expression expression) {
+		return Flux.deferContextual(ctx -> {
+			var cache = AuthorizationContext.getSharedExpressionCache(ctx);
+			if (cache == null)
+				return expression.evaluate();
+
+			var sharedValues = cache.sharedValuesOf(expression);
+			if (sharedValues.closure == null)
+				return expression.evaluate();
+
+			return Flux.just(cache.evaluate(sharedValues, expression, AuthorizationContext.getVariables(ctx)));
+		});
+	}
+
+	/**
+	 * @param expression a shareable expression, which is synchronously evaluable
+	 * @param variables  the variables of the authorization context
+	 * @return the cached value of the expression for the referenced subscription
+	 *         elements, which is evaluated on the first request
+	 * @throws IllegalArgumentException if the expression is not shareable or
+	 *                                  cannot be evaluated synchronously
+	 */
+	public Val evaluate(Expression expression, Map<String, JsonNode> variables) {
+		var sharedValues = sharedValuesOf(expression);
+		if (sharedValues.closure == null)
+			throw new IllegalArgumentException(String.format(NOT_SHAREABLE, expression));
+		return evaluate(sharedValues, expression, variables);
+	}
+
+	private Val evaluate(SharedValues sharedValues, Expression expression, Map<String, JsonNode> variables) {
+		var key   = referencedValues(expression, variables);
+		var value = sharedValues.values.getIfPresent(key);
+		if (value != null) {
+			reusedValues.increment();
+			return value;
+		}
+
+		value = sharedValues.closure.evaluate(variables);
+		var previous = sharedValues.values.asMap().putIfAbsent(key, value);
+		return previous == null ? value : previous;
+	}
+
+	/**
+	 * @return how often a cached value has been reused instead of evaluating the
+	 *         expression
+	 */
+	public long numberOfReusedValues() {
+		return reusedValues.sum();
+	}
+
+	/**
+	 * @return the number of expressions currently cached
+	 */
+	long numberOfExpressions() {
+		expressions.cleanUp();
+		return expressions.size();
+	}
+
+	private SharedValues sharedValuesOf(Expression expression) {
+		return expressions.asMap().computeIfAbsent(expression, SharedValues::of);
+	}
+
+	private static List<JsonNode> referencedValues(Expression expression, Map<String, JsonNode> variables) {
+		var referencedVariables = ExpressionAnalysis.of(expression).getReferencedVariables();
+		var referencedValues    = new ArrayList<JsonNode>(referencedVariables.size());
+		for (var variable : referencedVariables)
+			referencedValues.add(variables.get(variable));
+		return referencedValues;
+	}
+
+	/**
+	 * The compiled form of an expression and its values keyed by the values of
+	 * the referenced variables. The variables of an expression are always
+	 * iterated in the same order. The closure must not reference the expression,
+	 * as the expression is only weakly referenced by the cache.
+	 */
+	private static class SharedValues {
+
+		private final Closure closure;
+
+		private final Cache<List<JsonNode>, Val> values = CacheBuilder.newBuilder()
+				.maximumSize(MAXIMUM_NUMBER_OF_VALUES_PER_EXPRESSION).build();
+
+		private SharedValues(Closure closure) {
+			this.closure = closure;
+		}
+
+		/**
+		 * @return the shared values of the expression, without a closure, if the
+		 *         expression is not shareable or cannot be evaluated synchronously
+		 */
+		static SharedValues of(Expression expression) {
+			return new SharedValues(isShareable(expression) ? ExpressionCompiler.compileExpression(expression) : null);
+		}
+
+	}
+
+}
@@ -35,6 +35,10 @@ public class TargetExpressionUtil {
 	 * @return true, the object is the target expression in a Policy or Policy Set.
 	 */
 	public boolean isInTargetExpression(EObject object) {
+		var analysis = ExpressionAnalysis.of(object);
+		if (analysis != null)
+			return analysis.isInTarget();
+
 		EObject current = object;
 		while (current.eContainer() != null) {
 			var container     = current.eContainer();
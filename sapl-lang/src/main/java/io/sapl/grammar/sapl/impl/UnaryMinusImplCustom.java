@@ -24,10 +24,10 @@ public class UnaryMinusImplCustom extends UnaryMinusImpl {
 
 	@Override
 	public Flux<Val> evaluate() {
-		return arithmeticOperator(this, this::negate);
+		return arithmeticOperator(this, UnaryMinusImplCustom::negate);
 	}
 
-	private Val negate(Val value) {
+	static Val negate(Val value) {
 		return Val.of(value.decimalValue().negate());
 	}
 
@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.interpreter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.sapl.api.interpreter.PolicyEvaluationException;
+import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.grammar.sapl.SAPL;
+import io.sapl.interpreter.functions.FunctionContext;
+import io.sapl.interpreter.pip.AttributeContext;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+
+/**
+ * Looks up documents in a {@link PolicyBundle} before parsing them. Only
+ * documents whose source is not contained in the bundle, e.g., because it has
+ * changed since the bundle has been created, are parsed by the delegate
+ * interpreter.
+ */
+@RequiredArgsConstructor
+public class BundledSAPLInterpreter implements SAPLInterpreter {
+
+	private static final String READ_ERROR = "Failed to read the SAPL document";
+
+	private final PolicyBundle bundle;
+
+	private final SAPLInterpreter delegate;
+
+	@Override
+	public SAPL parse(String saplDefinition) {
+		return bundle.load(saplDefinition).orElseGet(() -> delegate.parse(saplDefinition));
+	}
+
+	@Override
+	public SAPL parse(InputStream saplInputStream) {
+		try {
+			return parse(new String(saplInputStream.readAllBytes(), StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			throw new PolicyEvaluationException(e, READ_ERROR);
+		}
+	}
+
+	@Override
+	public Flux<AuthorizationDecision> evaluate(
+			AuthorizationSubscription authzSubscription,
+			String saplDocumentSource,
+			AttributeContext attributeContext,
+			FunctionContext functionContext,
+			Map<String, JsonNode> environmentrVariables) {
+		return delegate.evaluate(authzSubscription, saplDocumentSource, attributeContext, functionContext,
+				environmentrVariables);
+	}
+
+	@Override
+	public DocumentAnalysisResult analyze(String saplDefinition) {
+		return delegate.analyze(saplDefinition);
+	}
+
+}
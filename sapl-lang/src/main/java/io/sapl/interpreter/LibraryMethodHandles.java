@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.interpreter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Creates method handles for the methods of function libraries and policy
+ * information points when they are loaded. Invoking a method handle avoids the
+ * access checks and argument boxing of {@link Method#invoke(Object, Object...)}
+ * on each call.
+ */
+@UtilityClass
+public class LibraryMethodHandles {
+
+	/**
+	 * Creates a method handle for a library method, which is bound to the
+	 * library instance. If the method is not accessible with the given lookup,
+	 * the returned handle throws the corresponding
+	 * {@link IllegalAccessException} when invoked, just like a reflective
+	 * invocation would.
+	 * 
+	 * @param lookup  the lookup of the class loading the library
+	 * @param library the library instance
+	 * @param method  a method of the library
+	 * @return a method handle with the same parameter and return types as the
+	 *         method
+	 */
+	public static MethodHandle boundHandle(Lookup lookup, Object library, Method method) {
+		try {
+			var handle = lookup.unreflect(method);
+			if (Modifier.isStatic(method.getModifiers()))
+				return handle;
+			return handle.bindTo(library);
+		} catch (IllegalAccessException e) {
+			var type    = MethodType.methodType(method.getReturnType(), method.getParameterTypes());
+			var thrower = MethodHandles.throwException(type.returnType(), IllegalAccessException.class).bindTo(e);
+			return MethodHandles.dropArguments(thrower, 0, type.parameterList());
+		}
+	}
+
+}
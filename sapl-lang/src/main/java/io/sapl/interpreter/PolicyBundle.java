@@ -0,0 +1,221 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.interpreter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import io.sapl.grammar.sapl.SAPL;
+import io.sapl.grammar.sapl.SaplPackage;
+import io.sapl.grammar.sapl.impl.ExpressionAnalysis;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A bundle of parsed and validated SAPL documents, which can be stored in a
+ * compact binary format and loaded without parsing the documents again.
+ *
+ * The documents are keyed by the SHA-256 hash of their source. Thus, a bundle
+ * only provides a document for exactly the source it has been created from.
+ * Each document is stored as an EMF binary resource and is deserialized on
+ * every lookup, so that the documents returned by a bundle never share any
+ * state. The analysis of the documents is repeated when they are loaded, as it
+ * is attached to the nodes as adapters, which are not serialized.
+ */
+@Slf4j
+public class PolicyBundle {
+
+	/**
+	 * The name of a bundle file within a policy directory.
+	 */
+	public static final String BUNDLE_FILE_NAME = "policies.saplbundle";
+
+	static final int MAGIC_NUMBER = 0x5341504C;
+
+	static final int FORMAT_VERSION = 1;
+
+	private static final String DOCUMENT_URI = "bundle:/document.saplbin";
+
+	private static final String HASH_ALGORITHM = "SHA-256";
+
+	private final Map<String, byte[]> documentsByHash;
+
+	public PolicyBundle() {
+		this(new LinkedHashMap<>());
+	}
+
+	private PolicyBundle(Map<String, byte[]> documentsByHash) {
+		this.documentsByHash = documentsByHash;
+	}
+
+	/**
+	 * @return the number of documents in the bundle
+	 */
+	public int size() {
+		return documentsByHash.size();
+	}
+
+	/**
+	 * Adds a parsed document to the bundle. The document itself is not modified.
+	 *
+	 * @param source   the source the document has been parsed from
+	 * @param document the parsed document
+	 * @throws IOException if the document cannot be serialized
+	 */
+	public void add(String source, SAPL document) throws IOException {
+		var resource = new BinaryResourceImpl(URI.createURI(DOCUMENT_URI));
+		resource.getContents().add(EcoreUtil.copy(document));
+		var bytes = new ByteArrayOutputStream();
+		resource.save(bytes, Collections.emptyMap());
+		documentsByHash.put(contentHash(source), bytes.toByteArray());
+	}
+
+	/**
+	 * Loads the document parsed from the given source, if it is contained in the
+	 * bundle.
+	 *
+	 * @param source the source of a SAPL document
+	 * @return a new instance of the analyzed document, or empty, if the bundle
+	 *         does not contain a document with the same source or the document
+	 *         cannot be deserialized
+	 */
+	public Optional<SAPL> load(String source) {
+		var bytes = documentsByHash.get(contentHash(source));
+		if (bytes == null)
+			return Optional.empty();
+
+		// makes sure the package is registered before the resource resolves it
+		SaplPackage.eINSTANCE.eClass();
+		var resource = new BinaryResourceImpl(URI.createURI(DOCUMENT_URI));
+		try {
+			resource.load(new ByteArrayInputStream(bytes), Collections.emptyMap());
+		} catch (IOException | RuntimeException e) {
+			log.warn("Failed to load a document from the policy bundle. The document is parsed instead: {}",
+					e.getMessage());
+			return Optional.empty();
+		}
+		var document = (SAPL) resource.getContents().get(0);
+		ExpressionAnalysis.analyze(document);
+		return Optional.of(document);
+	}
+
+	/**
+	 * Writes the bundle in its binary format. Apart from a short header, the
+	 * documents are written GZIP compressed.
+	 *
+	 * @param outputStream the stream to write to. It is not closed.
+	 * @throws IOException if writing fails
+	 */
+	public void write(OutputStream outputStream) throws IOException {
+		var header = new DataOutputStream(outputStream);
+		header.writeInt(MAGIC_NUMBER);
+		header.writeInt(FORMAT_VERSION);
+		header.flush();
+
+		var compressed = new GZIPOutputStream(new NonClosingOutputStream(outputStream));
+		try (var out = new DataOutputStream(compressed)) {
+			out.writeInt(documentsByHash.size());
+			for (var entry : documentsByHash.entrySet()) {
+				out.writeUTF(entry.getKey());
+				out.writeInt(entry.getValue().length);
+				out.write(entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Reads a bundle written by {@link #write(OutputStream)}.
+	 *
+	 * @param inputStream the stream to read from. It is not closed.
+	 * @return the bundle
+	 * @throws IOException if reading fails, or the stream does not contain a
+	 *                     bundle of the supported format version
+	 */
+	public static PolicyBundle read(InputStream inputStream) throws IOException {
+		var header = new DataInputStream(inputStream);
+		if (header.readInt() != MAGIC_NUMBER)
+			throw new IOException("Not a SAPL policy bundle");
+
+		var version = header.readInt();
+		if (version != FORMAT_VERSION)
+			throw new IOException("Unsupported SAPL policy bundle format version " + version);
+
+		var in                = new DataInputStream(new GZIPInputStream(inputStream));
+		var numberOfDocuments = in.readInt();
+		var documentsByHash   = new LinkedHashMap<String, byte[]>(numberOfDocuments);
+		for (var i = 0; i < numberOfDocuments; i++) {
+			var hash  = in.readUTF();
+			var bytes = new byte[in.readInt()];
+			in.readFully(bytes);
+			documentsByHash.put(hash, bytes);
+		}
+		return new PolicyBundle(documentsByHash);
+	}
+
+	/**
+	 * @param source the source of a SAPL document
+	 * @return the hex encoded SHA-256 hash of the UTF-8 encoded source
+	 */
+	public static String contentHash(String source) {
+		try {
+			var digest = MessageDigest.getInstance(HASH_ALGORITHM).digest(source.getBytes(StandardCharsets.UTF_8));
+			var hex    = new StringBuilder(digest.length * 2);
+			for (var b : digest)
+				hex.append(String.format("%02x", b));
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static class NonClosingOutputStream extends FilterOutputStream {
+
+		NonClosingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			flush();
+		}
+
+	}
+
+}
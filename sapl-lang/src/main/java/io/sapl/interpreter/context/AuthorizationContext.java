@@ -25,6 +25,7 @@
 import io.sapl.api.interpreter.PolicyEvaluationException;
 import io.sapl.api.interpreter.Val;
 import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.grammar.sapl.impl.SharedExpressionCache;
 import io.sapl.interpreter.functions.FunctionContext;
 import io.sapl.interpreter.pip.AttributeContext;
 import lombok.NonNull;
@@ -43,6 +44,7 @@ public class AuthorizationContext {
 	private static final String          RESOURCE      = "resource";
 	private static final String          ENVIRONMENT   = "environment";
 	private static final String          RELATIVE_NODE = "relativeNode";
+	private static final String          SHARED_CACHE  = "sharedExpressionCache";
 	private static final JsonNodeFactory JSON          = JsonNodeFactory.instance;
 
 	public static Map<String, String> getImports(ContextView ctx) {
@@ -148,4 +150,12 @@ public Context setImports(Context ctx, Map<String, String> imports) {
 		return ctx.put(IMPORTS, imports);
 	}
 
+	public static SharedExpressionCache getSharedExpressionCache(ContextView ctx) {
+		return ctx.getOrDefault(SHARED_CACHE, null);
+	}
+
+	public Context setSharedExpressionCache(Context ctx, SharedExpressionCache sharedExpressionCache) {
+		return ctx.put(SHARED_CACHE, sharedExpressionCache);
+	}
+
 }
@@ -15,8 +15,10 @@
  */
 package io.sapl.interpreter.functions;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -29,8 +31,9 @@
 import io.sapl.api.functions.FunctionLibrary;
 import io.sapl.api.interpreter.Val;
 import io.sapl.interpreter.InitializationException;
+import io.sapl.interpreter.LibraryMethodHandles;
 import io.sapl.interpreter.pip.LibraryEntryMetadata;
-import io.sapl.interpreter.validation.ParameterTypeValidator;
+import io.sapl.interpreter.validation.TypeValidationRule;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -43,6 +46,8 @@ public class AnnotationFunctionContext implements FunctionContext {
 
 	private static final int VAR_ARGS = -1;
 
+	private static final MethodType INVOKER_TYPE = MethodType.methodType(Val.class, Val[].class);
+
 	private static final String UNKNOWN_FUNCTION = "Unknown function %s";
 
 	private static final String ILLEGAL_NUMBER_OF_PARAMETERS = "Illegal number of parameters. Function expected %d but got %d";
@@ -77,38 +82,38 @@ public Val evaluate(String function, Val... parameters) {
 		if (metadata == null)
 			return Val.error(UNKNOWN_FUNCTION, function);
 
-		var funParams = metadata.getFunction().getParameters();
-
 		if (metadata.isVarArgsParameters()) {
-			return evaluateVarArgsFunction(metadata, funParams, parameters);
+			return evaluateVarArgsFunction(metadata, parameters);
 		}
 		if (metadata.getNumberOfParameters() == parameters.length) {
-			return evaluateFixedParametersFunction(metadata, funParams, parameters);
+			return evaluateFixedParametersFunction(metadata, parameters);
 		}
 		return Val.error(ILLEGAL_NUMBER_OF_PARAMETERS, metadata.getNumberOfParameters(), parameters.length);
 	}
 
-	private Val evaluateFixedParametersFunction(FunctionMetadata metadata, Parameter[] funParams, Val... parameters) {
+	private Val evaluateFixedParametersFunction(FunctionMetadata metadata, Val... parameters) {
+		var validationRules = metadata.getValidationRules();
 		for (int i = 0; i < parameters.length; i++) {
-			var validationResult = ParameterTypeValidator.validateType(parameters[i], funParams[i]);
+			var validationResult = validationRules[i].validate(parameters[i]);
 			if (validationResult.isError())
 				return validationResult;
 		}
-		return invokeFunction(metadata, (Object[]) parameters);
+		return invokeFunction(metadata, parameters);
 	}
 
-	private Val evaluateVarArgsFunction(FunctionMetadata metadata, Parameter[] funParams, Val... parameters) {
+	private Val evaluateVarArgsFunction(FunctionMetadata metadata, Val... parameters) {
+		var validationRule = metadata.getValidationRules()[0];
 		for (Val parameter : parameters) {
-			var validationResult = ParameterTypeValidator.validateType(parameter, funParams[0]);
+			var validationResult = validationRule.validate(parameter);
 			if (validationResult.isError())
 				return validationResult;
 		}
-		return invokeFunction(metadata, new Object[] { parameters });
+		return invokeFunction(metadata, parameters);
 	}
 
-	private Val invokeFunction(FunctionMetadata metadata, Object... parameters) {
+	private Val invokeFunction(FunctionMetadata metadata, Val... parameters) {
 		try {
-			return (Val) metadata.getFunction().invoke(metadata.getLibrary(), parameters);
+			return (Val) metadata.getInvoker().invokeExact(parameters);
 		}
 		catch (Throwable e) {
 			return invocationExceptionToError(e, metadata, parameters);
@@ -173,13 +178,29 @@ else if (!Val.class.isAssignableFrom(parameterType)) {
 			}
 		}
 
-		FunctionMetadata funMeta = new FunctionMetadata(libName, funName, library, parameters, method);
+		FunctionMetadata funMeta = new FunctionMetadata(libName, funName, library, parameters, method,
+				invokerOf(library, method, parameters), validationRulesOf(method));
 		functions.put(funMeta.fullyQualifiedName(), funMeta);
 		libMeta.documentation.put(funMeta.getDocumentationCodeTemplate(), funAnnotation.docs());
 
 		libraries.get(libName).add(funName);
 	}
 
+	private static MethodHandle invokerOf(Object library, Method method, int parameters) {
+		var handle = LibraryMethodHandles.boundHandle(MethodHandles.lookup(), library, method);
+		if (parameters != VAR_ARGS)
+			handle = handle.asSpreader(Val[].class, parameters);
+		return handle.asType(INVOKER_TYPE);
+	}
+
+	private static TypeValidationRule[] validationRulesOf(Method method) {
+		var parameters      = method.getParameters();
+		var validationRules = new TypeValidationRule[parameters.length];
+		for (var i = 0; i < parameters.length; i++)
+			validationRules[i] = TypeValidationRule.of(parameters[i]);
+		return validationRules;
+	}
+
 	@Override
 	public Boolean isProvidedFunction(String function) {
 		return functions.containsKey(function);
@@ -216,6 +237,14 @@ public static class FunctionMetadata implements LibraryEntryMetadata {
 
 		Method function;
 
+		/**
+		 * Invokes the function with all parameters in a single array, for
+		 * fixed parameters and variable arguments alike.
+		 */
+		MethodHandle invoker;
+
+		TypeValidationRule[] validationRules;
+
 		@Override
 		public boolean isVarArgsParameters() {
 			return numberOfParameters == VAR_ARGS;
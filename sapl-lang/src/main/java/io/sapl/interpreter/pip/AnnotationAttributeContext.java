@@ -15,12 +15,16 @@
  */
 package io.sapl.interpreter.pip;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.GenericArrayType;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -39,7 +43,9 @@
 import io.sapl.grammar.sapl.Arguments;
 import io.sapl.grammar.sapl.Expression;
 import io.sapl.interpreter.InitializationException;
-import io.sapl.interpreter.validation.ParameterTypeValidator;
+import io.sapl.interpreter.LibraryMethodHandles;
+import io.sapl.interpreter.pip.AttributeStreamBroker.AttributeStreamKey;
+import io.sapl.interpreter.validation.TypeValidationRule;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -58,12 +64,25 @@ public class AnnotationAttributeContext implements AttributeContext {
 
 	private static final String RETURN_TYPE_MUST_BE_FLUX_OF_VALUES = "The return type of an attribute finder must be Flux<Val>. Was: %s";
 
+	private static final MethodType INVOKER_TYPE = MethodType.methodType(Flux.class, Object[].class);
+
+	private static final Val[] NO_VALUES = new Val[0];
+
+	/**
+	 * Default time an attribute stream stays connected after its last
+	 * subscriber left.
+	 */
+	public static final Duration DEFAULT_ATTRIBUTE_STREAM_GRACE_PERIOD = Duration.ofSeconds(1);
+
 	private final Map<String, Set<String>> attributeNamesByPipName = new HashMap<>();
 
 	private final Map<String, Collection<AttributeFinderMetadata>> attributeMetadataByAttributeName = new HashMap<>();
 
 	private final Collection<PolicyInformationPointDocumentation> pipDocumentations = new LinkedList<>();
 
+	private final AttributeStreamBroker attributeStreamBroker = new AttributeStreamBroker(
+			DEFAULT_ATTRIBUTE_STREAM_GRACE_PERIOD);
+
 	private List<String> functionsCache;
 
 	private List<String> templatesCacheEnvironment;
@@ -91,93 +110,121 @@ public AnnotationAttributeContext(Object... policyInformationPoints) throws Init
 		if (attributeMetadata == null)
 			return Flux.just(Val.error(UNKNOWN_ATTRIBUTE, attributeName));
 
-		try {
-			return evaluateEnvironmentAttribute(attributeMetadata, arguments, variables);
-		} catch (Throwable e) {
-			return Flux.just(Val.error("Failed to evaluate attribute", new PolicyEvaluationException(e)));
-		}
+		return evaluateSharedAttribute(attributeMetadata, null, arguments, variables);
 	}
 
-	@SuppressWarnings("unchecked")
-	private Flux<Val> evaluateEnvironmentAttribute(
-			AttributeFinderMetadata attributeMetadata,
+	@Override
+	public Flux<Val> evaluateAttribute(
+			String attributeName,
+			Val leftHandValue,
 			Arguments arguments,
-			Map<String, JsonNode> variables)
-			throws IllegalAccessException,
-				InvocationTargetException {
-		var pip    = attributeMetadata.getPolicyInformationPoint();
-		var method = attributeMetadata.getFunction();
-
-		var numberOfArgumentsForMethodInvocation = calculateSizeOfArgumentsArrayForInvocationExcludingLeftHand(
-				attributeMetadata);
+			Map<String, JsonNode> variables) {
+		int numberOfParameters = numberOfArguments(arguments);
+		var attributeMetadata  = lookupAttribute(attributeName, numberOfParameters, false);
 
-		if (numberOfArgumentsForMethodInvocation == 0)
-			return (Flux<Val>) method.invoke(pip);
+		if (attributeMetadata == null)
+			return Flux.just(Val.error(UNKNOWN_ATTRIBUTE, attributeName));
 
-		var invocationArguments = constructArgumentArrayForInvocationWithoutLeftHand(attributeMetadata, arguments,
-				numberOfArgumentsForMethodInvocation, variables);
+		return evaluateSharedAttribute(attributeMetadata, leftHandValue, arguments, variables);
+	}
 
-		return (Flux<Val>) method.invoke(pip, invocationArguments);
+	/**
+	 * Sets how long an attribute stream stays connected to its policy
+	 * information point after its last subscriber left, so that a subsequent
+	 * subscription for the same attribute can continue to use it.
+	 * 
+	 * @param gracePeriod the grace period, must not be negative
+	 */
+	public void setAttributeStreamGracePeriod(Duration gracePeriod) {
+		attributeStreamBroker.setGracePeriod(gracePeriod);
+	}
 
+	/**
+	 * @return the number of attribute streams currently shared between
+	 *         subscriptions
+	 */
+	int numberOfSharedAttributeStreams() {
+		return attributeStreamBroker.numberOfSharedAttributeStreams();
 	}
 
-	private Object[] constructArgumentArrayForInvocationWithoutLeftHand(
+	private Flux<Val> evaluateSharedAttribute(
 			AttributeFinderMetadata attributeMetadata,
+			Val leftHandValue,
 			Arguments arguments,
-			int numberOfArgumentsForMethodInvocation,
 			Map<String, JsonNode> variables) {
-		var invocationArguments = new Object[numberOfArgumentsForMethodInvocation];
+		var attributeName      = attributeMetadata.fullyQualifiedName();
+		var attributeVariables = attributeMetadata.requiresVariables ? variables : null;
 
-		var argumentIndex = 0;
-		if (attributeMetadata.requiresVariables)
-			invocationArguments[argumentIndex++] = variables;
-
-		if (attributeMetadata.varArgsParameters) {
-			invocationArguments[argumentIndex] = buildVarArgsArrayFromArguments(arguments, attributeMetadata,
-					argumentIndex);
-		} else {
-			if (arguments != null) {
-				for (Expression argument : arguments.getArgs()) {
-					var parameter = attributeMetadata.function.getParameters()[argumentIndex];
-					invocationArguments[argumentIndex++] = ParameterTypeValidator
-							.validateType(argument.evaluate(), parameter);
-				}
-			}
+		if (numberOfArguments(arguments) == 0) {
+			var key = new AttributeStreamKey(attributeName, leftHandValue, List.of(), attributeVariables);
+			return attributeStreamBroker.sharedAttributeStream(key,
+					() -> invokeAttributeFinder(attributeMetadata, leftHandValue, NO_VALUES, variables));
 		}
-		return invocationArguments;
+
+		return Flux.combineLatest(validatedArguments(attributeMetadata, arguments), AnnotationAttributeContext::toValues)
+				.switchMap(argumentValues -> {
+					var key = new AttributeStreamKey(attributeName, leftHandValue, Arrays.asList(argumentValues),
+							attributeVariables);
+					return attributeStreamBroker.sharedAttributeStream(key,
+							() -> invokeAttributeFinder(attributeMetadata, leftHandValue, argumentValues, variables));
+				});
 	}
 
-	private int calculateSizeOfArgumentsArrayForInvocationExcludingLeftHand(AttributeFinderMetadata attributeMetadata) {
-		var numberOfArgumentsForMethodInvocation = 0;
-		if (attributeMetadata.requiresVariables)
-			numberOfArgumentsForMethodInvocation++;
+	private List<Flux<Val>> validatedArguments(AttributeFinderMetadata attributeMetadata, Arguments arguments) {
+		var indexOfFirstArgument = indexOfFirstArgument(attributeMetadata);
+		var validatedArguments   = new ArrayList<Flux<Val>>(arguments.getArgs().size());
+		var argumentIndex        = indexOfFirstArgument;
+		for (Expression argument : arguments.getArgs()) {
+			var validationRule = attributeMetadata.validationRules[argumentIndex];
+			validatedArguments.add(validationRule.validate(argument.evaluate()));
+			if (!attributeMetadata.varArgsParameters)
+				argumentIndex++;
+		}
+		return validatedArguments;
+	}
 
-		if (attributeMetadata.varArgsParameters)
-			numberOfArgumentsForMethodInvocation++;
-		else
-			numberOfArgumentsForMethodInvocation += attributeMetadata.getNumberOfParameters();
-		return numberOfArgumentsForMethodInvocation;
+	private static Val[] toValues(Object[] values) {
+		return Arrays.copyOf(values, values.length, Val[].class);
 	}
 
-	private Flux<Val>[] buildVarArgsArrayFromArguments(
-			Arguments arguments,
+	@SuppressWarnings("unchecked")
+	private Flux<Val> invokeAttributeFinder(
 			AttributeFinderMetadata attributeMetadata,
-			int argumentIndex) {
-		int numberOfParameters = numberOfArguments(arguments);
+			Val leftHandValue,
+			Val[] argumentValues,
+			Map<String, JsonNode> variables) {
+		var invocationArguments = new Object[attributeMetadata.function.getParameterCount()];
+		var argumentIndex       = 0;
+		if (!attributeMetadata.environmentAttribute)
+			invocationArguments[argumentIndex++] = leftHandValue;
 
-		@SuppressWarnings("unchecked")
-		Flux<Val>[] varArgsArray = new Flux[numberOfParameters];
+		if (attributeMetadata.requiresVariables)
+			invocationArguments[argumentIndex++] = variables;
 
-		var parameter = attributeMetadata.function.getParameters()[argumentIndex];
+		if (attributeMetadata.varArgsParameters) {
+			Flux<Val>[] varArgsArray = new Flux[argumentValues.length];
+			for (var i = 0; i < argumentValues.length; i++)
+				varArgsArray[i] = Flux.just(argumentValues[i]);
+			invocationArguments[argumentIndex] = varArgsArray;
+		} else {
+			for (var argumentValue : argumentValues)
+				invocationArguments[argumentIndex++] = Flux.just(argumentValue);
+		}
 
-		var i = 0;
-		if (arguments != null) {
-			for (Expression argument : arguments.getArgs()) {
-				varArgsArray[i++] = ParameterTypeValidator.validateType(argument.evaluate(),
-						parameter);
-			}
+		try {
+			return (Flux<Val>) attributeMetadata.getInvoker().invokeExact(invocationArguments);
+		} catch (Throwable e) {
+			return Flux.just(Val.error("Failed to evaluate attribute", new PolicyEvaluationException(e)));
 		}
-		return varArgsArray;
+	}
+
+	private int indexOfFirstArgument(AttributeFinderMetadata attributeMetadata) {
+		var index = 0;
+		if (!attributeMetadata.environmentAttribute)
+			index++;
+		if (attributeMetadata.requiresVariables)
+			index++;
+		return index;
 	}
 
 	private int numberOfArguments(Arguments arguments) {
@@ -203,76 +250,6 @@ else if (candidate.numberOfParameters == numberOfParameters)
 		return varArgsMatch;
 	}
 
-	@Override
-	public Flux<Val> evaluateAttribute(
-			String attributeName,
-			Val leftHandValue,
-			Arguments arguments,
-			Map<String, JsonNode> variables) {
-		int numberOfParameters = numberOfArguments(arguments);
-		var attributeMetadata  = lookupAttribute(attributeName, numberOfParameters, false);
-
-		if (attributeMetadata == null)
-			return Flux.just(Val.error(UNKNOWN_ATTRIBUTE, attributeName));
-
-		try {
-			return evaluateAttribute(attributeMetadata, leftHandValue, arguments, variables);
-		} catch (Throwable e) {
-			return Flux.just(Val.error("Failed to evaluate attribute", new PolicyEvaluationException(e)));
-		}
-
-	}
-
-	@SuppressWarnings("unchecked")
-	private Flux<Val> evaluateAttribute(
-			AttributeFinderMetadata attributeMetadata,
-			Val leftHandValue,
-			Arguments arguments,
-			Map<String, JsonNode> variables)
-			throws IllegalAccessException,
-				InvocationTargetException {
-		var pip    = attributeMetadata.getPolicyInformationPoint();
-		var method = attributeMetadata.getFunction();
-
-		var numberOfArgumentsForMethodInvocation = calculateSizeOfArgumentsArrayForInvocationExcludingLeftHand(
-				attributeMetadata) + 1;
-
-		var invocationArguments = constructArgumentArrayForInvocationWithLeftHand(attributeMetadata, leftHandValue,
-				arguments, numberOfArgumentsForMethodInvocation, variables);
-
-		return (Flux<Val>) method.invoke(pip, invocationArguments);
-
-	}
-
-	private Object[] constructArgumentArrayForInvocationWithLeftHand(
-			AttributeFinderMetadata attributeMetadata,
-			Val leftHandValue,
-			Arguments arguments,
-			int numberOfArgumentsForMethodInvocation,
-			Map<String, JsonNode> variables) {
-		var invocationArguments = new Object[numberOfArgumentsForMethodInvocation];
-
-		var argumentIndex = 0;
-		invocationArguments[argumentIndex++] = leftHandValue;
-
-		if (attributeMetadata.requiresVariables)
-			invocationArguments[argumentIndex++] = variables;
-
-		if (attributeMetadata.varArgsParameters) {
-			invocationArguments[argumentIndex] = buildVarArgsArrayFromArguments(arguments, attributeMetadata,
-					argumentIndex);
-		} else {
-			if (arguments != null) {
-				for (Expression argument : arguments.getArgs()) {
-					var parameter = attributeMetadata.function.getParameters()[argumentIndex];
-					invocationArguments[argumentIndex++] = ParameterTypeValidator
-							.validateType(argument.evaluate(), parameter);
-				}
-			}
-		}
-		return invocationArguments;
-	}
-
 	public final void loadPolicyInformationPoint(Object pip) throws InitializationException {
 		final Class<?> clazz = pip.getClass();
 
@@ -357,11 +334,13 @@ private AttributeFinderMetadata metadataOf(
 			throws InitializationException {
 		assertValidReturnType(method);
 
-		var parameterCount = method.getParameterCount();
+		var parameterCount  = method.getParameterCount();
+		var invoker         = invokerOf(policyInformationPoint, method);
+		var validationRules = validationRulesOf(method);
 
 		if (parameterCount == 0)
 			return new AttributeFinderMetadata(policyInformationPoint, method, pipName, attributeName, true, false,
-					false, 0);
+					false, 0, invoker, validationRules);
 
 		var indexOfParameterInspect = 0;
 
@@ -375,7 +354,7 @@ private AttributeFinderMetadata metadataOf(
 
 		if (indexOfParameterInspect == parameterCount)
 			return new AttributeFinderMetadata(policyInformationPoint, method, pipName, attributeName,
-					isEnvironmentAttribute, false, false, 0);
+					isEnvironmentAttribute, false, false, 0, invoker, validationRules);
 
 		var requiresVariables = false;
 		if (isVariableMap(method, indexOfParameterInspect)) {
@@ -385,12 +364,12 @@ private AttributeFinderMetadata metadataOf(
 
 		if (indexOfParameterInspect == parameterCount)
 			return new AttributeFinderMetadata(policyInformationPoint, method, pipName, attributeName,
-					isEnvironmentAttribute, requiresVariables, false, 0);
+					isEnvironmentAttribute, requiresVariables, false, 0, invoker, validationRules);
 
 		if (isArrayOfFluxOfVal(method, indexOfParameterInspect)) {
 			if (indexOfParameterInspect + 1 == parameterCount)
 				return new AttributeFinderMetadata(policyInformationPoint, method, pipName, attributeName,
-						isEnvironmentAttribute, requiresVariables, true, 0);
+						isEnvironmentAttribute, requiresVariables, true, 0, invoker, validationRules);
 			else
 				throw new InitializationException("The method " + method.getName()
 						+ " has an array of Flux<Val> as a parameter, which indicates a variable number of arguments. However the array is followed by some other parameters. This is prohibited. The array must be the last parameter of the attribute declaration.");
@@ -406,7 +385,20 @@ private AttributeFinderMetadata metadataOf(
 			}
 		}
 		return new AttributeFinderMetadata(policyInformationPoint, method, pipName, attributeName,
-				isEnvironmentAttribute, requiresVariables, false, parameters);
+				isEnvironmentAttribute, requiresVariables, false, parameters, invoker, validationRules);
+	}
+
+	private static MethodHandle invokerOf(Object policyInformationPoint, Method method) {
+		return LibraryMethodHandles.boundHandle(MethodHandles.lookup(), policyInformationPoint, method)
+				.asSpreader(Object[].class, method.getParameterCount()).asType(INVOKER_TYPE);
+	}
+
+	private static TypeValidationRule[] validationRulesOf(Method method) {
+		var parameters      = method.getParameters();
+		var validationRules = new TypeValidationRule[parameters.length];
+		for (var i = 0; i < parameters.length; i++)
+			validationRules[i] = TypeValidationRule.of(parameters[i]);
+		return validationRules;
 	}
 
 	private void assertFirstParameterIsOneOfTheLegalTypesForTheFirstElement(Method method)
@@ -519,6 +511,14 @@ public static class AttributeFinderMetadata implements LibraryEntryMetadata {
 
 		int numberOfParameters;
 
+		/**
+		 * Invokes the attribute finder with all method arguments in a single
+		 * array.
+		 */
+		MethodHandle invoker;
+
+		TypeValidationRule[] validationRules;
+
 		@Override
 		public String getDocumentationCodeTemplate() {
 			var sb                             = new StringBuilder();
@@ -0,0 +1,98 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.interpreter.pip;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.sapl.api.interpreter.Val;
+import lombok.Value;
+import reactor.core.publisher.Flux;
+
+/**
+ * Shares the attribute streams of policy information points between all
+ * concurrent subscriptions asking for the same attribute with the same
+ * left-hand value and arguments. The upstream attribute stream is connected
+ * with the first subscriber, replays its latest value to subsequent
+ * subscribers and is disconnected once the last subscriber left and the grace
+ * period has passed.
+ */
+class AttributeStreamBroker {
+
+	private final Map<AttributeStreamKey, Flux<Val>> attributeStreams = new ConcurrentHashMap<>();
+
+	private volatile Duration gracePeriod;
+
+	AttributeStreamBroker(Duration gracePeriod) {
+		setGracePeriod(gracePeriod);
+	}
+
+	void setGracePeriod(Duration gracePeriod) {
+		if (gracePeriod == null || gracePeriod.isNegative())
+			throw new IllegalArgumentException("The grace period must not be null or negative. Was: " + gracePeriod);
+		this.gracePeriod = gracePeriod;
+	}
+
+	/**
+	 * @param key      identifies the attribute stream
+	 * @param upstream creates the upstream attribute stream, if there is no
+	 *                 active stream for the key
+	 * @return the shared attribute stream for the key
+	 */
+	Flux<Val> sharedAttributeStream(AttributeStreamKey key, Supplier<Flux<Val>> upstream) {
+		return Flux.defer(() -> attributeStreams.computeIfAbsent(key, k -> share(k, upstream)));
+	}
+
+	private Flux<Val> share(AttributeStreamKey key, Supplier<Flux<Val>> upstream) {
+		var sharedStream = new AtomicReference<Flux<Val>>();
+		sharedStream.set(Flux.defer(upstream)
+				.doFinally(signal -> attributeStreams.remove(key, sharedStream.get()))
+				.replay(1)
+				.refCount(1, gracePeriod));
+		return sharedStream.get();
+	}
+
+	/**
+	 * @return the number of currently shared attribute streams
+	 */
+	int numberOfSharedAttributeStreams() {
+		return attributeStreams.size();
+	}
+
+	/**
+	 * Identifies an attribute stream. The variables are only part of the key,
+	 * if the attribute finder depends on them.
+	 */
+	@Value
+	static class AttributeStreamKey {
+
+		String attributeName;
+
+		Val leftHandValue;
+
+		List<Val> arguments;
+
+		Map<String, JsonNode> variables;
+
+	}
+
+}
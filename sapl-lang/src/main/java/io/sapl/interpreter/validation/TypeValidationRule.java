@@ -0,0 +1,150 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.interpreter.validation;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Parameter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.sapl.api.interpreter.Val;
+import io.sapl.api.validation.Array;
+import io.sapl.api.validation.Bool;
+import io.sapl.api.validation.Int;
+import io.sapl.api.validation.JsonObject;
+import io.sapl.api.validation.Long;
+import io.sapl.api.validation.Number;
+import io.sapl.api.validation.Text;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+
+/**
+ * The type validation rule of a single function or attribute parameter. The
+ * rule is derived once from the validation annotations of the parameter, so
+ * that validating a value does not require any reflection.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class TypeValidationRule {
+
+	private static final String ILLEGAL_PARAMETER_TYPE = "Illegal parameter type. Got: %s Expected: %s";
+
+	private static final int NUMBER = 1;
+	private static final int INT    = 1 << 1;
+	private static final int LONG   = 1 << 2;
+	private static final int BOOL   = 1 << 3;
+	private static final int TEXT   = 1 << 4;
+	private static final int ARRAY  = 1 << 5;
+	private static final int OBJECT = 1 << 6;
+
+	/**
+	 * Rule of a parameter without validation annotations. Accepts any value.
+	 */
+	public static final TypeValidationRule UNCONSTRAINED = new TypeValidationRule(0, "");
+
+	private final int allowedTypes;
+
+	private final String allowedTypeNames;
+
+	/**
+	 * @param parameter a parameter of a function or attribute finder
+	 * @return the validation rule given by the annotations of the parameter
+	 */
+	public static TypeValidationRule of(Parameter parameter) {
+		var allowedTypes     = 0;
+		var allowedTypeNames = new StringBuilder();
+		for (var annotation : parameter.getAnnotations()) {
+			var type = typeOf(annotation);
+			if (type != 0) {
+				allowedTypes |= type;
+				allowedTypeNames.append(annotation).append(' ');
+			}
+		}
+		if (allowedTypes == 0)
+			return UNCONSTRAINED;
+		return new TypeValidationRule(allowedTypes, allowedTypeNames.toString());
+	}
+
+	private static int typeOf(Annotation annotation) {
+		if (annotation instanceof Number)
+			return NUMBER;
+		if (annotation instanceof Int)
+			return INT;
+		if (annotation instanceof Long)
+			return LONG;
+		if (annotation instanceof Bool)
+			return BOOL;
+		if (annotation instanceof Text)
+			return TEXT;
+		if (annotation instanceof Array)
+			return ARRAY;
+		if (annotation instanceof JsonObject)
+			return OBJECT;
+		return 0;
+	}
+
+	/**
+	 * @return true, if the rule accepts any value
+	 */
+	public boolean isUnconstrained() {
+		return allowedTypes == 0;
+	}
+
+	/**
+	 * @param parameterValue a parameter value
+	 * @return the value, if it is valid, else an error
+	 */
+	public Val validate(Val parameterValue) {
+		if (isUnconstrained())
+			return parameterValue;
+
+		if (parameterValue.isUndefined())
+			return Val.error(
+					new IllegalParameterType(String.format(ILLEGAL_PARAMETER_TYPE, "undefined", allowedTypeNames)));
+
+		var node = parameterValue.get();
+		if (matches(node))
+			return Val.of(node);
+
+		return Val.error(new IllegalParameterType(
+				String.format(ILLEGAL_PARAMETER_TYPE, node.getNodeType().toString(), allowedTypeNames)));
+	}
+
+	/**
+	 * @param parameterFlux a stream of parameter values
+	 * @return the stream with all invalid values replaced by errors
+	 */
+	public Flux<Val> validate(Flux<Val> parameterFlux) {
+		if (isUnconstrained())
+			return parameterFlux;
+		return parameterFlux.map(this::validate);
+	}
+
+	private boolean matches(JsonNode node) {
+		return (isAllowed(NUMBER) && node.isNumber())
+				|| (isAllowed(INT) && node.isNumber() && node.canConvertToInt())
+				|| (isAllowed(LONG) && node.isNumber() && node.canConvertToLong())
+				|| (isAllowed(BOOL) && node.isBoolean())
+				|| (isAllowed(TEXT) && node.isTextual())
+				|| (isAllowed(ARRAY) && node.isArray())
+				|| (isAllowed(OBJECT) && node.isObject());
+	}
+
+	private boolean isAllowed(int type) {
+		return (allowedTypes & type) != 0;
+	}
+
+}
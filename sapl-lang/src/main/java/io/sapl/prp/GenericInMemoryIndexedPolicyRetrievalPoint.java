@@ -15,17 +15,37 @@
  */
 package io.sapl.prp;
 
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+import io.sapl.api.interpreter.Val;
 import io.sapl.grammar.sapl.AuthorizationDecisionEvaluable;
 import io.sapl.grammar.sapl.SAPL;
+import io.sapl.grammar.sapl.impl.ConstantFolding;
+import io.sapl.grammar.sapl.impl.ExpressionCompiler;
+import io.sapl.prp.PrpUpdateEvent.Type;
 import io.sapl.prp.index.ImmutableParsedDocumentIndex;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+/**
+ * Policy retrieval point holding the published documents in an
+ * {@link ImmutableParsedDocumentIndex}.
+ * 
+ * Each update of the index carries the documents published and withdrawn by
+ * the update. A live subscription only matches the published documents against
+ * its authorization subscription and drops the withdrawn documents from its
+ * previous result, instead of retrieving all policies from the index again. If
+ * this leaves the matching documents unchanged, no new result is emitted.
+ */
 @Slf4j
 public class GenericInMemoryIndexedPolicyRetrievalPoint implements PolicyRetrievalPoint, Disposable {
 
-	private final Flux<ImmutableParsedDocumentIndex> index;
+	private final Flux<IndexUpdate> index;
 
 	private final Disposable indexSubscription;
 
@@ -33,9 +53,24 @@ public class GenericInMemoryIndexedPolicyRetrievalPoint implements PolicyRetriev
 
 	public GenericInMemoryIndexedPolicyRetrievalPoint(ImmutableParsedDocumentIndex seedIndex,
 			PrpUpdateEventSource eventSource) {
+		this(seedIndex, eventSource, false);
+	}
+
+	/**
+	 * @param seedIndex          the empty index the published documents are added
+	 *                           to
+	 * @param eventSource        the source of the documents
+	 * @param compileExpressions true, if the attribute-free expressions of
+	 *                           published documents are compiled to closures
+	 *                           before they are added to the index
+	 */
+	public GenericInMemoryIndexedPolicyRetrievalPoint(ImmutableParsedDocumentIndex seedIndex,
+			PrpUpdateEventSource eventSource, boolean compileExpressions) {
 		this.eventSource = eventSource;
-		index            = Flux.from(eventSource.getUpdates()).scan(seedIndex, ImmutableParsedDocumentIndex::apply)
-				.skip(1L)
+		index            = Flux.from(eventSource.getUpdates())
+				.map(GenericInMemoryIndexedPolicyRetrievalPoint::foldConstants)
+				.map(event -> compileExpressions ? compileExpressions(event) : event)
+				.scan(IndexUpdate.initial(seedIndex), IndexUpdate::apply).skip(1L)
 				.share().cache(1);
 		// initial subscription, so that the index starts building upon startup
 		indexSubscription = Flux.from(index).subscribe();
@@ -43,8 +78,58 @@ public GenericInMemoryIndexedPolicyRetrievalPoint(ImmutableParsedDocumentIndex s
 
 	@Override
 	public Flux<PolicyRetrievalResult> retrievePolicies() {
-		return Flux.from(index).flatMap(idx -> idx.retrievePolicies())
-				.doOnNext(this::logMatching);
+		return Flux.defer(() -> {
+			var previousRetrieval = new AtomicReference<Retrieval>();
+			return Flux.from(index).concatMap(update -> retrievePolicies(update, previousRetrieval.get())
+					.doOnNext(result -> previousRetrieval.set(new Retrieval(update.getVersion(), result))));
+		}).distinctUntilChanged().doOnNext(this::logMatching);
+	}
+
+	private static Mono<PolicyRetrievalResult> retrievePolicies(IndexUpdate update, Retrieval previousRetrieval) {
+		if (previousRetrieval == null || !update.isIncrementalTo(previousRetrieval.getVersion())
+				|| !isIncrementallyUpdatable(previousRetrieval.getResult()))
+			return update.getIndex().retrievePolicies();
+
+		var previousResult = previousRetrieval.getResult();
+		var keptDocuments  = new ArrayList<AuthorizationDecisionEvaluable>();
+		for (var document : previousResult.getMatchingDocuments())
+			if (!update.isRemoved(nameOf(document)))
+				keptDocuments.add(document);
+		var keptResult = new PolicyRetrievalResult(keptDocuments, false, true);
+
+		return Flux.fromIterable(update.getPublishedDocuments())
+				.concatMap(document -> document.matches().map(match -> addIfMatching(document, match)))
+				.reduce(keptResult, (result, addToResult) -> addToResult.apply(result));
+	}
+
+	/**
+	 * A previous result can only be updated, if it is valid, free of errors, and
+	 * all of its documents can be identified by name. Errors cannot be attributed
+	 * to documents, and thus might have been caused by a removed document.
+	 */
+	private static boolean isIncrementallyUpdatable(PolicyRetrievalResult previousResult) {
+		if (!previousResult.isPrpValidState() || previousResult.isErrorsInTarget())
+			return false;
+
+		for (var document : previousResult.getMatchingDocuments())
+			if (nameOf(document) == null)
+				return false;
+
+		return true;
+	}
+
+	private static UnaryOperator<PolicyRetrievalResult> addIfMatching(SAPL document, Val match) {
+		if (match.isError() || !match.isBoolean())
+			return PolicyRetrievalResult::withError;
+
+		if (match.getBoolean())
+			return result -> result.withMatch(document);
+
+		return result -> result;
+	}
+
+	private static String nameOf(AuthorizationDecisionEvaluable document) {
+		return document instanceof SAPL ? ((SAPL) document).getPolicyElement().getSaplName() : null;
 	}
 
 	@Override
@@ -53,6 +138,38 @@ public void dispose() {
 		eventSource.dispose();
 	}
 
+	/**
+	 * Pre-computes the constant expressions of published documents, before they
+	 * are added to the index.
+	 */
+	private static PrpUpdateEvent foldConstants(PrpUpdateEvent event) {
+		for (var update : event.getUpdates()) {
+			if (update.getType() != Type.PUBLISH || update.getDocument() == null)
+				continue;
+
+			var folded = ConstantFolding.fold(update.getDocument());
+			log.debug("Folded {} constant expressions of '{}'", folded,
+					update.getDocument().getPolicyElement().getSaplName());
+		}
+		return event;
+	}
+
+	/**
+	 * Replaces the attribute-free expressions of published documents by closures,
+	 * before they are added to the index.
+	 */
+	private static PrpUpdateEvent compileExpressions(PrpUpdateEvent event) {
+		for (var update : event.getUpdates()) {
+			if (update.getType() != Type.PUBLISH || update.getDocument() == null)
+				continue;
+
+			var compiled = ExpressionCompiler.compile(update.getDocument());
+			log.debug("Compiled {} expressions of '{}'", compiled,
+					update.getDocument().getPolicyElement().getSaplName());
+		}
+		return event;
+	}
+
 	private void logMatching(PolicyRetrievalResult result) {
 		if (result.getMatchingDocuments().isEmpty()) {
 			log.debug("  |- Matching documents: NONE");
@@ -65,4 +182,13 @@ private void logMatching(PolicyRetrievalResult result) {
 		}
 	}
 
+	@Value
+	private static class Retrieval {
+
+		long version;
+
+		PolicyRetrievalResult result;
+
+	}
+
 }
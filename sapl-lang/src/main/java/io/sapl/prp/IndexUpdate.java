@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.prp;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import io.sapl.grammar.sapl.SAPL;
+import io.sapl.prp.PrpUpdateEvent.Type;
+import io.sapl.prp.index.ImmutableParsedDocumentIndex;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A version of the document index together with the documents which have been
+ * published and withdrawn since the previous version. This delta allows
+ * subscriptions to update their previous retrieval result by matching only the
+ * published documents, instead of retrieving all policies again.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+class IndexUpdate {
+
+	private final ImmutableParsedDocumentIndex index;
+
+	private final long version;
+
+	// published documents by name, replacing previous documents of the same name
+	private final Map<String, SAPL> publishedDocuments;
+
+	private final Set<String> withdrawnDocumentNames;
+
+	// false, if the consistency of the index changed or it is the first version
+	private final boolean incremental;
+
+	static IndexUpdate initial(ImmutableParsedDocumentIndex seedIndex) {
+		return new IndexUpdate(seedIndex, 0L, Collections.emptyMap(), Collections.emptySet(), false);
+	}
+
+	IndexUpdate apply(PrpUpdateEvent event) {
+		var published   = new LinkedHashMap<String, SAPL>();
+		var withdrawn   = new HashSet<String>();
+		var incremental = version > 0L;
+		for (var update : event.getUpdates()) {
+			if (update.getType() == Type.CONSISTENT || update.getType() == Type.INCONSISTENT) {
+				incremental = false;
+			} else if (update.getDocument() != null) {
+				var name = update.getDocument().getPolicyElement().getSaplName();
+				if (update.getType() == Type.WITHDRAW) {
+					published.remove(name);
+					withdrawn.add(name);
+				} else {
+					published.put(name, update.getDocument());
+				}
+			}
+		}
+		return new IndexUpdate(index.apply(event), version + 1L, published, withdrawn, incremental);
+	}
+
+	/**
+	 * @param previousVersion the version the previous result was retrieved from
+	 * @return true, if a result retrieved from the previous version can be updated
+	 *         with the delta of this version
+	 */
+	boolean isIncrementalTo(long previousVersion) {
+		return incremental && previousVersion == version - 1L;
+	}
+
+	/**
+	 * @param documentName the name of a document of the previous version
+	 * @return true, if the document has been withdrawn or replaced
+	 */
+	boolean isRemoved(String documentName) {
+		return withdrawnDocumentNames.contains(documentName) || publishedDocuments.containsKey(documentName);
+	}
+
+	Collection<SAPL> getPublishedDocuments() {
+		return publishedDocuments.values();
+	}
+
+}
@@ -15,76 +15,215 @@
  */
 package io.sapl.prp.index.canonical;
 
-import java.util.BitSet;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.Consumer;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
 
 import com.google.common.base.Preconditions;
 
+/**
+ * A growable set of bits backed by a long[] of words. In contrast to
+ * {@link java.util.BitSet}, all bulk operations work in place on the existing
+ * words and the iteration over the set bits does not box the indexes. This
+ * keeps matching a subscription against the canonical index free of garbage.
+ */
 public class Bitmask {
 
-	private final BitSet impl;
+	private static final int ADDRESS_BITS_PER_WORD = 6;
+
+	private static final int BITS_PER_WORD = 1 << ADDRESS_BITS_PER_WORD;
+
+	private static final long WORD_MASK = 0xffffffffffffffffL;
+
+	private static final long[] NO_WORDS = new long[0];
+
+	private long[] words;
 
-	// force initial capacity?
 	public Bitmask() {
-		impl = new BitSet();
+		words = NO_WORDS;
 	}
 
 	public Bitmask(final Bitmask mask) {
-		impl = (BitSet) mask.impl.clone();
+		words = mask.words.clone();
 	}
 
 	public void and(Bitmask mask) {
-		impl.and(mask.impl);
+		var common = Math.min(words.length, mask.words.length);
+		for (var i = 0; i < common; i++)
+			words[i] &= mask.words[i];
+		Arrays.fill(words, common, words.length, 0L);
+	}
+
+	/**
+	 * Replaces the bits of this mask with the intersection of both masks without
+	 * allocating a copy of either mask.
+	 *
+	 * @param mask1 a mask
+	 * @param mask2 another mask
+	 */
+	public void setToIntersection(Bitmask mask1, Bitmask mask2) {
+		var common = Math.min(mask1.words.length, mask2.words.length);
+		ensureCapacity(common);
+		for (var i = 0; i < common; i++)
+			words[i] = mask1.words[i] & mask2.words[i];
+		Arrays.fill(words, common, words.length, 0L);
 	}
 
 	public void andNot(Bitmask mask) {
-		impl.andNot(mask.impl);
+		var common = Math.min(words.length, mask.words.length);
+		for (var i = 0; i < common; i++)
+			words[i] &= ~mask.words[i];
 	}
 
 	public void clear(int bitIndex) {
-		impl.clear(bitIndex);
+		checkIndex(bitIndex);
+		var wordIndex = wordIndex(bitIndex);
+		if (wordIndex < words.length)
+			words[wordIndex] &= ~(1L << bitIndex);
+	}
+
+	public void clear() {
+		Arrays.fill(words, 0L);
 	}
 
 	public void flip(int fromIndex, int toIndex) {
-		impl.flip(fromIndex, toIndex);
+		checkRange(fromIndex, toIndex);
+		if (fromIndex == toIndex)
+			return;
+
+		var startWordIndex = wordIndex(fromIndex);
+		var endWordIndex   = wordIndex(toIndex - 1);
+		ensureCapacity(endWordIndex + 1);
+
+		var firstWordMask = WORD_MASK << fromIndex;
+		var lastWordMask  = WORD_MASK >>> -toIndex;
+		if (startWordIndex == endWordIndex) {
+			words[startWordIndex] ^= (firstWordMask & lastWordMask);
+			return;
+		}
+		words[startWordIndex] ^= firstWordMask;
+		for (var i = startWordIndex + 1; i < endWordIndex; i++)
+			words[i] ^= WORD_MASK;
+		words[endWordIndex] ^= lastWordMask;
+	}
+
+	public boolean isEmpty() {
+		for (var word : words)
+			if (word != 0L)
+				return false;
+		return true;
 	}
 
 	public boolean intersects(Bitmask mask) {
-		return impl.intersects(mask.impl);
+		var common = Math.min(words.length, mask.words.length);
+		for (var i = 0; i < common; i++)
+			if ((words[i] & mask.words[i]) != 0L)
+				return true;
+		return false;
 	}
 
 	public void or(Bitmask mask) {
-		impl.or(mask.impl);
+		ensureCapacity(mask.words.length);
+		for (var i = 0; i < mask.words.length; i++)
+			words[i] |= mask.words[i];
 	}
 
 	public void set(int bitIndex) {
-		impl.set(bitIndex);
+		checkIndex(bitIndex);
+		var wordIndex = wordIndex(bitIndex);
+		ensureCapacity(wordIndex + 1);
+		words[wordIndex] |= (1L << bitIndex);
 	}
 
 	public void set(int fromIndex, int toIndex) {
-		impl.set(fromIndex, toIndex);
+		checkRange(fromIndex, toIndex);
+		if (fromIndex == toIndex)
+			return;
+
+		var startWordIndex = wordIndex(fromIndex);
+		var endWordIndex   = wordIndex(toIndex - 1);
+		ensureCapacity(endWordIndex + 1);
+
+		var firstWordMask = WORD_MASK << fromIndex;
+		var lastWordMask  = WORD_MASK >>> -toIndex;
+		if (startWordIndex == endWordIndex) {
+			words[startWordIndex] |= (firstWordMask & lastWordMask);
+			return;
+		}
+		words[startWordIndex] |= firstWordMask;
+		for (var i = startWordIndex + 1; i < endWordIndex; i++)
+			words[i] = WORD_MASK;
+		words[endWordIndex] |= lastWordMask;
 	}
 
 	public int numberOfBitsSet() {
-		AtomicInteger numberOfBitsSets = new AtomicInteger();
-		forEachSetBit(index -> numberOfBitsSets.getAndIncrement());
+		var numberOfBitsSet = 0;
+		for (var word : words)
+			numberOfBitsSet += Long.bitCount(word);
+		return numberOfBitsSet;
+	}
 
-		return numberOfBitsSets.get();
+	/**
+	 * @param fromIndex the index to start checking from (inclusive)
+	 * @return the index of the first set bit at or after fromIndex, -1 if there
+	 *         is no such bit
+	 */
+	public int nextSetBit(int fromIndex) {
+		checkIndex(fromIndex);
+		var wordIndex = wordIndex(fromIndex);
+		if (wordIndex >= words.length)
+			return -1;
+
+		var word = words[wordIndex] & (WORD_MASK << fromIndex);
+		while (true) {
+			if (word != 0L)
+				return (wordIndex * BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+			if (++wordIndex == words.length)
+				return -1;
+			word = words[wordIndex];
+		}
 	}
 
-	public void forEachSetBit(final Consumer<Integer> action) {
+	public void forEachSetBit(final IntConsumer action) {
 		Preconditions.checkNotNull(action);
-		impl.stream().forEach(action::accept);
+		for (var i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1))
+			action.accept(i);
 	}
 
 	public boolean isSet(int bitIndex) {
-		return impl.get(bitIndex);
+		checkIndex(bitIndex);
+		var wordIndex = wordIndex(bitIndex);
+		return wordIndex < words.length && (words[wordIndex] & (1L << bitIndex)) != 0L;
+	}
+
+	private void ensureCapacity(int wordsRequired) {
+		if (words.length < wordsRequired)
+			words = Arrays.copyOf(words, Math.max(2 * words.length, wordsRequired));
+	}
+
+	private static int wordIndex(int bitIndex) {
+		return bitIndex >> ADDRESS_BITS_PER_WORD;
+	}
+
+	private static void checkIndex(int bitIndex) {
+		if (bitIndex < 0)
+			throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+	}
+
+	private static void checkRange(int fromIndex, int toIndex) {
+		checkIndex(fromIndex);
+		if (toIndex < fromIndex)
+			throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + " > toIndex: " + toIndex);
 	}
 
 	@Override
 	public String toString() {
-		return String.valueOf(impl.toString());
+		var builder = new StringBuilder("{");
+		for (var i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+			if (builder.length() > 1)
+				builder.append(", ");
+			builder.append(i);
+		}
+		return builder.append('}').toString();
 	}
 
 }
@@ -18,10 +18,14 @@
 import java.util.Map;
 import java.util.Objects;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.base.Preconditions;
 
 import io.sapl.api.interpreter.Val;
 import io.sapl.grammar.sapl.Expression;
+import io.sapl.grammar.sapl.impl.ExpressionCompiler;
+import io.sapl.grammar.sapl.impl.ExpressionCompiler.Closure;
+import io.sapl.grammar.sapl.impl.SharedExpressionCache;
 import io.sapl.interpreter.context.AuthorizationContext;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -30,6 +34,8 @@ public class Bool {
 
 	static final String BOOL_NOT_IMMUTABLE = "Unable to evaluate volatile Bool in static context.";
 
+	static final String EXPRESSION_NOT_BOOLEAN = "expression not boolean";
+
 	private boolean constant;
 
 	private Expression expression;
@@ -42,6 +48,8 @@ public class Bool {
 
 	private boolean isConstantExpression;
 
+	private Closure closure;
+
 	public Bool(boolean value) {
 		isConstantExpression = true;
 		constant             = value;
@@ -50,6 +58,7 @@ public Bool(boolean value) {
 	public Bool(final Expression expression, final Map<String, String> imports) {
 		this.expression = Preconditions.checkNotNull(expression);
 		this.imports    = imports;
+		this.closure    = ExpressionCompiler.compileExpression(expression);
 	}
 
 	public boolean evaluate() {
@@ -62,9 +71,57 @@ public boolean evaluate() {
 	public Mono<Val> evaluateExpression() {
 		Flux<Val> resultFlux = isConstantExpression ? Flux.just(Val.of(constant))
 				: expression.evaluate().contextWrite(ctx -> AuthorizationContext.setImports(ctx, imports));
-		return resultFlux
-				.map(result -> result.isError() || result.isBoolean() ? result : Val.error("expression not boolean"))
-				.next();
+		return resultFlux.map(Bool::requireBooleanResult).next();
+	}
+
+	/**
+	 * Evaluates the Bool without subscribing to the reactive expression
+	 * evaluation. Only applicable if {@link #isSynchronouslyEvaluable()}.
+	 *
+	 * @param variables the variables of the authorization context, including the
+	 *                  authorization subscription
+	 * @return the result of the evaluation, an error if it is not boolean
+	 */
+	public Val evaluateExpression(Map<String, JsonNode> variables) {
+		if (isConstantExpression) {
+			return Val.of(constant);
+		}
+		return requireBooleanResult(closure.evaluate(variables));
+	}
+
+	/**
+	 * Evaluates the Bool like {@link #evaluateExpression(Map)}, but looks up the
+	 * value of a shareable expression in the shared expression cache.
+	 *
+	 * @param variables         the variables of the authorization context,
+	 *                          including the authorization subscription
+	 * @param sharedExpressions the cache shared by related subscriptions
+	 * @return the result of the evaluation, an error if it is not boolean
+	 */
+	public Val evaluateExpression(Map<String, JsonNode> variables, SharedExpressionCache sharedExpressions) {
+		if (isConstantExpression || !SharedExpressionCache.isShareable(expression)) {
+			return evaluateExpression(variables);
+		}
+		return requireBooleanResult(sharedExpressions.evaluate(expression, variables));
+	}
+
+	private static Val requireBooleanResult(Val result) {
+		return result.isError() || result.isBoolean() ? result : Val.error(EXPRESSION_NOT_BOOLEAN);
+	}
+
+	/**
+	 * @return true, if the Bool is constant or its expression is compiled by the
+	 *         {@link ExpressionCompiler} and can be evaluated without Reactor
+	 */
+	public boolean isSynchronouslyEvaluable() {
+		return isConstantExpression || closure != null;
+	}
+
+	/**
+	 * @return the expression of a volatile Bool, null for constants
+	 */
+	public Expression getExpression() {
+		return expression;
 	}
 
 	public boolean isImmutable() {
@@ -18,9 +18,10 @@
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import io.sapl.api.interpreter.PolicyEvaluationException;
 import io.sapl.grammar.sapl.SAPL;
@@ -33,52 +34,106 @@
 import io.sapl.prp.index.ImmutableParsedDocumentIndex;
 import io.sapl.prp.index.canonical.ordering.DefaultPredicateOrderStrategy;
 import io.sapl.prp.index.canonical.ordering.PredicateOrderStrategy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+/**
+ * Document index based on the canonical representation of the targets of the
+ * documents as disjunctive normal forms.
+ * 
+ * The target formula of each document is retained once when the document is
+ * published. Smaller updates are applied incrementally to the index data of the
+ * previous index instance. As incremental updates do not re-optimize the order
+ * in which predicates are evaluated, the index data is re-created from the
+ * retained formulas in the background after a number of incremental updates,
+ * or when an adaptive predicate order strategy recommends a new order. An index
+ * instance never changes. The compacted data is shared with the instance it
+ * has been created for, and the next update starts from it.
+ */
 @Slf4j
 public class CanonicalImmutableParsedDocumentIndex implements ImmutableParsedDocumentIndex {
 
-	private final CanonicalIndexDataContainer indexDataContainer;
+	// minimal number of incrementally applied document changes before compaction
+	static final int MINIMUM_UPDATES_BEFORE_COMPACTION = 32;
+
+	// share of the indexed documents which may have changed before compaction
+	static final double COMPACTION_THRESHOLD = 0.1D;
+
+	// changes to more than this share of documents are applied by a full rebuild
+	static final double FULL_REBUILD_THRESHOLD = 0.5D;
 
 	private final Map<String, SAPL> documents;
 
+	private final Map<String, DisjunctiveFormula> targets;
+
 	private final PredicateOrderStrategy predicateOrderStrategy;
 
+	private final CanonicalIndexDataCreationStrategy creationStrategy;
+
 	private final boolean consistent;
 
 	private final AttributeContext attributeCtx;
 
 	private final FunctionContext functionCtx;
 
+	private final Compaction compaction;
+
+	private final CanonicalIndexDataContainer indexDataContainer;
+
+	private final int updatesSinceCompaction;
+
 	public CanonicalImmutableParsedDocumentIndex(PredicateOrderStrategy predicateOrderStrategy,
 			AttributeContext attributeCtx, FunctionContext functionCtx) {
-		this(Collections.emptyMap(), predicateOrderStrategy, true, attributeCtx, functionCtx);
+		this(predicateOrderStrategy, new CanonicalIndexDataCreationStrategy(predicateOrderStrategy), attributeCtx,
+				functionCtx);
 	}
 
 	public CanonicalImmutableParsedDocumentIndex(AttributeContext attributeCtx, FunctionContext functionCtx) {
-		this(Collections.emptyMap(), new DefaultPredicateOrderStrategy(), true, attributeCtx, functionCtx);
+		this(new DefaultPredicateOrderStrategy(), attributeCtx, functionCtx);
+	}
+
+	private CanonicalImmutableParsedDocumentIndex(PredicateOrderStrategy predicateOrderStrategy,
+			CanonicalIndexDataCreationStrategy creationStrategy, AttributeContext attributeCtx,
+			FunctionContext functionCtx) {
+		this(Collections.emptyMap(), Collections.emptyMap(),
+				creationStrategy.constructNew(Collections.emptyMap(), Collections.emptyMap()), predicateOrderStrategy,
+				creationStrategy, true, attributeCtx, functionCtx, 0, new Compaction());
 	}
 
 	private CanonicalImmutableParsedDocumentIndex(Map<String, SAPL> updatedDocuments,
-			PredicateOrderStrategy predicateOrderStrategy,
-			boolean consistent, AttributeContext attributeCtx, FunctionContext functionCtx) {
+			Map<String, DisjunctiveFormula> updatedTargets, CanonicalIndexDataContainer indexDataContainer,
+			PredicateOrderStrategy predicateOrderStrategy, CanonicalIndexDataCreationStrategy creationStrategy,
+			boolean consistent, AttributeContext attributeCtx, FunctionContext functionCtx,
+			int updatesSinceCompaction, Compaction compaction) {
 		this.documents              = updatedDocuments;
+		this.targets                = updatedTargets;
+		this.indexDataContainer     = indexDataContainer;
 		this.predicateOrderStrategy = predicateOrderStrategy;
+		this.creationStrategy       = creationStrategy;
 		this.consistent             = consistent;
 		this.attributeCtx           = attributeCtx;
 		this.functionCtx            = functionCtx;
+		this.updatesSinceCompaction = updatesSinceCompaction;
+		this.compaction             = compaction;
+	}
 
-		Map<String, DisjunctiveFormula> targets = this.documents.entrySet().stream().collect(
-				Collectors.toMap(Entry::getKey, entry -> retainTarget(entry.getValue())));
-
-		this.indexDataContainer = new CanonicalIndexDataCreationStrategy(predicateOrderStrategy).constructNew(documents,
-				targets);
+	CanonicalImmutableParsedDocumentIndex recreateIndex(Map<String, SAPL> updatedDocuments,
+			Map<String, DisjunctiveFormula> updatedTargets, boolean consistent) {
+		var container = creationStrategy.constructNew(updatedDocuments, updatedTargets);
+		return new CanonicalImmutableParsedDocumentIndex(updatedDocuments, updatedTargets, container,
+				predicateOrderStrategy, creationStrategy, consistent, attributeCtx, functionCtx, 0, compaction);
 	}
 
-	CanonicalImmutableParsedDocumentIndex recreateIndex(Map<String, SAPL> updatedDocuments, boolean consistent) {
-		return new CanonicalImmutableParsedDocumentIndex(updatedDocuments, predicateOrderStrategy, consistent,
-				attributeCtx, functionCtx);
+	CanonicalImmutableParsedDocumentIndex updateIndex(Map<String, SAPL> updatedDocuments,
+			Map<String, DisjunctiveFormula> updatedTargets, Map<SAPL, DisjunctiveFormula> withdrawnDocuments,
+			Map<SAPL, DisjunctiveFormula> publishedDocuments, boolean consistent) {
+		var container = creationStrategy.updateIncrementally(getIndexDataContainer(), withdrawnDocuments,
+				publishedDocuments);
+		var updates   = getUpdatesSinceCompaction() + withdrawnDocuments.size() + publishedDocuments.size();
+		return new CanonicalImmutableParsedDocumentIndex(updatedDocuments, updatedTargets, container,
+				predicateOrderStrategy, creationStrategy, consistent, attributeCtx, functionCtx, updates, compaction);
 	}
 
 	@Override
@@ -86,8 +141,10 @@ public Mono<PolicyRetrievalResult> retrievePolicies() {
 		if (!consistent) {
 			return Mono.just(new PolicyRetrievalResult(new ArrayList<>(), true, false));
 		}
+		if (predicateOrderStrategy.isReorderingRecommended())
+			compactInBackground(this);
 		try {
-			return CanonicalIndexAlgorithm.match(indexDataContainer);
+			return CanonicalIndexAlgorithm.match(getIndexDataContainer());
 		} catch (PolicyEvaluationException e) {
 			log.error("error while retrieving policies", e);
 			return Mono.just(new PolicyRetrievalResult(new ArrayList<>(), true, true));
@@ -96,8 +153,9 @@ public Mono<PolicyRetrievalResult> retrievePolicies() {
 
 	@Override
 	public ImmutableParsedDocumentIndex apply(PrpUpdateEvent event) {
-		var newDocuments        = new HashMap<>(documents);
-		var newConsistencyState = consistent;
+		var newDocuments         = new HashMap<>(documents);
+		var changedDocumentNames = new HashSet<String>();
+		var newConsistencyState  = consistent;
 		for (var update : event.getUpdates()) {
 			if (update.getType() == Type.CONSISTENT) {
 				newConsistencyState = true;
@@ -105,10 +163,56 @@ public ImmutableParsedDocumentIndex apply(PrpUpdateEvent event) {
 				newConsistencyState = false;
 			} else {
 				applyUpdate(newDocuments, update);
+				changedDocumentNames.add(update.getDocument().getPolicyElement().getSaplName());
 			}
 		}
 		log.debug("returning updated index containing {} documents", newDocuments.size());
-		return recreateIndex(newDocuments, newConsistencyState);
+
+		var newTargets         = new HashMap<>(targets);
+		var withdrawnDocuments = new HashMap<SAPL, DisjunctiveFormula>();
+		var publishedDocuments = new HashMap<SAPL, DisjunctiveFormula>();
+		for (var name : changedDocumentNames) {
+			var previousDocument = documents.get(name);
+			var newDocument      = newDocuments.get(name);
+			if (previousDocument == newDocument)
+				continue;
+
+			if (previousDocument != null)
+				withdrawnDocuments.put(previousDocument, newTargets.remove(name));
+
+			if (newDocument != null) {
+				CanonicalPolicySetIndex.indexPoliciesOfSet(newDocument, predicateOrderStrategy, attributeCtx,
+						functionCtx);
+				var target = retainTarget(newDocument, attributeCtx, functionCtx);
+				newTargets.put(name, target);
+				publishedDocuments.put(newDocument, target);
+			}
+		}
+
+		var numberOfChanges = withdrawnDocuments.size() + publishedDocuments.size();
+		if (numberOfChanges == 0) {
+			return new CanonicalImmutableParsedDocumentIndex(documents, targets, indexDataContainer,
+					predicateOrderStrategy, creationStrategy, newConsistencyState, attributeCtx, functionCtx,
+					updatesSinceCompaction, compaction);
+		}
+
+		CanonicalImmutableParsedDocumentIndex updatedIndex;
+		if (!getIndexDataContainer().isIncrementallyUpdatable()
+				|| numberOfChanges > FULL_REBUILD_THRESHOLD * newDocuments.size()) {
+			log.debug("re-creating index data for {} changed documents", numberOfChanges);
+			updatedIndex = recreateIndex(newDocuments, newTargets, newConsistencyState);
+		} else {
+			log.debug("incrementally updating index data for {} changed documents", numberOfChanges);
+			updatedIndex = updateIndex(newDocuments, newTargets, withdrawnDocuments, publishedDocuments,
+					newConsistencyState);
+		}
+		// the compacted data of this instance is of no use for the updated index
+		compaction.discardResultOf(targets);
+
+		if (updatedIndex.requiresCompaction())
+			compactInBackground(updatedIndex);
+
+		return updatedIndex;
 	}
 
 	// only PUBLISH or WITHDRAW
@@ -125,7 +229,41 @@ void applyUpdate(Map<String, SAPL> newDocuments, PrpUpdateEvent.Update update) {
 		}
 	}
 
-	private DisjunctiveFormula retainTarget(SAPL sapl) {
+	boolean requiresCompaction() {
+		return getUpdatesSinceCompaction() >= Math.max(MINIMUM_UPDATES_BEFORE_COMPACTION,
+				COMPACTION_THRESHOLD * documents.size());
+	}
+
+	void compactInBackground(CanonicalImmutableParsedDocumentIndex index) {
+		if (!compaction.inProgress.compareAndSet(false, true))
+			return;
+
+		Mono.fromRunnable(index::compact).subscribeOn(Schedulers.boundedElastic())
+				.doFinally(signal -> compaction.inProgress.set(false))
+				.subscribe(unused -> {}, error -> log.error("failed to compact the canonical index", error));
+	}
+
+	/**
+	 * Re-creates the index data of this instance and shares it with all instances
+	 * indexing the same targets. The instance itself is not modified.
+	 */
+	void compact() {
+		var container = creationStrategy.constructNew(documents, targets);
+		compaction.result.set(new CompactedData(targets, container));
+		log.debug("compacted index of {} documents after {} incremental updates", documents.size(),
+				updatesSinceCompaction);
+	}
+
+	CanonicalIndexDataContainer getIndexDataContainer() {
+		var compacted = compaction.resultOf(targets);
+		return compacted == null ? indexDataContainer : compacted.indexDataContainer;
+	}
+
+	private int getUpdatesSinceCompaction() {
+		return compaction.resultOf(targets) == null ? updatesSinceCompaction : 0;
+	}
+
+	static DisjunctiveFormula retainTarget(SAPL sapl, AttributeContext attributeCtx, FunctionContext functionCtx) {
 		try {
 			var                targetExpression = sapl.getPolicyElement().getTargetExpression();
 			DisjunctiveFormula targetFormula;
@@ -143,4 +281,36 @@ private DisjunctiveFormula retainTarget(SAPL sapl) {
 		}
 	}
 
+	/**
+	 * Shared by an index and all indexes derived from it. The compacted data is
+	 * keyed by the identity of the retained targets it has been created from.
+	 */
+	private static class Compaction {
+
+		private final AtomicBoolean inProgress = new AtomicBoolean();
+
+		private final AtomicReference<CompactedData> result = new AtomicReference<>();
+
+		CompactedData resultOf(Map<String, DisjunctiveFormula> targets) {
+			var compacted = result.get();
+			return compacted != null && compacted.targets == targets ? compacted : null;
+		}
+
+		void discardResultOf(Map<String, DisjunctiveFormula> targets) {
+			var compacted = resultOf(targets);
+			if (compacted != null)
+				result.compareAndSet(compacted, null);
+		}
+
+	}
+
+	@RequiredArgsConstructor
+	private static class CompactedData {
+
+		private final Map<String, DisjunctiveFormula> targets;
+
+		private final CanonicalIndexDataContainer indexDataContainer;
+
+	}
+
 }
@@ -15,15 +15,22 @@
  */
 package io.sapl.prp.index.canonical;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import com.fasterxml.jackson.databind.JsonNode;
+
 import io.sapl.api.interpreter.Val;
 import io.sapl.grammar.sapl.SAPL;
+import io.sapl.grammar.sapl.impl.SharedExpressionCache;
+import io.sapl.interpreter.context.AuthorizationContext;
 import io.sapl.prp.PolicyRetrievalResult;
 import lombok.NonNull;
 import lombok.experimental.UtilityClass;
@@ -37,32 +44,146 @@ public Mono<PolicyRetrievalResult> match(CanonicalIndexDataContainer dataContain
 		return matchCollectorNewest(dataContainer);
 	}
 
+	/**
+	 * Evaluates the predicates in order in a plain loop, as long as they can be
+	 * evaluated synchronously against the variables of the authorization context.
+	 * Only if a predicate is encountered which is not synchronously evaluable, the
+	 * remaining predicates are evaluated reactively.
+	 * 
+	 * The predicates of an {@link EqualityPredicateGroup} are resolved together,
+	 * when the first of them is encountered. If the Reactor context contains a
+	 * {@link SharedExpressionCache}, the values of predicates which only depend on
+	 * the subscription are shared with related subscriptions.
+	 */
 	public Mono<PolicyRetrievalResult> matchCollectorNewest(CanonicalIndexDataContainer dataContainer) {
-		var matchingCtxMono = Flux.fromIterable(dataContainer.getPredicateOrder())
-				.reduce(Mono.just(new CanonicalIndexMatchingContext(dataContainer.getNumberOfConjunctions())),
-						(previousCtxMono, predicate) -> previousCtxMono
-								.flatMap(previousCtx -> previousCtx.isPredicateReferencedInCandidates(predicate)
-										// if referenced by an active candidate ->
-										// evaluate predicate
-										? evaluatePredicate(dataContainer, predicate, previousCtx)
-										// else -> just return context
-										: skipPredicate(previousCtx)) // result is updated
-																		// ctx (candidates
-																		// removed based
-																		// on predicate
-																		// evaluation
-																		// result)
-				).flatMap(Function.identity()); // mono of mono is flattened
-
-		return matchingCtxMono.map(matchingCtx -> {
-			var matching = matchingCtx.getMatchingCandidatesMask();
-			var formulas = fetchFormulas(matching, dataContainer);
-			var policies = fetchPolicies(formulas, dataContainer);
-
-			return new PolicyRetrievalResult(policies, matchingCtx.isErrorsInTargets(), true);
+		return Mono.deferContextual(ctx -> {
+			var variables         = AuthorizationContext.getVariables(ctx);
+			var sharedExpressions = AuthorizationContext.getSharedExpressionCache(ctx);
+			var matchingCtx       = CanonicalIndexMatchingContext.acquire(dataContainer.getNumberOfConjunctions());
+			var order             = dataContainer.getPredicateOrder();
+			for (var i = 0; i < order.size(); i++) {
+				var predicate = order.get(i);
+				if (!matchingCtx.isPredicateReferencedInCandidates(predicate))
+					continue;
+
+				var equalityGroup = dataContainer.getEqualityGroup(i);
+				if (equalityGroup != null) {
+					if (matchingCtx.markEqualityGroupAsResolved(equalityGroup))
+						resolveEqualityGroup(dataContainer, equalityGroup, matchingCtx, variables);
+					continue;
+				}
+
+				if (!predicate.getBool().isSynchronouslyEvaluable())
+					// the context is handed over to the reactive evaluation and is not reused
+					return matchReactively(dataContainer, findUnresolvedPredicates(dataContainer, i, matchingCtx),
+							matchingCtx)
+							.map(reactiveCtx -> createRetrievalResult(reactiveCtx, dataContainer));
+
+				if (sharedExpressions != null)
+					handleEvaluationResult(dataContainer, predicate, matchingCtx,
+							predicate.getBool().evaluateExpression(variables, sharedExpressions));
+				else
+					evaluatePredicateSynchronously(dataContainer, predicate, matchingCtx, variables);
+			}
+			try {
+				return Mono.just(createRetrievalResult(matchingCtx, dataContainer));
+			} finally {
+				matchingCtx.release();
+			}
 		}).onErrorReturn(new PolicyRetrievalResult(Collections.emptyList(), true, true));
 	}
 
+	private PolicyRetrievalResult createRetrievalResult(
+			CanonicalIndexMatchingContext matchingCtx,
+			CanonicalIndexDataContainer dataContainer) {
+		var matching = matchingCtx.getMatchingCandidatesMask();
+		var formulas = fetchFormulas(matching, dataContainer);
+		var policies = fetchPolicies(formulas, dataContainer);
+
+		return new PolicyRetrievalResult(policies, matchingCtx.isErrorsInTargets(), true);
+	}
+
+	Mono<CanonicalIndexMatchingContext> matchReactively(
+			CanonicalIndexDataContainer dataContainer,
+			List<Predicate> predicates,
+			CanonicalIndexMatchingContext initialCtx) {
+		return Flux.fromIterable(predicates).reduce(Mono.just(initialCtx),
+				(previousCtxMono, predicate) -> previousCtxMono
+						.flatMap(previousCtx -> previousCtx.isPredicateReferencedInCandidates(predicate)
+								// if referenced by an active candidate ->
+								// evaluate predicate
+								? evaluatePredicate(dataContainer, predicate, previousCtx)
+								// else -> just return context
+								: skipPredicate(previousCtx)) // result is updated
+																// ctx (candidates
+																// removed based
+																// on predicate
+																// evaluation
+																// result)
+		).flatMap(Function.identity()); // mono of mono is flattened
+	}
+
+	private List<Predicate> findUnresolvedPredicates(
+			CanonicalIndexDataContainer dataContainer,
+			int fromPosition,
+			CanonicalIndexMatchingContext matchingCtx) {
+		var order      = dataContainer.getPredicateOrder();
+		var unresolved = new ArrayList<Predicate>(order.size() - fromPosition);
+		for (var i = fromPosition; i < order.size(); i++) {
+			var equalityGroup = dataContainer.getEqualityGroup(i);
+			if (equalityGroup == null || !matchingCtx.isEqualityGroupResolved(equalityGroup))
+				unresolved.add(order.get(i));
+		}
+		return unresolved;
+	}
+
+	/**
+	 * Evaluates the path shared by the predicates of the group once and updates
+	 * the candidates, as if each predicate of the group had been evaluated on its
+	 * own.
+	 */
+	void resolveEqualityGroup(
+			CanonicalIndexDataContainer dataContainer,
+			EqualityPredicateGroup equalityGroup,
+			CanonicalIndexMatchingContext matchingCtx,
+			Map<String, JsonNode> variables) {
+		var pathValue = equalityGroup.evaluatePath(variables);
+		if (pathValue.isError()) {
+			matchingCtx.setErrorsInTargets(true);
+			matchingCtx.removeCandidates(equalityGroup.getConjunctions());
+			return;
+		}
+
+		var truePredicates = equalityGroup.findTruePredicates(pathValue);
+		for (var predicate : truePredicates)
+			updateCandidatesInMatchingContext(predicate, true, matchingCtx, dataContainer);
+
+		// negated occurrences of false predicates may satisfy conjunctions
+		for (var predicate : equalityGroup.getNegatedPredicates())
+			if (!truePredicates.contains(predicate))
+				updateCandidatesInMatchingContext(predicate, false, matchingCtx, dataContainer);
+
+		matchingCtx.removeCandidates(equalityGroup.findConjunctionsOfFalsePredicates(truePredicates,
+				matchingCtx.getUnsatisfiedCandidates()));
+	}
+
+	void evaluatePredicateSynchronously(
+			CanonicalIndexDataContainer dataContainer,
+			Predicate predicate,
+			CanonicalIndexMatchingContext ctx,
+			Map<String, JsonNode> variables) {
+		var statistics = predicate.getStatistics();
+		if (statistics == null) {
+			handleEvaluationResult(dataContainer, predicate, ctx, predicate.evaluate(variables));
+			return;
+		}
+
+		var start            = System.nanoTime();
+		var evaluationResult = predicate.evaluate(variables);
+		statistics.record(evaluationResult, System.nanoTime() - start);
+		handleEvaluationResult(dataContainer, predicate, ctx, evaluationResult);
+	}
+
 	Mono<CanonicalIndexMatchingContext> skipPredicate(CanonicalIndexMatchingContext previousCtx) {
 		return Mono.just(previousCtx);
 	}
@@ -71,7 +192,14 @@ Mono<CanonicalIndexMatchingContext> evaluatePredicate(
 			CanonicalIndexDataContainer dataContainer,
 			Predicate predicate,
 			CanonicalIndexMatchingContext ctx) {
+		var statistics = predicate.getStatistics();
+		if (statistics == null)
+			return predicate.evaluate()
+					.map(evaluationResult -> handleEvaluationResult(dataContainer, predicate, ctx, evaluationResult));
+
+		var start = System.nanoTime();
 		return predicate.evaluate()
+				.doOnNext(evaluationResult -> statistics.record(evaluationResult, System.nanoTime() - start))
 				.map(evaluationResult -> handleEvaluationResult(dataContainer, predicate, ctx, evaluationResult));
 	}
 
@@ -100,13 +228,16 @@ private void updateCandidatesInMatchingContext(
 			CanonicalIndexMatchingContext matchingCtx,
 			CanonicalIndexDataContainer dataContainer) {
 
-		var satisfiedCandidates = findSatisfiableCandidates(predicate, evaluationResult, matchingCtx, dataContainer);
+		var satisfiedCandidates = findSatisfiableCandidates(predicate, evaluationResult, matchingCtx, dataContainer,
+				matchingCtx.getSatisfiedCandidates());
 		// add satisfied candidates to mask of matching candidates
 		matchingCtx.addSatisfiedCandidates(satisfiedCandidates);
 
-		var unsatisfiedCandidates = findUnsatisfiableCandidates(matchingCtx, predicate, evaluationResult);
+		var unsatisfiedCandidates = findUnsatisfiableCandidates(matchingCtx, predicate, evaluationResult,
+				matchingCtx.getUnsatisfiedCandidates());
 
-		var orphanedCandidates = findOrphanedCandidates(satisfiedCandidates, matchingCtx, dataContainer);
+		var orphanedCandidates = findOrphanedCandidates(satisfiedCandidates, matchingCtx, dataContainer,
+				matchingCtx.getOrphanedCandidates());
 
 		reduceCandidates(matchingCtx, unsatisfiedCandidates, satisfiedCandidates, orphanedCandidates);
 	}
@@ -120,25 +251,35 @@ void handleErrorEvaluationResult(final Predicate predicate, CanonicalIndexMatchi
 	Bitmask findOrphanedCandidates(
 			final Bitmask satisfiableCandidates,
 			CanonicalIndexMatchingContext matchingCtx,
-			CanonicalIndexDataContainer dataContainer) {
-		var result = new Bitmask();
-
-		satisfiableCandidates.forEachSetBit(index -> {
-			var cTuples = dataContainer.getConjunctionsInFormulasReferencingConjunction(index);
-			for (CTuple cTuple : cTuples) {
-				if (!matchingCtx.isRemainingCandidate(cTuple.getCI()))
+			CanonicalIndexDataContainer dataContainer,
+			Bitmask result) {
+		result.clear();
+
+		for (var index = satisfiableCandidates.nextSetBit(0); index >= 0;
+				index = satisfiableCandidates.nextSetBit(index + 1)) {
+			for (DisjunctiveFormula formula : dataContainer.getRelatedFormulas(index)) {
+				// a formula is only eliminated once, even if several of its conjunctions are
+				// satisfied. Otherwise, conjunctions may be orphaned while still being
+				// referenced by formulas which have not been satisfied yet.
+				if (!matchingCtx.markFormulaAsSatisfied(formula))
 					continue;
 
-				matchingCtx.increaseNumberOfEliminatedFormulasForConjunction(cTuple.getCI(), cTuple.getN());
+				var conjunctions = dataContainer.getConjunctionsOfFormula(formula);
+				for (var related = conjunctions.nextSetBit(0); related >= 0;
+						related = conjunctions.nextSetBit(related + 1)) {
+					if (satisfiableCandidates.isSet(related) || !matchingCtx.isRemainingCandidate(related))
+						continue;
 
-				// if all formulas of conjunction have been eliminated
-				if (matchingCtx.areAllFunctionsEliminated(cTuple.getCI(),
-						dataContainer.getNumberOfFormulasWithConjunction(cTuple.getCI()))) {
-					result.set(cTuple.getCI());
-				}
+					matchingCtx.increaseNumberOfEliminatedFormulasForConjunction(related, 1);
 
+					// if all formulas of conjunction have been eliminated
+					if (matchingCtx.areAllFunctionsEliminated(related,
+							dataContainer.getNumberOfFormulasWithConjunction(related))) {
+						result.set(related);
+					}
+				}
 			}
-		});
+		}
 
 		return result;
 	}
@@ -157,7 +298,9 @@ Set<DisjunctiveFormula> fetchFormulas(
 			final Bitmask satisfiableCandidates,
 			CanonicalIndexDataContainer dataContainer) {
 		final Set<DisjunctiveFormula> result = new HashSet<>();
-		satisfiableCandidates.forEachSetBit(index -> result.addAll(dataContainer.getRelatedFormulas(index)));
+		for (var index = satisfiableCandidates.nextSetBit(0); index >= 0;
+				index = satisfiableCandidates.nextSetBit(index + 1))
+			result.addAll(dataContainer.getRelatedFormulas(index));
 		return result;
 	}
 
@@ -165,19 +308,19 @@ Bitmask findSatisfiableCandidates(
 			final Predicate predicate,
 			final boolean evaluationResult,
 			CanonicalIndexMatchingContext matchingCtx,
-			CanonicalIndexDataContainer dataContainer) {
-		var result = new Bitmask();
+			CanonicalIndexDataContainer dataContainer,
+			Bitmask result) {
 		// calling method with negated evaluation result will return satisfied clauses
-		var satisfiableCandidates = findUnsatisfiableCandidates(matchingCtx, predicate, !evaluationResult);
+		findUnsatisfiableCandidates(matchingCtx, predicate, !evaluationResult, result);
 
-		satisfiableCandidates.forEachSetBit(index -> {
+		for (var index = result.nextSetBit(0); index >= 0; index = result.nextSetBit(index + 1)) {
 			// increment number of true literals
 			matchingCtx.incrementTrueLiteralsForConjunction(index);
 
-			// if all literals in conjunction are true, add conjunction to result
-			if (matchingCtx.isConjunctionSatisfied(index, dataContainer.getNumberOfLiteralsInConjunction(index)))
-				result.set(index);
-		});
+			// only keep conjunctions in the result whose literals are all true
+			if (!matchingCtx.isConjunctionSatisfied(index, dataContainer.getNumberOfLiteralsInConjunction(index)))
+				result.clear(index);
+		}
 
 		return result;
 	}
@@ -190,13 +333,12 @@ private Set<SAPL> fetchPolicies(final Set<DisjunctiveFormula> formulas, Canonica
 	Bitmask findUnsatisfiableCandidates(
 			final CanonicalIndexMatchingContext matchingCtx,
 			final Predicate predicate,
-			final boolean predicateEvaluationResult) {
-		var result = matchingCtx.getCopyOfCandidates();
-
+			final boolean predicateEvaluationResult,
+			Bitmask result) {
 		if (predicateEvaluationResult)
-			result.and(predicate.getFalseForTruePredicate());
+			matchingCtx.intersectCandidates(predicate.getFalseForTruePredicate(), result);
 		else
-			result.and(predicate.getFalseForFalsePredicate());
+			matchingCtx.intersectCandidates(predicate.getFalseForFalsePredicate(), result);
 
 		return result;
 	}
@@ -16,11 +16,17 @@
 package io.sapl.prp.index.canonical;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import com.google.common.collect.BiMap;
+import com.google.common.collect.HashBiMap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
 
 import io.sapl.grammar.sapl.SAPL;
 import lombok.AccessLevel;
@@ -36,6 +42,13 @@ public class CanonicalIndexDataContainer {
 
 	private final Map<ConjunctiveClause, Set<DisjunctiveFormula>> clauseToFormulas;
 
+	private final BiMap<ConjunctiveClause, Integer> clauseToIndex;
+
+	private final Map<Bool, Predicate> boolToPredicate;
+
+	@EqualsAndHashCode.Exclude
+	private final EqualityPredicateGroup[] equalityGroupOfPredicate;
+
 	@Getter
 	private final ImmutableList<Predicate> predicateOrder;
 
@@ -43,8 +56,6 @@ public class CanonicalIndexDataContainer {
 
 	private final Map<DisjunctiveFormula, Bitmask> relatedCandidates;
 
-	private final Map<Integer, Set<CTuple>> conjunctionsInFormulasReferencingConjunction;
-
 	private final int[] numberOfLiteralsInConjunction;
 
 	private final int[] numberOfFormulasWithConjunction;
@@ -55,25 +66,49 @@ public class CanonicalIndexDataContainer {
 	public CanonicalIndexDataContainer(Map<DisjunctiveFormula, Set<SAPL>> formulaToDocuments,
 			Map<ConjunctiveClause, Set<DisjunctiveFormula>> clauseToFormulas, Collection<Predicate> predicateOrder,
 			List<Set<DisjunctiveFormula>> relatedFormulas, Map<DisjunctiveFormula, Bitmask> relatedCandidates,
-			Map<Integer, Set<CTuple>> conjunctionsInFormulasReferencingConjunction, int[] numberOfLiteralsInConjunction,
+			int[] numberOfLiteralsInConjunction,
 			int[] numberOfFormulasWithConjunction) {
 
 		this(formulaToDocuments, clauseToFormulas, ImmutableList.copyOf(predicateOrder), relatedFormulas,
-				relatedCandidates, conjunctionsInFormulasReferencingConjunction, numberOfLiteralsInConjunction,
-				numberOfFormulasWithConjunction, numberOfLiteralsInConjunction.length);
+				relatedCandidates, numberOfLiteralsInConjunction, numberOfFormulasWithConjunction,
+				numberOfLiteralsInConjunction.length);
 	}
 
 	public CanonicalIndexDataContainer(Map<DisjunctiveFormula, Set<SAPL>> formulaToDocuments,
 			Map<ConjunctiveClause, Set<DisjunctiveFormula>> clauseToFormulas, ImmutableList<Predicate> predicateOrder,
 			List<Set<DisjunctiveFormula>> relatedFormulas, Map<DisjunctiveFormula, Bitmask> relatedCandidates,
-			Map<Integer, Set<CTuple>> conjunctionsInFormulasReferencingConjunction, int[] numberOfLiteralsInConjunction,
+			int[] numberOfLiteralsInConjunction,
+			int[] numberOfFormulasWithConjunction, int numberOfConjunctions) {
+		this(formulaToDocuments, clauseToFormulas, HashBiMap.create(), predicateOrder, relatedFormulas,
+				relatedCandidates, numberOfLiteralsInConjunction, numberOfFormulasWithConjunction,
+				numberOfConjunctions);
+	}
+
+	/**
+	 * Creates a container which additionally retains the assignment of
+	 * conjunctions to their indexes. Only containers created with this constructor
+	 * can be updated incrementally by the
+	 * {@link CanonicalIndexDataCreationStrategy}.
+	 * 
+	 * Indexes in the range of 0 to numberOfConjunctions, which are not assigned to
+	 * a conjunction, are unused slots left behind by withdrawn conjunctions. They
+	 * are never referenced by any predicate and thus are never matched.
+	 */
+	public CanonicalIndexDataContainer(Map<DisjunctiveFormula, Set<SAPL>> formulaToDocuments,
+			Map<ConjunctiveClause, Set<DisjunctiveFormula>> clauseToFormulas,
+			BiMap<ConjunctiveClause, Integer> clauseToIndex, ImmutableList<Predicate> predicateOrder,
+			List<Set<DisjunctiveFormula>> relatedFormulas, Map<DisjunctiveFormula, Bitmask> relatedCandidates,
+			int[] numberOfLiteralsInConjunction,
 			int[] numberOfFormulasWithConjunction, int numberOfConjunctions) {
 		this.formulaToDocuments = formulaToDocuments;
 		this.clauseToFormulas = clauseToFormulas;
+		this.clauseToIndex = clauseToIndex;
 		this.predicateOrder = predicateOrder;
+		this.boolToPredicate = predicateOrder.stream()
+				.collect(Collectors.toMap(Predicate::getBool, Function.identity(), (first, second) -> first));
+		this.equalityGroupOfPredicate = EqualityPredicateGroup.groupPredicates(predicateOrder);
 		this.relatedFormulas = relatedFormulas;
 		this.relatedCandidates = relatedCandidates;
-		this.conjunctionsInFormulasReferencingConjunction = conjunctionsInFormulasReferencingConjunction;
 		this.numberOfLiteralsInConjunction = numberOfLiteralsInConjunction.clone();
 		this.numberOfFormulasWithConjunction = numberOfFormulasWithConjunction.clone();
 		this.numberOfConjunctions = numberOfConjunctions;
@@ -87,8 +122,17 @@ public int getNumberOfFormulasWithConjunction(int conjunctionIndex) {
 		return numberOfFormulasWithConjunction[conjunctionIndex];
 	}
 
-	public Set<CTuple> getConjunctionsInFormulasReferencingConjunction(int conjunctionIndex) {
-		return conjunctionsInFormulasReferencingConjunction.get(conjunctionIndex);
+	/**
+	 * @param position the position of a predicate in the predicate order
+	 * @return the group of equality predicates sharing the path of the predicate,
+	 *         or null, if the predicate is not part of a group
+	 */
+	EqualityPredicateGroup getEqualityGroup(int position) {
+		return equalityGroupOfPredicate[position];
+	}
+
+	Bitmask getConjunctionsOfFormula(DisjunctiveFormula formula) {
+		return relatedCandidates.get(formula);
 	}
 
 	Set<DisjunctiveFormula> getRelatedFormulas(int conjunctionIndex) {
@@ -99,4 +143,40 @@ Set<SAPL> getPoliciesIncludingFormula(DisjunctiveFormula formula) {
 		return formulaToDocuments.get(formula);
 	}
 
+	boolean isIncrementallyUpdatable() {
+		return clauseToIndex.size() > 0 || formulaToDocuments.isEmpty();
+	}
+
+	Map<DisjunctiveFormula, Set<SAPL>> getFormulaToDocuments() {
+		return Collections.unmodifiableMap(formulaToDocuments);
+	}
+
+	Map<ConjunctiveClause, Set<DisjunctiveFormula>> getClauseToFormulas() {
+		return Collections.unmodifiableMap(clauseToFormulas);
+	}
+
+	BiMap<ConjunctiveClause, Integer> getClauseToIndex() {
+		return Maps.unmodifiableBiMap(clauseToIndex);
+	}
+
+	Map<Bool, Predicate> getBoolToPredicate() {
+		return Collections.unmodifiableMap(boolToPredicate);
+	}
+
+	List<Set<DisjunctiveFormula>> getRelatedFormulas() {
+		return Collections.unmodifiableList(relatedFormulas);
+	}
+
+	Map<DisjunctiveFormula, Bitmask> getRelatedCandidates() {
+		return Collections.unmodifiableMap(relatedCandidates);
+	}
+
+	int[] getNumberOfLiteralsInConjunction() {
+		return numberOfLiteralsInConjunction.clone();
+	}
+
+	int[] getNumberOfFormulasWithConjunction() {
+		return numberOfFormulasWithConjunction.clone();
+	}
+
 }
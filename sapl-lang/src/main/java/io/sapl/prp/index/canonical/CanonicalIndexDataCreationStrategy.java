@@ -16,18 +16,25 @@
 package io.sapl.prp.index.canonical;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NavigableSet;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
+import com.google.common.base.Preconditions;
 import com.google.common.collect.BiMap;
 import com.google.common.collect.HashBiMap;
+import com.google.common.collect.ImmutableList;
 
 import io.sapl.grammar.sapl.SAPL;
 import io.sapl.prp.index.canonical.ordering.DefaultPredicateOrderStrategy;
@@ -77,14 +84,41 @@ private CanonicalIndexDataContainer constructContainerWithOrder(
 		int[] numberOfFormulasWithConjunction = mapIndexToNumberOfFormulasWithConjunction(clauseToIndex.inverse(),
 				clauseToFormulas);
 
-		Map<Integer, Set<CTuple>> conjunctionsInFormulasReferencingConjunction = getConjunctionReferenceMap(
-				clauseToFormulas, clauseToIndex, relatedCandidates);
-
 		List<Set<DisjunctiveFormula>> relatedFormulas = flattenIndexMap(indexToTargets);
 
-		return new CanonicalIndexDataContainer(formulaToDocuments, clauseToFormulas, predicateOrder, relatedFormulas,
-				relatedCandidates, conjunctionsInFormulasReferencingConjunction, numberOfLiteralsInConjunction,
-				numberOfFormulasWithConjunction);
+		return new CanonicalIndexDataContainer(formulaToDocuments, clauseToFormulas, clauseToIndex,
+				ImmutableList.copyOf(predicateOrder), relatedFormulas, relatedCandidates, numberOfLiteralsInConjunction,
+				numberOfFormulasWithConjunction, clauseToIndex.size());
+	}
+
+	/**
+	 * Derives a new container from an existing one by withdrawing and publishing
+	 * the given documents. Only the formulas, conjunctions and predicates affected
+	 * by the update are touched. Conjunctions keep their index. Indexes of
+	 * withdrawn conjunctions are reused for new conjunctions and predicates
+	 * introduced by the update are appended to the existing predicate order.
+	 * 
+	 * The existing container is not modified and remains usable. As the predicate
+	 * order is not re-optimized, a container should be re-created using
+	 * {@link #constructNew(Map, Map)} after a larger number of updates.
+	 * 
+	 * @param container          the container to update. Must have been created
+	 *                           by {@link #constructNew(Map, Map)} or by this
+	 *                           method.
+	 * @param withdrawnDocuments the documents to remove and their target formulas
+	 * @param publishedDocuments the documents to add and their target formulas
+	 * @return the updated container
+	 */
+	public CanonicalIndexDataContainer updateIncrementally(final CanonicalIndexDataContainer container,
+			final Map<SAPL, DisjunctiveFormula> withdrawnDocuments,
+			final Map<SAPL, DisjunctiveFormula> publishedDocuments) {
+		Preconditions.checkArgument(container.isIncrementallyUpdatable(),
+				"container does not retain the indexes of its conjunctions");
+
+		var update = new IncrementalUpdate(container);
+		withdrawnDocuments.forEach(update::withdraw);
+		publishedDocuments.forEach(update::publish);
+		return update.createContainer();
 	}
 
 	private void addNewFormulasToClauseMapping(final Collection<DisjunctiveFormula> formulas,
@@ -108,36 +142,6 @@ private void addNewFormulasToDocumentMapping(final Map<String, DisjunctiveFormul
 		}
 	}
 
-	private Map<Integer, Set<CTuple>> getConjunctionReferenceMap(
-			Map<ConjunctiveClause, Set<DisjunctiveFormula>> clauseToFormulas,
-			BiMap<ConjunctiveClause, Integer> clauseToIndex, Map<DisjunctiveFormula, Bitmask> formulaToClauses) {
-
-		Map<Integer, Set<CTuple>> conjunctionsInFormulasReferencingConjunction = new HashMap<>(clauseToFormulas.size(),
-				1.0F);
-
-		for (Entry<ConjunctiveClause, Set<DisjunctiveFormula>> clauseToFormulaEntry : clauseToFormulas.entrySet()) {
-
-			Integer clauseIndex = clauseToIndex.get(clauseToFormulaEntry.getKey());
-			Set<DisjunctiveFormula> formulasContainingClause = clauseToFormulaEntry.getValue();
-			Bitmask clausesInSameFormulas = new Bitmask();
-
-			formulasContainingClause.forEach(
-					formulaContainingClause -> clausesInSameFormulas.or(formulaToClauses.get(formulaContainingClause)));
-			clausesInSameFormulas.clear(clauseIndex);
-
-			Set<CTuple> cTupleSet = new HashSet<>(clausesInSameFormulas.numberOfBitsSet());
-			clausesInSameFormulas.forEachSetBit(relatedClauseIndex -> {
-				long numberOfSharedFormulas = formulasContainingClause.stream().map(formulaToClauses::get)
-						.filter(bitmask -> bitmask.isSet(relatedClauseIndex)).count();
-
-				cTupleSet.add(new CTuple(relatedClauseIndex, numberOfSharedFormulas));
-			});
-
-			conjunctionsInFormulasReferencingConjunction.put(clauseIndex, cTupleSet);
-		}
-		return conjunctionsInFormulasReferencingConjunction;
-	}
-
 	private Collection<PredicateInfo> collectPredicateInfos(Set<DisjunctiveFormula> formulas) {
 		Map<Bool, PredicateInfo> boolToPredicateInfo = new HashMap<>();
 		Set<Bool> negativesGroupedByFormula = new HashSet<>();
@@ -261,4 +265,202 @@ private Map<Integer, Set<DisjunctiveFormula>> mapIndexToFormulas(
 				.collect(Collectors.toMap(entry -> clauseToIndex.get(entry.getKey()), Entry::getValue));
 	}
 
+	/**
+	 * Working copy of the data of a container during an incremental update. All
+	 * collections and predicates taken over from the original container are
+	 * copied before being modified.
+	 */
+	private static class IncrementalUpdate {
+
+		private final Map<DisjunctiveFormula, Set<SAPL>> formulaToDocuments;
+
+		private final Map<ConjunctiveClause, Set<DisjunctiveFormula>> clauseToFormulas;
+
+		private final BiMap<ConjunctiveClause, Integer> clauseToIndex;
+
+		private final Map<Bool, Predicate> boolToPredicate;
+
+		private final Set<Bool> predicateOrder;
+
+		private final Set<Predicate> copiedPredicates = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		private final List<Set<DisjunctiveFormula>> relatedFormulas;
+
+		private final Map<DisjunctiveFormula, Bitmask> relatedCandidates;
+
+		private final NavigableSet<Integer> unusedIndexes = new TreeSet<>();
+
+		private final Set<ConjunctiveClause> affectedClauses = new HashSet<>();
+
+		private int[] numberOfLiteralsInConjunction;
+
+		private int[] numberOfFormulasWithConjunction;
+
+		private int numberOfConjunctions;
+
+		IncrementalUpdate(CanonicalIndexDataContainer container) {
+			formulaToDocuments              = new HashMap<>(container.getFormulaToDocuments());
+			clauseToFormulas                = new HashMap<>(container.getClauseToFormulas());
+			clauseToIndex                   = HashBiMap.create(container.getClauseToIndex());
+			boolToPredicate                 = new HashMap<>(container.getBoolToPredicate());
+			predicateOrder                  = container.getPredicateOrder().stream().map(Predicate::getBool)
+					.collect(Collectors.toCollection(LinkedHashSet::new));
+			relatedFormulas                 = new ArrayList<>(container.getRelatedFormulas());
+			relatedCandidates               = new HashMap<>(container.getRelatedCandidates());
+			numberOfLiteralsInConjunction   = container.getNumberOfLiteralsInConjunction();
+			numberOfFormulasWithConjunction = container.getNumberOfFormulasWithConjunction();
+			numberOfConjunctions            = container.getNumberOfConjunctions();
+
+			var usedIndexes = clauseToIndex.inverse();
+			for (int i = 0; i < numberOfConjunctions; i++) {
+				if (!usedIndexes.containsKey(i))
+					unusedIndexes.add(i);
+			}
+		}
+
+		void withdraw(SAPL document, DisjunctiveFormula formula) {
+			var documents = formulaToDocuments.get(formula);
+			if (documents == null || !documents.contains(document))
+				return;
+
+			if (documents.size() > 1) {
+				var remainingDocuments = new HashSet<>(documents);
+				remainingDocuments.remove(document);
+				formulaToDocuments.put(formula, remainingDocuments);
+				return;
+			}
+
+			formulaToDocuments.remove(formula);
+			relatedCandidates.remove(formula);
+			for (ConjunctiveClause clause : new HashSet<>(formula.getClauses())) {
+				var formulas = clauseToFormulas.get(clause);
+				if (formulas.size() == 1) {
+					removeClause(clause);
+				} else {
+					var remainingFormulas = new HashSet<>(formulas);
+					remainingFormulas.remove(formula);
+					clauseToFormulas.put(clause, remainingFormulas);
+					affectedClauses.add(clause);
+				}
+			}
+		}
+
+		void publish(SAPL document, DisjunctiveFormula formula) {
+			var documents = formulaToDocuments.get(formula);
+			if (documents != null) {
+				var extendedDocuments = new HashSet<>(documents);
+				extendedDocuments.add(document);
+				formulaToDocuments.put(formula, extendedDocuments);
+				return;
+			}
+
+			var documentsWithFormula = new HashSet<SAPL>();
+			documentsWithFormula.add(document);
+			formulaToDocuments.put(formula, documentsWithFormula);
+
+			var clauseIndexes = new Bitmask();
+			for (ConjunctiveClause clause : new HashSet<>(formula.getClauses())) {
+				var index    = clauseToIndex.get(clause);
+				var formulas = new HashSet<DisjunctiveFormula>();
+				if (index == null) {
+					index = addClause(clause);
+				} else {
+					formulas.addAll(clauseToFormulas.get(clause));
+				}
+				formulas.add(formula);
+				clauseToFormulas.put(clause, formulas);
+				clauseIndexes.set(index);
+				affectedClauses.add(clause);
+			}
+			relatedCandidates.put(formula, clauseIndexes);
+		}
+
+		private int addClause(ConjunctiveClause clause) {
+			int index;
+			if (unusedIndexes.isEmpty()) {
+				index = numberOfConjunctions++;
+				ensureCapacity(numberOfConjunctions);
+				relatedFormulas.add(Collections.emptySet());
+			} else {
+				index = unusedIndexes.pollFirst();
+			}
+			clauseToIndex.put(clause, index);
+			numberOfLiteralsInConjunction[index] = clause.size();
+
+			for (Literal literal : clause.getLiterals()) {
+				var predicate = modifiablePredicate(literal.getBool());
+				if (literal.isNegated())
+					predicate.getFalseForTruePredicate().set(index);
+				else
+					predicate.getFalseForFalsePredicate().set(index);
+				predicate.getConjunctions().set(index);
+			}
+			return index;
+		}
+
+		private void removeClause(ConjunctiveClause clause) {
+			int index = clauseToIndex.remove(clause);
+			clauseToFormulas.remove(clause);
+			affectedClauses.remove(clause);
+			unusedIndexes.add(index);
+
+			relatedFormulas.set(index, Collections.emptySet());
+			numberOfLiteralsInConjunction[index]   = 0;
+			numberOfFormulasWithConjunction[index] = 0;
+
+			for (Bool bool : clause.getLiterals().stream().map(Literal::getBool).collect(Collectors.toSet())) {
+				var predicate = modifiablePredicate(bool);
+				predicate.getConjunctions().clear(index);
+				predicate.getFalseForTruePredicate().clear(index);
+				predicate.getFalseForFalsePredicate().clear(index);
+				if (predicate.getConjunctions().isEmpty()) {
+					boolToPredicate.remove(bool);
+					predicateOrder.remove(bool);
+				}
+			}
+		}
+
+		private Predicate modifiablePredicate(Bool bool) {
+			var predicate = boolToPredicate.get(bool);
+			if (predicate == null) {
+				predicate = new Predicate(bool);
+				predicateOrder.add(bool);
+			} else if (!copiedPredicates.contains(predicate)) {
+				predicate = new Predicate(predicate);
+			} else {
+				return predicate;
+			}
+			copiedPredicates.add(predicate);
+			boolToPredicate.put(bool, predicate);
+			return predicate;
+		}
+
+		private void ensureCapacity(int capacity) {
+			if (capacity <= numberOfLiteralsInConjunction.length)
+				return;
+
+			int newLength = Math.max(capacity, 2 * numberOfLiteralsInConjunction.length);
+			numberOfLiteralsInConjunction   = Arrays.copyOf(numberOfLiteralsInConjunction, newLength);
+			numberOfFormulasWithConjunction = Arrays.copyOf(numberOfFormulasWithConjunction, newLength);
+		}
+
+		CanonicalIndexDataContainer createContainer() {
+			for (ConjunctiveClause clause : affectedClauses) {
+				int index    = clauseToIndex.get(clause);
+				var formulas = clauseToFormulas.get(clause);
+
+				relatedFormulas.set(index, formulas);
+				numberOfFormulasWithConjunction[index] = formulas.size();
+			}
+
+			var order = predicateOrder.stream().map(boolToPredicate::get).collect(ImmutableList.toImmutableList());
+
+			return new CanonicalIndexDataContainer(formulaToDocuments, clauseToFormulas, clauseToIndex, order,
+					relatedFormulas, relatedCandidates,
+					Arrays.copyOf(numberOfLiteralsInConjunction, numberOfConjunctions),
+					Arrays.copyOf(numberOfFormulasWithConjunction, numberOfConjunctions), numberOfConjunctions);
+		}
+
+	}
+
 }
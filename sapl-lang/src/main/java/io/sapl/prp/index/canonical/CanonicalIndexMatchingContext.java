@@ -15,11 +15,20 @@
  */
 package io.sapl.prp.index.canonical;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
 public class CanonicalIndexMatchingContext {
 
+	private static final ThreadLocal<Buffers> POOLED_BUFFERS = new ThreadLocal<>();
+
+	private final Buffers buffers;
+
 	private final Bitmask candidatesMask;
 
 	@Getter
@@ -29,32 +38,99 @@ public class CanonicalIndexMatchingContext {
 
 	private final int[] eliminatedFormulasWithConjunction;
 
+	private final Set<DisjunctiveFormula> satisfiedFormulas;
+
+	private final Bitmask resolvedEqualityGroups;
+
+	@Getter(AccessLevel.PACKAGE)
+	private final Bitmask satisfiedCandidates;
+
+	@Getter(AccessLevel.PACKAGE)
+	private final Bitmask unsatisfiedCandidates;
+
+	@Getter(AccessLevel.PACKAGE)
+	private final Bitmask orphanedCandidates;
+
 	@Getter
 	@Setter
 	private boolean errorsInTargets = false;
 
 	public CanonicalIndexMatchingContext(int numberOfConjunctions) {
-		candidatesMask = new Bitmask();
+		this(new Buffers(numberOfConjunctions), numberOfConjunctions);
+	}
+
+	private CanonicalIndexMatchingContext(Buffers buffers, int numberOfConjunctions) {
+		this.buffers = buffers;
+		buffers.size = numberOfConjunctions;
+
+		candidatesMask = buffers.candidatesMask;
 		candidatesMask.set(0, numberOfConjunctions);
 
-		matchingCandidatesMask = new Bitmask();
+		matchingCandidatesMask = buffers.matchingCandidatesMask;
 
-		trueLiteralsOfConjunction         = new int[numberOfConjunctions];
-		eliminatedFormulasWithConjunction = new int[numberOfConjunctions];
+		trueLiteralsOfConjunction         = buffers.trueLiteralsOfConjunction;
+		eliminatedFormulasWithConjunction = buffers.eliminatedFormulasWithConjunction;
+		satisfiedFormulas                 = buffers.satisfiedFormulas;
+		resolvedEqualityGroups            = buffers.resolvedEqualityGroups;
+
+		satisfiedCandidates   = buffers.satisfiedCandidates;
+		unsatisfiedCandidates = buffers.unsatisfiedCandidates;
+		orphanedCandidates    = buffers.orphanedCandidates;
+	}
+
+	/**
+	 * Creates a matching context which reuses the arrays and bitmasks of the last
+	 * context released on the current thread, if they are large enough. The
+	 * context must be released after its results have been consumed and must not
+	 * be used afterwards.
+	 *
+	 * @param numberOfConjunctions the number of conjunctions of the index
+	 * @return a matching context with all conjunctions as candidates
+	 */
+	static CanonicalIndexMatchingContext acquire(int numberOfConjunctions) {
+		var buffers = POOLED_BUFFERS.get();
+		if (buffers == null || buffers.capacity < numberOfConjunctions)
+			return new CanonicalIndexMatchingContext(numberOfConjunctions);
+
+		POOLED_BUFFERS.remove();
+		buffers.clear();
+		return new CanonicalIndexMatchingContext(buffers, numberOfConjunctions);
+	}
+
+	/**
+	 * Hands the arrays and bitmasks of this context to the next context acquired
+	 * on the current thread.
+	 */
+	void release() {
+		POOLED_BUFFERS.set(buffers);
 	}
 
 	Bitmask getCopyOfCandidates() {
 		return new Bitmask(candidatesMask);
 	}
 
+	void intersectCandidates(Bitmask mask, Bitmask result) {
+		result.setToIntersection(candidatesMask, mask);
+	}
+
 	boolean isRemainingCandidate(int candidateIndex) {
 		return candidatesMask.isSet(candidateIndex);
 	}
-
 	boolean isPredicateReferencedInCandidates(final Predicate predicate) {
 		return predicate.getConjunctions().intersects(candidatesMask);
 	}
 
+	boolean markEqualityGroupAsResolved(EqualityPredicateGroup group) {
+		if (resolvedEqualityGroups.isSet(group.getId()))
+			return false;
+		resolvedEqualityGroups.set(group.getId());
+		return true;
+	}
+
+	boolean isEqualityGroupResolved(EqualityPredicateGroup group) {
+		return resolvedEqualityGroups.isSet(group.getId());
+	}
+
 	void incrementTrueLiteralsForConjunction(int conjunctionIndex) {
 		trueLiteralsOfConjunction[conjunctionIndex] += 1;
 	}
@@ -63,6 +139,10 @@ void increaseNumberOfEliminatedFormulasForConjunction(int conjunctionIndex, long
 		eliminatedFormulasWithConjunction[conjunctionIndex] += numberOfEliminatedFormulas;
 	}
 
+	boolean markFormulaAsSatisfied(DisjunctiveFormula formula) {
+		return satisfiedFormulas.add(formula);
+	}
+
 	boolean isConjunctionSatisfied(int conjunctionIndex, int numberOfLiteralsInConjunction) {
 		return trueLiteralsOfConjunction[conjunctionIndex] == numberOfLiteralsInConjunction;
 	}
@@ -83,4 +163,48 @@ void removeCandidates(Bitmask candidatesToRemove) {
 		candidatesMask.andNot(candidatesToRemove);
 	}
 
+	private static class Buffers {
+
+		private final int capacity;
+
+		private int size;
+
+		private final Bitmask candidatesMask = new Bitmask();
+
+		private final Bitmask matchingCandidatesMask = new Bitmask();
+
+		private final int[] trueLiteralsOfConjunction;
+
+		private final int[] eliminatedFormulasWithConjunction;
+
+		private final Set<DisjunctiveFormula> satisfiedFormulas = new HashSet<>();
+
+		private final Bitmask resolvedEqualityGroups = new Bitmask();
+
+		private final Bitmask satisfiedCandidates = new Bitmask();
+
+		private final Bitmask unsatisfiedCandidates = new Bitmask();
+
+		private final Bitmask orphanedCandidates = new Bitmask();
+
+		private Buffers(int capacity) {
+			this.capacity                     = capacity;
+			trueLiteralsOfConjunction         = new int[capacity];
+			eliminatedFormulasWithConjunction = new int[capacity];
+		}
+
+		private void clear() {
+			candidatesMask.clear();
+			matchingCandidatesMask.clear();
+			Arrays.fill(trueLiteralsOfConjunction, 0, size, 0);
+			Arrays.fill(eliminatedFormulasWithConjunction, 0, size, 0);
+			satisfiedFormulas.clear();
+			resolvedEqualityGroups.clear();
+			satisfiedCandidates.clear();
+			unsatisfiedCandidates.clear();
+			orphanedCandidates.clear();
+		}
+
+	}
+
 }
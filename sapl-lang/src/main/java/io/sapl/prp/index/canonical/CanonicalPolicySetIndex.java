@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.prp.index.canonical;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import io.sapl.grammar.sapl.FirstApplicableCombiningAlgorithm;
+import io.sapl.grammar.sapl.Import;
+import io.sapl.grammar.sapl.Policy;
+import io.sapl.grammar.sapl.PolicyElement;
+import io.sapl.grammar.sapl.PolicySet;
+import io.sapl.grammar.sapl.SAPL;
+import io.sapl.grammar.sapl.impl.SAPLImplCustom;
+import io.sapl.interpreter.functions.FunctionContext;
+import io.sapl.interpreter.pip.AttributeContext;
+import io.sapl.prp.PolicyRetrievalResult;
+import io.sapl.prp.index.canonical.ordering.PredicateOrderStrategy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Canonical index of the targets of the policies contained in a policy set.
+ * Instead of evaluating the target of each policy of the set one after the
+ * other, the matching policies are determined by the same algorithm the
+ * {@link CanonicalImmutableParsedDocumentIndex} uses to determine the matching
+ * documents.
+ *
+ * The index is created once when the document containing the policy set is
+ * published and is attached to the policy set as an EMF adapter. Policy sets
+ * combined by the first-applicable algorithm are not indexed, as the algorithm
+ * depends on the targets being evaluated in order.
+ */
+@Slf4j
+public class CanonicalPolicySetIndex extends AdapterImpl {
+
+	// smaller policy sets are matched policy by policy
+	static final int MINIMUM_NUMBER_OF_POLICIES = 8;
+
+	private final CanonicalIndexDataContainer indexDataContainer;
+
+	private CanonicalPolicySetIndex(CanonicalIndexDataContainer indexDataContainer) {
+		this.indexDataContainer = indexDataContainer;
+	}
+
+	@Override
+	public boolean isAdapterForType(Object type) {
+		return type == CanonicalPolicySetIndex.class;
+	}
+
+	/**
+	 * @param policySet a policy set
+	 * @return the index of the policies of the set, or null, if the set has not
+	 *         been indexed
+	 */
+	public static CanonicalPolicySetIndex of(PolicySet policySet) {
+		return (CanonicalPolicySetIndex) EcoreUtil.getExistingAdapter(policySet, CanonicalPolicySetIndex.class);
+	}
+
+	/**
+	 * Matches the targets of the policies of the set against the authorization
+	 * context.
+	 *
+	 * @return the matching policies in the order in which they are defined in the
+	 *         policy set
+	 */
+	public Mono<PolicyRetrievalResult> retrievePolicies() {
+		return CanonicalIndexAlgorithm.match(indexDataContainer).map(CanonicalPolicySetIndex::toPoliciesInOrder);
+	}
+
+	private static PolicyRetrievalResult toPoliciesInOrder(PolicyRetrievalResult result) {
+		var matchingDocuments = result.getMatchingDocuments();
+		var matchingPolicies  = new ArrayList<PolicyOfSet>(matchingDocuments.size());
+		for (var document : matchingDocuments)
+			matchingPolicies.add((PolicyOfSet) document);
+		matchingPolicies.sort(Comparator.comparingInt(PolicyOfSet::getPosition));
+
+		var policies = new ArrayList<Policy>(matchingPolicies.size());
+		for (var policyOfSet : matchingPolicies)
+			policies.add(policyOfSet.getPolicy());
+		return new PolicyRetrievalResult(policies, result.isErrorsInTarget(), result.isPrpValidState());
+	}
+
+	/**
+	 * Attaches an index to the policy element of a document, if it is a policy set
+	 * with enough policies to benefit from an index.
+	 *
+	 * @param document               a SAPL document
+	 * @param predicateOrderStrategy the strategy of the document index, of which
+	 *                               the set index gets its own instance
+	 * @param attributeCtx           the attribute context used to resolve the
+	 *                               imports of the document
+	 * @param functionCtx            the function context used to resolve the
+	 *                               imports of the document
+	 */
+	static void indexPoliciesOfSet(
+			SAPL document,
+			PredicateOrderStrategy predicateOrderStrategy,
+			AttributeContext attributeCtx,
+			FunctionContext functionCtx) {
+		if (!(document.getPolicyElement() instanceof PolicySet))
+			return;
+
+		var policySet = (PolicySet) document.getPolicyElement();
+		if (of(policySet) != null || !isIndexable(policySet))
+			return;
+
+		var documents = new HashMap<String, SAPL>(policySet.getPolicies().size());
+		var targets   = new HashMap<String, DisjunctiveFormula>(policySet.getPolicies().size());
+		var position  = 0;
+		for (var policy : policySet.getPolicies()) {
+			var policyOfSet = new PolicyOfSet(policy, position++, document.getImports());
+			documents.put(policy.getSaplName(), policyOfSet);
+			targets.put(policy.getSaplName(),
+					CanonicalImmutableParsedDocumentIndex.retainTarget(policyOfSet, attributeCtx, functionCtx));
+		}
+
+		var creationStrategy = new CanonicalIndexDataCreationStrategy(predicateOrderStrategy.newInstanceForIndex());
+		policySet.eAdapters().add(new CanonicalPolicySetIndex(creationStrategy.constructNew(documents, targets)));
+		log.debug("indexed the {} policies of policy set {}", documents.size(), policySet.getSaplName());
+	}
+
+	private static boolean isIndexable(PolicySet policySet) {
+		if (policySet.getPolicies().size() < MINIMUM_NUMBER_OF_POLICIES
+				|| policySet.getAlgorithm() instanceof FirstApplicableCombiningAlgorithm)
+			return false;
+
+		// sets with duplicate policy names are evaluated to INDETERMINATE anyway
+		var policyNames = new HashSet<String>(policySet.getPolicies().size(), 1.0F);
+		for (var policy : policySet.getPolicies())
+			if (!policyNames.add(policy.getSaplName()))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Presents a policy of a set to the index data creation as if it was a
+	 * document of its own, which shares the imports of the document containing the
+	 * set. The policy remains contained in its set.
+	 */
+	private static class PolicyOfSet extends SAPLImplCustom {
+
+		private final Policy policy;
+
+		private final int position;
+
+		private final EList<Import> imports;
+
+		PolicyOfSet(Policy policy, int position, EList<Import> imports) {
+			this.policy   = policy;
+			this.position = position;
+			this.imports  = imports;
+		}
+
+		Policy getPolicy() {
+			return policy;
+		}
+
+		int getPosition() {
+			return position;
+		}
+
+		@Override
+		public PolicyElement getPolicyElement() {
+			return policy;
+		}
+
+		@Override
+		public EList<Import> getImports() {
+			return imports;
+		}
+
+	}
+
+}
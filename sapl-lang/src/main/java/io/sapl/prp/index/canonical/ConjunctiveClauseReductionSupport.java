@@ -57,7 +57,7 @@ private static boolean reduceFormulaStep(final List<Literal> data, final ListIte
 		ListIterator<Literal> forward = data.listIterator(pointer.nextIndex());
 		while (forward.hasNext()) {
 			Literal rhs = forward.next();
-			if (value.sharesBool(rhs)) {
+			if (rhs != null && value.sharesBool(rhs)) {
 				if (value.sharesNegation(rhs)) {
 					forward.set(null);
 				}
@@ -0,0 +1,339 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.prp.index.canonical;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+
+import io.sapl.api.interpreter.Val;
+import io.sapl.grammar.sapl.BasicIdentifier;
+import io.sapl.grammar.sapl.BasicValue;
+import io.sapl.grammar.sapl.ElementOf;
+import io.sapl.grammar.sapl.Equals;
+import io.sapl.grammar.sapl.EscapedKeyStep;
+import io.sapl.grammar.sapl.Expression;
+import io.sapl.grammar.sapl.FalseLiteral;
+import io.sapl.grammar.sapl.IndexStep;
+import io.sapl.grammar.sapl.KeyStep;
+import io.sapl.grammar.sapl.NullLiteral;
+import io.sapl.grammar.sapl.NumberLiteral;
+import io.sapl.grammar.sapl.StringLiteral;
+import io.sapl.grammar.sapl.TrueLiteral;
+import io.sapl.grammar.sapl.impl.ExpressionCompiler;
+import io.sapl.grammar.sapl.impl.ExpressionCompiler.Closure;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Predicates of the form {@code path == literal} or {@code literal in path},
+ * which share the same path, e.g., {@code action.method == "GET"} and
+ * {@code action.method == "POST"}. The predicates of a group are resolved
+ * together by evaluating the path once and looking up the predicates of the
+ * matching literals, instead of evaluating each predicate on its own.
+ *
+ * A predicate of the group evaluating to false eliminates all conjunctions it
+ * occurs in without negation at once. Only the predicates of the group which
+ * also occur negated have to update the candidates on their own.
+ */
+public class EqualityPredicateGroup {
+
+	enum Kind {
+		EQUALS, ELEMENT_OF
+	}
+
+	@Getter
+	private final int id;
+
+	private final Kind kind;
+
+	private final Closure path;
+
+	private final Map<Object, Predicate> predicateOfLiteral = new HashMap<>();
+
+	@Getter(AccessLevel.PACKAGE)
+	private final Bitmask conjunctions = new Bitmask();
+
+	private final Bitmask positiveConjunctions = new Bitmask();
+
+	private final Bitmask conjunctionsWithSeveralPredicates = new Bitmask();
+
+	private final List<Predicate> predicates = new ArrayList<>();
+
+	@Getter(AccessLevel.PACKAGE)
+	private final List<Predicate> negatedPredicates = new ArrayList<>();
+
+	private EqualityPredicateGroup(int id, Kind kind, Expression path) {
+		this.id   = id;
+		this.kind = kind;
+		this.path = ExpressionCompiler.compileExpression(path);
+	}
+
+	/**
+	 * Groups the predicates of an index by the paths they compare to literals.
+	 * Paths compared by a single predicate only are not grouped.
+	 *
+	 * @param predicateOrder the predicates of the index
+	 * @return the group of the predicate at each position of the predicate order,
+	 *         null for predicates which are not grouped
+	 */
+	static EqualityPredicateGroup[] groupPredicates(List<Predicate> predicateOrder) {
+		var candidates = new LinkedHashMap<GroupKey, List<GroupMember>>();
+		for (var position = 0; position < predicateOrder.size(); position++) {
+			var member = GroupMember.of(predicateOrder.get(position), position);
+			if (member != null)
+				candidates.computeIfAbsent(member.key, key -> new ArrayList<>()).add(member);
+		}
+
+		var groupOfPosition = new EqualityPredicateGroup[predicateOrder.size()];
+		var nextId          = 0;
+		for (var members : candidates.values()) {
+			if (members.size() < 2)
+				continue;
+
+			var first = members.get(0);
+			var group = new EqualityPredicateGroup(nextId++, first.key.kind, first.path);
+			for (var member : members)
+				if (group.add(member))
+					groupOfPosition[member.position] = group;
+		}
+		return groupOfPosition;
+	}
+
+	private boolean add(GroupMember member) {
+		// predicates comparing the path to equivalent literals, e.g., 1 and 1.0, are
+		// left to be evaluated on their own
+		if (predicateOfLiteral.putIfAbsent(member.literal, member.predicate) != null)
+			return false;
+
+		var positiveOccurrences = member.predicate.getFalseForFalsePredicate();
+		for (var index = positiveOccurrences.nextSetBit(0); index >= 0;
+				index = positiveOccurrences.nextSetBit(index + 1)) {
+			if (positiveConjunctions.isSet(index))
+				conjunctionsWithSeveralPredicates.set(index);
+		}
+		positiveConjunctions.or(positiveOccurrences);
+		conjunctions.or(member.predicate.getConjunctions());
+		predicates.add(member.predicate);
+		if (!member.predicate.getFalseForTruePredicate().isEmpty())
+			negatedPredicates.add(member.predicate);
+		return true;
+	}
+
+	/**
+	 * @param variables the variables of the authorization context
+	 * @return the value of the path shared by the predicates of the group
+	 */
+	Val evaluatePath(Map<String, JsonNode> variables) {
+		return path.evaluate(variables);
+	}
+
+	/**
+	 * Looks up the predicates of the group evaluating to true for a value of the
+	 * path. All other predicates of the group evaluate to false.
+	 *
+	 * @param pathValue the value of the path, which must not be an error
+	 * @return the predicates of the group evaluating to true
+	 */
+	List<Predicate> findTruePredicates(Val pathValue) {
+		if (pathValue.isUndefined())
+			return List.of();
+
+		if (kind == Kind.EQUALS) {
+			var predicate = predicateOfLiteral.get(literalKey(pathValue.get()));
+			return predicate == null ? List.of() : List.of(predicate);
+		}
+
+		if (!pathValue.isArray())
+			return List.of();
+
+		List<Predicate> truePredicates = new ArrayList<>(1);
+		for (var element : pathValue.getArrayNode()) {
+			var predicate = predicateOfLiteral.get(literalKey(element));
+			if (predicate != null && !truePredicates.contains(predicate))
+				truePredicates.add(predicate);
+		}
+		return truePredicates;
+	}
+
+	/**
+	 * Determines the conjunctions eliminated by the predicates of the group
+	 * evaluating to false, i.e., all conjunctions the predicates of the group occur
+	 * in without negation, except for those whose non-negated predicates of the
+	 * group all evaluated to true.
+	 *
+	 * @param truePredicates the predicates of the group evaluating to true
+	 * @param result         the mask to store the eliminated conjunctions in
+	 * @return the result mask
+	 */
+	Bitmask findConjunctionsOfFalsePredicates(List<Predicate> truePredicates, Bitmask result) {
+		result.clear();
+		result.or(positiveConjunctions);
+		for (var predicate : truePredicates) {
+			var positiveOccurrences = predicate.getFalseForFalsePredicate();
+			for (var index = positiveOccurrences.nextSetBit(0); index >= 0;
+					index = positiveOccurrences.nextSetBit(index + 1)) {
+				if (!conjunctionsWithSeveralPredicates.isSet(index) || allPredicatesInConjunctionAreTrue(index,
+						truePredicates))
+					result.clear(index);
+			}
+		}
+		return result;
+	}
+
+	private boolean allPredicatesInConjunctionAreTrue(int conjunctionIndex, List<Predicate> truePredicates) {
+		for (var predicate : predicates)
+			if (predicate.getFalseForFalsePredicate().isSet(conjunctionIndex) && !truePredicates.contains(predicate))
+				return false;
+		return true;
+	}
+
+	static Object literalKey(JsonNode node) {
+		if (node.isNumber())
+			return node.decimalValue().stripTrailingZeros();
+		if (node.isTextual())
+			return node.textValue();
+		if (node.isBoolean())
+			return node.booleanValue();
+		if (node.isNull())
+			return NullNode.getInstance();
+		// arrays and objects never equal a literal
+		return node;
+	}
+
+	@RequiredArgsConstructor
+	private static class GroupKey {
+
+		private final Kind kind;
+
+		private final List<Object> path;
+
+		@Override
+		public int hashCode() {
+			return 31 * kind.hashCode() + path.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof GroupKey))
+				return false;
+			var other = (GroupKey) obj;
+			return kind == other.kind && path.equals(other.path);
+		}
+
+	}
+
+	@RequiredArgsConstructor
+	private static class GroupMember {
+
+		private final GroupKey key;
+
+		private final Expression path;
+
+		private final Object literal;
+
+		private final Predicate predicate;
+
+		private final int position;
+
+		static GroupMember of(Predicate predicate, int position) {
+			var expression = predicate.getBool().getExpression();
+			if (expression == null)
+				return null;
+
+			if (expression instanceof Equals) {
+				var equals = (Equals) expression;
+				var member = of(Kind.EQUALS, equals.getLeft(), equals.getRight(), predicate, position);
+				return member != null ? member
+						: of(Kind.EQUALS, equals.getRight(), equals.getLeft(), predicate, position);
+			}
+			if (expression instanceof ElementOf) {
+				var elementOf = (ElementOf) expression;
+				return of(Kind.ELEMENT_OF, elementOf.getRight(), elementOf.getLeft(), predicate, position);
+			}
+			return null;
+		}
+
+		private static GroupMember of(
+				Kind kind,
+				Expression pathExpression,
+				Expression literalExpression,
+				Predicate predicate,
+				int position) {
+			var path    = pathOf(pathExpression);
+			var literal = literalOf(literalExpression);
+			if (path == null || literal == null)
+				return null;
+			return new GroupMember(new GroupKey(kind, path), pathExpression, literal, predicate, position);
+		}
+
+		private static List<Object> pathOf(Expression expression) {
+			if (!(expression instanceof BasicIdentifier))
+				return null;
+
+			var identifier = (BasicIdentifier) expression;
+			if (identifier.getFilter() != null || identifier.getSubtemplate() != null)
+				return null;
+
+			var path = new ArrayList<Object>(identifier.getSteps().size() + 1);
+			path.add(identifier.getIdentifier());
+			for (var step : identifier.getSteps()) {
+				if (step instanceof KeyStep)
+					path.add(((KeyStep) step).getId());
+				else if (step instanceof EscapedKeyStep)
+					path.add(((EscapedKeyStep) step).getId());
+				else if (step instanceof IndexStep)
+					path.add(((IndexStep) step).getIndex().intValue());
+				else
+					return null;
+			}
+			return path;
+		}
+
+		private static Object literalOf(Expression expression) {
+			if (!(expression instanceof BasicValue))
+				return null;
+
+			var basicValue = (BasicValue) expression;
+			if (!basicValue.getSteps().isEmpty() || basicValue.getFilter() != null
+					|| basicValue.getSubtemplate() != null)
+				return null;
+
+			var value = basicValue.getValue();
+			if (value instanceof StringLiteral)
+				return ((StringLiteral) value).getString();
+			if (value instanceof NumberLiteral)
+				return ((NumberLiteral) value).getNumber().stripTrailingZeros();
+			if (value instanceof TrueLiteral)
+				return Boolean.TRUE;
+			if (value instanceof FalseLiteral)
+				return Boolean.FALSE;
+			if (value instanceof NullLiteral)
+				return NullNode.getInstance();
+			return null;
+		}
+
+	}
+
+}
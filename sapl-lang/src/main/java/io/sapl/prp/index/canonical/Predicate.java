@@ -15,6 +15,9 @@
  */
 package io.sapl.prp.index.canonical;
 
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.base.Preconditions;
 
 import io.sapl.api.interpreter.Val;
@@ -26,18 +29,53 @@ public class Predicate {
 
 	private final Bool bool;
 
-	private final Bitmask conjunctions = new Bitmask();
+	private final Bitmask conjunctions;
+
+	private final Bitmask falseForTruePredicate;
 
-	private final Bitmask falseForTruePredicate = new Bitmask();
+	private final Bitmask falseForFalsePredicate;
 
-	private final Bitmask falseForFalsePredicate = new Bitmask();
+	private PredicateStatistics statistics;
 
 	public Predicate(final Bool bool) {
-		this.bool = Preconditions.checkNotNull(bool);
+		this.bool              = Preconditions.checkNotNull(bool);
+		conjunctions           = new Bitmask();
+		falseForTruePredicate  = new Bitmask();
+		falseForFalsePredicate = new Bitmask();
+	}
+
+	/**
+	 * Creates a copy of a predicate with independent bitmasks. Used to update an
+	 * index incrementally without modifying the predicates of the index the update
+	 * is based on.
+	 *
+	 * @param predicate the predicate to copy
+	 */
+	public Predicate(final Predicate predicate) {
+		bool                   = predicate.bool;
+		conjunctions           = new Bitmask(predicate.conjunctions);
+		falseForTruePredicate  = new Bitmask(predicate.falseForTruePredicate);
+		falseForFalsePredicate = new Bitmask(predicate.falseForFalsePredicate);
+		statistics             = predicate.statistics;
+	}
+
+	/**
+	 * Records the results and durations of all further evaluations of this
+	 * predicate during matching. Must be set before the predicate is used by an
+	 * index.
+	 *
+	 * @param statistics the statistics to record to
+	 */
+	public void collectStatistics(PredicateStatistics statistics) {
+		this.statistics = statistics;
 	}
 
 	public Mono<Val> evaluate() {
 		return getBool().evaluateExpression();
 	}
 
+	public Val evaluate(Map<String, JsonNode> variables) {
+		return getBool().evaluateExpression(variables);
+	}
+
 }
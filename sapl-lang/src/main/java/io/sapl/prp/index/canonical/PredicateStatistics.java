@@ -0,0 +1,80 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.prp.index.canonical;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import io.sapl.api.interpreter.Val;
+
+/**
+ * Runtime observations of the evaluations of a predicate during matching. Used
+ * by adaptive predicate order strategies to refine their cost and selectivity
+ * estimates.
+ */
+public class PredicateStatistics {
+
+	private final LongAdder evaluations = new LongAdder();
+
+	private final LongAdder trueResults = new LongAdder();
+
+	private final LongAdder falseResults = new LongAdder();
+
+	private final LongAdder evaluationNanos = new LongAdder();
+
+	private final LongAdder recordedEvaluations;
+
+	/**
+	 * @param recordedEvaluations counter shared by all statistics of an index,
+	 *                            incremented with each recorded evaluation
+	 */
+	public PredicateStatistics(LongAdder recordedEvaluations) {
+		this.recordedEvaluations = recordedEvaluations;
+	}
+
+	public void record(Val result, long nanos) {
+		evaluations.increment();
+		evaluationNanos.add(nanos);
+		if (result.isBoolean()) {
+			if (result.getBoolean())
+				trueResults.increment();
+			else
+				falseResults.increment();
+		}
+		recordedEvaluations.increment();
+	}
+
+	public long getEvaluations() {
+		return evaluations.sum();
+	}
+
+	public double getAverageEvaluationNanos() {
+		var count = evaluations.sum();
+		return count == 0L ? 0.0D : (double) evaluationNanos.sum() / count;
+	}
+
+	/**
+	 * @return the share of boolean results which have been true, or 0.5 if no
+	 *         boolean result has been observed yet
+	 */
+	public double getTrueRatio() {
+		var trueCount  = trueResults.sum();
+		var falseCount = falseResults.sum();
+		if (trueCount + falseCount == 0L)
+			return 0.5D;
+		return (double) trueCount / (trueCount + falseCount);
+	}
+
+}
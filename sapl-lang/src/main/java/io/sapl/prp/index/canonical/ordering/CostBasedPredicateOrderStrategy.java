@@ -0,0 +1,169 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.prp.index.canonical.ordering;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import com.google.common.base.Preconditions;
+
+import io.sapl.prp.index.canonical.Bool;
+import io.sapl.prp.index.canonical.Predicate;
+import io.sapl.prp.index.canonical.PredicateInfo;
+import io.sapl.prp.index.canonical.PredicateStatistics;
+
+/**
+ * Orders predicates like the {@link DefaultPredicateOrderStrategy}, but weighs
+ * each predicate by its evaluation cost and observed selectivity.
+ *
+ * Initially, the cost of a predicate is estimated from the AST of its
+ * expression. The strategy attaches {@link PredicateStatistics} to all ordered
+ * predicates. Once a predicate has been evaluated often enough, its measured
+ * average evaluation time replaces the static estimate, and its observed ratio
+ * of true and false results weighs the number of candidates it eliminates for
+ * either result.
+ *
+ * After a number of recorded evaluations, the strategy recommends re-ordering
+ * and the index re-creates its predicate order in the background. An instance
+ * keeps the statistics of one index and must not be shared between indexes.
+ */
+public class CostBasedPredicateOrderStrategy implements PredicateOrderStrategy {
+
+	public static final long DEFAULT_EVALUATIONS_BETWEEN_REORDERINGS = 100_000L;
+
+	// evaluations of a predicate before observations replace estimates
+	static final long MINIMUM_NUMBER_OF_SAMPLES = 100L;
+
+	// lower bound for the selectivity factor, so that no predicate scores zero
+	static final double MINIMUM_SELECTIVITY = 0.05D;
+
+	private final Map<Bool, PredicateStatistics> statistics = new ConcurrentHashMap<>();
+
+	private final LongAdder recordedEvaluations = new LongAdder();
+
+	private final long evaluationsBetweenReorderings;
+
+	private volatile long evaluationsAtLastOrdering;
+
+	public CostBasedPredicateOrderStrategy() {
+		this(DEFAULT_EVALUATIONS_BETWEEN_REORDERINGS);
+	}
+
+	/**
+	 * @param evaluationsBetweenReorderings number of recorded predicate
+	 *                                      evaluations after which a new order is
+	 *                                      recommended
+	 */
+	public CostBasedPredicateOrderStrategy(long evaluationsBetweenReorderings) {
+		Preconditions.checkArgument(evaluationsBetweenReorderings > 0L,
+				"evaluations between reorderings must be positive");
+		this.evaluationsBetweenReorderings = evaluationsBetweenReorderings;
+	}
+
+	@Override
+	public List<Predicate> createPredicateOrder(Collection<PredicateInfo> data) {
+		List<PredicateInfo> predicateInfos = new ArrayList<>(data);
+		evaluationsAtLastOrdering = recordedEvaluations.sum();
+
+		var bools = predicateInfos.stream().map(info -> info.getPredicate().getBool()).collect(Collectors.toSet());
+		statistics.keySet().retainAll(new HashSet<>(bools));
+
+		var staticCosts      = predicateInfos.stream().collect(Collectors.toMap(info -> info.getPredicate().getBool(),
+				info -> PredicateCostEstimator.estimateCost(info.getPredicate().getBool()), (first, second) -> first));
+		var nanosPerCostUnit = calibrateNanosPerCostUnit(staticCosts);
+
+		for (PredicateInfo predicateInfo : predicateInfos) {
+			var bool  = predicateInfo.getPredicate().getBool();
+			var costs = estimateCosts(bool, staticCosts.get(bool), nanosPerCostUnit);
+			predicateInfo.setScore(DefaultPredicateOrderStrategy.createScore(predicateInfo, costs)
+					* selectivityFactor(predicateInfo.getPredicate()));
+			predicateInfo.getPredicate().collectStatistics(
+					statistics.computeIfAbsent(bool, key -> new PredicateStatistics(recordedEvaluations)));
+		}
+
+		return predicateInfos.stream().sorted(Collections.reverseOrder()).map(PredicateInfo::getPredicate)
+				.collect(Collectors.toList());
+	}
+
+	@Override
+	public boolean isReorderingRecommended() {
+		return recordedEvaluations.sum() - evaluationsAtLastOrdering >= evaluationsBetweenReorderings;
+	}
+
+	@Override
+	public PredicateOrderStrategy newInstanceForIndex() {
+		return new CostBasedPredicateOrderStrategy(evaluationsBetweenReorderings);
+	}
+
+	/**
+	 * Relates the measured evaluation times to the static cost estimates of all
+	 * sufficiently sampled predicates, so that measured times can be compared with
+	 * the estimates of predicates which have not been sampled yet.
+	 */
+	private double calibrateNanosPerCostUnit(Map<Bool, Double> staticCosts) {
+		var sampledNanos = 0.0D;
+		var sampledCosts = 0.0D;
+		for (var entry : staticCosts.entrySet()) {
+			var observations = statistics.get(entry.getKey());
+			if (isSufficientlySampled(observations)) {
+				sampledNanos += observations.getAverageEvaluationNanos();
+				sampledCosts += entry.getValue();
+			}
+		}
+		return sampledCosts > 0.0D ? sampledNanos / sampledCosts : 0.0D;
+	}
+
+	private double estimateCosts(Bool bool, double staticCosts, double nanosPerCostUnit) {
+		var observations = statistics.get(bool);
+		if (nanosPerCostUnit > 0.0D && isSufficientlySampled(observations))
+			return Math.max(observations.getAverageEvaluationNanos() / nanosPerCostUnit,
+					PredicateCostEstimator.NODE_COST);
+		return staticCosts;
+	}
+
+	/**
+	 * Compares the number of candidates the predicate is expected to eliminate
+	 * given its observed results with the number expected for equally likely
+	 * results.
+	 */
+	private double selectivityFactor(Predicate predicate) {
+		var observations = statistics.get(predicate.getBool());
+		if (!isSufficientlySampled(observations))
+			return 1.0D;
+
+		var eliminatedIfTrue  = predicate.getFalseForTruePredicate().numberOfBitsSet();
+		var eliminatedIfFalse = predicate.getFalseForFalsePredicate().numberOfBitsSet();
+		var prior             = 0.5D * (eliminatedIfTrue + eliminatedIfFalse);
+		if (prior == 0.0D)
+			return 1.0D;
+
+		var trueRatio = observations.getTrueRatio();
+		var expected  = trueRatio * eliminatedIfTrue + (1.0D - trueRatio) * eliminatedIfFalse;
+		return Math.max(expected / prior, MINIMUM_SELECTIVITY);
+	}
+
+	private static boolean isSufficientlySampled(PredicateStatistics observations) {
+		return observations != null && observations.getEvaluations() >= MINIMUM_NUMBER_OF_SAMPLES;
+	}
+
+}
@@ -36,11 +36,14 @@ public List<Predicate> createPredicateOrder(Collection<PredicateInfo> data) {
 	}
 
 	private double createScore(final PredicateInfo predicateInfo) {
+		return createScore(predicateInfo, 1.0D);
+	}
+
+	static double createScore(final PredicateInfo predicateInfo, final double costs) {
 		var square = 2.0D;
 		var groupedPositives = predicateInfo.getGroupedNumberOfPositives();
 		var groupedNegatives = predicateInfo.getGroupedNumberOfNegatives();
 		var relevance = predicateInfo.getRelevance();
-		var costs = 1.0D;
 
 		return Math.pow(relevance, square - relevance) * (groupedPositives + groupedNegatives) / costs
 				* (square - Math.pow(((double) groupedPositives - (double) groupedNegatives)
@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.prp.index.canonical.ordering;
+
+import org.eclipse.emf.ecore.EObject;
+
+import io.sapl.grammar.sapl.BasicFunction;
+import io.sapl.grammar.sapl.ConditionStep;
+import io.sapl.grammar.sapl.FilterComponent;
+import io.sapl.grammar.sapl.RecursiveIndexStep;
+import io.sapl.grammar.sapl.RecursiveKeyStep;
+import io.sapl.grammar.sapl.RecursiveWildcardStep;
+import io.sapl.grammar.sapl.Regex;
+import io.sapl.prp.index.canonical.Bool;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Estimates the relative cost of evaluating a predicate from the AST of its
+ * expression. Every node costs one unit. Nodes which are known to be expensive
+ * to evaluate add an additional penalty.
+ */
+@UtilityClass
+class PredicateCostEstimator {
+
+	static final double NODE_COST = 1.0D;
+
+	static final double CONDITION_PENALTY = 4.0D;
+
+	static final double FUNCTION_PENALTY = 8.0D;
+
+	static final double REGEX_PENALTY = 8.0D;
+
+	static final double FILTER_PENALTY = 8.0D;
+
+	static final double RECURSIVE_STEP_PENALTY = 16.0D;
+
+	static double estimateCost(Bool bool) {
+		var expression = bool.getExpression();
+		if (expression == null)
+			return NODE_COST;
+
+		var cost = costOf(expression);
+		var iterator = expression.eAllContents();
+		while (iterator.hasNext())
+			cost += costOf(iterator.next());
+
+		return cost;
+	}
+
+	private static double costOf(EObject node) {
+		if (node instanceof RecursiveKeyStep || node instanceof RecursiveIndexStep
+				|| node instanceof RecursiveWildcardStep)
+			return NODE_COST + RECURSIVE_STEP_PENALTY;
+		if (node instanceof BasicFunction)
+			return NODE_COST + FUNCTION_PENALTY;
+		if (node instanceof Regex)
+			return NODE_COST + REGEX_PENALTY;
+		if (node instanceof FilterComponent)
+			return NODE_COST + FILTER_PENALTY;
+		if (node instanceof ConditionStep)
+			return NODE_COST + CONDITION_PENALTY;
+		return NODE_COST;
+	}
+
+}
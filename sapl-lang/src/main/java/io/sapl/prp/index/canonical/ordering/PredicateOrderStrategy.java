@@ -25,4 +25,26 @@ public interface PredicateOrderStrategy {
 
 	List<Predicate> createPredicateOrder(final Collection<PredicateInfo> data);
 
+	/**
+	 * Adaptive strategies may learn a better order while an index is in use. If
+	 * this method returns true, the index re-creates its predicate order in the
+	 * background.
+	 *
+	 * @return true, if the predicate order should be re-created
+	 */
+	default boolean isReorderingRecommended() {
+		return false;
+	}
+
+	/**
+	 * Creates the strategy for a separate index, e.g., the index of the policies of
+	 * a policy set. Strategies keeping state per index return a new instance with
+	 * the same configuration, stateless strategies may return themselves.
+	 *
+	 * @return a strategy of the same type and configuration for another index
+	 */
+	default PredicateOrderStrategy newInstanceForIndex() {
+		return this;
+	}
+
 }
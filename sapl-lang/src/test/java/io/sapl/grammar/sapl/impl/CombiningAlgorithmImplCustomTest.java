@@ -15,16 +15,142 @@
  */
 package io.sapl.grammar.sapl.impl;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.Decision;
+import io.sapl.grammar.sapl.Entitlement;
+import io.sapl.grammar.sapl.Expression;
+import io.sapl.grammar.sapl.Policy;
+import io.sapl.prp.PolicyRetrievalResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import reactor.test.publisher.PublisherProbe;
+
 class CombiningAlgorithmImplCustomTest {
 
+	private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+
 	@Test
 	void cannotBeCalled() {
 		var combiner = new CombiningAlgorithmImplCustom();
 		assertThrows(UnsupportedOperationException.class, () -> combiner.combineDecisions(null, true));
 	}
 
+	@Test
+	void denyOverridesDropsDocumentsAfterFinalDeny() {
+		var first     = Sinks.many().replay().<AuthorizationDecision>latest();
+		var remaining = PublisherProbe.<AuthorizationDecision>of(Flux.never());
+		var documents = List.of(policy(Decision.DENY, false, first.asFlux()),
+				policy(Decision.PERMIT, true, remaining.flux()));
+
+		StepVerifier.create(new DenyOverridesCombiningAlgorithmImplCustom().combineMatchingDocuments(
+				new PolicyRetrievalResult(documents, false, true)))
+				.then(() -> first.tryEmitNext(AuthorizationDecision.DENY)).expectNext(AuthorizationDecision.DENY)
+				.then(remaining::assertWasCancelled).thenCancel().verify();
+	}
+
+	@Test
+	void denyOverridesEvaluatesDocumentsWhichMayAddObligationsToDeny() {
+		var obligations = JSON.arrayNode().add("log");
+		var remaining   = PublisherProbe.of(Flux.just(AuthorizationDecision.DENY.withObligations(obligations)));
+		var documents   = List.of(policy(Decision.DENY, false, Flux.just(AuthorizationDecision.DENY)),
+				policy(Decision.DENY, true, remaining.flux()));
+
+		var decision = new DenyOverridesCombiningAlgorithmImplCustom()
+				.combineMatchingDocuments(new PolicyRetrievalResult(documents, false, true)).blockLast();
+
+		remaining.assertWasSubscribed();
+		assertThat(decision, is(AuthorizationDecision.DENY.withObligations(obligations)));
+	}
+
+	@Test
+	void remainingDocumentsAreEvaluatedWhenTheDominatingDecisionChanges() {
+		var first         = Sinks.many().replay().<AuthorizationDecision>latest();
+		var subscriptions = new AtomicInteger();
+		var remaining     = Flux.defer(() -> {
+								subscriptions.incrementAndGet();
+								return Flux.just(AuthorizationDecision.NOT_APPLICABLE);
+							});
+		var documents     = List.of(policy(Decision.PERMIT, false, first.asFlux()),
+				policy(Decision.DENY, false, remaining));
+
+		StepVerifier.create(new PermitOverridesCombiningAlgorithmImplCustom().combineMatchingDocuments(
+				new PolicyRetrievalResult(documents, false, true)))
+				.then(() -> first.tryEmitNext(AuthorizationDecision.PERMIT)).expectNext(AuthorizationDecision.PERMIT)
+				.then(() -> first.tryEmitNext(AuthorizationDecision.NOT_APPLICABLE))
+				.expectNext(AuthorizationDecision.NOT_APPLICABLE).then(first::tryEmitComplete).verifyComplete();
+		assertThat(subscriptions.get(), is(2));
+	}
+
+	@Test
+	void repeatedDecisionOfADocumentDoesNotResubscribeRemainingDocuments() {
+		var first         = Sinks.many().replay().<AuthorizationDecision>latest();
+		var subscriptions = new AtomicInteger();
+		var remaining     = Flux.defer(() -> {
+								subscriptions.incrementAndGet();
+								return Flux.just(AuthorizationDecision.NOT_APPLICABLE).concatWith(Flux.never());
+							});
+		var documents     = List.of(policy(Decision.PERMIT, false, first.asFlux()),
+				policy(Decision.PERMIT, false, remaining));
+
+		StepVerifier.create(new DenyOverridesCombiningAlgorithmImplCustom().combineMatchingDocuments(
+				new PolicyRetrievalResult(documents, false, true)))
+				.then(() -> first.tryEmitNext(AuthorizationDecision.PERMIT)).expectNext(AuthorizationDecision.PERMIT)
+				.then(() -> first.tryEmitNext(AuthorizationDecision.PERMIT)).expectNoEvent(Duration.ofMillis(50))
+				.thenCancel().verify();
+		assertThat(subscriptions.get(), is(1));
+	}
+
+	@Test
+	void documentsWithTransformationsAreAlwaysEvaluated() {
+		var remaining = PublisherProbe.of(Flux.just(AuthorizationDecision.NOT_APPLICABLE));
+		var document  = policy(Decision.PERMIT, false, remaining.flux());
+		when(document.getTransformation()).thenReturn(mock(Expression.class));
+		var documents = List.of(policy(Decision.PERMIT, false, Flux.just(AuthorizationDecision.PERMIT)), document);
+
+		new DenyUnlessPermitCombiningAlgorithmImplCustom()
+				.combineMatchingDocuments(new PolicyRetrievalResult(documents, false, true)).blockLast();
+
+		remaining.assertWasSubscribed();
+	}
+
+	@Test
+	void onlyOneApplicableDoesNotEvaluateSeveralMatchingDocuments() {
+		var first     = PublisherProbe.of(Flux.just(AuthorizationDecision.PERMIT));
+		var second    = PublisherProbe.of(Flux.just(AuthorizationDecision.PERMIT));
+		var documents = List.of(policy(Decision.PERMIT, false, first.flux()),
+				policy(Decision.PERMIT, false, second.flux()));
+
+		StepVerifier.create(new OnlyOneApplicableCombiningAlgorithmImplCustom().combineMatchingDocuments(
+				new PolicyRetrievalResult(documents, false, true))).expectNext(AuthorizationDecision.INDETERMINATE)
+				.verifyComplete();
+		first.assertWasNotSubscribed();
+		second.assertWasNotSubscribed();
+	}
+
+	private static Policy policy(Decision entitlement, boolean withObligation, Flux<AuthorizationDecision> decisions) {
+		var entitlementMock = mock(Entitlement.class);
+		when(entitlementMock.getDecision()).thenReturn(entitlement);
+		var policy = mock(Policy.class);
+		when(policy.getEntitlement()).thenReturn(entitlementMock);
+		if (withObligation)
+			when(policy.getObligation()).thenReturn(mock(Expression.class));
+		when(policy.evaluate()).thenReturn(decisions);
+		return policy;
+	}
+
 }
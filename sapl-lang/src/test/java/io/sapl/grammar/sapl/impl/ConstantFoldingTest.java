@@ -0,0 +1,141 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.grammar.sapl.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.sapl.api.interpreter.Val;
+import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.grammar.sapl.BasicIdentifier;
+import io.sapl.grammar.sapl.BasicValue;
+import io.sapl.grammar.sapl.Policy;
+import io.sapl.grammar.sapl.SAPL;
+import io.sapl.grammar.sapl.ValueDefinition;
+import io.sapl.grammar.sapl.impl.util.MockUtil;
+import io.sapl.grammar.sapl.impl.util.ParserUtil;
+import io.sapl.interpreter.DefaultSAPLInterpreter;
+
+class ConstantFoldingTest {
+
+	private static final DefaultSAPLInterpreter INTERPRETER = new DefaultSAPLInterpreter();
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	@ParameterizedTest
+	// @formatter:off
+	@ValueSource(strings = {
+			"policy \"p\" permit where var x = { \"a\": [1, 2 + 3, \"x\" + \"y\"], \"b\": undefined }; x.a[1] == 5;",
+			"policy \"p\" permit where subject.age > 10 * 2 && [1, 2, 3][1] == 2;",
+			"policy \"p\" permit where 10 / 0;",
+			"policy \"p\" permit where -(3 % 2) < 0 && !(true ^ true) && \"abc\" =~ \"a.*\";",
+			"policy \"p\" permit obligation { \"type\": \"log\", \"level\": 2 * 2 } advice [1, 2] :: { \"x\": @ }",
+			"policy \"p\" permit transform { \"name\": subject.name, \"constant\": { \"a\": 1 + 1 } }",
+			"policy \"p\" permit where subject :: { \"a\": 1 + 1 } == { \"a\": 2 };",
+			"policy \"p\" permit where mock.parameters(1 + 1, [2 * 2]) == [2, [4]];",
+			"policy \"p\" permit where { \"a\": 1 + 1 }.<test.numbers> == 3;",
+			"policy \"p\" permit where ([1, 2, 3] |- { @[0] : filter.remove }) == [2, 3];",
+			"policy \"p\" permit where [1, 2, 3][?(@ > 1 + 0)] == [2, 3];",
+			"set \"s\" deny-overrides for resource == \"r\" var limit = 6 * 7; "
+					+ "policy \"p\" permit where limit == 42; policy \"q\" deny obligation [limit, 1 + 1]"
+	})
+	// @formatter:on
+	void foldedDocumentsEvaluateToSameDecisions(String source) {
+		var document = INTERPRETER.parse(source);
+		var folded   = INTERPRETER.parse(source);
+		assertThat(ConstantFolding.fold(folded) > 0, is(true));
+
+		assertThat(decisions(folded), is(decisions(document)));
+	}
+
+	@Test
+	void constantsInBodyAndObligationsAreFolded() throws JsonProcessingException {
+		var document = INTERPRETER.parse("policy \"p\" permit where var x = { \"a\": [1, 2] }; "
+				+ "obligation { \"level\": 2 * 2 } advice \"plain\"");
+		var policy   = (Policy) document.getPolicyElement();
+
+		assertThat(ConstantFolding.fold(document), is(2));
+
+		var definition = (ValueDefinition) policy.getBody().getStatements().get(0);
+		assertThat(definition.getEval(), instanceOf(FoldedExpression.class));
+		assertThat(((FoldedExpression) definition.getEval()).getValue(), is(Val.ofJson("{ \"a\": [1, 2] }")));
+		assertThat(((FoldedExpression) policy.getObligation()).getValue(), is(Val.ofJson("{ \"level\": 4 }")));
+		// literals are not worth folding
+		assertThat(policy.getAdvice(), instanceOf(BasicValue.class));
+	}
+
+	@Test
+	void targetExpressionsAreNotFolded() {
+		var document = INTERPRETER.parse("policy \"p\" permit resource.type == \"a\" + \"b\"");
+
+		assertThat(ConstantFolding.fold(document), is(0));
+	}
+
+	@Test
+	void expressionsDependingOnSubscriptionFunctionsOrAttributesAreNotFolded() {
+		var document = INTERPRETER.parse("policy \"p\" permit where subject.age + 1 > 2; mock.nil(); "
+				+ "<test.numbers> == 1; nullVariable == null;");
+
+		assertThat(ConstantFolding.fold(document), is(0));
+	}
+
+	@Test
+	void constantSubTemplatesAreFolded() throws JsonProcessingException {
+		var document   = INTERPRETER.parse("policy \"p\" permit where var x = subject :: { \"a\": 1 + 1 };");
+		var definition = (ValueDefinition) ((Policy) document.getPolicyElement()).getBody().getStatements().get(0);
+
+		assertThat(ConstantFolding.fold(document), is(1));
+		var identifier = (BasicIdentifier) definition.getEval();
+		assertThat(((FoldedExpression) identifier.getSubtemplate()).getValue(), is(Val.ofJson("{ \"a\": 2 }")));
+	}
+
+	@Test
+	void foldingTwiceHasNoEffect() {
+		var document = INTERPRETER.parse("policy \"p\" permit where [1 + 1] == [2];");
+
+		assertThat(ConstantFolding.fold(document), is(1));
+		assertThat(ConstantFolding.fold(document), is(0));
+	}
+
+	@Test
+	void expressionsWhichAreNotAnalyzedAreAnalyzedBeforeFolding() throws IOException {
+		var expression = ParserUtil.expression("[1 + 1, subject]");
+
+		assertThat(ConstantFolding.fold(expression), is(1));
+		assertThat(ExpressionAnalysis.of(expression), notNullValue());
+	}
+
+	private static List<AuthorizationDecision> decisions(SAPL document) {
+		var subscription = AuthorizationSubscription.of(MAPPER.createObjectNode().put("age", 42).put("name", "a"),
+				"read", "r");
+		return document.evaluate().take(10)
+				.contextWrite(ctx -> MockUtil.setUpAuthorizationContext(ctx, subscription)).collectList().block();
+	}
+
+}
@@ -694,4 +694,19 @@ void evaluateRegExRightError() {
 		expressionErrors("\"aaa\" =~ (10/0)");
 	}
 
+	@Test
+	void evaluateRegExDynamicPatternTrue() {
+		expressionEvaluatesTo("\"test\" =~ [\"t.*\"][0]", "true");
+	}
+
+	@Test
+	void evaluateRegExDynamicPatternFalse() {
+		expressionEvaluatesTo("\"test\" =~ [\"x.*\"][0]", "false");
+	}
+
+	@Test
+	void evaluateRegExDynamicPatternError() {
+		expressionErrors("\"test\" =~ [\"***\"][0]");
+	}
+
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.grammar.sapl.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.IOException;
+import java.util.Set;
+
+import org.eclipse.emf.ecore.EObject;
+import org.junit.jupiter.api.Test;
+
+import io.sapl.grammar.sapl.Expression;
+import io.sapl.grammar.sapl.Policy;
+import io.sapl.grammar.sapl.PolicySet;
+import io.sapl.grammar.sapl.ValueDefinition;
+import io.sapl.grammar.sapl.impl.util.ParserUtil;
+import io.sapl.interpreter.DefaultSAPLInterpreter;
+
+class ExpressionAnalysisTest {
+
+	private static final DefaultSAPLInterpreter INTERPRETER = new DefaultSAPLInterpreter();
+
+	@Test
+	void parsedDocumentsAreAnalyzed() {
+		var document = INTERPRETER.parse("policy \"p\" permit subject.name == \"alice\"");
+		var target   = ((Policy) document.getPolicyElement()).getTargetExpression();
+
+		assertThat(ExpressionAnalysis.of(document), notNullValue());
+		assertThat(ExpressionAnalysis.of(target), notNullValue());
+		target.eAllContents().forEachRemaining(node -> assertThat(ExpressionAnalysis.of(node), notNullValue()));
+	}
+
+	@Test
+	void expressionsWhichAreNotAnalyzedHaveNoAnalysis() throws IOException {
+		assertThat(ExpressionAnalysis.of(ParserUtil.expression("subject.name")), nullValue());
+	}
+
+	@Test
+	void targetExpressionsAndTheirPartsAreInTarget() {
+		var document = INTERPRETER.parse("policy \"p\" permit subject.name == \"alice\" where action == \"read\";");
+		var policy   = (Policy) document.getPolicyElement();
+		var target   = policy.getTargetExpression();
+		var body     = policy.getBody();
+
+		assertThat(ExpressionAnalysis.of(target).isInTarget(), is(true));
+		target.eAllContents().forEachRemaining(node -> assertThat(ExpressionAnalysis.of(node).isInTarget(), is(true)));
+		assertThat(ExpressionAnalysis.of(policy).isInTarget(), is(false));
+		body.eAllContents().forEachRemaining(node -> assertThat(ExpressionAnalysis.of(node).isInTarget(), is(false)));
+		assertThat(TargetExpressionUtil.isInTargetExpression(target), is(true));
+		assertThat(TargetExpressionUtil.isInTargetExpression(body), is(false));
+	}
+
+	@Test
+	void targetExpressionsOfPolicySetsAndTheirPoliciesAreInTarget() {
+		var document  = INTERPRETER.parse("set \"s\" deny-overrides for resource.type == \"x\" "
+				+ "policy \"p\" permit action == \"read\"");
+		var policySet = (PolicySet) document.getPolicyElement();
+
+		assertThat(ExpressionAnalysis.of(policySet.getTargetExpression()).isInTarget(), is(true));
+		assertThat(ExpressionAnalysis.of(policySet.getPolicies().get(0).getTargetExpression()).isInTarget(), is(true));
+		assertThat(ExpressionAnalysis.of(policySet.getPolicies().get(0)).isInTarget(), is(false));
+	}
+
+	@Test
+	void literalExpressionsAreConstant() {
+		var analysis = analysisOfValue("[1, { \"a\": true }, \"x\" + \"y\"][1].a && (2 < 3)");
+
+		assertThat(analysis.isConstant(), is(true));
+		assertThat(analysis.isSideEffectFree(), is(true));
+		assertThat(analysis.isAttributeFree(), is(true));
+		assertThat(analysis.getReferencedVariables(), is(Set.of()));
+		assertThat(analysis.dependsOnlyOnSubscription(), is(true));
+	}
+
+	@Test
+	void subscriptionReferencesAreNotConstantButDependOnlyOnSubscription() {
+		var analysis = analysisOfValue("subject.name == resource.owner && action =~ \"read.*\"");
+
+		assertThat(analysis.isConstant(), is(false));
+		assertThat(analysis.isSideEffectFree(), is(true));
+		assertThat(analysis.getReferencedVariables(), is(Set.of("subject", "resource", "action")));
+		assertThat(analysis.dependsOnlyOnSubscription(), is(true));
+	}
+
+	@Test
+	void otherVariablesAreReferenced() {
+		var analysis = analysisOfValue("subject.name == someVariable");
+
+		assertThat(analysis.getReferencedVariables(), is(Set.of("subject", "someVariable")));
+		assertThat(analysis.dependsOnlyOnSubscription(), is(false));
+	}
+
+	@Test
+	void functionCallsAreNotSideEffectFree() {
+		var analysis = analysisOfValue("time.now(1) == 2");
+
+		assertThat(analysis.isAttributeFree(), is(true));
+		assertThat(analysis.isSideEffectFree(), is(false));
+		assertThat(analysis.isConstant(), is(false));
+		assertThat(analysis.dependsOnlyOnSubscription(), is(false));
+		assertThat(analysisOfValue("subject |- filter.blacken").isSideEffectFree(), is(false));
+		assertThat(analysisOfValue("subject |- { @.name : filter.remove }").isSideEffectFree(), is(false));
+	}
+
+	@Test
+	void attributesAreNeitherAttributeFreeNorSideEffectFree() {
+		for (var source : new String[] { "subject.<test.attr>", "subject.|<test.attr>", "<test.attr>",
+				"|<test.attr>" }) {
+			var analysis = analysisOfValue(source);
+			assertThat(source, analysis.isAttributeFree(), is(false));
+			assertThat(source, analysis.isSideEffectFree(), is(false));
+			assertThat(source, analysis.isConstant(), is(false));
+		}
+	}
+
+	@Test
+	void relativeExpressionsAreNotConstant() {
+		assertThat(analysisOfValue("[1, 2] :: { \"x\": @ }").isConstant(), is(false));
+		assertThat(analysisOfValue("[1, 2] :: { \"x\": @ }").isSideEffectFree(), is(true));
+	}
+
+	@Test
+	void analyzingAgainReplacesTheAnalysis() {
+		var document = INTERPRETER.parse("policy \"p\" permit subject.name == \"alice\"");
+		var target   = ((Policy) document.getPolicyElement()).getTargetExpression();
+
+		ExpressionAnalysis.analyze(document);
+
+		assertThat(target.eAdapters().stream().filter(ExpressionAnalysis.class::isInstance).count(), is(1L));
+		assertThat(ExpressionAnalysis.of(target).isInTarget(), is(true));
+	}
+
+	@Test
+	void analyzingSubTreeDeterminesTargetMembershipFromContainers() {
+		var document = INTERPRETER.parse("policy \"p\" permit subject.name == \"alice\"");
+		var target   = ((Policy) document.getPolicyElement()).getTargetExpression();
+
+		assertThat(ExpressionAnalysis.analyze(target.eContents().get(0)).isInTarget(), is(true));
+	}
+
+	private static ExpressionAnalysis analysisOfValue(String expression) {
+		var document = INTERPRETER.parse("policy \"p\" permit where var value = " + expression + ";");
+		var body     = ((Policy) document.getPolicyElement()).getBody();
+		return ExpressionAnalysis.of(value(body.getStatements().get(0)));
+	}
+
+	private static Expression value(EObject statement) {
+		return ((ValueDefinition) statement).getEval();
+	}
+
+}
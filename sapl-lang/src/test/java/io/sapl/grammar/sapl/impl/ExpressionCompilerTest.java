@@ -0,0 +1,215 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.grammar.sapl.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.grammar.sapl.And;
+import io.sapl.grammar.sapl.Condition;
+import io.sapl.grammar.sapl.EagerAnd;
+import io.sapl.grammar.sapl.Policy;
+import io.sapl.grammar.sapl.SAPL;
+import io.sapl.grammar.sapl.impl.util.MockUtil;
+import io.sapl.grammar.sapl.impl.util.ParserUtil;
+import io.sapl.interpreter.DefaultSAPLInterpreter;
+import io.sapl.interpreter.context.AuthorizationContext;
+import reactor.util.context.Context;
+
+class ExpressionCompilerTest {
+
+	private static final DefaultSAPLInterpreter INTERPRETER = new DefaultSAPLInterpreter();
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private static final AuthorizationSubscription SUBSCRIPTION = subscription();
+
+	@ParameterizedTest
+	// @formatter:off
+	@ValueSource(strings = {
+			"true", "false", "null", "undefined", "\"text\"", "1.50", "[]", "{}",
+			"[1, undefined, subject.name, subject.missing]", "[1, 10 / 0, 2]",
+			"{ \"a\": subject.age, \"b\": undefined, \"c\": 10 / 0 }", "{ \"a\": { \"b\": [1, 2] } }.a.b[1]",
+			"subject.name == \"alice\"", "subject.name != \"alice\"", "subject.age == 42.0",
+			"subject.missing == undefined", "subject.missing == subject.name", "[1, 2] == subject.numbers",
+			"subject.age < 50", "subject.age <= 42", "subject.age > 42", "subject.age >= 42",
+			"subject.name < 50", "subject.age < \"fifty\"",
+			"subject.age + 1", "subject.name + subject.age", "subject.missing + \"x\"", "subject.age - 2",
+			"subject.age * 2", "subject.age / 2", "subject.age / 0", "subject.age % 5", "subject.age % 0",
+			"subject.name - 1", "-subject.age", "+subject.age", "-subject.name", "!subject.isAdmin", "!subject.name",
+			"subject.isAdmin & action == \"read\"", "subject.isAdmin | action == \"write\"",
+			"subject.isAdmin ^ true", "subject.name & true",
+			"subject.isAdmin && subject.age > 18", "!subject.isAdmin && subject.name", "subject.name && true",
+			"subject.isAdmin || subject.name", "!subject.isAdmin || subject.age > 18", "subject.name || true",
+			"subject.name =~ \"a.*e\"", "subject.name =~ \"x.*\"", "subject.age =~ \"4.*\"",
+			"\"admin\" in subject.roles", "\"guest\" in subject.roles", "42 in subject.numbers",
+			"\"admin\" in subject.name",
+			"subject.roles[0] == \"admin\"", "subject.roles[-1] == \"user\"", "subject.roles[7] == \"user\"",
+			"subject.name[0] == \"a\"", "subject[\"name\"] == \"alice\"", "subject.entries.key",
+			"resource.owner.name == subject.name", "(subject.age > 18) == true", "(subject.roles)[1]",
+			"environment == null", "nullVariable == null", "undefinedVariable == undefined"
+	})
+	// @formatter:on
+	void compiledExpressionsAreEquivalentToInterpretedExpressions(String source) throws IOException {
+		var expression = ParserUtil.expression(source);
+		var closure    = ExpressionCompiler.compileExpression(expression);
+		assertThat(closure, is(notNullValue()));
+
+		var ctx       = MockUtil.setUpAuthorizationContext(Context.empty(), SUBSCRIPTION);
+		var variables = AuthorizationContext.getVariables(ctx);
+		var expected  = expression.evaluate().contextWrite(ctx).blockFirst();
+
+		assertThat(closure.evaluate(variables), is(expected));
+	}
+
+	@ParameterizedTest
+	// @formatter:off
+	@ValueSource(strings = {
+			"subject.name =~ subject.pattern", "mock.nil()", "subject.name |- filter.blacken",
+			"subject :: { \"a\": 1 }", "subject.<test.numbers>", "<test.numbers>", "subject.*", "subject..name",
+			"subject.roles[0:1]", "subject.roles[?(@ == \"admin\")]", "subject.roles[0, 1]", "@.name",
+			"[1, mock.nil()]", "{ \"a\": subject.<test.numbers> }", "subject.age > 18 && mock.nil()"
+	})
+	// @formatter:on
+	void expressionsOutsideOfTheSupportedSubsetAreNotCompiled(String source) throws IOException {
+		var expression = ParserUtil.expression(source);
+		assertThat(ExpressionCompiler.compileExpression(expression), is(nullValue()));
+	}
+
+	@ParameterizedTest
+	// @formatter:off
+	@ValueSource(strings = {
+			"policy \"p\" permit where var x = { \"a\": [1, subject.age + 3] }; x.a[1] == 45;",
+			"policy \"p\" permit where subject.age > 10 * 2 && subject.name =~ \"a.*\";",
+			"policy \"p\" permit where subject.age / 0;",
+			"policy \"p\" permit where subject.name && true;",
+			"policy \"p\" permit where subject.age > 18 && <test.numbers> == 1;",
+			"policy \"p\" permit where var n = <test.numbers>; n + subject.age > 40;",
+			"policy \"p\" permit where mock.parameters(subject.age + 1, [subject.name]) == [43, [\"a\"]];",
+			"policy \"p\" permit obligation { \"type\": \"log\", \"who\": subject.name } advice [subject.age]",
+			"policy \"p\" permit transform { \"name\": subject.name, \"upper\": subject.name + \"!\" }",
+			"policy \"p\" permit where subject :: { \"a\": @.age + 1 } == { \"a\": subject.age + 1 };",
+			"policy \"p\" permit where [1, 2, 3][?(@ > subject.age - 41)] == [2, 3];",
+			"set \"s\" deny-overrides for resource == \"r\" var limit = subject.age; "
+					+ "policy \"p\" permit where limit == 42; policy \"q\" deny obligation [limit, subject.name]"
+	})
+	// @formatter:on
+	void compiledDocumentsEvaluateToSameDecisions(String source) {
+		var document = INTERPRETER.parse(source);
+		var compiled = INTERPRETER.parse(source);
+		ConstantFolding.fold(compiled);
+		assertThat(ExpressionCompiler.compile(compiled) > 0, is(true));
+
+		assertThat(decisions(compiled), is(decisions(document)));
+	}
+
+	@Test
+	void attributeFreeOperandsOfAttributeAccessingExpressionsAreCompiled() {
+		var document  = INTERPRETER.parse("policy \"p\" permit where subject.age > 18 & <test.numbers> == 1;");
+		var condition = (Condition) ((Policy) document.getPolicyElement()).getBody().getStatements().get(0);
+
+		assertThat(ExpressionCompiler.compile(document), is(1));
+
+		var and = (EagerAnd) condition.getExpression();
+		assertThat(and.getLeft(), instanceOf(CompiledExpression.class));
+		assertThat(and.getRight(), is(not(instanceOf(CompiledExpression.class))));
+	}
+
+	@Test
+	void targetExpressionsAndLiteralsAreNotCompiled() {
+		var document = INTERPRETER.parse("policy \"p\" permit resource.type == \"a\" where true; \"text\";");
+
+		assertThat(ExpressionCompiler.compile(document), is(0));
+	}
+
+	@Test
+	void lazyOperatorsInTargetExpressionsAreNotCompiled() throws IOException {
+		// the validator rejects lazy operators in targets, hence the policy is built
+		// without parsing
+		var target = (And) ParserUtil.expression("subject.isAdmin && action == \"read\"");
+		var policy = SaplFactoryImpl.eINSTANCE.createPolicy();
+		policy.setTargetExpression(target);
+		ExpressionAnalysis.analyze(policy);
+
+		assertThat(ExpressionCompiler.compileExpression(target), is(nullValue()));
+		assertThat(ExpressionCompiler.compileExpression(target.getRight()), is(notNullValue()));
+	}
+
+	@Test
+	void compilingTwiceHasNoEffect() {
+		var document = INTERPRETER.parse("policy \"p\" permit where subject.age > 18;");
+
+		assertThat(ExpressionCompiler.compile(document), is(1));
+		assertThat(ExpressionCompiler.compile(document), is(0));
+	}
+
+	@Test
+	void compiledExpressionsKeepTheirReferencedVariables() {
+		var document  = INTERPRETER.parse("policy \"p\" permit where subject.age > 18;");
+		var condition = (Condition) ((Policy) document.getPolicyElement()).getBody().getStatements().get(0);
+
+		ExpressionCompiler.compile(document);
+
+		var analysis = ExpressionAnalysis.of(condition.getExpression());
+		assertThat(analysis.getReferencedVariables(), is(Set.of("subject")));
+		assertThat(analysis.isConstant(), is(false));
+		assertThat(ConstantFolding.fold(document), is(0));
+	}
+
+	@Test
+	void expressionsWhichAreNotAnalyzedAreAnalyzedBeforeCompiling() throws IOException {
+		var expression = ParserUtil.expression("[subject.age + 1, subject.<test.numbers>]");
+
+		assertThat(ExpressionCompiler.compile(expression), is(1));
+		assertThat(ExpressionAnalysis.of(expression), notNullValue());
+	}
+
+	private static List<AuthorizationDecision> decisions(SAPL document) {
+		var subscription = AuthorizationSubscription.of(MAPPER.createObjectNode().put("age", 42).put("name", "a"),
+				"read", "r");
+		return document.evaluate().take(10)
+				.contextWrite(ctx -> MockUtil.setUpAuthorizationContext(ctx, subscription)).collectList().block();
+	}
+
+	private static AuthorizationSubscription subscription() {
+		try {
+			var subject = MAPPER.readTree("{ \"name\": \"alice\", \"age\": 42, \"isAdmin\": true, "
+					+ "\"roles\": [\"admin\", \"user\"], \"numbers\": [1, 42.0], \"pattern\": \"a.*\", "
+					+ "\"entries\": [{ \"key\": 1 }, { \"other\": 2 }, { \"key\": 3 }] }");
+			var resource = MAPPER.readTree("{ \"owner\": { \"name\": \"alice\" } }");
+			return AuthorizationSubscription.of(subject, "read", resource);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
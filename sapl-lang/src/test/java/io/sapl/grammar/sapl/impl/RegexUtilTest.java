@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.grammar.sapl.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.regex.PatternSyntaxException;
+
+import org.junit.jupiter.api.Test;
+
+class RegexUtilTest {
+
+	@Test
+	void compileReturnsCachedPattern() {
+		var hitsBefore = RegexUtil.cacheStatistics().hitCount();
+		var first      = RegexUtil.compile("^cached-[a-z]+$");
+		var second     = RegexUtil.compile("^cached-[a-z]+$");
+		assertThat(second, is(sameInstance(first)));
+		assertThat(RegexUtil.cacheStatistics().hitCount(), is(greaterThan(hitsBefore)));
+	}
+
+	@Test
+	void compiledPatternMatches() {
+		assertThat(RegexUtil.compile("a+b").matcher("aaab").matches(), is(true));
+	}
+
+	@Test
+	void invalidPatternThrows() {
+		assertThrows(PatternSyntaxException.class, () -> RegexUtil.compile("***"));
+	}
+
+	@Test
+	void cacheIsBounded() {
+		for (int i = 0; i < RegexUtil.MAXIMUM_CACHE_SIZE + 100; i++)
+			RegexUtil.compile("bounded-" + i);
+		assertThat(RegexUtil.cacheSize(), is(lessThanOrEqualTo((long) RegexUtil.MAXIMUM_CACHE_SIZE)));
+	}
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.grammar.sapl.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import io.sapl.api.interpreter.Val;
+import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.grammar.sapl.Condition;
+import io.sapl.grammar.sapl.Expression;
+import io.sapl.grammar.sapl.Policy;
+import io.sapl.grammar.sapl.impl.util.MockUtil;
+import io.sapl.grammar.sapl.impl.util.ParserUtil;
+import io.sapl.interpreter.DefaultSAPLInterpreter;
+import io.sapl.interpreter.context.AuthorizationContext;
+import reactor.util.context.Context;
+
+class SharedExpressionCacheTest {
+
+	private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+
+	private static final DefaultSAPLInterpreter INTERPRETER = new DefaultSAPLInterpreter();
+
+	@ParameterizedTest
+	@ValueSource(strings = { "subject.name == \"alice\"", "subject.age > 18 && action == \"read\"",
+			"resource.owner == subject.name" })
+	void expressionsOnlyDependingOnTheSubscriptionAreShareable(String source) throws IOException {
+		assertThat(SharedExpressionCache.isShareable(analyzed(source)), is(true));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "true", "1 + 2", "subject.name == limit", "mock.nil()", "subject.<test.numbers>",
+			"<test.numbers>" })
+	void constantAndOtherExpressionsAreNotShareable(String source) throws IOException {
+		assertThat(SharedExpressionCache.isShareable(analyzed(source)), is(false));
+	}
+
+	@Test
+	void expressionsWhichHaveNotBeenAnalyzedAreNotShareable() throws IOException {
+		assertThat(SharedExpressionCache.isShareable(ParserUtil.expression("subject == \"alice\"")), is(false));
+		assertThat(SharedExpressionCache.isShareable(null), is(false));
+	}
+
+	@Test
+	void valuesAreReusedForEqualReferencedSubscriptionElements() throws IOException {
+		var cache      = new SharedExpressionCache();
+		var expression = analyzed("subject == \"alice\"");
+
+		assertThat(cache.evaluate(expression, variables("alice", "read")), is(Val.TRUE));
+		assertThat(cache.evaluate(expression, variables("alice", "write")), is(Val.TRUE));
+		assertThat(cache.numberOfReusedValues(), is(1L));
+
+		assertThat(cache.evaluate(expression, variables("bob", "read")), is(Val.FALSE));
+		assertThat(cache.numberOfReusedValues(), is(1L));
+	}
+
+	@Test
+	void evaluatingExpressionWhichIsNotShareableThrowsException() throws IOException {
+		var cache      = new SharedExpressionCache();
+		var expression = analyzed("subject == limit");
+		var variables  = variables("alice", "read");
+
+		assertThrows(IllegalArgumentException.class, () -> cache.evaluate(expression, variables));
+	}
+
+	@Test
+	void expressionsAreOnlyReferencedWeakly() throws IOException, InterruptedException {
+		var cache      = new SharedExpressionCache();
+		var expression = new WeakReference<>(analyzed("subject == \"alice\""));
+		cache.evaluate(expression.get(), variables("alice", "read"));
+		assertThat(cache.numberOfExpressions(), is(1L));
+
+		for (var i = 0; i < 50 && expression.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+
+		assertThat(expression.get(), is(nullValue()));
+		assertThat(cache.numberOfExpressions(), is(0L));
+	}
+
+	@Test
+	void sharedEvaluationUsesTheCacheOfTheContext() throws IOException {
+		var cache      = new SharedExpressionCache();
+		var expression = analyzed("subject == \"alice\"");
+
+		for (var action : new String[] { "read", "write" })
+			assertThat(SharedExpressionCache.evaluateShared(expression)
+					.contextWrite(ctx -> AuthorizationContext.setSharedExpressionCache(
+							MockUtil.setUpAuthorizationContext(ctx, subscription("alice", action)), cache))
+					.blockFirst(), is(Val.TRUE));
+
+		assertThat(cache.numberOfReusedValues(), is(1L));
+	}
+
+	@Test
+	void withoutCacheInTheContextExpressionsAreEvaluatedAsUsual() throws IOException {
+		var expression = analyzed("subject == \"alice\"");
+
+		assertThat(SharedExpressionCache.evaluateShared(expression)
+				.contextWrite(ctx -> MockUtil.setUpAuthorizationContext(ctx, subscription("alice", "read")))
+				.blockFirst(), is(Val.TRUE));
+	}
+
+	@Test
+	void targetsAndConditionsOfPoliciesAreShared() {
+		var cache    = new SharedExpressionCache();
+		var document = INTERPRETER
+				.parse("policy \"p\" permit subject == \"alice\" where subject != action;");
+
+		for (var action : new String[] { "read", "write" }) {
+			var ctx = AuthorizationContext.setSharedExpressionCache(
+					MockUtil.setUpAuthorizationContext(Context.empty(), subscription("alice", action)), cache);
+			assertThat(document.matches().contextWrite(ctx).block(), is(Val.TRUE));
+			assertThat(document.evaluate().contextWrite(ctx).blockFirst(), is(AuthorizationDecision.PERMIT));
+		}
+
+		// the target only references the subject, the condition references the action
+		assertThat(cache.numberOfReusedValues(), is(1L));
+	}
+
+	@Test
+	void compiledExpressionsAreShared() {
+		var cache    = new SharedExpressionCache();
+		var document = INTERPRETER.parse("policy \"p\" permit where subject == \"alice\";");
+		ExpressionCompiler.compile(document);
+		var condition = (Condition) ((Policy) document.getPolicyElement()).getBody().getStatements().get(0);
+		assertThat(condition.getExpression(), instanceOf(CompiledExpression.class));
+
+		for (var action : new String[] { "read", "write" }) {
+			var ctx = AuthorizationContext.setSharedExpressionCache(
+					MockUtil.setUpAuthorizationContext(Context.empty(), subscription("alice", action)), cache);
+			assertThat(document.evaluate().contextWrite(ctx).blockFirst(), is(AuthorizationDecision.PERMIT));
+		}
+
+		assertThat(cache.numberOfReusedValues(), is(1L));
+	}
+
+	private static Expression analyzed(String source) throws IOException {
+		var expression = ParserUtil.expression(source);
+		ExpressionAnalysis.analyze(expression);
+		return expression;
+	}
+
+	private static Map<String, JsonNode> variables(String subject, String action) {
+		return Map.of("subject", JSON.textNode(subject), "action", JSON.textNode(action));
+	}
+
+	private static AuthorizationSubscription subscription(String subject, String action) {
+		return AuthorizationSubscription.of(subject, action, "resource");
+	}
+
+}
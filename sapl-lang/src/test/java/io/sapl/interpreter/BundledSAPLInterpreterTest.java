@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.interpreter;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.junit.jupiter.api.Test;
+
+import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.interpreter.functions.AnnotationFunctionContext;
+import io.sapl.interpreter.pip.AnnotationAttributeContext;
+import reactor.core.publisher.Flux;
+
+class BundledSAPLInterpreterTest {
+
+	private static final String BUNDLED_POLICY = "policy \"bundled\" permit";
+
+	private static final String OTHER_POLICY = "policy \"other\" deny";
+
+	@Test
+	void bundledDocumentsAreNotParsed() throws IOException {
+		var delegate    = spy(new DefaultSAPLInterpreter());
+		var interpreter = new BundledSAPLInterpreter(bundle(), delegate);
+
+		var document = interpreter.parse(BUNDLED_POLICY);
+
+		assertThat(document.getPolicyElement().getSaplName(), is("bundled"));
+		verify(delegate, never()).parse(any(String.class));
+	}
+
+	@Test
+	void documentsMissingInTheBundleAreParsed() throws IOException {
+		var delegate    = spy(new DefaultSAPLInterpreter());
+		var interpreter = new BundledSAPLInterpreter(bundle(), delegate);
+
+		var document = interpreter.parse(OTHER_POLICY);
+
+		assertThat(document.getPolicyElement().getSaplName(), is("other"));
+		verify(delegate).parse(OTHER_POLICY);
+	}
+
+	@Test
+	void inputStreamsAreLookedUpInTheBundle() throws IOException {
+		var delegate    = spy(new DefaultSAPLInterpreter());
+		var interpreter = new BundledSAPLInterpreter(bundle(), delegate);
+
+		var document = interpreter
+				.parse(new ByteArrayInputStream(BUNDLED_POLICY.getBytes(StandardCharsets.UTF_8)));
+
+		assertThat(EcoreUtil.equals(document, new DefaultSAPLInterpreter().parse(BUNDLED_POLICY)), is(true));
+		verify(delegate, never()).parse(any(ByteArrayInputStream.class));
+	}
+
+	@Test
+	void evaluationAndAnalysisAreDelegated() throws IOException {
+		var delegate       = mock(SAPLInterpreter.class);
+		var interpreter    = new BundledSAPLInterpreter(bundle(), delegate);
+		var decisions      = Flux.just(AuthorizationDecision.PERMIT);
+		var analysisResult = new DocumentAnalysisResult(true, "bundled", DocumentType.POLICY, "");
+		var subscription   = AuthorizationSubscription.of("subject", "action", "resource");
+		var attributeCtx   = new AnnotationAttributeContext();
+		var functionCtx    = new AnnotationFunctionContext();
+		when(delegate.evaluate(subscription, BUNDLED_POLICY, attributeCtx, functionCtx, Map.of()))
+				.thenReturn(decisions);
+		when(delegate.analyze(BUNDLED_POLICY)).thenReturn(analysisResult);
+
+		assertThat(interpreter.evaluate(subscription, BUNDLED_POLICY, attributeCtx, functionCtx, Map.of()),
+				is(sameInstance(decisions)));
+		assertThat(interpreter.analyze(BUNDLED_POLICY), is(sameInstance(analysisResult)));
+	}
+
+	private static PolicyBundle bundle() throws IOException {
+		var bundle = new PolicyBundle();
+		bundle.add(BUNDLED_POLICY, new DefaultSAPLInterpreter().parse(BUNDLED_POLICY));
+		return bundle;
+	}
+
+}
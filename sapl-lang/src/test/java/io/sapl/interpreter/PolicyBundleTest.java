@@ -0,0 +1,192 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.interpreter;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.grammar.sapl.SAPL;
+import io.sapl.grammar.sapl.impl.ExpressionAnalysis;
+import io.sapl.grammar.sapl.impl.util.MockUtil;
+
+class PolicyBundleTest {
+
+	private static final DefaultSAPLInterpreter INTERPRETER = new DefaultSAPLInterpreter();
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private static final String POLICY = "policy \"p\" permit resource.type == \"a\" where subject.age > 18;";
+
+	@ParameterizedTest
+	// @formatter:off
+	@ValueSource(strings = {
+			"policy \"p\" permit",
+			"policy \"p\" deny resource.type == \"a\" & action != \"write\" where subject.age > 17.5; "
+					+ "obligation { \"log\": [1, null, true, subject.name] } advice \"x\" transform resource |- { @.secret : remove }",
+			"import filter.blacken policy \"p\" permit where var x = subject.name; blacken(x) == \"XXXXX\";",
+			"set \"s\" deny-overrides for resource.type == \"a\" var limit = 10; "
+					+ "policy \"p\" permit where subject.age > limit; "
+					+ "policy \"q\" deny where \"admin\" in subject.roles || subject.age < -limit;",
+			"policy \"p\" permit where subject.<test.numbers> == 1 && resource..type == [\"a\"] && subject.roles[?(@ == \"x\")] == [];"
+	})
+	// @formatter:on
+	void loadedDocumentsAreEqualToParsedDocuments(String source) throws IOException {
+		var parsed = INTERPRETER.parse(source);
+		var bundle = roundTrip(bundleOf(source));
+
+		var loaded = bundle.load(source).orElseThrow();
+
+		assertThat(EcoreUtil.equals(loaded, parsed), is(true));
+		assertThat(ExpressionAnalysis.of(loaded), is(notNullValue()));
+		assertThat(decisions(loaded), is(decisions(parsed)));
+	}
+
+	@Test
+	void documentsOfOtherSourcesAreNotLoaded() throws IOException {
+		var bundle = bundleOf(POLICY);
+
+		assertThat(bundle.load(POLICY + " ").isPresent(), is(false));
+		assertThat(bundle.load("policy \"q\" deny").isPresent(), is(false));
+	}
+
+	@Test
+	void eachLoadCreatesANewDocument() throws IOException {
+		var bundle = bundleOf(POLICY);
+
+		assertThat(bundle.load(POLICY).orElseThrow(), is(not(sameInstance(bundle.load(POLICY).orElseThrow()))));
+	}
+
+	@Test
+	void addingADocumentDoesNotModifyIt() throws IOException {
+		var document = INTERPRETER.parse(POLICY);
+		var resource = document.eResource();
+
+		new PolicyBundle().add(POLICY, document);
+
+		assertThat(document.eResource(), is(sameInstance(resource)));
+		assertThat(ExpressionAnalysis.of(document), is(notNullValue()));
+	}
+
+	@Test
+	void writtenBundlesContainAllDocuments() throws IOException {
+		var sources = List.of(POLICY, "policy \"q\" deny", "set \"s\" first-applicable policy \"p\" permit");
+		var bundle  = roundTrip(bundleOf(sources.toArray(new String[0])));
+
+		assertThat(bundle.size(), is(3));
+		for (var source : sources)
+			assertThat(bundle.load(source).isPresent(), is(true));
+	}
+
+	@Test
+	void readingOtherContentFails() {
+		var stream = new ByteArrayInputStream("policy \"p\" permit".getBytes());
+
+		assertThrows(IOException.class, () -> PolicyBundle.read(stream));
+	}
+
+	@Test
+	void readingOtherFormatVersionFails() throws IOException {
+		var bytes = new ByteArrayOutputStream();
+		var out   = new DataOutputStream(bytes);
+		out.writeInt(PolicyBundle.MAGIC_NUMBER);
+		out.writeInt(PolicyBundle.FORMAT_VERSION + 1);
+		out.writeInt(0);
+		var stream = new ByteArrayInputStream(bytes.toByteArray());
+
+		assertThrows(IOException.class, () -> PolicyBundle.read(stream));
+	}
+
+	@Test
+	void corruptedDocumentsAreNotLoaded() throws IOException {
+		var bytes  = new ByteArrayOutputStream();
+		var header = new DataOutputStream(bytes);
+		header.writeInt(PolicyBundle.MAGIC_NUMBER);
+		header.writeInt(PolicyBundle.FORMAT_VERSION);
+		try (var out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+			out.writeInt(1);
+			out.writeUTF(PolicyBundle.contentHash(POLICY));
+			out.writeInt(3);
+			out.write(new byte[] { 1, 2, 3 });
+		}
+		var bundle = PolicyBundle.read(new ByteArrayInputStream(bytes.toByteArray()));
+
+		assertThat(bundle.load(POLICY).isPresent(), is(false));
+	}
+
+	@Test
+	void writingDoesNotCloseTheStream() throws IOException {
+		var stream = new ByteArrayOutputStream() {
+			boolean closed;
+
+			@Override
+			public void close() {
+				closed = true;
+			}
+		};
+
+		bundleOf(POLICY).write(stream);
+
+		assertThat(stream.closed, is(false));
+	}
+
+	@Test
+	void contentHashIsHexEncodedSha256() {
+		assertThat(PolicyBundle.contentHash(""),
+				is("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855"));
+	}
+
+	private static PolicyBundle bundleOf(String... sources) throws IOException {
+		var bundle = new PolicyBundle();
+		for (var source : sources)
+			bundle.add(source, INTERPRETER.parse(source));
+		return bundle;
+	}
+
+	private static PolicyBundle roundTrip(PolicyBundle bundle) throws IOException {
+		var bytes = new ByteArrayOutputStream();
+		bundle.write(bytes);
+		return PolicyBundle.read(new ByteArrayInputStream(bytes.toByteArray()));
+	}
+
+	private static List<AuthorizationDecision> decisions(SAPL document) throws IOException {
+		var subject      = MAPPER.readTree("{ \"age\": 42, \"name\": \"alice\", \"roles\": [\"admin\"] }");
+		var resource     = MAPPER.readTree("{ \"type\": \"a\", \"secret\": 1 }");
+		var subscription = AuthorizationSubscription.of(subject, "read", resource);
+		return document.evaluate().take(3)
+				.contextWrite(ctx -> MockUtil.setUpAuthorizationContext(ctx, subscription)).collectList().block();
+	}
+
+}
@@ -102,6 +102,12 @@ void callingFunctionReturningExceptionReturnsError() throws InitializationExcept
 				valError());
 	}
 
+	@Test
+	void validationForFixedParametersPassesOnCorrectInput() throws InitializationException {
+		AnnotationFunctionContext context = new AnnotationFunctionContext(new ValidationLibrary());
+		assertThat(context.evaluate("validate.fixed", Val.of("")), is(Val.UNDEFINED));
+	}
+
 	@Test
 	void simpleFunctionCallNoParametersBadParameterNumberReturnsError() throws InitializationException {
 		AnnotationFunctionContext context = new AnnotationFunctionContext(new MockLibrary());
@@ -22,9 +22,11 @@
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import javax.validation.constraints.NotNull;
@@ -921,6 +923,153 @@ public Flux<Val> attribute(
 				.verifyComplete();
 	}
 
+	@Test
+	public void when_concurrentSubscriptionsForSameAttribute_pipIsInvokedOnce()
+			throws InitializationException,
+				IOException {
+		var invocations = new AtomicInteger();
+		@PolicyInformationPoint(name = "test")
+		class PIP {
+
+			@Attribute
+			public Flux<Val> attribute(Val leftHand) {
+				invocations.incrementAndGet();
+				return Flux.concat(Flux.just(leftHand), Flux.never());
+			}
+
+		}
+
+		var attributeCtx = new AnnotationAttributeContext(new PIP());
+		var variables    = Map.of("key1", (JsonNode) Val.JSON.textNode("valueOfKey"));
+		var expression   = ParserUtil.expression("\"a\".<test.attribute>");
+		var first        = expression.evaluate().contextWrite(this.constructContext(attributeCtx, variables));
+		var second       = expression.evaluate().contextWrite(this.constructContext(attributeCtx, variables));
+		StepVerifier.create(Flux.merge(first, second).take(2)).expectNext(Val.of("a"), Val.of("a"))
+				.verifyComplete();
+		assertThat(invocations.get(), is(1));
+	}
+
+	@Test
+	public void when_subscriptionsForDifferentLeftHandValues_pipIsInvokedForEach()
+			throws InitializationException,
+				IOException {
+		var invocations = new AtomicInteger();
+		@PolicyInformationPoint(name = "test")
+		class PIP {
+
+			@Attribute
+			public Flux<Val> attribute(Val leftHand) {
+				invocations.incrementAndGet();
+				return Flux.concat(Flux.just(leftHand), Flux.never());
+			}
+
+		}
+
+		var attributeCtx = new AnnotationAttributeContext(new PIP());
+		var variables    = Map.of("key1", (JsonNode) Val.JSON.textNode("valueOfKey"));
+		var first        = ParserUtil.expression("\"a\".<test.attribute>").evaluate()
+				.contextWrite(this.constructContext(attributeCtx, variables));
+		var second       = ParserUtil.expression("\"b\".<test.attribute>").evaluate()
+				.contextWrite(this.constructContext(attributeCtx, variables));
+		StepVerifier.create(Flux.merge(first, second).take(2)).expectNextCount(2).verifyComplete();
+		assertThat(invocations.get(), is(2));
+	}
+
+	@Test
+	public void when_subscriptionsForDifferentArguments_pipIsInvokedForEach()
+			throws InitializationException,
+				IOException {
+		var invocations = new AtomicInteger();
+		@PolicyInformationPoint(name = "test")
+		class PIP {
+
+			@Attribute
+			public Flux<Val> envAttribute(Flux<Val> param) {
+				invocations.incrementAndGet();
+				return Flux.concat(param, Flux.never());
+			}
+
+		}
+
+		var attributeCtx = new AnnotationAttributeContext(new PIP());
+		var variables    = Map.of("key1", (JsonNode) Val.JSON.textNode("valueOfKey"));
+		var first        = ParserUtil.expression("<test.envAttribute(\"a\")>").evaluate()
+				.contextWrite(this.constructContext(attributeCtx, variables));
+		var second       = ParserUtil.expression("<test.envAttribute(\"b\")>").evaluate()
+				.contextWrite(this.constructContext(attributeCtx, variables));
+		var third        = ParserUtil.expression("<test.envAttribute(\"a\")>").evaluate()
+				.contextWrite(this.constructContext(attributeCtx, variables));
+		StepVerifier.create(Flux.merge(first, second, third).take(3).collectList())
+				.expectNextMatches(values -> values.containsAll(List.of(Val.of("a"), Val.of("b")))).verifyComplete();
+		assertThat(invocations.get(), is(2));
+	}
+
+	@Test
+	public void when_lastSubscriberLeavesAndGracePeriodPassed_streamIsDisconnected()
+			throws InitializationException,
+				IOException {
+		var invocations   = new AtomicInteger();
+		var cancellations = new AtomicInteger();
+		@PolicyInformationPoint(name = "test")
+		class PIP {
+
+			@Attribute
+			public Flux<Val> envAttribute() {
+				invocations.incrementAndGet();
+				return Flux.concat(Flux.just(Val.TRUE), Flux.<Val>never())
+						.doOnCancel(cancellations::incrementAndGet);
+			}
+
+		}
+
+		var attributeCtx = new AnnotationAttributeContext(new PIP());
+		attributeCtx.setAttributeStreamGracePeriod(Duration.ZERO);
+		var variables  = Map.of("key1", (JsonNode) Val.JSON.textNode("valueOfKey"));
+		var expression = ParserUtil.expression("<test.envAttribute>");
+		StepVerifier.create(expression.evaluate().contextWrite(this.constructContext(attributeCtx, variables)))
+				.expectNext(Val.TRUE).thenCancel().verify();
+		assertThat(cancellations.get(), is(1));
+		assertThat(attributeCtx.numberOfSharedAttributeStreams(), is(0));
+
+		StepVerifier.create(expression.evaluate().contextWrite(this.constructContext(attributeCtx, variables)))
+				.expectNext(Val.TRUE).thenCancel().verify();
+		assertThat(invocations.get(), is(2));
+	}
+
+	@Test
+	public void when_subscriberReturnsWithinGracePeriod_streamIsReused()
+			throws InitializationException,
+				IOException {
+		var invocations = new AtomicInteger();
+		@PolicyInformationPoint(name = "test")
+		class PIP {
+
+			@Attribute
+			public Flux<Val> envAttribute() {
+				invocations.incrementAndGet();
+				return Flux.concat(Flux.just(Val.TRUE), Flux.<Val>never());
+			}
+
+		}
+
+		var attributeCtx = new AnnotationAttributeContext(new PIP());
+		attributeCtx.setAttributeStreamGracePeriod(Duration.ofMinutes(1));
+		var variables  = Map.of("key1", (JsonNode) Val.JSON.textNode("valueOfKey"));
+		var expression = ParserUtil.expression("<test.envAttribute>");
+		for (var i = 0; i < 3; i++)
+			StepVerifier.create(expression.evaluate().contextWrite(this.constructContext(attributeCtx, variables)))
+					.expectNext(Val.TRUE).thenCancel().verify();
+		assertThat(invocations.get(), is(1));
+		assertThat(attributeCtx.numberOfSharedAttributeStreams(), is(1));
+	}
+
+	@Test
+	public void when_negativeGracePeriod_fail() {
+		var attributeCtx = new AnnotationAttributeContext();
+		var gracePeriod  = Duration.ofSeconds(-1);
+		assertThrows(IllegalArgumentException.class, () -> attributeCtx.setAttributeStreamGracePeriod(gracePeriod));
+	}
+
 	private Function<Context, Context>
 			constructContext(AttributeContext attributeCtx, Map<String, JsonNode> variables) {
 		return ctx -> {
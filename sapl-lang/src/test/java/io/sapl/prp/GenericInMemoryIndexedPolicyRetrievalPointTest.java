@@ -16,6 +16,7 @@
 package io.sapl.prp;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.ArgumentMatchers.any;
@@ -24,18 +25,38 @@
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import io.sapl.api.pdp.AuthorizationSubscription;
 import io.sapl.grammar.sapl.AuthorizationDecisionEvaluable;
+import io.sapl.grammar.sapl.Condition;
+import io.sapl.grammar.sapl.Policy;
 import io.sapl.grammar.sapl.PolicyElement;
 import io.sapl.grammar.sapl.SAPL;
+import io.sapl.grammar.sapl.impl.CompiledExpression;
+import io.sapl.grammar.sapl.impl.util.MockUtil;
+import io.sapl.interpreter.DefaultSAPLInterpreter;
+import io.sapl.prp.PrpUpdateEvent.Type;
+import io.sapl.prp.PrpUpdateEvent.Update;
 import io.sapl.prp.index.ImmutableParsedDocumentIndex;
+import io.sapl.prp.index.naive.NaiveImmutableParsedDocumentIndex;
+import lombok.RequiredArgsConstructor;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
 
 class GenericInMemoryIndexedPolicyRetrievalPointTest {
 
+	private static final DefaultSAPLInterpreter INTERPRETER = new DefaultSAPLInterpreter();
+
+	private static final AuthorizationSubscription ALICE = AuthorizationSubscription.of("alice", "read", "resource");
+
 	PrpUpdateEventSource sourceMock;
 
 	ImmutableParsedDocumentIndex indexMock;
@@ -44,6 +65,7 @@ class GenericInMemoryIndexedPolicyRetrievalPointTest {
 	void beforeEach() {
 		sourceMock = mock(PrpUpdateEventSource.class);
 		var eventMock = mock(PrpUpdateEvent.class);
+		when(eventMock.getUpdates()).thenReturn(new PrpUpdateEvent.Update[0]);
 		when(sourceMock.getUpdates()).thenReturn(Flux.just(eventMock));
 
 		indexMock = mock(ImmutableParsedDocumentIndex.class);
@@ -130,4 +152,104 @@ void testConstructAndRetrieveWithNonSAPLResult() {
 
 	}
 
+	@Test
+	void testPublishedDocumentsAreCompiledWhenEnabled() {
+		// WHEN
+		var document = new DefaultSAPLInterpreter().parse("policy \"p\" permit where subject.age > 18;");
+		var event    = new PrpUpdateEvent(List.of(new Update(Type.PUBLISH, document, "source")));
+		when(sourceMock.getUpdates()).thenReturn(Flux.just(event));
+		when(indexMock.retrievePolicies()).thenReturn(Mono.just(new PolicyRetrievalResult()));
+
+		// DO
+		var prp = new GenericInMemoryIndexedPolicyRetrievalPoint(indexMock, sourceMock, true);
+		prp.retrievePolicies().blockFirst();
+		prp.dispose();
+
+		// THEN
+		var condition = (Condition) ((Policy) document.getPolicyElement()).getBody().getStatements().get(0);
+		assertThat(condition.getExpression(), instanceOf(CompiledExpression.class));
+	}
+
+	@Test
+	void testIndexUpdatesOnlyMatchPublishedDocuments() {
+		// WHEN
+		var updates       = Sinks.many().replay().<PrpUpdateEvent>all();
+		var retrievals    = new AtomicInteger();
+		var alicePolicy   = INTERPRETER.parse("policy \"alice\" permit subject == \"alice\"");
+		var bobPolicy     = INTERPRETER.parse("policy \"bob\" permit subject == \"bob\"");
+		var anotherPolicy = INTERPRETER.parse("policy \"another\" deny subject == \"alice\"");
+		when(sourceMock.getUpdates()).thenReturn(updates.asFlux());
+		updates.tryEmitNext(new PrpUpdateEvent(new Update(Type.PUBLISH, alicePolicy, "alice")));
+
+		// DO
+		var prp = new GenericInMemoryIndexedPolicyRetrievalPoint(
+				new CountingIndex(new NaiveImmutableParsedDocumentIndex(), retrievals), sourceMock);
+
+		// THEN
+		StepVerifier.create(retrieveForAlice(prp))
+				.expectNextMatches(result -> result.getMatchingDocuments().equals(List.of(alicePolicy)))
+				.then(() -> updates.tryEmitNext(new PrpUpdateEvent(new Update(Type.PUBLISH, bobPolicy, "bob"))))
+				.expectNoEvent(Duration.ofMillis(50))
+				.then(() -> updates
+						.tryEmitNext(new PrpUpdateEvent(new Update(Type.PUBLISH, anotherPolicy, "another"))))
+				.expectNextMatches(
+						result -> result.getMatchingDocuments().equals(List.of(alicePolicy, anotherPolicy)))
+				.then(() -> updates.tryEmitNext(new PrpUpdateEvent(new Update(Type.WITHDRAW, alicePolicy, "alice"))))
+				.expectNextMatches(result -> result.getMatchingDocuments().equals(List.of(anotherPolicy)))
+				.thenCancel().verify();
+		prp.dispose();
+
+		assertThat(retrievals.get(), is(1));
+	}
+
+	@Test
+	void testConsistencyChangesRetrieveAllPolicies() {
+		// WHEN
+		var updates     = Sinks.many().replay().<PrpUpdateEvent>all();
+		var retrievals  = new AtomicInteger();
+		var alicePolicy = INTERPRETER.parse("policy \"alice\" permit subject == \"alice\"");
+		when(sourceMock.getUpdates()).thenReturn(updates.asFlux());
+		updates.tryEmitNext(new PrpUpdateEvent(new Update(Type.PUBLISH, alicePolicy, "alice")));
+
+		// DO
+		var prp = new GenericInMemoryIndexedPolicyRetrievalPoint(
+				new CountingIndex(new NaiveImmutableParsedDocumentIndex(), retrievals), sourceMock);
+
+		// THEN
+		StepVerifier.create(retrieveForAlice(prp)).expectNextMatches(PolicyRetrievalResult::isPrpValidState)
+				.then(() -> updates.tryEmitNext(new PrpUpdateEvent(new Update(Type.INCONSISTENT, null, null))))
+				.expectNextMatches(result -> !result.isPrpValidState())
+				.then(() -> updates.tryEmitNext(new PrpUpdateEvent(new Update(Type.CONSISTENT, null, null))))
+				.expectNextMatches(result -> result.isPrpValidState()
+						&& result.getMatchingDocuments().equals(List.of(alicePolicy)))
+				.thenCancel().verify();
+		prp.dispose();
+
+		assertThat(retrievals.get(), is(3));
+	}
+
+	private static Flux<PolicyRetrievalResult> retrieveForAlice(PolicyRetrievalPoint prp) {
+		return prp.retrievePolicies().contextWrite(ctx -> MockUtil.setUpAuthorizationContext(ctx, ALICE));
+	}
+
+	@RequiredArgsConstructor
+	private static class CountingIndex implements ImmutableParsedDocumentIndex {
+
+		private final ImmutableParsedDocumentIndex index;
+
+		private final AtomicInteger retrievals;
+
+		@Override
+		public Mono<PolicyRetrievalResult> retrievePolicies() {
+			retrievals.incrementAndGet();
+			return index.retrievePolicies();
+		}
+
+		@Override
+		public ImmutableParsedDocumentIndex apply(PrpUpdateEvent event) {
+			return new CountingIndex(index.apply(event), retrievals);
+		}
+
+	}
+
 }
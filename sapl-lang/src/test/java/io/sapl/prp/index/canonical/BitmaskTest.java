@@ -17,12 +17,16 @@
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -55,4 +59,110 @@ void forEachSetBitTest() {
 		verify(listMock, times(2)).add(anyInt());
 	}
 
+	@Test
+	void rangesSpanningSeveralWords() {
+		var mask = new Bitmask();
+		mask.set(60, 130);
+
+		assertThat(mask.numberOfBitsSet(), is(70));
+		assertThat(mask.isSet(59), is(false));
+		assertThat(mask.isSet(60), is(true));
+		assertThat(mask.isSet(129), is(true));
+		assertThat(mask.isSet(130), is(false));
+		assertThat(mask.isSet(100_000), is(false));
+
+		mask.flip(64, 192);
+		assertThat(mask.numberOfBitsSet(), is(4 + 62));
+		assertThat(mask.nextSetBit(0), is(60));
+		assertThat(mask.nextSetBit(64), is(130));
+		assertThat(mask.nextSetBit(192), is(-1));
+	}
+
+	@Test
+	void forEachSetBitVisitsIndexesInAscendingOrder() {
+		var mask = new Bitmask();
+		mask.set(200);
+		mask.set(3);
+		mask.set(64);
+		var indexes = new ArrayList<Integer>();
+
+		mask.forEachSetBit(indexes::add);
+
+		assertThat(indexes, is(List.of(3, 64, 200)));
+		assertThat(mask.toString(), is("{3, 64, 200}"));
+	}
+
+	@Test
+	void setToIntersectionReplacesPreviousBits() {
+		var mask1 = new Bitmask();
+		mask1.set(0, 100);
+		var mask2 = new Bitmask();
+		mask2.set(50, 300);
+		var result = new Bitmask();
+		result.set(250, 400);
+
+		result.setToIntersection(mask1, mask2);
+
+		assertThat(result.numberOfBitsSet(), is(50));
+		assertThat(result.nextSetBit(0), is(50));
+		assertThat(result.isSet(250), is(false));
+	}
+
+	@Test
+	void clearRemovesAllBits() {
+		bitmask.clear();
+
+		assertThat(bitmask.isEmpty(), is(true));
+		assertThat(bitmask.toString(), is("{}"));
+	}
+
+	@Test
+	void negativeIndexesAreRejected() {
+		assertThrows(IndexOutOfBoundsException.class, () -> bitmask.set(-1));
+		assertThrows(IndexOutOfBoundsException.class, () -> bitmask.isSet(-1));
+		assertThrows(IndexOutOfBoundsException.class, () -> bitmask.set(4, 2));
+	}
+
+	@Test
+	void bulkOperationsBehaveLikeBitSet() {
+		var random = new Random(4711L);
+		for (var round = 0; round < 200; round++) {
+			var bitSet1 = new BitSet();
+			var bitSet2 = new BitSet();
+			var mask1   = new Bitmask();
+			var mask2   = new Bitmask();
+			for (var i = 0; i < 50; i++) {
+				var index1 = random.nextInt(500);
+				var index2 = random.nextInt(300);
+				bitSet1.set(index1);
+				mask1.set(index1);
+				bitSet2.set(index2);
+				mask2.set(index2);
+			}
+
+			assertThat(mask1.intersects(mask2), is(bitSet1.intersects(bitSet2)));
+
+			var operation = round % 4;
+			if (operation == 0) {
+				bitSet1.and(bitSet2);
+				mask1.and(mask2);
+			} else if (operation == 1) {
+				bitSet1.andNot(bitSet2);
+				mask1.andNot(mask2);
+			} else if (operation == 2) {
+				bitSet1.or(bitSet2);
+				mask1.or(mask2);
+			} else {
+				var from = random.nextInt(400);
+				var to   = from + random.nextInt(200);
+				bitSet1.flip(from, to);
+				mask1.flip(from, to);
+			}
+
+			assertThat(mask1.toString(), is(bitSet1.toString()));
+			assertThat(mask1.numberOfBitsSet(), is(bitSet1.cardinality()));
+			assertThat(mask1.isEmpty(), is(bitSet1.isEmpty()));
+		}
+	}
+
 }
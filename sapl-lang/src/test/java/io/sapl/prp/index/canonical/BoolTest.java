@@ -26,14 +26,20 @@
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.when;
 
+import java.io.IOException;
 import java.util.Collections;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
 import io.sapl.api.interpreter.Val;
 import io.sapl.grammar.sapl.Expression;
+import io.sapl.grammar.sapl.impl.util.ParserUtil;
 import reactor.core.publisher.Flux;
 
 class BoolTest {
@@ -149,4 +155,38 @@ void evaluating_bool_with_impossible_expression_should_return_impossible_value()
 		assertThat(result.isBoolean(), is(true));
 	}
 
+	@Test
+	void constant_bool_is_synchronously_evaluable() {
+		assertThat(constantBool.isSynchronouslyEvaluable(), is(true));
+		assertThat(constantBool.evaluateExpression(Map.of()), is(Val.FALSE));
+	}
+
+	@Test
+	void pure_expression_is_evaluated_synchronously() throws IOException {
+		var bool      = new Bool(ParserUtil.expression("subject.name == \"alice\""), Collections.emptyMap());
+		var variables = Map.<String, JsonNode>of("subject",
+				JsonNodeFactory.instance.objectNode().put("name", "alice"));
+
+		assertThat(bool.isSynchronouslyEvaluable(), is(true));
+		assertThat(bool.evaluateExpression(variables), is(Val.TRUE));
+		assertThat(bool.evaluateExpression(Map.of()), is(Val.FALSE));
+	}
+
+	@Test
+	void synchronous_evaluation_with_non_boolean_result_should_return_error() throws IOException {
+		var bool   = new Bool(ParserUtil.expression("subject"), Collections.emptyMap());
+		var result = bool.evaluateExpression(Map.of());
+
+		assertThat(result.isError(), is(true));
+		assertThat(result.getMessage(), is(Bool.EXPRESSION_NOT_BOOLEAN));
+	}
+
+	@Test
+	void function_calls_are_not_synchronously_evaluable() throws IOException {
+		var bool = new Bool(ParserUtil.expression("standard.length(subject) == 1"), Collections.emptyMap());
+
+		assertThat(bool.isSynchronouslyEvaluable(), is(false));
+		assertThat(expressionBool.isSynchronouslyEvaluable(), is(false));
+	}
+
 }
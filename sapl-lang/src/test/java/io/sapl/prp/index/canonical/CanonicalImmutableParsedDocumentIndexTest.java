@@ -21,10 +21,13 @@
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
@@ -39,7 +42,9 @@
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -55,8 +60,10 @@
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import io.sapl.api.interpreter.PolicyEvaluationException;
+import io.sapl.api.interpreter.Val;
 import io.sapl.api.pdp.AuthorizationSubscription;
 import io.sapl.grammar.sapl.SAPL;
+import io.sapl.grammar.sapl.impl.SharedExpressionCache;
 import io.sapl.interpreter.DefaultSAPLInterpreter;
 import io.sapl.interpreter.SAPLInterpreter;
 import io.sapl.interpreter.context.AuthorizationContext;
@@ -67,6 +74,7 @@
 import io.sapl.prp.PrpUpdateEvent.Type;
 import io.sapl.prp.PrpUpdateEvent.Update;
 import io.sapl.prp.index.ImmutableParsedDocumentIndex;
+import io.sapl.prp.index.canonical.ordering.CostBasedPredicateOrderStrategy;
 import io.sapl.prp.index.canonical.ordering.NoPredicateOrderStrategy;
 
 @Timeout(5)
@@ -122,7 +130,8 @@ void test_apply_update_events() {
 
 		var updatedIndex = spyIndex.apply(prpUpdateEvent);
 		verify(spyIndex, times(2)).applyUpdate(any(), argThat(e -> e.getType() == Type.PUBLISH));
-		verify(spyIndex, times(1)).recreateIndex(argThat(map -> map.size() == 2), eq(true));
+		verify(spyIndex, times(1)).recreateIndex(argThat(map -> map.size() == 2), argThat(map -> map.size() == 2),
+				eq(true));
 		spyIndex = (CanonicalImmutableParsedDocumentIndex) spy(updatedIndex);
 
 		/* WITHDRAW + INCONSISTENT */
@@ -130,7 +139,7 @@ void test_apply_update_events() {
 				update(Type.INCONSISTENT, null));
 		updatedIndex   = spyIndex.apply(prpUpdateEvent);
 		verify(spyIndex, times(2)).applyUpdate(any(), argThat(e -> e.getType() == Type.WITHDRAW));
-		verify(spyIndex, times(1)).recreateIndex(argThat(Map::isEmpty), eq(false));
+		verify(spyIndex, times(1)).recreateIndex(argThat(Map::isEmpty), argThat(Map::isEmpty), eq(false));
 		spyIndex = (CanonicalImmutableParsedDocumentIndex) spy(updatedIndex);
 
 		assertFalse(updatedIndex.retrievePolicies().block().isPrpValidState());
@@ -139,7 +148,232 @@ void test_apply_update_events() {
 		prpUpdateEvent = new PrpUpdateEvent();
 		updatedIndex   = spyIndex.apply(prpUpdateEvent);
 		verify(spyIndex, times(0)).applyUpdate(any(), any());
-		verify(spyIndex, times(1)).recreateIndex(argThat(Map::isEmpty), eq(false));
+		verify(spyIndex, times(0)).recreateIndex(any(), any(), anyBoolean());
+		verify(spyIndex, times(0)).updateIndex(any(), any(), any(), any(), anyBoolean());
+	}
+
+	@Test
+	void small_updates_are_applied_incrementally() {
+		var index = (CanonicalImmutableParsedDocumentIndex) emptyIndex.apply(new PrpUpdateEvent(
+				publish("policy \"p_0\" permit resource.x0"), publish("policy \"p_1\" permit resource.x1"),
+				publish("policy \"p_2\" permit resource.x2")));
+
+		var spyIndex     = spy(index);
+		var updatedIndex = spyIndex.apply(new PrpUpdateEvent(publish("policy \"p_3\" permit resource.x3")));
+		verify(spyIndex, times(1)).updateIndex(argThat(map -> map.size() == 4), argThat(map -> map.size() == 4),
+				argThat(Map::isEmpty), argThat(map -> map.size() == 1), eq(true));
+		verify(spyIndex, times(0)).recreateIndex(any(), any(), anyBoolean());
+
+		bindings.put("x3", true);
+		var result = retrieve(updatedIndex);
+		assertThat(result.getMatchingDocuments(), hasSize(1));
+		assertThat(((SAPL) result.getMatchingDocuments().iterator().next()).getPolicyElement().getSaplName(),
+				is("p_3"));
+	}
+
+	@Test
+	void predicates_only_depending_on_the_subscription_are_shared_between_subscriptions() {
+		var index             = emptyIndex.apply(new PrpUpdateEvent(publish("policy \"adult\" permit subject.age > 17"),
+				publish("policy \"adult_reader\" permit subject.age > 17 & action == \"read\"")));
+		var sharedExpressions = new SharedExpressionCache();
+		var subject           = json.objectNode().put("age", 42);
+
+		var reading = retrieveShared(index, AuthorizationSubscription.of(subject, "read", "r"), sharedExpressions);
+		var writing = retrieveShared(index, AuthorizationSubscription.of(subject, "write", "r"), sharedExpressions);
+
+		assertThat(namesOf(reading), is(Set.of("adult", "adult_reader")));
+		assertThat(namesOf(writing), is(Set.of("adult")));
+		assertThat(sharedExpressions.numberOfReusedValues(), is(1L));
+	}
+
+	private static PolicyRetrievalResult retrieveShared(
+			ImmutableParsedDocumentIndex index,
+			AuthorizationSubscription subscription,
+			SharedExpressionCache sharedExpressions) {
+		return index.retrievePolicies().contextWrite(ctx -> {
+			ctx = AuthorizationContext.setSubscriptionVariables(ctx, subscription);
+			ctx = AuthorizationContext.setSharedExpressionCache(ctx, sharedExpressions);
+			return ctx;
+		}).block();
+	}
+
+	private static Set<String> namesOf(PolicyRetrievalResult result) {
+		return result.getMatchingDocuments().stream()
+				.map(document -> ((SAPL) document).getPolicyElement().getSaplName()).collect(Collectors.toSet());
+	}
+
+	@Test
+	void incremental_updates_match_same_documents_as_new_index() {
+		var random     = new Random(1234L);
+		var published  = new HashMap<String, SAPL>();
+		var index      = (ImmutableParsedDocumentIndex) new CanonicalImmutableParsedDocumentIndex(
+				new AnnotationAttributeContext(), new AnnotationFunctionContext());
+		var operations = new ArrayList<String>();
+
+		for (int i = 0; i < 40; i++)
+			published.put("p_" + i, interpreter.parse(randomPolicy("p_" + i, random)));
+		index = index.apply(new PrpUpdateEvent(published.values().stream().map(doc -> new Update(Type.PUBLISH, doc, ""))
+				.collect(Collectors.toList())));
+
+		for (int step = 0; step < 60; step++) {
+			var name = "p_" + random.nextInt(50);
+			if (published.containsKey(name)) {
+				index = index.apply(new PrpUpdateEvent(new Update(Type.WITHDRAW, published.remove(name), "")));
+				operations.add("withdraw " + name);
+			} else {
+				var document = interpreter.parse(randomPolicy(name, random));
+				published.put(name, document);
+				index = index.apply(new PrpUpdateEvent(new Update(Type.PUBLISH, document, "")));
+				operations.add("publish " + name);
+			}
+
+			var newIndex = new CanonicalImmutableParsedDocumentIndex(new AnnotationAttributeContext(),
+					new AnnotationFunctionContext())
+					.apply(new PrpUpdateEvent(published.values().stream()
+							.map(doc -> new Update(Type.PUBLISH, doc, "")).collect(Collectors.toList())));
+
+			for (int subscription = 0; subscription < 8; subscription++) {
+				for (int x = 0; x < 5; x++)
+					bindings.put("x" + x, random.nextBoolean());
+
+				var expected = Set.copyOf(retrieve(newIndex).getMatchingDocuments());
+				var actual   = Set.copyOf(retrieve(index).getMatchingDocuments());
+				assertThat(operations.toString(), actual, is(expected));
+			}
+		}
+	}
+
+	@Test
+	void compaction_keeps_matching_documents() {
+		var index = (CanonicalImmutableParsedDocumentIndex) emptyIndex.apply(new PrpUpdateEvent(
+				publish("policy \"p_0\" permit resource.x0 & resource.x1"),
+				publish("policy \"p_1\" permit resource.x1 | resource.x2")));
+
+		for (int i = 2; i < CanonicalImmutableParsedDocumentIndex.MINIMUM_UPDATES_BEFORE_COMPACTION + 2; i++) {
+			var spyIndex = spy(index);
+			doNothing().when(spyIndex).compactInBackground(any());
+			index = (CanonicalImmutableParsedDocumentIndex) spyIndex
+					.apply(new PrpUpdateEvent(publish("policy \"p_" + i + "\" permit resource.x" + (i % 10))));
+		}
+		assertTrue(index.requiresCompaction());
+
+		bindings.put("x0", true);
+		bindings.put("x1", true);
+		var resultBeforeCompaction = Set.copyOf(retrieve(index).getMatchingDocuments());
+
+		index.compact();
+
+		assertFalse(index.requiresCompaction());
+		assertThat(Set.copyOf(retrieve(index).getMatchingDocuments()), is(resultBeforeCompaction));
+	}
+
+	@Test
+	void compaction_does_not_modify_derived_indexes_and_is_used_by_next_update() {
+		var index = (CanonicalImmutableParsedDocumentIndex) emptyIndex.apply(new PrpUpdateEvent(
+				publish("policy \"p_0\" permit resource.x0 & resource.x1"),
+				publish("policy \"p_1\" permit resource.x1 | resource.x2")));
+
+		for (int i = 2; i < CanonicalImmutableParsedDocumentIndex.MINIMUM_UPDATES_BEFORE_COMPACTION + 3; i++) {
+			var spyIndex = spy(index);
+			doNothing().when(spyIndex).compactInBackground(any());
+			index = (CanonicalImmutableParsedDocumentIndex) spyIndex
+					.apply(new PrpUpdateEvent(publish("policy \"p_" + i + "\" permit resource.x" + (i % 10))));
+		}
+		var spyIndex = spy(index);
+		doNothing().when(spyIndex).compactInBackground(any());
+		var derivedIndex     = (CanonicalImmutableParsedDocumentIndex) spyIndex
+				.apply(new PrpUpdateEvent(publish("policy \"p_100\" permit resource.x0")));
+		var derivedContainer = derivedIndex.getIndexDataContainer();
+		var indexContainer   = index.getIndexDataContainer();
+
+		index.compact();
+
+		assertThat(derivedIndex.getIndexDataContainer() == derivedContainer, is(true));
+		assertTrue(derivedIndex.requiresCompaction());
+		assertThat(index.getIndexDataContainer() == indexContainer, is(false));
+		assertFalse(index.requiresCompaction());
+
+		var nextIndex = (CanonicalImmutableParsedDocumentIndex) index
+				.apply(new PrpUpdateEvent(publish("policy \"p_101\" permit resource.x1")));
+		assertFalse(nextIndex.requiresCompaction());
+		bindings.put("x1", true);
+		assertThat(retrieve(nextIndex).getMatchingDocuments(), hasSize(5));
+	}
+
+	@Test
+	void compaction_is_triggered_after_many_incremental_updates() throws InterruptedException {
+		var index = (ImmutableParsedDocumentIndex) emptyIndex.apply(new PrpUpdateEvent(
+				publish("policy \"p_0\" permit resource.x0 & resource.x1"),
+				publish("policy \"p_1\" permit resource.x1 | resource.x2")));
+
+		for (int i = 2; i < CanonicalImmutableParsedDocumentIndex.MINIMUM_UPDATES_BEFORE_COMPACTION + 2; i++)
+			index = index.apply(new PrpUpdateEvent(publish("policy \"p_" + i + "\" permit resource.x" + (i % 10))));
+
+		var compactedIndex = (CanonicalImmutableParsedDocumentIndex) index;
+		for (int i = 0; i < 300 && compactedIndex.requiresCompaction(); i++)
+			Thread.sleep(10L);
+		assertFalse(compactedIndex.requiresCompaction());
+
+		bindings.put("x1", true);
+		bindings.put("x2", true);
+		assertThat(retrieve(compactedIndex).getMatchingDocuments(), hasSize(8));
+	}
+
+	@Test
+	void adaptive_strategy_reorders_predicates_of_live_index() throws InterruptedException {
+		var strategy = new CostBasedPredicateOrderStrategy(1000L);
+		var index    = (CanonicalImmutableParsedDocumentIndex) new CanonicalImmutableParsedDocumentIndex(strategy,
+				new AnnotationAttributeContext(), new AnnotationFunctionContext())
+				.apply(new PrpUpdateEvent(publish("policy \"p_0\" permit resource.x0 & resource.x1"),
+						publish("policy \"p_1\" permit resource.x1 | resource.x2")));
+		var initialContainer = index.getIndexDataContainer();
+
+		bindings.put("x1", true);
+		assertThat(retrieve(index).getMatchingDocuments(), hasSize(1));
+		assertFalse(strategy.isReorderingRecommended());
+
+		var statistics = initialContainer.getPredicateOrder().get(0).getStatistics();
+		for (int i = 0; i < 1000; i++)
+			statistics.record(Val.TRUE, 100L);
+		assertTrue(strategy.isReorderingRecommended());
+
+		// the next retrieval triggers the re-ordering
+		assertThat(retrieve(index).getMatchingDocuments(), hasSize(1));
+		for (int i = 0; i < 300 && index.getIndexDataContainer() == initialContainer; i++)
+			Thread.sleep(10L);
+		assertThat(index.getIndexDataContainer() == initialContainer, is(false));
+		assertFalse(strategy.isReorderingRecommended());
+		assertThat(retrieve(index).getMatchingDocuments(), hasSize(1));
+	}
+
+	private Update publish(String definition) {
+		return new Update(Type.PUBLISH, interpreter.parse(definition), definition);
+	}
+
+	private static String randomPolicy(String name, Random random) {
+		var x = "resource.x" + random.nextInt(5);
+		var y = "resource.x" + random.nextInt(5);
+		var z = "resource.x" + random.nextInt(5);
+		switch (random.nextInt(4)) {
+		case 0:
+			return "policy \"" + name + "\" permit " + x + " & " + y;
+		case 1:
+			return "policy \"" + name + "\" permit " + x + " | !" + y;
+		case 2:
+			return "policy \"" + name + "\" permit !(" + x + " & " + y + ") | " + z;
+		default:
+			return "policy \"" + name + "\" permit " + x;
+		}
+	}
+
+	private PolicyRetrievalResult retrieve(ImmutableParsedDocumentIndex index) {
+		return index.retrievePolicies().contextWrite(ctx -> {
+			ctx = AuthorizationContext.setAttributeContext(ctx, new AnnotationAttributeContext());
+			ctx = AuthorizationContext.setFunctionContext(ctx, new AnnotationFunctionContext());
+			ctx = AuthorizationContext.setVariables(ctx, variables);
+			ctx = AuthorizationContext.setSubscriptionVariables(ctx, createRequestObject());
+			return ctx;
+		}).block();
 	}
 
 	private Update update(Type type, String name) {
@@ -359,15 +593,16 @@ void exception_while_retaining_Target() {
 		when(mockDocument.getPolicyElement().getSaplName()).thenReturn("SAPL");
 		when(mockDocument.getPolicyElement().getTargetExpression()).thenThrow(new PolicyEvaluationException());
 
-		Map<String, SAPL> saplMap = new HashMap<>();
-		saplMap.put("p1", mockDocument);
-
+		var emptyContainer = new CanonicalIndexDataCreationStrategy().constructNew(Map.of(), Map.of());
 		try (MockedConstruction<CanonicalIndexDataCreationStrategy> mocked = Mockito.mockConstruction(
 				CanonicalIndexDataCreationStrategy.class,
-				(mock, context) -> doReturn(null).when(mock).constructNew(any(), any()))) {
+				(mock, context) -> doReturn(emptyContainer).when(mock).constructNew(any(), any()))) {
 
-			emptyIndex.recreateIndex(saplMap, true);
-			verify(mocked.constructed().get(0), times(1)).constructNew(any(), any());
+			var index = new CanonicalImmutableParsedDocumentIndex(new AnnotationAttributeContext(),
+					new AnnotationFunctionContext());
+			index.apply(new PrpUpdateEvent(new Update(Type.PUBLISH, mockDocument, null)));
+			verify(mocked.constructed().get(0), times(1)).constructNew(argThat(map -> map.size() == 1),
+					argThat(map -> map.size() == 1));
 		}
 	}
 
@@ -377,15 +612,16 @@ void null_while_retaining_Target() {
 		when(mockDocument.getPolicyElement().getSaplName()).thenReturn("SAPL");
 		when(mockDocument.getPolicyElement().getTargetExpression()).thenReturn(null);
 
-		Map<String, SAPL> saplMap = new HashMap<>();
-		saplMap.put("p1", mockDocument);
-
+		var emptyContainer = new CanonicalIndexDataCreationStrategy().constructNew(Map.of(), Map.of());
 		try (MockedConstruction<CanonicalIndexDataCreationStrategy> mocked = Mockito.mockConstruction(
 				CanonicalIndexDataCreationStrategy.class,
-				(mock, context) -> doReturn(null).when(mock).constructNew(any(), any()))) {
+				(mock, context) -> doReturn(emptyContainer).when(mock).constructNew(any(), any()))) {
 
-			emptyIndex.recreateIndex(saplMap, true);
-			verify(mocked.constructed().get(0), times(1)).constructNew(any(), any());
+			var index = new CanonicalImmutableParsedDocumentIndex(new AnnotationAttributeContext(),
+					new AnnotationFunctionContext());
+			index.apply(new PrpUpdateEvent(new Update(Type.PUBLISH, mockDocument, null)));
+			verify(mocked.constructed().get(0), times(1)).constructNew(argThat(map -> map.size() == 1),
+					argThat(map -> map.size() == 1));
 		}
 	}
 
@@ -41,7 +41,9 @@
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedConstruction;
@@ -50,6 +52,10 @@
 
 import com.google.common.collect.ImmutableList;
 
+import io.sapl.api.interpreter.Val;
+import io.sapl.grammar.sapl.SAPL;
+import reactor.core.publisher.Mono;
+
 class CanonicalIndexAlgorithmTest {
 
 	@Test
@@ -93,14 +99,88 @@ void skip_predicates_without_candidate_references() {
 
 				verify(mocked.constructed().get(0), times(2)).isPredicateReferencedInCandidates(any(Predicate.class));
 
-				mock.verify(() -> CanonicalIndexAlgorithm.skipPredicate(any()), times(1));
+				mock.verify(() -> CanonicalIndexAlgorithm.evaluatePredicateSynchronously(any(), eq(p1), any(), any()),
+						times(0));
 				mock.verify(() -> CanonicalIndexAlgorithm.handleEvaluationResult(any(), eq(p2), any(), any()),
 						times(1));
+				mock.verify(() -> CanonicalIndexAlgorithm.matchReactively(any(), any(), any()), times(0));
 
 			}
 		}
 	}
 
+	@Test
+	void fall_back_to_reactive_evaluation_for_remaining_predicates_which_are_not_synchronously_evaluable() {
+		var p1 = new Predicate(new Bool(true));
+		var p2 = new Predicate(reactiveBool(Val.TRUE));
+		var p3 = new Predicate(new Bool(false));
+		var p4 = new Predicate(new Bool(true));
+
+		var matchingCtx = mock(CanonicalIndexMatchingContext.class);
+		when(matchingCtx.isPredicateReferencedInCandidates(p1)).thenReturn(true);
+		when(matchingCtx.isPredicateReferencedInCandidates(p2)).thenReturn(true);
+		when(matchingCtx.isPredicateReferencedInCandidates(p3)).thenReturn(false);
+		when(matchingCtx.isPredicateReferencedInCandidates(p4)).thenReturn(true);
+
+		var dataContainer = mock(CanonicalIndexDataContainer.class);
+		when(dataContainer.getPredicateOrder()).thenReturn(ImmutableList.copyOf(Arrays.asList(p1, p2, p3, p4)));
+
+		try (MockedStatic<CanonicalIndexAlgorithm> mock = mockStatic(CanonicalIndexAlgorithm.class,
+				Mockito.CALLS_REAL_METHODS)) {
+			try (MockedConstruction<CanonicalIndexMatchingContext> mocked = Mockito.mockConstruction(
+					CanonicalIndexMatchingContext.class,
+					(mockCtx, context) -> {
+						when(mockCtx.isPredicateReferencedInCandidates(any(Predicate.class)))
+								.thenAnswer(invocation -> matchingCtx
+										.isPredicateReferencedInCandidates(invocation.getArgument(0, Predicate.class)));
+						when(mockCtx.getSatisfiedCandidates()).thenReturn(new Bitmask());
+						when(mockCtx.getUnsatisfiedCandidates()).thenReturn(new Bitmask());
+						when(mockCtx.getOrphanedCandidates()).thenReturn(new Bitmask());
+						when(mockCtx.getMatchingCandidatesMask()).thenReturn(new Bitmask());
+					})) {
+
+				var result = CanonicalIndexAlgorithm.match(dataContainer).block();
+
+				assertThat(result, notNullValue());
+				assertThat(result.isErrorsInTarget(), is(false));
+
+				mock.verify(() -> CanonicalIndexAlgorithm.evaluatePredicateSynchronously(any(), eq(p1), any(), any()),
+						times(1));
+				mock.verify(() -> CanonicalIndexAlgorithm.matchReactively(any(), eq(List.of(p2, p3, p4)), any()),
+						times(1));
+				mock.verify(() -> CanonicalIndexAlgorithm.evaluatePredicate(any(), eq(p2), any()), times(1));
+				mock.verify(() -> CanonicalIndexAlgorithm.skipPredicate(any()), times(1));
+				mock.verify(() -> CanonicalIndexAlgorithm.evaluatePredicate(any(), eq(p4), any()), times(1));
+				mock.verify(() -> CanonicalIndexAlgorithm.evaluatePredicateSynchronously(any(), eq(p4), any(), any()),
+						times(0));
+			}
+		}
+	}
+
+	@Test
+	void synchronous_evaluation_records_statistics() {
+		var statistics = new PredicateStatistics(new LongAdder());
+		var predicate  = new Predicate(new Bool(false));
+		predicate.collectStatistics(statistics);
+
+		var dataContainer = mock(CanonicalIndexDataContainer.class);
+		when(dataContainer.getNumberOfConjunctions()).thenReturn(1);
+		when(dataContainer.getPredicateOrder()).thenReturn(ImmutableList.of(predicate));
+		predicate.getConjunctions().set(0);
+
+		CanonicalIndexAlgorithm.match(dataContainer).block();
+
+		assertThat(statistics.getEvaluations(), is(1L));
+		assertThat(statistics.getTrueRatio(), is(0.0D));
+	}
+
+	private static Bool reactiveBool(Val result) {
+		var bool = mock(Bool.class);
+		when(bool.isSynchronouslyEvaluable()).thenReturn(false);
+		when(bool.evaluateExpression()).thenReturn(Mono.just(result));
+		return bool;
+	}
+
 	@Test
 	void test_or_bitmask() {
 		var b1 = new Bitmask();
@@ -125,28 +205,28 @@ void test_find_unsatisfiable_candidates() {
 
 		var matchingCtx = new CanonicalIndexMatchingContext(0);
 
-		assertEquals(0,
-				CanonicalIndexAlgorithm.findUnsatisfiableCandidates(matchingCtx, predicate, true).numberOfBitsSet());
-		assertEquals(0,
-				CanonicalIndexAlgorithm.findUnsatisfiableCandidates(matchingCtx, predicate, false).numberOfBitsSet());
+		assertEquals(0, CanonicalIndexAlgorithm
+				.findUnsatisfiableCandidates(matchingCtx, predicate, true, new Bitmask()).numberOfBitsSet());
+		assertEquals(0, CanonicalIndexAlgorithm
+				.findUnsatisfiableCandidates(matchingCtx, predicate, false, new Bitmask()).numberOfBitsSet());
 
 		predicate.getFalseForTruePredicate().set(0, 3);
 		predicate.getFalseForFalsePredicate().set(3, 7);
 
-		assertEquals(0,
-				CanonicalIndexAlgorithm.findUnsatisfiableCandidates(matchingCtx, predicate, true).numberOfBitsSet());
-		assertEquals(0,
-				CanonicalIndexAlgorithm.findUnsatisfiableCandidates(matchingCtx, predicate, false).numberOfBitsSet());
+		assertEquals(0, CanonicalIndexAlgorithm
+				.findUnsatisfiableCandidates(matchingCtx, predicate, true, new Bitmask()).numberOfBitsSet());
+		assertEquals(0, CanonicalIndexAlgorithm
+				.findUnsatisfiableCandidates(matchingCtx, predicate, false, new Bitmask()).numberOfBitsSet());
 
 		candidates.set(0, 7);
 		matchingCtx.addCandidates(candidates);
 
-		var uc1 = CanonicalIndexAlgorithm.findUnsatisfiableCandidates(matchingCtx, predicate, true);
+		var uc1 = CanonicalIndexAlgorithm.findUnsatisfiableCandidates(matchingCtx, predicate, true, new Bitmask());
 		assertEquals(3, uc1.numberOfBitsSet());
 		assertTrue(uc1.isSet(2));
 		assertFalse(uc1.isSet(3));
 
-		var uc2 = CanonicalIndexAlgorithm.findUnsatisfiableCandidates(matchingCtx, predicate, false);
+		var uc2 = CanonicalIndexAlgorithm.findUnsatisfiableCandidates(matchingCtx, predicate, false, new Bitmask());
 		assertEquals(4, uc2.numberOfBitsSet());
 		assertTrue(uc2.isSet(3));
 		assertFalse(uc2.isSet(2));
@@ -263,7 +343,8 @@ void test_find_satisfiable_candidates() {
 		var matchingCtx   = new CanonicalIndexMatchingContext(3);
 		var dataContainer = createEmptyContainerWithNUmberOfLiteralsInConjunction(numberOfLiteralsInConjunction);
 
-		assertEquals(0, CanonicalIndexAlgorithm.findSatisfiableCandidates(predicate, false, matchingCtx, dataContainer)
+		assertEquals(0, CanonicalIndexAlgorithm
+				.findSatisfiableCandidates(predicate, false, matchingCtx, dataContainer, new Bitmask())
 				.numberOfBitsSet());
 
 		candidates.set(0, 3);
@@ -273,7 +354,7 @@ void test_find_satisfiable_candidates() {
 
 		// true -> {1} satisfiableCandidates
 		var satisfiableCandidates = CanonicalIndexAlgorithm.findSatisfiableCandidates(predicate, true, matchingCtx,
-				dataContainer);
+				dataContainer, new Bitmask());
 		assertFalse(satisfiableCandidates.isSet(0));
 		assertTrue(satisfiableCandidates.isSet(1));
 		assertFalse(satisfiableCandidates.isSet(2));
@@ -282,11 +363,11 @@ void test_find_satisfiable_candidates() {
 		// trueLiteralsOfConjunction, so number of true literals
 		// is "2" for the third candidate (all literals are true)
 		satisfiableCandidates = CanonicalIndexAlgorithm.findSatisfiableCandidates(predicate, true, matchingCtx,
-				dataContainer);
+				dataContainer, new Bitmask());
 		assertTrue(satisfiableCandidates.isSet(2));
 
 		satisfiableCandidates = CanonicalIndexAlgorithm.findSatisfiableCandidates(predicate, false, matchingCtx,
-				dataContainer);
+				dataContainer, new Bitmask());
 		assertTrue(satisfiableCandidates.isSet(0));
 		assertFalse(satisfiableCandidates.isSet(1));
 		assertFalse(satisfiableCandidates.isSet(2));
@@ -300,39 +381,71 @@ void return_no_orphaned_candidates_on_empty_input() {
 		var                         matchingCtx   = new CanonicalIndexMatchingContext(0);
 
 		assertEquals(0, CanonicalIndexAlgorithm
-				.findOrphanedCandidates(satisfiableCandidates, matchingCtx, dataContainer).numberOfBitsSet());
+				.findOrphanedCandidates(satisfiableCandidates, matchingCtx, dataContainer, new Bitmask())
+				.numberOfBitsSet());
 	}
 
 	@Test
 	void testOrphanedCandidates() {
-		var satisfiableCandidates = new Bitmask(); // mock(Bitmask.class);
-		satisfiableCandidates.set(0, 1);
+		var satisfiableCandidates = new Bitmask();
+		satisfiableCandidates.set(0);
 
-		var c1 = mock(CTuple.class);
-		when(c1.getCI()).thenReturn(0);
-		var c2 = mock(CTuple.class);
-		when(c2.getCI()).thenReturn(1);
-		var c3 = mock(CTuple.class);
-		when(c3.getCI()).thenReturn(2);
+		var formula = mock(DisjunctiveFormula.class);
+		var conjunctionsOfFormula = new Bitmask();
+		conjunctionsOfFormula.set(0, 3);
 
 		var dataContainer = mock(CanonicalIndexDataContainer.class);
-		when(dataContainer.getConjunctionsInFormulasReferencingConjunction(0))
-				.thenReturn(new HashSet<>(Arrays.asList(c1, c2, c3)));
+		when(dataContainer.getRelatedFormulas(0)).thenReturn(Set.of(formula));
+		when(dataContainer.getConjunctionsOfFormula(formula)).thenReturn(conjunctionsOfFormula);
 
 		var matchingCtx = mock(CanonicalIndexMatchingContext.class);
+		when(matchingCtx.markFormulaAsSatisfied(formula)).thenReturn(true);
 		when(matchingCtx.isRemainingCandidate(eq(0))).thenReturn(true);
 		when(matchingCtx.isRemainingCandidate(eq(1))).thenReturn(true);
 		when(matchingCtx.isRemainingCandidate(eq(2))).thenReturn(false);
 		when(matchingCtx.areAllFunctionsEliminated(eq(1), anyInt())).thenReturn(true);
 
 		var orphanedCandidates = CanonicalIndexAlgorithm.findOrphanedCandidates(satisfiableCandidates, matchingCtx,
-				dataContainer);
+				dataContainer, new Bitmask());
 
 		assertThat(orphanedCandidates, notNullValue());
 		assertThat(orphanedCandidates.numberOfBitsSet(), is(1));
 		assertThat(orphanedCandidates.isSet(1), is(true));
 	}
 
+	@Test
+	void formulas_are_eliminated_only_once() {
+		// formulas: (a | b | c), (a | b | d), (c | (a & c))
+		var a = new Literal(new Bool(true));
+		var b = new Literal(new Bool(true), true);
+		var c = new Literal(new Bool(false));
+		var d = new Literal(new Bool(false), true);
+
+		var strategy = new CanonicalIndexDataCreationStrategy();
+		var dataContainer = strategy.constructNew(Map.of(), Map.of());
+		var f1 = new DisjunctiveFormula(new ConjunctiveClause(a), new ConjunctiveClause(b), new ConjunctiveClause(c));
+		var f2 = new DisjunctiveFormula(new ConjunctiveClause(a), new ConjunctiveClause(b), new ConjunctiveClause(d));
+		var f3 = new DisjunctiveFormula(new ConjunctiveClause(c), new ConjunctiveClause(a, c));
+		dataContainer = strategy.updateIncrementally(dataContainer, Map.of(), Map.of(mock(SAPL.class), f1));
+		dataContainer = strategy.updateIncrementally(dataContainer, Map.of(), Map.of(mock(SAPL.class), f2));
+		dataContainer = strategy.updateIncrementally(dataContainer, Map.of(), Map.of(mock(SAPL.class), f3));
+
+		var clauseToIndex = dataContainer.getClauseToIndex();
+		var matchingCtx   = new CanonicalIndexMatchingContext(dataContainer.getNumberOfConjunctions());
+
+		// satisfying a eliminates f1 and f2 for c, satisfying b must not eliminate them again
+		var satisfiedA = new Bitmask();
+		satisfiedA.set(clauseToIndex.get(new ConjunctiveClause(a)));
+		CanonicalIndexAlgorithm.findOrphanedCandidates(satisfiedA, matchingCtx, dataContainer, new Bitmask());
+		var satisfiedB = new Bitmask();
+		satisfiedB.set(clauseToIndex.get(new ConjunctiveClause(b)));
+		var orphaned = CanonicalIndexAlgorithm.findOrphanedCandidates(satisfiedB, matchingCtx, dataContainer,
+				new Bitmask());
+
+		assertThat(orphaned.isSet(clauseToIndex.get(new ConjunctiveClause(c))), is(false));
+		assertThat(orphaned.isSet(clauseToIndex.get(new ConjunctiveClause(d))), is(false));
+	}
+
 	private List<ConjunctiveClause> createDummyClauseList(int numberOfLiterals) {
 		List<Literal> literals = new ArrayList<>();
 		for (int i = 0; i < numberOfLiterals; i++) {
@@ -344,19 +457,19 @@ private List<ConjunctiveClause> createDummyClauseList(int numberOfLiterals) {
 
 	private CanonicalIndexDataContainer createEmptyContainer() {
 		return new CanonicalIndexDataContainer(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyList(),
-				Collections.emptyList(), Collections.emptyMap(), Collections.emptyMap(), new int[0], new int[0]);
+				Collections.emptyList(), Collections.emptyMap(), new int[0], new int[0]);
 	}
 
 	private CanonicalIndexDataContainer createEmptyContainerWithRelatedFormulas(
 			List<Set<DisjunctiveFormula>> relatedFormulas) {
 		return new CanonicalIndexDataContainer(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyList(),
-				relatedFormulas, Collections.emptyMap(), Collections.emptyMap(), new int[0], new int[0]);
+				relatedFormulas, Collections.emptyMap(), new int[0], new int[0]);
 	}
 
 	private CanonicalIndexDataContainer createEmptyContainerWithNUmberOfLiteralsInConjunction(
 			int[] numberOfFormulasWithConjunction) {
 		return new CanonicalIndexDataContainer(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyList(),
-				Collections.emptyList(), Collections.emptyMap(), Collections.emptyMap(),
+				Collections.emptyList(), Collections.emptyMap(),
 				numberOfFormulasWithConjunction, new int[0]);
 	}
 
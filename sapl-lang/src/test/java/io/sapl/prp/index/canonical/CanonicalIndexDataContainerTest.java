@@ -30,7 +30,7 @@ void testGetNumberOfFormulasWithConjunction() {
 		var numberOfFormulasWithConjunction = new int[] { 0, 1, 2, 3 };
 
 		var container = new CanonicalIndexDataContainer(Collections.emptyMap(), Collections.emptyMap(),
-				Collections.emptyList(), Collections.emptyList(), Collections.emptyMap(), Collections.emptyMap(),
+				Collections.emptyList(), Collections.emptyList(), Collections.emptyMap(),
 				new int[0], numberOfFormulasWithConjunction);
 
 		assertThat(container.getNumberOfFormulasWithConjunction(0), is(0));
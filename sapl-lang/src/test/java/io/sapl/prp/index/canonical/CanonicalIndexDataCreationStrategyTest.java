@@ -18,6 +18,9 @@
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.mockito.Mockito.mock;
 
 import java.util.HashMap;
 import java.util.HashSet;
@@ -27,6 +30,8 @@
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
 
+import io.sapl.grammar.sapl.SAPL;
+
 class CanonicalIndexDataCreationStrategyTest {
 
 	@Test
@@ -72,4 +77,56 @@ void testCreatePredicateInfo() {
 		assertThat(boolToPredicateInfo.get(bool).getGroupedNumberOfNegatives(), is(1));
 	}
 
+	@Test
+	void testUpdateIncrementally() {
+		var strategy = new CanonicalIndexDataCreationStrategy();
+
+		var a = new Bool(true);
+		var b = new Bool(false);
+		var formulaA = new DisjunctiveFormula(new ConjunctiveClause(new Literal(a)));
+		var formulaB = new DisjunctiveFormula(new ConjunctiveClause(new Literal(b, true)));
+		var documentA = mock(SAPL.class);
+		var documentB = mock(SAPL.class);
+
+		var container = strategy.constructNew(Map.of(), Map.of());
+		var containerWithA = strategy.updateIncrementally(container, Map.of(), Map.of(documentA, formulaA));
+		assertThat(containerWithA.getNumberOfConjunctions(), is(1));
+		assertThat(containerWithA.getPredicateOrder(), hasSize(1));
+		assertThat(containerWithA.getPoliciesIncludingFormula(formulaA), Matchers.contains(documentA));
+
+		var containerWithB = strategy.updateIncrementally(containerWithA, Map.of(documentA, formulaA),
+				Map.of(documentB, formulaB));
+		// index of withdrawn conjunction is reused
+		assertThat(containerWithB.getNumberOfConjunctions(), is(1));
+		assertThat(containerWithB.getPredicateOrder(), hasSize(1));
+		assertThat(containerWithB.getPredicateOrder().get(0).getBool(), is(b));
+		assertThat(containerWithB.getPredicateOrder().get(0).getFalseForTruePredicate().isSet(0), is(true));
+		assertThat(containerWithB.getPoliciesIncludingFormula(formulaA), nullValue());
+		assertThat(containerWithB.getRelatedFormulas(0), Matchers.contains(formulaB));
+
+		// the container the update is based on is not modified
+		assertThat(containerWithA.getPredicateOrder().get(0).getBool(), is(a));
+		assertThat(containerWithA.getPredicateOrder().get(0).getFalseForFalsePredicate().isSet(0), is(true));
+		assertThat(containerWithA.getRelatedFormulas(0), Matchers.contains(formulaA));
+	}
+
+	@Test
+	void testUpdateIncrementallyWithSharedFormula() {
+		var strategy = new CanonicalIndexDataCreationStrategy();
+
+		var formula = new DisjunctiveFormula(new ConjunctiveClause(new Literal(new Bool(true))));
+		var document1 = mock(SAPL.class);
+		var document2 = mock(SAPL.class);
+
+		var container = strategy.constructNew(Map.of(), Map.of());
+		container = strategy.updateIncrementally(container, Map.of(), Map.of(document1, formula));
+		container = strategy.updateIncrementally(container, Map.of(), Map.of(document2, formula));
+		assertThat(container.getPoliciesIncludingFormula(formula), Matchers.containsInAnyOrder(document1, document2));
+		assertThat(container.getNumberOfFormulasWithConjunction(0), is(1));
+
+		container = strategy.updateIncrementally(container, Map.of(document1, formula), Map.of());
+		assertThat(container.getPoliciesIncludingFormula(formula), Matchers.contains(document2));
+		assertThat(container.getPredicateOrder(), hasSize(1));
+	}
+
 }
@@ -17,6 +17,8 @@
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -50,4 +52,42 @@ void testAreAllFunctionsEliminated() {
 		assertThat(matchingCtx.areAllFunctionsEliminated(0, 41), is(false));
 	}
 
+	@Test
+	void acquired_context_reuses_released_buffers_in_initial_state() {
+		var first = CanonicalIndexMatchingContext.acquire(100);
+		first.incrementTrueLiteralsForConjunction(7);
+		first.increaseNumberOfEliminatedFormulasForConjunction(7, 2);
+		first.addSatisfiedCandidates(first.getCopyOfCandidates());
+		first.removeCandidates(first.getCopyOfCandidates());
+		first.getOrphanedCandidates().set(3);
+		first.setErrorsInTargets(true);
+		first.release();
+
+		var second = CanonicalIndexMatchingContext.acquire(50);
+
+		assertThat(second.getMatchingCandidatesMask(), is(sameInstance(first.getMatchingCandidatesMask())));
+		assertThat(second.getCopyOfCandidates().numberOfBitsSet(), is(50));
+		assertThat(second.getMatchingCandidatesMask().isEmpty(), is(true));
+		assertThat(second.getOrphanedCandidates().isEmpty(), is(true));
+		assertThat(second.isConjunctionSatisfied(7, 0), is(true));
+		assertThat(second.areAllFunctionsEliminated(7, 0), is(true));
+		assertThat(second.isErrorsInTargets(), is(false));
+	}
+
+	@Test
+	void contexts_are_not_shared_until_released() {
+		var first  = CanonicalIndexMatchingContext.acquire(10);
+		first.release();
+		var second = CanonicalIndexMatchingContext.acquire(10);
+		var third  = CanonicalIndexMatchingContext.acquire(10);
+		var larger = CanonicalIndexMatchingContext.acquire(20);
+
+		assertThat(third.getMatchingCandidatesMask(), is(not(sameInstance(second.getMatchingCandidatesMask()))));
+		third.release();
+		var fourth = CanonicalIndexMatchingContext.acquire(20);
+
+		assertThat(fourth.getMatchingCandidatesMask(), is(not(sameInstance(third.getMatchingCandidatesMask()))));
+		assertThat(larger.getCopyOfCandidates().numberOfBitsSet(), is(20));
+	}
+
 }
@@ -0,0 +1,252 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.prp.index.canonical;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.grammar.sapl.Policy;
+import io.sapl.grammar.sapl.PolicySet;
+import io.sapl.grammar.sapl.SAPL;
+import io.sapl.grammar.sapl.impl.util.MockUtil;
+import io.sapl.interpreter.DefaultSAPLInterpreter;
+import io.sapl.interpreter.InitializationException;
+import io.sapl.interpreter.SAPLInterpreter;
+import io.sapl.interpreter.SimpleFunctionLibrary;
+import io.sapl.interpreter.functions.AnnotationFunctionContext;
+import io.sapl.interpreter.pip.AnnotationAttributeContext;
+import io.sapl.prp.index.canonical.ordering.DefaultPredicateOrderStrategy;
+import io.sapl.prp.index.canonical.ordering.PredicateOrderStrategy;
+
+@Timeout(10)
+class CanonicalPolicySetIndexTest {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private static final String[] TYPES = { "\"a\"", "\"b\"", "\"c\"", "1" };
+
+	private static final String[] ROLES = { "\"admin\"", "\"user\"", "\"guest\"" };
+
+	private static SAPLInterpreter interpreter;
+
+	private static AnnotationFunctionContext functionCtx;
+
+	@BeforeAll
+	static void beforeClass() throws InitializationException {
+		interpreter = new DefaultSAPLInterpreter();
+		functionCtx = new AnnotationFunctionContext();
+		functionCtx.loadLibrary(new SimpleFunctionLibrary());
+	}
+
+	@Test
+	void policy_sets_are_indexed_with_own_instance_of_predicate_order_strategy() {
+		var strategy    = mock(PredicateOrderStrategy.class);
+		var setStrategy = spy(new DefaultPredicateOrderStrategy());
+		when(strategy.newInstanceForIndex()).thenReturn(setStrategy);
+		var document    = interpreter
+				.parse(policySet("deny-overrides", CanonicalPolicySetIndex.MINIMUM_NUMBER_OF_POLICIES));
+
+		CanonicalPolicySetIndex.indexPoliciesOfSet(document, strategy, new AnnotationAttributeContext(),
+				functionCtx);
+
+		verify(setStrategy, times(1)).createPredicateOrder(any());
+		verify(strategy, never()).createPredicateOrder(any());
+	}
+
+	@Test
+	void policy_sets_with_enough_policies_are_indexed() {
+		var document = index(policySet("deny-overrides", CanonicalPolicySetIndex.MINIMUM_NUMBER_OF_POLICIES));
+
+		assertThat(CanonicalPolicySetIndex.of((PolicySet) document.getPolicyElement()), notNullValue());
+	}
+
+	@Test
+	void small_policy_sets_are_not_indexed() {
+		var document = index(policySet("deny-overrides", CanonicalPolicySetIndex.MINIMUM_NUMBER_OF_POLICIES - 1));
+
+		assertThat(CanonicalPolicySetIndex.of((PolicySet) document.getPolicyElement()), nullValue());
+	}
+
+	@Test
+	void first_applicable_policy_sets_are_not_indexed() {
+		var document = index(policySet("first-applicable", CanonicalPolicySetIndex.MINIMUM_NUMBER_OF_POLICIES));
+
+		assertThat(CanonicalPolicySetIndex.of((PolicySet) document.getPolicyElement()), nullValue());
+	}
+
+	@Test
+	void policy_sets_with_duplicate_policy_names_are_not_indexed() {
+		var policies = new StringBuilder();
+		for (var i = 0; i < CanonicalPolicySetIndex.MINIMUM_NUMBER_OF_POLICIES; i++)
+			policies.append("policy \"p\" permit resource.type == ").append(i).append(' ');
+		var document = index("set \"s\" deny-overrides " + policies);
+
+		assertThat(CanonicalPolicySetIndex.of((PolicySet) document.getPolicyElement()), nullValue());
+	}
+
+	@Test
+	void policies_which_are_not_policy_sets_are_ignored() {
+		var document = index("policy \"p\" permit resource.type == \"a\"");
+
+		assertThat(EcoreUtil.getExistingAdapter(document.getPolicyElement(), CanonicalPolicySetIndex.class),
+				nullValue());
+	}
+
+	@Test
+	void matching_policies_are_retrieved_in_the_order_of_the_policy_set() {
+		var policies = new StringBuilder();
+		for (var i = 0; i < CanonicalPolicySetIndex.MINIMUM_NUMBER_OF_POLICIES; i++)
+			policies.append("policy \"p_").append(i).append("\" permit ")
+					.append(i % 2 == 0 ? "resource.type == \"a\" " : "subject.role == \"admin\" ");
+		var document = index("set \"s\" deny-overrides " + policies);
+		var index    = CanonicalPolicySetIndex.of((PolicySet) document.getPolicyElement());
+
+		var result = index.retrievePolicies()
+				.contextWrite(ctx -> MockUtil.setUpAuthorizationContext(ctx, subscription("\"a\"", "\"user\"", 0)))
+				.block();
+
+		var names = result.getMatchingDocuments().stream().map(policy -> ((Policy) policy).getSaplName())
+				.collect(Collectors.toList());
+		assertThat(names, contains("p_0", "p_2", "p_4", "p_6"));
+		assertThat(result.isErrorsInTarget(), is(false));
+	}
+
+	@Test
+	void imports_of_the_document_are_used_in_the_targets_of_the_policies() {
+		var policies = new StringBuilder();
+		for (var i = 0; i < CanonicalPolicySetIndex.MINIMUM_NUMBER_OF_POLICIES; i++)
+			policies.append("policy \"p_").append(i).append("\" permit length(subject.name) == ").append(i)
+					.append(' ');
+		var document = index("import simple.length set \"s\" deny-overrides " + policies);
+		var index    = CanonicalPolicySetIndex.of((PolicySet) document.getPolicyElement());
+
+		var subscription = AuthorizationSubscription.of(MAPPER.createObjectNode().put("name", "abc"), "read", "r");
+		var result       = index.retrievePolicies()
+				.contextWrite(ctx -> MockUtil.setUpAuthorizationContext(ctx, subscription)).block();
+
+		var names = result.getMatchingDocuments().stream().map(policy -> ((Policy) policy).getSaplName())
+				.collect(Collectors.toList());
+		assertThat(names, contains("p_3"));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "deny-overrides", "permit-overrides", "deny-unless-permit", "permit-unless-deny",
+			"only-one-applicable" })
+	void indexed_policy_sets_evaluate_to_the_same_decisions_as_sets_matched_policy_by_policy(String algorithm) {
+		var random = new Random(algorithm.hashCode());
+		for (var run = 0; run < 20; run++) {
+			var source   = randomPolicySet(random, algorithm);
+			var indexed  = index(source);
+			var original = interpreter.parse(source);
+			assertThat(CanonicalPolicySetIndex.of((PolicySet) indexed.getPolicyElement()), notNullValue());
+
+			for (var type : TYPES) {
+				for (var role : ROLES) {
+					var subscription = subscription(type, role, random.nextInt(5));
+					assertThat(source, decide(indexed, subscription), is(decide(original, subscription)));
+				}
+			}
+		}
+	}
+
+	private static String randomPolicySet(Random random, String algorithm) {
+		var source = new StringBuilder("set \"s\" ").append(algorithm).append(" var limit = 2; ");
+		var size   = CanonicalPolicySetIndex.MINIMUM_NUMBER_OF_POLICIES + random.nextInt(8);
+		for (var i = 0; i < size; i++) {
+			source.append("policy \"p_").append(i).append("\" ").append(random.nextBoolean() ? "permit " : "deny ");
+			switch (random.nextInt(5)) {
+			case 0:
+				source.append("resource.type == ").append(TYPES[random.nextInt(TYPES.length)]);
+				break;
+			case 1:
+				source.append("resource.type == ").append(TYPES[random.nextInt(TYPES.length)])
+						.append(" & subject.role == ").append(ROLES[random.nextInt(ROLES.length)]);
+				break;
+			case 2:
+				source.append(ROLES[random.nextInt(ROLES.length)]).append(" in subject.roles | subject.level > limit");
+				break;
+			case 3:
+				// errors for non-numeric types
+				source.append("resource.type < 2");
+				break;
+			default:
+				// no target
+				break;
+			}
+			if (random.nextBoolean())
+				source.append(" obligation \"log_").append(i).append('"');
+			source.append(' ');
+		}
+		return source.toString();
+	}
+
+	private static String policySet(String algorithm, int numberOfPolicies) {
+		var source = new StringBuilder("set \"s\" ").append(algorithm).append(' ');
+		for (var i = 0; i < numberOfPolicies; i++)
+			source.append("policy \"p_").append(i).append("\" permit resource.type == ").append(i).append(' ');
+		return source.toString();
+	}
+
+	private static SAPL index(String source) {
+		var document = interpreter.parse(source);
+		CanonicalPolicySetIndex.indexPoliciesOfSet(document, new DefaultPredicateOrderStrategy(),
+				new AnnotationAttributeContext(), functionCtx);
+		return document;
+	}
+
+	private static List<AuthorizationDecision> decide(SAPL document, AuthorizationSubscription subscription) {
+		return new ArrayList<>(document.evaluate().take(1)
+				.contextWrite(ctx -> MockUtil.setUpAuthorizationContext(ctx, subscription)).collectList().block());
+	}
+
+	private static AuthorizationSubscription subscription(String type, String role, int level) {
+		try {
+			var subject = MAPPER.readTree(
+					"{ \"role\": " + role + ", \"roles\": [" + role + ", \"user\"], \"level\": " + level + " }");
+			var resource = MAPPER.readTree("{ \"type\": " + type + " }");
+			return AuthorizationSubscription.of(subject, "read", resource);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
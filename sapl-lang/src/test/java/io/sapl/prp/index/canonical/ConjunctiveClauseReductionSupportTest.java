@@ -93,6 +93,14 @@ void testReduceFormula() {
 		assertThat(literals.size() == 2, is(true));
 		literals.clear();
 
+		literals.add(trueLiteral);
+		literals.add(falseLiteral);
+		literals.add(trueLiteral);
+		literals.add(falseLiteral);
+		ConjunctiveClauseReductionSupport.reduceFormula(literals);
+		assertThat(literals.size() == 2, is(true));
+		literals.clear();
+
 	}
 
 }
@@ -0,0 +1,242 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.prp.index.canonical;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.xtext.nodemodel.util.NodeModelUtils;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.grammar.sapl.SAPL;
+import io.sapl.interpreter.DefaultSAPLInterpreter;
+import io.sapl.interpreter.SAPLInterpreter;
+import io.sapl.interpreter.context.AuthorizationContext;
+import io.sapl.interpreter.functions.AnnotationFunctionContext;
+import io.sapl.interpreter.pip.AnnotationAttributeContext;
+import io.sapl.prp.PolicyRetrievalResult;
+import io.sapl.prp.PrpUpdateEvent;
+import io.sapl.prp.PrpUpdateEvent.Type;
+import io.sapl.prp.PrpUpdateEvent.Update;
+
+@Timeout(10)
+class EqualityPredicateGroupTest {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private static final String[] EQUALITY_LITERALS = { "\"a\"", "\"b\"", "1", "1.0", "true", "null" };
+
+	private static final String[] ELEMENT_LITERALS = { "\"a\"", "\"b\"", "1" };
+
+	private static final String[] RESOURCE_TYPES = { "\"a\"", "\"b\"", "1", "1.00", "true", "null", "[\"a\"]",
+			"{}" };
+
+	private static final String[] ARRAYS = { "[]", "[\"a\"]", "[\"b\", \"a\"]", "[1.0, \"b\"]", "\"a\"" };
+
+	private static SAPLInterpreter interpreter;
+
+	@BeforeAll
+	static void beforeClass() {
+		interpreter = new DefaultSAPLInterpreter();
+	}
+
+	@Test
+	void predicates_comparing_the_same_path_to_literals_are_grouped() {
+		var container = index("policy \"p_0\" permit action.method == \"GET\"",
+				"policy \"p_1\" permit \"POST\" == action.method & resource.type == \"invoice\"",
+				"policy \"p_2\" permit action.method == 1 | action[\"method\"] == null",
+				"policy \"p_3\" permit \"admin\" in subject.roles", "policy \"p_4\" permit \"user\" in subject.roles")
+				.getIndexDataContainer();
+
+		var methodGroup = groupOf(container, "action.method == \"GET\"");
+		assertThat(methodGroup, notNullValue());
+		assertThat(groupOf(container, "\"POST\" == action.method"), sameInstance(methodGroup));
+		assertThat(groupOf(container, "action.method == 1"), sameInstance(methodGroup));
+		assertThat(groupOf(container, "action[\"method\"] == null"), sameInstance(methodGroup));
+		assertThat(groupOf(container, "resource.type == \"invoice\""), nullValue());
+
+		var rolesGroup = groupOf(container, "\"admin\" in subject.roles");
+		assertThat(rolesGroup, notNullValue());
+		assertThat(groupOf(container, "\"user\" in subject.roles"), sameInstance(rolesGroup));
+		assertThat(rolesGroup == methodGroup, is(false));
+	}
+
+	@Test
+	void only_predicates_comparing_a_path_to_a_literal_are_grouped() {
+		var container = index("policy \"p_0\" permit action.method == \"GET\"",
+				"policy \"p_1\" permit !(action.method == \"POST\")",
+				"policy \"p_2\" permit action.method == subject.method",
+				"policy \"p_3\" permit (action.method) == \"PUT\"",
+				"policy \"p_4\" permit action.method == \"DELETE\"").getIndexDataContainer();
+
+		var methodGroup = groupOf(container, "action.method == \"GET\"");
+		assertThat(methodGroup, notNullValue());
+		assertThat(groupOf(container, "action.method == \"DELETE\""), sameInstance(methodGroup));
+		assertThat(groupOf(container, "action.method == \"POST\""), sameInstance(methodGroup));
+		assertThat(groupOf(container, "action.method == subject.method"), nullValue());
+		assertThat(groupOf(container, "(action.method) == \"PUT\""), nullValue());
+	}
+
+	@Test
+	void predicates_with_equivalent_literals_are_evaluated_on_their_own() {
+		var container = index("policy \"p_0\" permit action.value == 1", "policy \"p_1\" permit action.value == 1.0",
+				"policy \"p_2\" permit action.value == 2").getIndexDataContainer();
+
+		var one        = groupOf(container, "action.value == 1");
+		var oneDecimal = groupOf(container, "action.value == 1.0");
+		assertThat(groupOf(container, "action.value == 2"), notNullValue());
+		// only the first of both predicates in the predicate order is grouped
+		assertThat(one == null ^ oneDecimal == null, is(true));
+	}
+
+	@Test
+	void grouped_index_matches_same_documents_as_index_evaluating_each_predicate() {
+		var random          = new Random(4711L);
+		var groupedPolicies = new ArrayList<String>();
+		var singlePolicies  = new ArrayList<String>();
+		for (int i = 0; i < 60; i++) {
+			var atoms = new String[3][];
+			for (int j = 0; j < atoms.length; j++)
+				atoms[j] = randomAtom(random);
+			var form = random.nextInt(5);
+			groupedPolicies.add(policy("p_" + i, form, atoms, 0));
+			singlePolicies.add(policy("p_" + i, form, atoms, 1));
+		}
+
+		var groupedIndex = index(groupedPolicies.toArray(new String[0]));
+		var singleIndex  = index(singlePolicies.toArray(new String[0]));
+		for (int i = 0; i < 200; i++) {
+			var subscription = randomSubscription(random);
+			var expected     = retrieve(singleIndex, subscription);
+			var actual       = retrieve(groupedIndex, subscription);
+			assertThat(subscription.toString(), names(actual), is(names(expected)));
+			assertThat(subscription.toString(), actual.isErrorsInTarget(), is(expected.isErrorsInTarget()));
+		}
+	}
+
+	private static String[] randomAtom(Random random) {
+		var literal = EQUALITY_LITERALS[random.nextInt(EQUALITY_LITERALS.length)];
+		switch (random.nextInt(4)) {
+		case 0:
+			return new String[] { "resource.type == " + literal, "(resource.type) == " + literal };
+		case 1:
+			return new String[] { literal + " == resource.type", literal + " == (resource.type)" };
+		case 2:
+			var element = ELEMENT_LITERALS[random.nextInt(ELEMENT_LITERALS.length)];
+			return new String[] { element + " in subject.roles", element + " in (subject.roles)" };
+		default:
+			return new String[] { "resource.list[0] == " + literal, "(resource.list[0]) == " + literal };
+		}
+	}
+
+	private static String policy(String name, int form, String[][] atoms, int variant) {
+		var x = atoms[0][variant];
+		var y = atoms[1][variant];
+		var z = atoms[2][variant];
+		switch (form) {
+		case 0:
+			return "policy \"" + name + "\" permit " + x + " & " + y;
+		case 1:
+			return "policy \"" + name + "\" permit " + x + " | !(" + y + ")";
+		case 2:
+			return "policy \"" + name + "\" permit !(" + x + " & " + y + ") | " + z;
+		case 3:
+			return "policy \"" + name + "\" permit " + x + " & " + y + " & " + z;
+		default:
+			return "policy \"" + name + "\" permit " + x;
+		}
+	}
+
+	private static AuthorizationSubscription randomSubscription(Random random) {
+		var resource = new StringBuilder("{");
+		if (random.nextInt(6) > 0)
+			resource.append("\"type\": ").append(RESOURCE_TYPES[random.nextInt(RESOURCE_TYPES.length)]).append(", ");
+		if (random.nextInt(6) > 0)
+			resource.append("\"list\": ").append(ARRAYS[random.nextInt(ARRAYS.length)]).append(", ");
+		resource.append("\"id\": 0 }");
+
+		var subject = random.nextInt(6) > 0 ? "{ \"roles\": " + ARRAYS[random.nextInt(ARRAYS.length)] + " }"
+				: "{}";
+		return AuthorizationSubscription.of(json(subject), "read", json(resource.toString()));
+	}
+
+	private static JsonNode json(String source) {
+		try {
+			return MAPPER.readTree(source);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static CanonicalImmutableParsedDocumentIndex index(String... policies) {
+		var updates = new ArrayList<Update>(policies.length);
+		for (var policy : policies)
+			updates.add(new Update(Type.PUBLISH, interpreter.parse(policy), policy));
+		return (CanonicalImmutableParsedDocumentIndex) new CanonicalImmutableParsedDocumentIndex(
+				new AnnotationAttributeContext(), new AnnotationFunctionContext())
+				.apply(new PrpUpdateEvent(updates));
+	}
+
+	private static EqualityPredicateGroup groupOf(CanonicalIndexDataContainer container, String expression) {
+		var order = container.getPredicateOrder();
+		for (int i = 0; i < order.size(); i++) {
+			var bool = order.get(i).getBool().getExpression();
+			if (expression.equals(source(bool)))
+				return container.getEqualityGroup(i);
+		}
+		throw new IllegalArgumentException("no predicate " + expression);
+	}
+
+	private static String source(EObject expression) {
+		return NodeModelUtils.getTokenText(NodeModelUtils.findActualNodeFor(expression));
+	}
+
+	private static PolicyRetrievalResult retrieve(
+			CanonicalImmutableParsedDocumentIndex index,
+			AuthorizationSubscription subscription) {
+		Map<String, JsonNode> variables = new HashMap<>();
+		return index.retrievePolicies().contextWrite(ctx -> {
+			ctx = AuthorizationContext.setAttributeContext(ctx, new AnnotationAttributeContext());
+			ctx = AuthorizationContext.setFunctionContext(ctx, new AnnotationFunctionContext());
+			ctx = AuthorizationContext.setVariables(ctx, variables);
+			ctx = AuthorizationContext.setSubscriptionVariables(ctx, subscription);
+			return ctx;
+		}).block();
+	}
+
+	private static Set<String> names(PolicyRetrievalResult result) {
+		return result.getMatchingDocuments().stream().map(document -> ((SAPL) document).getPolicyElement()
+				.getSaplName()).collect(Collectors.toSet());
+	}
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.prp.index.canonical;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.Test;
+
+import io.sapl.api.interpreter.Val;
+
+class PredicateStatisticsTest {
+
+	@Test
+	void without_observations_results_are_equally_likely() {
+		var statistics = new PredicateStatistics(new LongAdder());
+
+		assertThat(statistics.getEvaluations(), is(0L));
+		assertThat(statistics.getAverageEvaluationNanos(), is(0.0D));
+		assertThat(statistics.getTrueRatio(), is(0.5D));
+	}
+
+	@Test
+	void evaluations_are_recorded() {
+		var recordedEvaluations = new LongAdder();
+		var statistics          = new PredicateStatistics(recordedEvaluations);
+
+		statistics.record(Val.TRUE, 100L);
+		statistics.record(Val.TRUE, 200L);
+		statistics.record(Val.FALSE, 300L);
+		statistics.record(Val.error("error"), 400L);
+
+		assertThat(statistics.getEvaluations(), is(4L));
+		assertThat(statistics.getAverageEvaluationNanos(), is(250.0D));
+		assertThat(statistics.getTrueRatio(), is(2.0D / 3.0D));
+		assertThat(recordedEvaluations.sum(), is(4L));
+	}
+
+	@Test
+	void copied_predicates_share_statistics() {
+		var statistics = new PredicateStatistics(new LongAdder());
+		var predicate  = new Predicate(new Bool(true));
+		predicate.collectStatistics(statistics);
+
+		assertThat(new Predicate(predicate).getStatistics() == statistics, is(true));
+	}
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.prp.index.canonical.ordering;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import io.sapl.api.interpreter.Val;
+import io.sapl.grammar.sapl.impl.util.ParserUtil;
+import io.sapl.prp.index.canonical.Bool;
+import io.sapl.prp.index.canonical.Predicate;
+import io.sapl.prp.index.canonical.PredicateInfo;
+
+class CostBasedPredicateOrderStrategyTest {
+
+	@Test
+	void new_instance_for_index_has_own_state() {
+		var strategy = new CostBasedPredicateOrderStrategy(10L);
+		var instance = strategy.newInstanceForIndex();
+
+		assertThat(instance, instanceOf(CostBasedPredicateOrderStrategy.class));
+		assertThat(instance == strategy, is(false));
+	}
+
+	@Test
+	void cheaper_predicates_are_ordered_first() throws IOException {
+		var strategy   = new CostBasedPredicateOrderStrategy();
+		var regex      = bool("subject.name =~ \"^a.*\"");
+		var comparison = bool("subject.name == \"a\"");
+
+		var order = strategy.createPredicateOrder(List.of(info(regex), info(comparison)));
+
+		assertThat(bools(order), contains(comparison, regex));
+	}
+
+	@Test
+	void measured_evaluation_times_replace_estimates() throws IOException {
+		var strategy = new CostBasedPredicateOrderStrategy();
+		var slow     = bool("subject.a == 1");
+		var fast     = bool("subject.b == 2");
+
+		for (var predicate : strategy.createPredicateOrder(List.of(info(slow), info(fast)))) {
+			var nanos = predicate.getBool().equals(slow) ? 10_000L : 100L;
+			for (int i = 0; i < CostBasedPredicateOrderStrategy.MINIMUM_NUMBER_OF_SAMPLES; i++)
+				predicate.getStatistics().record(Val.FALSE, nanos);
+		}
+
+		var order = strategy.createPredicateOrder(List.of(info(slow), info(fast)));
+
+		assertThat(bools(order), contains(fast, slow));
+	}
+
+	@Test
+	void predicates_with_more_expected_eliminations_are_ordered_first() throws IOException {
+		var strategy     = new CostBasedPredicateOrderStrategy();
+		var alwaysTrue   = bool("subject.a == 1");
+		var alwaysFalse  = bool("subject.b == 2");
+
+		for (var predicate : strategy.createPredicateOrder(List.of(info(alwaysTrue), info(alwaysFalse)))) {
+			var result = predicate.getBool().equals(alwaysTrue) ? Val.TRUE : Val.FALSE;
+			for (int i = 0; i < CostBasedPredicateOrderStrategy.MINIMUM_NUMBER_OF_SAMPLES; i++)
+				predicate.getStatistics().record(result, 100L);
+		}
+
+		// both predicates only eliminate candidates if they are false
+		var order = strategy.createPredicateOrder(List.of(info(alwaysTrue), info(alwaysFalse)));
+
+		assertThat(bools(order), contains(alwaysFalse, alwaysTrue));
+	}
+
+	@Test
+	void ordered_predicates_collect_statistics() throws IOException {
+		var strategy = new CostBasedPredicateOrderStrategy();
+
+		var order = strategy.createPredicateOrder(List.of(info(bool("subject.a == 1"))));
+
+		assertThat(order.get(0).getStatistics(), is(notNullValue()));
+	}
+
+	@Test
+	void reordering_is_recommended_after_number_of_evaluations() throws IOException {
+		var strategy = new CostBasedPredicateOrderStrategy(10L);
+		var bool     = bool("subject.a == 1");
+
+		var predicate = strategy.createPredicateOrder(List.of(info(bool))).get(0);
+		assertThat(strategy.isReorderingRecommended(), is(false));
+
+		for (int i = 0; i < 10; i++)
+			predicate.getStatistics().record(Val.TRUE, 100L);
+		assertThat(strategy.isReorderingRecommended(), is(true));
+
+		strategy.createPredicateOrder(List.of(info(bool)));
+		assertThat(strategy.isReorderingRecommended(), is(false));
+	}
+
+	@Test
+	void non_positive_reordering_interval_is_rejected() {
+		assertThrows(IllegalArgumentException.class, () -> new CostBasedPredicateOrderStrategy(0L));
+	}
+
+	@Test
+	void default_strategy_never_recommends_reordering() {
+		assertThat(new DefaultPredicateOrderStrategy().isReorderingRecommended(), is(false));
+	}
+
+	private static Bool bool(String expression) throws IOException {
+		return new Bool(ParserUtil.expression(expression), Map.of());
+	}
+
+	private static PredicateInfo info(Bool bool) {
+		var predicateInfo = new PredicateInfo(new Predicate(bool));
+		predicateInfo.incGroupedNumberOfPositives();
+		predicateInfo.incNumberOfPositives();
+		predicateInfo.setRelevance(1.0D);
+		predicateInfo.getPredicate().getFalseForFalsePredicate().set(0);
+		return predicateInfo;
+	}
+
+	private static List<Bool> bools(List<Predicate> predicates) {
+		return predicates.stream().map(Predicate::getBool).collect(Collectors.toList());
+	}
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.prp.index.canonical.ordering;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.sapl.grammar.sapl.impl.util.ParserUtil;
+import io.sapl.prp.index.canonical.Bool;
+
+class PredicateCostEstimatorTest {
+
+	@Test
+	void constant_costs_one_node() {
+		assertThat(PredicateCostEstimator.estimateCost(new Bool(true)), is(PredicateCostEstimator.NODE_COST));
+	}
+
+	@Test
+	void larger_expressions_cost_more() throws IOException {
+		assertThat(cost("subject.a.b.c == \"x\""), greaterThan(cost("subject.a == \"x\"")));
+	}
+
+	@Test
+	void expensive_nodes_add_penalty() throws IOException {
+		var comparison = cost("subject.name == \"x\"");
+
+		assertThat(cost("subject.name =~ \"x\""),
+				is(comparison - PredicateCostEstimator.NODE_COST + PredicateCostEstimator.NODE_COST
+						+ PredicateCostEstimator.REGEX_PENALTY));
+		assertThat(cost("subject..name == \"x\""), greaterThan(comparison + PredicateCostEstimator.REGEX_PENALTY));
+		assertThat(cost("standard.length(subject.name) == 1"), greaterThan(comparison));
+	}
+
+	private static double cost(String expression) throws IOException {
+		return PredicateCostEstimator.estimateCost(new Bool(ParserUtil.expression(expression), Map.of()));
+	}
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.mavenplugin.bundle;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import io.sapl.api.interpreter.PolicyEvaluationException;
+import io.sapl.interpreter.DefaultSAPLInterpreter;
+import io.sapl.interpreter.PolicyBundle;
+
+/**
+ * Parses the SAPL documents of the policy directory in the build output and
+ * stores them in a {@link PolicyBundle} next to the documents. Embedded PDPs
+ * loading the directory or the resulting jar then load the documents from the
+ * bundle instead of parsing them on startup.
+ */
+@Mojo(name = "bundle-policies", defaultPhase = LifecyclePhase.PROCESS_CLASSES)
+public class BundlePoliciesMojo extends AbstractMojo {
+
+	private static final String SAPL_FILE_GLOB = "*.sapl";
+
+	@Parameter(defaultValue = "true")
+	private boolean bundleEnabled;
+
+	@Parameter(defaultValue = "policies")
+	private String policyPath;
+
+	@Parameter(defaultValue = "${project.build.outputDirectory}")
+	private String outputDirectory;
+
+	@Override
+	public void execute() throws MojoExecutionException {
+		if (!this.bundleEnabled)
+			return;
+
+		var policyDir = Path.of(outputDirectory).resolve(policyPath);
+		if (!Files.isDirectory(policyDir)) {
+			getLog().warn("No policy directory found at \"" + policyDir + "\". No policy bundle is created.");
+			return;
+		}
+
+		var bundle = bundlePolicies(policyDir);
+		var bundleFile = policyDir.resolve(PolicyBundle.BUNDLE_FILE_NAME);
+		try (var out = new BufferedOutputStream(Files.newOutputStream(bundleFile))) {
+			bundle.write(out);
+		}
+		catch (IOException e) {
+			throw new MojoExecutionException("Failed to write policy bundle " + bundleFile, e);
+		}
+		getLog().info("Bundled " + bundle.size() + " SAPL documents into \"" + bundleFile + "\"");
+	}
+
+	private PolicyBundle bundlePolicies(Path policyDir) throws MojoExecutionException {
+		var interpreter = new DefaultSAPLInterpreter();
+		var bundle = new PolicyBundle();
+		try (var files = Files.newDirectoryStream(policyDir, SAPL_FILE_GLOB)) {
+			for (var file : files) {
+				getLog().debug("Bundling SAPL document \"" + file + "\"");
+				var source = Files.readString(file);
+				try {
+					bundle.add(source, interpreter.parse(source));
+				}
+				catch (PolicyEvaluationException e) {
+					throw new MojoExecutionException("Invalid SAPL document " + file + ": " + e.getMessage(), e);
+				}
+			}
+		}
+		catch (IOException e) {
+			throw new MojoExecutionException("Failed to read policies from " + policyDir, e);
+		}
+		return bundle;
+	}
+
+}
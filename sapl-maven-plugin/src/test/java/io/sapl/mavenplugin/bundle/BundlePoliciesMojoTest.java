@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.mavenplugin.bundle;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.testing.AbstractMojoTestCase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import io.sapl.interpreter.PolicyBundle;
+
+class BundlePoliciesMojoTest extends AbstractMojoTestCase {
+
+	private static final Path OUTPUT_DIR = Paths.get("target", "bundle-test");
+
+	private static final Path POLICY_DIR = OUTPUT_DIR.resolve("policies");
+
+	private static final String POLICY = "policy \"bundled\" permit subject == \"alice\"";
+
+	private Log log;
+
+	@BeforeEach
+	void setup() throws Exception {
+		super.setUp();
+
+		log = Mockito.mock(Log.class);
+		FileUtils.deleteDirectory(OUTPUT_DIR.toFile());
+	}
+
+	@AfterEach
+	void cleanup() throws Exception {
+		FileUtils.deleteDirectory(OUTPUT_DIR.toFile());
+	}
+
+	@Test
+	void when_policiesAreValid_then_bundleContainsPolicies() throws Exception {
+		Files.createDirectories(POLICY_DIR);
+		Files.writeString(POLICY_DIR.resolve("policy.sapl"), POLICY);
+		var mojo = lookupBundleMojo();
+
+		assertDoesNotThrow(mojo::execute);
+
+		try (var in = Files.newInputStream(POLICY_DIR.resolve(PolicyBundle.BUNDLE_FILE_NAME))) {
+			var bundle = PolicyBundle.read(in);
+			assertEquals(1, bundle.size());
+			assertEquals("bundled", bundle.load(POLICY).orElseThrow().getPolicyElement().getSaplName());
+		}
+	}
+
+	@Test
+	void when_policyIsInvalid_then_MojoException() throws Exception {
+		Files.createDirectories(POLICY_DIR);
+		Files.writeString(POLICY_DIR.resolve("policy.sapl"), "policy \"invalid\" permit where ;;");
+		var mojo = lookupBundleMojo();
+
+		assertThrows(MojoExecutionException.class, mojo::execute);
+	}
+
+	@Test
+	void when_policyDirectoryIsMissing_then_noBundleIsCreated() throws Exception {
+		var mojo = lookupBundleMojo();
+
+		assertDoesNotThrow(mojo::execute);
+
+		assertFalse(Files.exists(POLICY_DIR.resolve(PolicyBundle.BUNDLE_FILE_NAME)));
+	}
+
+	private BundlePoliciesMojo lookupBundleMojo() throws Exception {
+		Path pom = Paths.get("src", "test", "resources", "pom", "pom_bundlePolicies.xml");
+		var mojo = (BundlePoliciesMojo) lookupMojo("bundle-policies", pom.toFile());
+		mojo.setLog(this.log);
+		return mojo;
+	}
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.api.pdp;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+
+/**
+ * A command sent by a client over a multiplexed decision connection. Over the
+ * lifetime of the connection, the client adds authorization subscriptions by
+ * sending {@link Type#SUBSCRIBE} commands and removes them again by sending
+ * {@link Type#UNSUBSCRIBE} commands. The PDP answers with a single stream of
+ * {@link IdentifiableAuthorizationDecision identifiable authorization decisions}
+ * carrying the ID of the related subscription.
+ *
+ * Subscribing with an ID which is already in use replaces the previous
+ * authorization subscription.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(NON_NULL)
+public class MultiplexedSubscriptionCommand {
+
+	public enum Type {
+
+		SUBSCRIBE, UNSUBSCRIBE
+
+	}
+
+	@JsonProperty(required = true)
+	Type type;
+
+	@JsonProperty(required = true)
+	String authorizationSubscriptionId;
+
+	AuthorizationSubscription authorizationSubscription;
+
+	/**
+	 * @param subscriptionId the ID of the authorization subscription.
+	 * @param authzSubscription the authorization subscription to be added.
+	 * @return a command adding the authorization subscription to the connection.
+	 */
+	public static MultiplexedSubscriptionCommand subscribe(@NonNull String subscriptionId,
+			@NonNull AuthorizationSubscription authzSubscription) {
+		return new MultiplexedSubscriptionCommand(Type.SUBSCRIBE, subscriptionId, authzSubscription);
+	}
+
+	/**
+	 * @param subscriptionId the ID of the authorization subscription.
+	 * @return a command removing the authorization subscription from the
+	 * connection.
+	 */
+	public static MultiplexedSubscriptionCommand unsubscribe(@NonNull String subscriptionId) {
+		return new MultiplexedSubscriptionCommand(Type.UNSUBSCRIBE, subscriptionId, null);
+	}
+
+	/**
+	 * @return true, if the command removes an authorization subscription.
+	 */
+	@JsonIgnore
+	public boolean isUnsubscribe() {
+		return type == Type.UNSUBSCRIBE;
+	}
+
+}
@@ -16,6 +16,7 @@
 package io.sapl.api.pdp;
 
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * The policy decision point is the component in the system, which will take an
@@ -61,4 +62,32 @@ public interface PolicyDecisionPoint {
 	 */
 	Flux<MultiAuthorizationDecision> decideAll(MultiAuthorizationSubscription multiAuthzSubscription);
 
+	/**
+	 * One-shot variant of {@link #decide(AuthorizationSubscription)} for PEPs which
+	 * are only interested in the current authorization decision. The returned
+	 * {@link Mono} completes after the first authorization decision, releasing all
+	 * resources held for the subscription.
+	 * @param authzSubscription the SAPL authorization subscription object
+	 * @return a {@link Mono} emitting the first authorization decision for the given
+	 * authorization subscription.
+	 */
+	default Mono<AuthorizationDecision> decideOnce(AuthorizationSubscription authzSubscription) {
+		return decide(authzSubscription).next();
+	}
+
+	/**
+	 * One-shot variant of {@link #decideAll(MultiAuthorizationSubscription)}. The
+	 * authorization subscriptions are evaluated in parallel and the returned
+	 * {@link Mono} completes as soon as the first authorization decision for each of
+	 * them is available.
+	 * @param multiAuthzSubscription the multi-subscription object containing the
+	 * subjects, actions, resources, and environments of the authorization subscriptions
+	 * to be evaluated by the PDP.
+	 * @return a {@link Mono} emitting a multi-decision containing the first
+	 * authorization decision for each authorization subscription.
+	 */
+	default Mono<MultiAuthorizationDecision> decideOnce(MultiAuthorizationSubscription multiAuthzSubscription) {
+		return decideAll(multiAuthzSubscription).next();
+	}
+
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.api.pdp;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.sapl.api.pdp.MultiplexedSubscriptionCommand.Type;
+
+class MultiplexedSubscriptionCommandTest {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	@Test
+	void subscribeCommand() {
+		var subscription = AuthorizationSubscription.of("subject", "action", "resource");
+		var command      = MultiplexedSubscriptionCommand.subscribe("id", subscription);
+
+		assertAll(() -> assertThat(command.getType(), is(Type.SUBSCRIBE)),
+				() -> assertThat(command.getAuthorizationSubscriptionId(), is("id")),
+				() -> assertThat(command.getAuthorizationSubscription(), is(subscription)),
+				() -> assertThat(command.isUnsubscribe(), is(false)));
+	}
+
+	@Test
+	void unsubscribeCommand() {
+		var command = MultiplexedSubscriptionCommand.unsubscribe("id");
+
+		assertAll(() -> assertThat(command.getType(), is(Type.UNSUBSCRIBE)),
+				() -> assertThat(command.getAuthorizationSubscriptionId(), is("id")),
+				() -> assertThat(command.getAuthorizationSubscription(), is(nullValue())),
+				() -> assertThat(command.isUnsubscribe(), is(true)));
+	}
+
+	@Test
+	void serializationRoundTrip() throws JsonProcessingException {
+		var command = MultiplexedSubscriptionCommand.subscribe("id",
+				AuthorizationSubscription.of("subject", "action", "resource"));
+
+		var json = MAPPER.writeValueAsString(command);
+
+		assertThat(MAPPER.readValue(json, MultiplexedSubscriptionCommand.class), is(command));
+	}
+
+	@Test
+	void unsubscribeSerializationOmitsSubscription() throws JsonProcessingException {
+		var json = MAPPER.writeValueAsString(MultiplexedSubscriptionCommand.unsubscribe("id"));
+
+		assertThat(json, is("{\"type\":\"UNSUBSCRIBE\",\"authorizationSubscriptionId\":\"id\"}"));
+	}
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.pdp;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.grammar.sapl.AuthorizationDecisionEvaluable;
+import io.sapl.grammar.sapl.impl.ExpressionAnalysis;
+import io.sapl.pdp.config.PDPConfiguration;
+import io.sapl.prp.PolicyRetrievalResult;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+
+/**
+ * Memoizes the combined decisions for subscriptions whose matching documents
+ * do not access any attributes. As long as the function libraries are
+ * deterministic, such a decision only depends on the subscription, the
+ * matching documents, and the PDP configuration.
+ *
+ * Entries are keyed by the configuration and the matching documents by
+ * identity, and by the subscription and target errors by value. Thus, documents changed or
+ * removed by a PRP update never match again, and the whole cache is
+ * invalidated on each new configuration.
+ */
+class DecisionCache {
+
+	private final Cache<DecisionKey, AuthorizationDecision> decisions;
+
+	private final AtomicReference<PDPConfiguration> currentConfiguration = new AtomicReference<>();
+
+	DecisionCache(long maximumSize) {
+		decisions = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+	}
+
+	/**
+	 * @param configuration     the PDP configuration
+	 * @param authzSubscription the subscription
+	 * @param retrievalResult   the documents matching the subscription
+	 * @param combinedDecisions evaluates and combines the matching documents
+	 * @return the cached decision, if all documents are attribute-free and the
+	 *         decision has been evaluated before, else the combined decisions
+	 */
+	Flux<AuthorizationDecision> decide(
+			PDPConfiguration configuration,
+			AuthorizationSubscription authzSubscription,
+			PolicyRetrievalResult retrievalResult,
+			Supplier<Flux<AuthorizationDecision>> combinedDecisions) {
+		invalidateOnNewConfiguration(configuration);
+
+		var matchingDocuments = retrievalResult.getMatchingDocuments();
+		if (!allAttributeFree(matchingDocuments))
+			return combinedDecisions.get();
+
+		var key    = new DecisionKey(configuration, List.copyOf(matchingDocuments),
+				retrievalResult.isErrorsInTarget(), authzSubscription);
+		var cached = decisions.getIfPresent(key);
+		if (cached != null)
+			return Flux.just(cached);
+
+		var lastDecision = new AtomicReference<AuthorizationDecision>();
+		return combinedDecisions.get().doOnNext(lastDecision::set).doOnComplete(() -> {
+			var decision = lastDecision.get();
+			if (decision != null)
+				decisions.put(key, decision);
+		});
+	}
+
+	private void invalidateOnNewConfiguration(PDPConfiguration configuration) {
+		var previous = currentConfiguration.get();
+		if (previous != configuration && currentConfiguration.compareAndSet(previous, configuration))
+			decisions.invalidateAll();
+	}
+
+	private static boolean allAttributeFree(Collection<? extends AuthorizationDecisionEvaluable> documents) {
+		for (var document : documents)
+			if (!isAttributeFree(document))
+				return false;
+		return true;
+	}
+
+	private static boolean isAttributeFree(AuthorizationDecisionEvaluable document) {
+		var analysis = ExpressionAnalysis.of(document);
+		return analysis != null && analysis.isAttributeFree();
+	}
+
+	long size() {
+		return decisions.size();
+	}
+
+	/**
+	 * Compares configuration and documents by identity, the subscription by
+	 * value.
+	 */
+	@RequiredArgsConstructor
+	private static class DecisionKey {
+
+		private final PDPConfiguration configuration;
+
+		private final List<AuthorizationDecisionEvaluable> documents;
+
+		private final boolean errorsInTarget;
+
+		private final AuthorizationSubscription authzSubscription;
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof DecisionKey))
+				return false;
+			var other = (DecisionKey) obj;
+			if (configuration != other.configuration || errorsInTarget != other.errorsInTarget
+					|| documents.size() != other.documents.size())
+				return false;
+			for (var i = 0; i < documents.size(); i++)
+				if (documents.get(i) != other.documents.get(i))
+					return false;
+			return authzSubscription.equals(other.authzSubscription);
+		}
+
+		@Override
+		public int hashCode() {
+			var hash = System.identityHashCode(configuration);
+			for (var document : documents)
+				hash = 31 * hash + System.identityHashCode(document);
+			hash = 31 * hash + Boolean.hashCode(errorsInTarget);
+			return 31 * hash + authzSubscription.hashCode();
+		}
+
+	}
+
+}
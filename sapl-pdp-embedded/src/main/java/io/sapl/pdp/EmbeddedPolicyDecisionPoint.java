@@ -16,10 +16,14 @@
 package io.sapl.pdp;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.function.Function;
 
-import org.reactivestreams.Publisher;
+import org.eclipse.emf.ecore.EObject;
 
 import io.sapl.api.pdp.AuthorizationDecision;
 import io.sapl.api.pdp.AuthorizationSubscription;
@@ -28,42 +32,178 @@
 import io.sapl.api.pdp.MultiAuthorizationDecision;
 import io.sapl.api.pdp.MultiAuthorizationSubscription;
 import io.sapl.api.pdp.PolicyDecisionPoint;
-import io.sapl.grammar.sapl.CombiningAlgorithm;
+import io.sapl.grammar.sapl.AuthorizationDecisionEvaluable;
+import io.sapl.grammar.sapl.impl.ExpressionAnalysis;
+import io.sapl.grammar.sapl.impl.SharedExpressionCache;
 import io.sapl.interpreter.context.AuthorizationContext;
 import io.sapl.pdp.config.PDPConfiguration;
 import io.sapl.pdp.config.PDPConfigurationProvider;
 import io.sapl.prp.PolicyRetrievalPoint;
 import io.sapl.prp.PolicyRetrievalResult;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.util.context.Context;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 @Slf4j
-@RequiredArgsConstructor
 public class EmbeddedPolicyDecisionPoint implements PolicyDecisionPoint {
 
 	private final PDPConfigurationProvider configurationProvider;
 
 	private final PolicyRetrievalPoint policyRetrievalPoint;
 
+	private final DecisionCache decisionCache;
+
+	private final SubscriptionRegistry subscriptionRegistry;
+
+	public EmbeddedPolicyDecisionPoint(PDPConfigurationProvider configurationProvider,
+			PolicyRetrievalPoint policyRetrievalPoint) {
+		this(configurationProvider, policyRetrievalPoint, 0L);
+	}
+
+	/**
+	 * Creates a PDP which caches the decisions for subscriptions only matching
+	 * documents without attribute access. Only enable the cache, if all function
+	 * libraries are deterministic.
+	 * 
+	 * @param configurationProvider the PDP configuration provider
+	 * @param policyRetrievalPoint  the policy retrieval point
+	 * @param decisionCacheSize     maximal number of cached decisions, 0 disables
+	 *                              the cache
+	 */
+	public EmbeddedPolicyDecisionPoint(PDPConfigurationProvider configurationProvider,
+			PolicyRetrievalPoint policyRetrievalPoint, long decisionCacheSize) {
+		this(configurationProvider, policyRetrievalPoint, decisionCacheSize, false);
+	}
+
+	/**
+	 * Creates a PDP which optionally shares one decision stream between all
+	 * concurrent subscribers with equal authorization subscriptions.
+	 * 
+	 * @param configurationProvider    the PDP configuration provider
+	 * @param policyRetrievalPoint     the policy retrieval point
+	 * @param decisionCacheSize        maximal number of cached decisions, 0
+	 *                                 disables the cache
+	 * @param deduplicateSubscriptions true, if equal concurrent subscriptions
+	 *                                 share their decision stream
+	 */
+	public EmbeddedPolicyDecisionPoint(PDPConfigurationProvider configurationProvider,
+			PolicyRetrievalPoint policyRetrievalPoint, long decisionCacheSize, boolean deduplicateSubscriptions) {
+		this.configurationProvider = configurationProvider;
+		this.policyRetrievalPoint  = policyRetrievalPoint;
+		this.decisionCache         = decisionCacheSize > 0L ? new DecisionCache(decisionCacheSize) : null;
+		this.subscriptionRegistry  = deduplicateSubscriptions ? new SubscriptionRegistry() : null;
+	}
+
+	/**
+	 * @return the statistics on the deduplication of subscriptions, or empty, if
+	 *         subscriptions are not deduplicated
+	 */
+	public Optional<SubscriptionStatistics> getSubscriptionStatistics() {
+		return Optional.ofNullable(subscriptionRegistry).map(SubscriptionRegistry::statistics);
+	}
+
 	@Override
 	public Flux<AuthorizationDecision> decide(AuthorizationSubscription authzSubscription) {
+		if (subscriptionRegistry != null)
+			return subscriptionRegistry.decide(authzSubscription, this::evaluate);
+
+		return evaluate(authzSubscription);
+	}
+
+	private Flux<AuthorizationDecision> evaluate(AuthorizationSubscription authzSubscription) {
 		log.debug("- START DECISION: {}", authzSubscription);
-		return configurationProvider.pdpConfiguration().switchMap(decideSubscription(authzSubscription))
-				.distinctUntilChanged();
+		return configurationProvider.pdpConfiguration()
+				.switchMap(pdpConfiguration -> retrieveDocuments(pdpConfiguration, authzSubscription))
+				.distinctUntilChanged(Function.identity(), EmbeddedPolicyDecisionPoint::isEvaluatedIdentically)
+				.switchMap(evaluation -> combineDocuments(evaluation, authzSubscription)).distinctUntilChanged();
 	}
 
-	private Function<? super PDPConfiguration, Publisher<? extends AuthorizationDecision>> decideSubscription(
+	/**
+	 * The matching documents are retrieved again for each configuration, as
+	 * targets may reference variables. The retrieval results are combined with the
+	 * configuration they have been retrieved with.
+	 */
+	private Flux<Tuple2<PDPConfiguration, PolicyRetrievalResult>> retrieveDocuments(
+			PDPConfiguration pdpConfiguration,
 			AuthorizationSubscription authzSubscription) {
-		return pdpConfiguration -> {
-			if (pdpConfiguration.isValid()) {
-				return retrieveAndCombineDocuments(pdpConfiguration.getDocumentsCombinator())
-						.contextWrite(buildSubscriptionScopedContext(pdpConfiguration, authzSubscription));
-			} else {
-				return Flux.just(AuthorizationDecision.INDETERMINATE);
-			}
-		};
+		if (!pdpConfiguration.isValid())
+			return Flux.just(Tuples.of(pdpConfiguration, new PolicyRetrievalResult().withInvalidState()));
+
+		return policyRetrievalPoint.retrievePolicies()
+				.map(policyRetrievalResult -> Tuples.of(pdpConfiguration, policyRetrievalResult))
+				.contextWrite(buildSubscriptionScopedContext(pdpConfiguration, authzSubscription));
+	}
+
+	/**
+	 * Two evaluations result in the same decisions, if the same documents match
+	 * and are combined with the same algorithm, attributes, and functions, and if
+	 * none of the variables referenced in the documents has changed. As attribute
+	 * finders are handed all variables, documents using attributes require all
+	 * variables to be unchanged. Then, the running evaluation, including its
+	 * attribute streams, is kept on a configuration or PRP update.
+	 */
+	private static boolean isEvaluatedIdentically(
+			Tuple2<PDPConfiguration, PolicyRetrievalResult> previous,
+			Tuple2<PDPConfiguration, PolicyRetrievalResult> next) {
+		var previousConfiguration = previous.getT1();
+		var nextConfiguration     = next.getT1();
+		if (!previousConfiguration.isValid() || !nextConfiguration.isValid())
+			return false;
+
+		if (previousConfiguration.getAttributeContext() != nextConfiguration.getAttributeContext()
+				|| previousConfiguration.getFunctionContext() != nextConfiguration.getFunctionContext()
+				|| previousConfiguration.getDocumentsCombinator().getClass() != nextConfiguration
+						.getDocumentsCombinator().getClass())
+			return false;
+
+		var previousResult = previous.getT2();
+		var nextResult     = next.getT2();
+		if (!previousResult.isPrpValidState() || !nextResult.isPrpValidState()
+				|| previousResult.isErrorsInTarget() != nextResult.isErrorsInTarget())
+			return false;
+
+		// incremental and full retrievals may list the same documents in a different
+		// order, the PDP level combining algorithms do not depend on it
+		var previousDocuments = Collections.<AuthorizationDecisionEvaluable>newSetFromMap(new IdentityHashMap<>());
+		previousDocuments.addAll(previousResult.getMatchingDocuments());
+		var nextDocuments = Collections.<AuthorizationDecisionEvaluable>newSetFromMap(new IdentityHashMap<>());
+		nextDocuments.addAll(nextResult.getMatchingDocuments());
+		if (previousResult.getMatchingDocuments().size() != nextResult.getMatchingDocuments().size()
+				|| previousDocuments.size() != nextDocuments.size())
+			return false;
+
+		for (var document : nextDocuments) {
+			if (!previousDocuments.contains(document)
+					|| !referencedVariablesUnchanged(document, previousConfiguration, nextConfiguration))
+				return false;
+		}
+		return true;
+	}
+
+	private static boolean referencedVariablesUnchanged(
+			AuthorizationDecisionEvaluable document,
+			PDPConfiguration previousConfiguration,
+			PDPConfiguration nextConfiguration) {
+		if (previousConfiguration.getVariables() == nextConfiguration.getVariables())
+			return true;
+
+		var analysis = document instanceof EObject ? ExpressionAnalysis.of((EObject) document) : null;
+		if (analysis == null)
+			return false;
+
+		// attribute finders are handed all variables and may read any of them
+		if (!analysis.isAttributeFree())
+			return Objects.equals(previousConfiguration.getVariables(), nextConfiguration.getVariables());
+
+		for (var variable : analysis.getReferencedVariables())
+			if (!Objects.equals(previousConfiguration.getVariables().get(variable),
+					nextConfiguration.getVariables().get(variable)))
+				return false;
+
+		return true;
 	}
 
 	private Function<Context, Context> buildSubscriptionScopedContext(
@@ -78,18 +218,22 @@ private Function<Context, Context> buildSubscriptionScopedContext(
 		};
 	}
 
-	private Flux<AuthorizationDecision> retrieveAndCombineDocuments(CombiningAlgorithm documentsCombinator) {
-		return policyRetrievalPoint.retrievePolicies().switchMap(combineDocuments(documentsCombinator));
-	}
-
-	private Function<? super PolicyRetrievalResult, Publisher<? extends AuthorizationDecision>> combineDocuments(
-			CombiningAlgorithm documentsCombinator) {
-		return policyRetrievalResult -> {
-			if (policyRetrievalResult.isPrpValidState())
-				return documentsCombinator.combineMatchingDocuments(policyRetrievalResult);
-
+	private Flux<AuthorizationDecision> combineDocuments(
+			Tuple2<PDPConfiguration, PolicyRetrievalResult> evaluation,
+			AuthorizationSubscription authzSubscription) {
+		var pdpConfiguration      = evaluation.getT1();
+		var policyRetrievalResult = evaluation.getT2();
+		if (!pdpConfiguration.isValid() || !policyRetrievalResult.isPrpValidState())
 			return Flux.just(AuthorizationDecision.INDETERMINATE);
-		};
+
+		var documentsCombinator = pdpConfiguration.getDocumentsCombinator();
+		Flux<AuthorizationDecision> decisions;
+		if (decisionCache == null)
+			decisions = documentsCombinator.combineMatchingDocuments(policyRetrievalResult);
+		else
+			decisions = decisionCache.decide(pdpConfiguration, authzSubscription, policyRetrievalResult,
+					() -> documentsCombinator.combineMatchingDocuments(policyRetrievalResult));
+		return decisions.contextWrite(buildSubscriptionScopedContext(pdpConfiguration, authzSubscription));
 	}
 
 	@Override
@@ -112,8 +256,40 @@ public Flux<MultiAuthorizationDecision> decideAll(MultiAuthorizationSubscription
 		return Flux.just(MultiAuthorizationDecision.indeterminate());
 	}
 
+	@Override
+	public Mono<AuthorizationDecision> decideOnce(AuthorizationSubscription authzSubscription) {
+		return decide(authzSubscription).next().defaultIfEmpty(AuthorizationDecision.INDETERMINATE);
+	}
+
+	@Override
+	public Mono<MultiAuthorizationDecision> decideOnce(MultiAuthorizationSubscription multiAuthzSubscription) {
+		if (!multiAuthzSubscription.hasAuthorizationSubscriptions())
+			return Mono.just(MultiAuthorizationDecision.indeterminate());
+
+		var sharedExpressions = new SharedExpressionCache();
+		return Flux.fromIterable(multiAuthzSubscription)
+				.flatMap(identifiableAuthzSubscription -> decideOnce(
+						identifiableAuthzSubscription.getAuthorizationSubscription())
+						.contextWrite(ctx -> AuthorizationContext.setSharedExpressionCache(ctx, sharedExpressions))
+						.map(authzDecision -> new IdentifiableAuthorizationDecision(
+								identifiableAuthzSubscription.getAuthorizationSubscriptionId(), authzDecision)))
+				.collect(MultiAuthorizationDecision::new,
+						(multiAuthzDecision, identifiableAuthzDecision) -> multiAuthzDecision
+								.setAuthorizationDecisionForSubscriptionWithId(
+										identifiableAuthzDecision.getAuthorizationSubscriptionId(),
+										identifiableAuthzDecision.getAuthorizationDecision()));
+	}
+
+	/**
+	 * The subscriptions of a multi-subscription usually share their subject, and
+	 * often their action or resource. Thus, their evaluations share the values of
+	 * pure expressions only depending on the subscription. Attribute streams are
+	 * shared by the attribute context anyway, as long as the decisions are
+	 * subscribed to concurrently.
+	 */
 	private List<Flux<IdentifiableAuthorizationDecision>> createIdentifiableAuthzDecisionFluxes(
 			Iterable<IdentifiableAuthorizationSubscription> multiDecision) {
+		final SharedExpressionCache sharedExpressions = new SharedExpressionCache();
 		final List<Flux<IdentifiableAuthorizationDecision>> identifiableAuthzDecisionFluxes = new ArrayList<>();
 		for (IdentifiableAuthorizationSubscription identifiableAuthzSubscription : multiDecision) {
 			final String                                  subscriptionId                = identifiableAuthzSubscription
@@ -121,6 +297,7 @@ private List<Flux<IdentifiableAuthorizationDecision>> createIdentifiableAuthzDec
 			final AuthorizationSubscription               authzSubscription             = identifiableAuthzSubscription
 					.getAuthorizationSubscription();
 			final Flux<IdentifiableAuthorizationDecision> identifiableAuthzDecisionFlux = decide(authzSubscription)
+					.contextWrite(ctx -> AuthorizationContext.setSharedExpressionCache(ctx, sharedExpressions))
 					.map(authzDecision -> new IdentifiableAuthorizationDecision(subscriptionId, authzDecision));
 			identifiableAuthzDecisionFluxes.add(identifiableAuthzDecisionFlux);
 		}
@@ -0,0 +1,86 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.pdp;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.AuthorizationSubscription;
+import reactor.core.publisher.Flux;
+
+/**
+ * Shares one decision stream between all concurrent subscribers with equal
+ * authorization subscriptions. Subscriptions are compared by the value of
+ * their JSON nodes, which does not depend on the order of object fields. The
+ * decision stream is evaluated once for the first subscriber, replays the
+ * latest decision to subsequent subscribers and is disposed as soon as the
+ * last subscriber cancels.
+ */
+class SubscriptionRegistry {
+
+	private final Map<AuthorizationSubscription, Flux<AuthorizationDecision>> decisions = new ConcurrentHashMap<>();
+
+	private final LongAdder subscriptions = new LongAdder();
+
+	private final LongAdder sharedSubscriptions = new LongAdder();
+
+	/**
+	 * @param authzSubscription the subscription
+	 * @param decide            evaluates the decisions for the subscription, if
+	 *                          there is no active decision stream for an equal
+	 *                          subscription
+	 * @return the shared decision stream for the subscription
+	 */
+	Flux<AuthorizationDecision> decide(
+			AuthorizationSubscription authzSubscription,
+			Function<AuthorizationSubscription, Flux<AuthorizationDecision>> decide) {
+		return Flux.defer(() -> {
+			var created        = new AtomicBoolean();
+			var decisionStream = decisions.computeIfAbsent(authzSubscription, subscription -> {
+				created.set(true);
+				return share(subscription, decide);
+			});
+			subscriptions.increment();
+			if (!created.get())
+				sharedSubscriptions.increment();
+			return decisionStream;
+		});
+	}
+
+	private Flux<AuthorizationDecision> share(
+			AuthorizationSubscription authzSubscription,
+			Function<AuthorizationSubscription, Flux<AuthorizationDecision>> decide) {
+		var sharedStream = new AtomicReference<Flux<AuthorizationDecision>>();
+		sharedStream.set(Flux.defer(() -> decide.apply(authzSubscription))
+				.doFinally(signal -> decisions.remove(authzSubscription, sharedStream.get()))
+				.replay(1)
+				.refCount());
+		return sharedStream.get();
+	}
+
+	/**
+	 * @return the current statistics of the registry
+	 */
+	SubscriptionStatistics statistics() {
+		return new SubscriptionStatistics(subscriptions.sum(), sharedSubscriptions.sum(), decisions.size());
+	}
+
+}
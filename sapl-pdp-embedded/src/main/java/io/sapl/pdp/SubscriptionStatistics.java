@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.pdp;
+
+import lombok.Value;
+
+/**
+ * Statistics on the deduplication of concurrent authorization subscriptions
+ * by an {@link EmbeddedPolicyDecisionPoint}.
+ */
+@Value
+public class SubscriptionStatistics {
+
+	/**
+	 * The number of subscriptions since the PDP has been created.
+	 */
+	long subscriptions;
+
+	/**
+	 * The number of subscriptions which joined the active decision stream of an
+	 * equal subscription, instead of being evaluated on their own.
+	 */
+	long sharedSubscriptions;
+
+	/**
+	 * The number of currently active decision streams.
+	 */
+	int activeDecisionStreams;
+
+	/**
+	 * @return the share of subscriptions which joined an active decision stream,
+	 *         or 0, if there have not been any subscriptions
+	 */
+	public double getDeduplicationRatio() {
+		return subscriptions == 0L ? 0D : (double) sharedSubscriptions / subscriptions;
+	}
+
+}
@@ -37,8 +37,8 @@ public class FixedFunctionsAndAttributesPDPConfigurationProvider implements PDPC
 
 	@Override
 	public Flux<PDPConfiguration> pdpConfiguration() {
-		return Flux.combineLatest(variablesAndCombinatorSource.getCombiningAlgorithm(),
-				variablesAndCombinatorSource.getVariables(), this::createConfiguration);
+		return variablesAndCombinatorSource.getCombiningAlgorithmAndVariables()
+				.map(snapshot -> createConfiguration(snapshot.getT1(), snapshot.getT2()));
 	}
 
 	private PDPConfiguration createConfiguration(
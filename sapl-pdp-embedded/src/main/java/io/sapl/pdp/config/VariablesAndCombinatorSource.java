@@ -22,6 +22,8 @@
 
 import io.sapl.grammar.sapl.CombiningAlgorithm;
 import reactor.core.publisher.Flux;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 public interface VariablesAndCombinatorSource {
 
@@ -29,6 +31,18 @@ public interface VariablesAndCombinatorSource {
 
 	Flux<Optional<Map<String, JsonNode>>> getVariables();
 
+	/**
+	 * Provides the combining algorithm and the variables as one snapshot per
+	 * configuration change. Sources deriving both from the same configuration
+	 * should override this method, so that a single change does not result in
+	 * two intermediate configurations.
+	 *
+	 * @return a Flux of the combining algorithm and the variables
+	 */
+	default Flux<Tuple2<Optional<CombiningAlgorithm>, Optional<Map<String, JsonNode>>>> getCombiningAlgorithmAndVariables() {
+		return Flux.combineLatest(getCombiningAlgorithm(), getVariables(), Tuples::of);
+	}
+
 	void dispose();
 
 }
\ No newline at end of file
@@ -38,6 +38,8 @@
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 @Slf4j
 public class FileSystemVariablesAndCombinatorSource implements VariablesAndCombinatorSource {
@@ -96,6 +98,15 @@ public Flux<Optional<Map<String, JsonNode>>> getVariables() {
 						.orElseGet(() -> Flux.just(Optional.empty())));
 	}
 
+	@Override
+	public Flux<Tuple2<Optional<CombiningAlgorithm>, Optional<Map<String, JsonNode>>>> getCombiningAlgorithmAndVariables() {
+		// both are derived from the same configuration, so that each change results in one snapshot
+		return Flux.from(configFlux).map(config -> Tuples.of(
+				config.map(policyDecisionPointConfiguration -> CombiningAlgorithmFactory
+						.getCombiningAlgorithm(policyDecisionPointConfiguration.getAlgorithm())),
+				config.map(PolicyDecisionPointConfiguration::getVariables)));
+	}
+
 	private Optional<PolicyDecisionPointConfiguration> processWatcherEvent(FileEvent fileEvent) {
 		if (fileEvent instanceof FileDeletedEvent) {
 			log.info("Configuration file deleted. Reverting to default config.");
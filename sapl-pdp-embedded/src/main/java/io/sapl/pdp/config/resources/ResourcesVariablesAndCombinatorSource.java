@@ -26,6 +26,7 @@
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
+import reactor.util.function.Tuple2;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
@@ -128,6 +129,11 @@ public Flux<Optional<Map<String, JsonNode>>> getVariables() {
 		return Flux.just(config.getVariables()).map(HashMap::new).map(Optional::of);
 	}
 
+	@Override
+	public Flux<Tuple2<Optional<CombiningAlgorithm>, Optional<Map<String, JsonNode>>>> getCombiningAlgorithmAndVariables() {
+		return Flux.zip(getCombiningAlgorithm(), getVariables());
+	}
+
 	@Override
 	public void dispose() {
 		// NOP nothing to dispose
@@ -17,16 +17,21 @@
 
 import static io.sapl.util.filemonitoring.FileMonitorUtil.resolveHomeFolderIfPresent;
 
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 
 import io.sapl.interpreter.SAPLInterpreter;
 import io.sapl.prp.PrpUpdateEvent;
 import io.sapl.prp.PrpUpdateEventSource;
+import io.sapl.util.PolicyBundleUtil;
 import io.sapl.util.filemonitoring.FileEvent;
 import io.sapl.util.filemonitoring.FileMonitorUtil;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.util.function.Tuple2;
 import reactor.util.function.Tuples;
 
@@ -35,6 +40,9 @@ public class FileSystemPrpUpdateEventSource implements PrpUpdateEventSource {
 
 	private static final String SAPL_SUFFIX = ".sapl";
 
+	// quiet period after which a burst of file changes is applied in one update
+	private static final Duration COALESCING_WINDOW = Duration.ofMillis(100);
+
 	private final SAPLInterpreter interpreter;
 
 	private final String watchDir;
@@ -52,15 +60,23 @@ public void dispose() {
 
 	@Override
 	public Flux<PrpUpdateEvent> getUpdates() {
-		var seedIndex = new ImmutableFileIndex(this.watchDir, interpreter);
+		var bundledInterpreter = PolicyBundleUtil.withBundleOfDirectory(Paths.get(watchDir), interpreter);
+		var seedIndex = new ImmutableFileIndex(this.watchDir, bundledInterpreter);
 		var initialEvent = seedIndex.getUpdateEvent();
 		var monitoringFlux = FileMonitorUtil.monitorDirectory(watchDir, file -> file.getName().endsWith(SAPL_SUFFIX));
 		log.debug("Initial event: {}", initialEvent);
-		return Mono.just(initialEvent).concatWith(directoryMonitor(monitoringFlux, seedIndex));
+		return Mono.just(initialEvent).concatWith(directoryMonitor(coalesce(monitoringFlux), seedIndex));
+	}
+
+	private static Flux<List<FileEvent>> coalesce(Flux<FileEvent> fileEvents) {
+		// the batches are emitted on a thread that may block while the documents are parsed
+		var quietPeriod = Mono.delay(COALESCING_WINDOW, Schedulers.boundedElastic());
+		return fileEvents.publish(events -> events.buffer(events.sampleTimeout(event -> quietPeriod)))
+				.filter(batch -> !batch.isEmpty());
 	}
 
-	private Flux<PrpUpdateEvent> directoryMonitor(Flux<FileEvent> fileEvents, ImmutableFileIndex seedIndex) {
-		return fileEvents.scan(createInitialTuple(seedIndex), this::processFileEvent)
+	private Flux<PrpUpdateEvent> directoryMonitor(Flux<List<FileEvent>> fileEvents, ImmutableFileIndex seedIndex) {
+		return fileEvents.scan(createInitialTuple(seedIndex), this::processFileEvents)
 				.filter(tuple -> tuple.getT1().isPresent()).map(Tuple2::getT1).map(Optional::get);
 	}
 
@@ -68,10 +84,11 @@ private Tuple2<Optional<PrpUpdateEvent>, ImmutableFileIndex> createInitialTuple(
 		return Tuples.of(Optional.empty(), seedIndex);
 	}
 
-	private Tuple2<Optional<PrpUpdateEvent>, ImmutableFileIndex> processFileEvent(
-			Tuple2<Optional<PrpUpdateEvent>, ImmutableFileIndex> tuple, FileEvent fileEvent) {
+	private Tuple2<Optional<PrpUpdateEvent>, ImmutableFileIndex> processFileEvents(
+			Tuple2<Optional<PrpUpdateEvent>, ImmutableFileIndex> tuple, List<FileEvent> fileEvents) {
 		var index = tuple.getT2();
-		var newIndex = index.afterFileEvent(fileEvent);
+		log.debug("Applying {} coalesced file events", fileEvents.size());
+		var newIndex = index.afterFileEvents(fileEvents);
 		log.debug("Update event: {}", newIndex.getUpdateEvent());
 		return Tuples.of(Optional.of(newIndex.getUpdateEvent()), newIndex);
 	}
@@ -22,6 +22,7 @@
 import io.sapl.prp.PrpUpdateEvent;
 import io.sapl.prp.PrpUpdateEvent.Type;
 import io.sapl.prp.PrpUpdateEvent.Update;
+import io.sapl.util.ParallelDocumentParser;
 import io.sapl.util.filemonitoring.FileCreatedEvent;
 import io.sapl.util.filemonitoring.FileDeletedEvent;
 import io.sapl.util.filemonitoring.FileEvent;
@@ -34,7 +35,9 @@
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -68,11 +71,10 @@ public ImmutableFileIndex(String watchDir, SAPLInterpreter interpreter) {
 		this.documentsByPath = new HashMap<>();
 		this.namesToDocuments = new HashMap<>();
 
+		var filePaths = new ArrayList<Path>();
 		try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(watchDir), SAPL_GLOB_PATTERN)) {
-			for (var filePath : stream) {
-				log.debug("loading SAPL document: {}", filePath);
-				load(filePath);
-			}
+			for (var filePath : stream)
+				filePaths.add(filePath);
 		}
 		catch (IOException e) {
 			log.error("Unable to open the directory containing policies: {}", watchDir);
@@ -81,6 +83,11 @@ public ImmutableFileIndex(String watchDir, SAPLInterpreter interpreter) {
 			return;
 		}
 
+		log.info("Loading {} SAPL documents", filePaths.size());
+		var documents = ParallelDocumentParser.parseAll(filePaths, filePath -> new Document(filePath, interpreter));
+		for (var document : documents)
+			add(document);
+
 		if (isInconsistent()) {
 			log.warn("The initial set of documents is inconsistent!");
 			updates.add(new Update(Type.INCONSISTENT, null, null));
@@ -126,21 +133,44 @@ void addWithdrawUpdate(Document oldDocument) {
 	}
 
 	public ImmutableFileIndex afterFileEvent(FileEvent event) {
-		var fileName = event.getFile().getName();
-		var path = event.getFile().toPath().toAbsolutePath();
+		return afterFileEvents(List.of(event));
+	}
+
+	/**
+	 * Applies a batch of file events at once. Only the last event of each file is
+	 * relevant, and the resulting update event contains the changes of the whole
+	 * batch.
+	 *
+	 * @param events the file events in the order of their occurrence
+	 * @return the index after all events
+	 */
+	public ImmutableFileIndex afterFileEvents(List<FileEvent> events) {
+		var lastEventOfPaths = new LinkedHashMap<Path, FileEvent>();
+		for (var event : events)
+			lastEventOfPaths.put(event.getFile().toPath().toAbsolutePath(), event);
+
 		var newIndex = new ImmutableFileIndex(this);
-		if (event instanceof FileDeletedEvent) {
-			log.info("Unloading deleted SAPL document: {}", fileName);
+		var pathsToLoad = new ArrayList<Path>();
+		for (var entry : lastEventOfPaths.entrySet()) {
+			var path = entry.getKey();
+			var event = entry.getValue();
+			var fileName = event.getFile().getName();
+			if (event instanceof FileDeletedEvent) {
+				log.info("Unloading deleted SAPL document: {}", fileName);
+			}
+			else if (event instanceof FileCreatedEvent) {
+				log.info("Loading new SAPL document: {}", fileName);
+				pathsToLoad.add(path);
+			}
+			else { // FileChangedEvent
+				log.info("Loading updated SAPL document: {}", fileName);
+				pathsToLoad.add(path);
+			}
 			newIndex.unload(path);
 		}
-		else if (event instanceof FileCreatedEvent) {
-			log.info("Loading new SAPL document: {}", fileName);
-			newIndex.load(path);
-		}
-		else { // FileChangedEvent
-			log.info("Loading updated SAPL document: {}", fileName);
-			newIndex.change(path);
-		}
+		var documents = ParallelDocumentParser.parseAll(pathsToLoad, filePath -> new Document(filePath, interpreter));
+		for (var document : documents)
+			newIndex.add(document);
 
 		if (newIndex.becameConsistentComparedTo(this)) {
 			log.info("The set of documents was previously INCONSISTENT and is now CONSISTENT again.");
@@ -173,7 +203,10 @@ public boolean becameInconsistentComparedTo(ImmutableFileIndex idx) {
 	}
 
 	final void load(Path filePath) {
-		var newDocument = new Document(filePath, interpreter);
+		add(new Document(filePath, interpreter));
+	}
+
+	private void add(Document newDocument) {
 		documentsByPath.put(newDocument.getAbsolutePath(), newDocument);
 		if (!newDocument.isValid()) {
 			numberOfInvalidDocuments++;
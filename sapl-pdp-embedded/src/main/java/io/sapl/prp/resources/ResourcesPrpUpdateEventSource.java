@@ -22,6 +22,8 @@
 import io.sapl.prp.PrpUpdateEvent.Update;
 import io.sapl.prp.PrpUpdateEventSource;
 import io.sapl.util.JarUtil;
+import io.sapl.util.ParallelDocumentParser;
+import io.sapl.util.PolicyBundleUtil;
 import lombok.NonNull;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
@@ -33,6 +35,7 @@
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.HashMap;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 import java.util.zip.ZipEntry;
@@ -76,10 +79,14 @@ private PrpUpdateEvent readPoliciesFromJar(URL policiesFolderUrl) throws IOExcep
 		log.debug("reading policies from jar {}", policiesFolderUrl);
 		var pathOfJar = JarUtil.getJarFilePath(policiesFolderUrl);
 		try (var jarFile = new ZipFile(pathOfJar)) {
-			var updates = jarFile.stream().filter(this::isSAPLDocumentWithinPath)
-					.peek(entry -> log.info("load SAPL document: {}", entry.getName()))
-					.map(entry -> JarUtil.readStringFromZipEntry(jarFile, entry))
-					.map(this::parseAndCreatePublicationUpdate).collect(Collectors.toList());
+			var entries = jarFile.stream().filter(this::isSAPLDocumentWithinPath)
+					.peek(entry -> log.info("load SAPL document: {}", entry.getName())).collect(Collectors.toList());
+			var rawDocuments = new HashMap<ZipEntry, String>();
+			for (var entry : entries)
+				rawDocuments.put(entry, JarUtil.readStringFromZipEntry(jarFile, entry));
+			var bundledInterpreter = PolicyBundleUtil.withBundleOfJar(jarFile, interpreter);
+			var updates = ParallelDocumentParser.parseAll(entries,
+					entry -> parseAndCreatePublicationUpdate(bundledInterpreter, rawDocuments.get(entry)));
 			return new PrpUpdateEvent(updates);
 		}
 	}
@@ -88,18 +95,22 @@ private boolean isSAPLDocumentWithinPath(ZipEntry zipEntry) {
 		return !zipEntry.isDirectory() && zipEntry.getName().endsWith(POLICY_FILE_SUFFIX);
 	}
 
-	private Update parseAndCreatePublicationUpdate(String rawDocument) {
+	private static Update parseAndCreatePublicationUpdate(SAPLInterpreter interpreter, String rawDocument) {
 		return new Update(Type.PUBLISH, interpreter.parse(rawDocument), rawDocument);
 	}
 
 	private PrpUpdateEvent readPoliciesFromDirectory(URL policiesFolderUrl) throws IOException, URISyntaxException {
 		log.debug("reading policies from directory {}", policiesFolderUrl);
-		try (var directoryStream = Files.newDirectoryStream(Paths.get(policiesFolderUrl.toURI()),
-				POLICY_FILE_GLOB_PATTERN)) {
-			var updates = StreamSupport.stream(directoryStream.spliterator(), false)
-					.peek(path -> log.info("load SAPL document: {}", path))
-					.map(ResourcesPrpUpdateEventSource::readFileAsString).map(this::parseAndCreatePublicationUpdate)
-					.collect(Collectors.toList());
+		var policiesFolder = Paths.get(policiesFolderUrl.toURI());
+		var bundledInterpreter = PolicyBundleUtil.withBundleOfDirectory(policiesFolder, interpreter);
+		try (var directoryStream = Files.newDirectoryStream(policiesFolder, POLICY_FILE_GLOB_PATTERN)) {
+			var paths = StreamSupport.stream(directoryStream.spliterator(), false)
+					.peek(path -> log.info("load SAPL document: {}", path)).collect(Collectors.toList());
+			var rawDocuments = new HashMap<Path, String>();
+			for (var path : paths)
+				rawDocuments.put(path, readFileAsString(path));
+			var updates = ParallelDocumentParser.parseAll(paths,
+					path -> parseAndCreatePublicationUpdate(bundledInterpreter, rawDocuments.get(path)));
 			return new PrpUpdateEvent(updates);
 		}
 	}
@@ -0,0 +1,157 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import lombok.Lombok;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Parses and validates SAPL documents on a bounded pool of threads, so that
+ * loading large policy directories is not limited to a single core. Reading
+ * the sources is left to the caller, as it is I/O bound.
+ *
+ * The interpreter creates a separate Xtext resource set for each parsed
+ * document. Thus, documents can be parsed concurrently, as long as the parser
+ * function passed to {@link #parseAll(List, Function)} does not share mutable
+ * state between invocations.
+ */
+@Slf4j
+@UtilityClass
+public class ParallelDocumentParser {
+
+	private static final String THREAD_NAME_PREFIX = "sapl-parser-";
+
+	private static final int PROGRESS_STEPS = 10;
+
+	/**
+	 * Applies the parser to all sources in parallel. The progress and the time
+	 * spent on each source are logged.
+	 *
+	 * @param <S>     the type of the sources, e.g., paths of files
+	 * @param <R>     the type of the parsed documents
+	 * @param sources the sources of the documents
+	 * @param parser  parses the document of a source. Must be thread-safe.
+	 * @return the parsed documents in the order of their sources
+	 */
+	public <S, R> List<R> parseAll(List<S> sources, Function<S, R> parser) {
+		return parseAll(sources, parser, Runtime.getRuntime().availableProcessors());
+	}
+
+	<S, R> List<R> parseAll(List<S> sources, Function<S, R> parser, int maximumParallelism) {
+		var parallelism = Math.min(sources.size(), maximumParallelism);
+		var progress = new Progress(sources.size());
+		var start = System.nanoTime();
+
+		List<R> documents;
+		if (parallelism <= 1) {
+			documents = new ArrayList<>(sources.size());
+			for (var source : sources)
+				documents.add(parse(source, parser, progress));
+		}
+		else {
+			documents = parseInParallel(sources, parser, progress, parallelism);
+		}
+
+		log.info("Parsed {} documents in {} ms using {} threads", sources.size(), millisSince(start),
+				Math.max(1, parallelism));
+		return documents;
+	}
+
+	private <S, R> List<R> parseInParallel(List<S> sources, Function<S, R> parser, Progress progress,
+			int parallelism) {
+		var threadNumber = new AtomicInteger();
+		var executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+			var thread = new Thread(runnable, THREAD_NAME_PREFIX + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			var tasks = new ArrayList<Callable<R>>(sources.size());
+			for (var source : sources)
+				tasks.add(() -> parse(source, parser, progress));
+			return collectResults(executor, tasks);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private <R> List<R> collectResults(ExecutorService executor, List<Callable<R>> tasks) {
+		try {
+			var futures = executor.invokeAll(tasks);
+			var documents = new ArrayList<R>(futures.size());
+			for (Future<R> future : futures)
+				documents.add(future.get());
+			return documents;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while parsing documents", e);
+		}
+		catch (ExecutionException e) {
+			// rethrow the exception of the parser, as if it had been called directly
+			throw Lombok.sneakyThrow(e.getCause());
+		}
+	}
+
+	private <S, R> R parse(S source, Function<S, R> parser, Progress progress) {
+		var start = System.nanoTime();
+		try {
+			return parser.apply(source);
+		}
+		finally {
+			log.debug("Parsed SAPL document {} in {} ms", source, millisSince(start));
+			progress.documentParsed();
+		}
+	}
+
+	private long millisSince(long startNanos) {
+		return (System.nanoTime() - startNanos) / 1_000_000L;
+	}
+
+	private static class Progress {
+
+		private final int numberOfDocuments;
+
+		private final int reportingInterval;
+
+		private final AtomicInteger parsedDocuments = new AtomicInteger();
+
+		Progress(int numberOfDocuments) {
+			this.numberOfDocuments = numberOfDocuments;
+			this.reportingInterval = Math.max(1, numberOfDocuments / PROGRESS_STEPS);
+		}
+
+		void documentParsed() {
+			var parsed = parsedDocuments.incrementAndGet();
+			if (parsed % reportingInterval == 0 && parsed < numberOfDocuments)
+				log.info("Parsed {} of {} documents", parsed, numberOfDocuments);
+		}
+
+	}
+
+}
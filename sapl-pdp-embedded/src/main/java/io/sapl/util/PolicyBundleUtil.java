@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.util;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipFile;
+
+import io.sapl.interpreter.BundledSAPLInterpreter;
+import io.sapl.interpreter.PolicyBundle;
+import io.sapl.interpreter.SAPLInterpreter;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Locates a {@link PolicyBundle} next to the SAPL documents of a policy source.
+ * If a bundle is present, the documents contained in it are loaded from the
+ * bundle instead of being parsed. Documents which are not contained in the
+ * bundle, e.g., because they have been changed after the bundle has been
+ * created, are still parsed.
+ */
+@Slf4j
+@UtilityClass
+public class PolicyBundleUtil {
+
+	@FunctionalInterface
+	private interface StreamOpener {
+
+		InputStream open() throws IOException;
+
+	}
+
+	/**
+	 * @param directory   a directory containing SAPL documents
+	 * @param interpreter the interpreter used to parse the documents
+	 * @return an interpreter looking up the documents in the bundle of the
+	 *         directory, or the given interpreter, if the directory does not contain
+	 *         a readable bundle
+	 */
+	public SAPLInterpreter withBundleOfDirectory(Path directory, SAPLInterpreter interpreter) {
+		var bundlePath = directory.resolve(PolicyBundle.BUNDLE_FILE_NAME);
+		if (!Files.isRegularFile(bundlePath))
+			return interpreter;
+
+		return withBundle(bundlePath.toString(), () -> Files.newInputStream(bundlePath), interpreter);
+	}
+
+	/**
+	 * @param jarFile     a jar containing SAPL documents
+	 * @param interpreter the interpreter used to parse the documents
+	 * @return an interpreter looking up the documents in the bundle contained in
+	 *         the jar, or the given interpreter, if the jar does not contain a
+	 *         readable bundle
+	 */
+	public SAPLInterpreter withBundleOfJar(ZipFile jarFile, SAPLInterpreter interpreter) {
+		var bundleEntry = jarFile.stream().filter(entry -> !entry.isDirectory()
+				&& (entry.getName().equals(PolicyBundle.BUNDLE_FILE_NAME)
+						|| entry.getName().endsWith("/" + PolicyBundle.BUNDLE_FILE_NAME)))
+				.findFirst();
+		if (bundleEntry.isEmpty())
+			return interpreter;
+
+		return withBundle(bundleEntry.get().getName(), () -> jarFile.getInputStream(bundleEntry.get()), interpreter);
+	}
+
+	private SAPLInterpreter withBundle(String location, StreamOpener opener, SAPLInterpreter interpreter) {
+		try (var inputStream = new BufferedInputStream(opener.open())) {
+			var bundle = PolicyBundle.read(inputStream);
+			log.info("Loaded policy bundle {} containing {} documents", location, bundle.size());
+			return new BundledSAPLInterpreter(bundle, interpreter);
+		}
+		catch (IOException e) {
+			log.warn("Unable to read policy bundle {}. All documents will be parsed: {}", location, e.getMessage());
+			return interpreter;
+		}
+	}
+
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.util.filemonitoring;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+/**
+ * Monitors a directory with the {@link WatchService} of its file system. Where
+ * the operating system supports it, changes are reported as soon as they
+ * happen, without periodically listing the directory.
+ *
+ * The watcher keeps track of the files matching the filter. Thus, files
+ * disappearing with a deleted or moved subdirectory are reported as deleted,
+ * and the directory is listed again if the watch service reports that events
+ * have been lost.
+ */
+@Slf4j
+@RequiredArgsConstructor
+class DirectoryWatcher {
+
+	private static final String THREAD_NAME = "sapl-file-monitor";
+
+	private final Path directory;
+
+	private final FileFilter fileFilter;
+
+	private final boolean recursive;
+
+	private final WatchService watchService;
+
+	private final FluxSink<FileEvent> emitter;
+
+	private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+
+	private final Set<Path> knownFiles = new HashSet<>();
+
+	/**
+	 * @param directory  the directory to monitor
+	 * @param fileFilter selects the files to report events for
+	 * @param recursive  if true, the subdirectories are monitored as well
+	 * @return a Flux of the changes of the matching files. The Flux signals an
+	 *         error, if the directory cannot be watched.
+	 */
+	static Flux<FileEvent> watch(Path directory, FileFilter fileFilter, boolean recursive) {
+		return Flux.create(emitter -> {
+			try {
+				var watchService = directory.getFileSystem().newWatchService();
+				var watcher = new DirectoryWatcher(directory, fileFilter, recursive, watchService, emitter);
+				emitter.onDispose(watcher::close);
+				watcher.knownFiles.addAll(watcher.registerAll(directory));
+				var thread = new Thread(watcher::processEvents, THREAD_NAME);
+				thread.setDaemon(true);
+				thread.start();
+			}
+			catch (IOException | RuntimeException e) {
+				emitter.error(e);
+			}
+		});
+	}
+
+	private void processEvents() {
+		try {
+			while (!emitter.isCancelled()) {
+				var key = watchService.take();
+				var watchedDirectory = watchedDirectories.get(key);
+				if (watchedDirectory != null)
+					for (var event : key.pollEvents())
+						processEvent(watchedDirectory, event);
+				if (!key.reset())
+					watchedDirectories.remove(key);
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		catch (ClosedWatchServiceException e) {
+			log.debug("Stopped monitoring {}", directory);
+		}
+		catch (IOException | RuntimeException e) {
+			emitter.error(e);
+		}
+	}
+
+	private void processEvent(Path watchedDirectory, WatchEvent<?> event) throws IOException {
+		if (event.kind() == OVERFLOW) {
+			log.warn("Events for {} have been lost. Rescanning the directory.", directory);
+			rescan();
+			return;
+		}
+
+		var path = watchedDirectory.resolve((Path) event.context());
+		if (event.kind() == ENTRY_DELETE) {
+			deleted(path);
+		}
+		else if (Files.isDirectory(path)) {
+			if (recursive && event.kind() == ENTRY_CREATE)
+				for (var file : registerAll(path))
+					createdOrChanged(file);
+		}
+		else if (fileFilter.accept(path.toFile())) {
+			createdOrChanged(path);
+		}
+	}
+
+	private void createdOrChanged(Path file) {
+		if (knownFiles.add(file))
+			emitter.next(new FileCreatedEvent(file.toFile()));
+		else
+			emitter.next(new FileChangedEvent(file.toFile()));
+	}
+
+	private void deleted(Path path) {
+		// a deleted directory takes all known files within it along
+		var iterator = knownFiles.iterator();
+		while (iterator.hasNext()) {
+			var file = iterator.next();
+			if (file.startsWith(path)) {
+				iterator.remove();
+				emitter.next(new FileDeletedEvent(file.toFile()));
+			}
+		}
+	}
+
+	private void rescan() throws IOException {
+		var presentFiles = registerAll(directory);
+		for (var file : new ArrayList<>(knownFiles))
+			if (!presentFiles.contains(file))
+				deleted(file);
+		for (var file : presentFiles)
+			createdOrChanged(file);
+	}
+
+	/**
+	 * Registers the directory and, if recursive, all of its subdirectories with
+	 * the watch service. Each directory is registered before its entries are
+	 * listed, so that no entry created in the meantime is missed. Directories
+	 * which are already registered keep their registration.
+	 *
+	 * @return the matching files in the registered directories
+	 */
+	private Set<Path> registerAll(Path start) throws IOException {
+		var files = new HashSet<Path>();
+		Files.walkFileTree(start, new SimpleFileVisitor<>() {
+
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) throws IOException {
+				if (!recursive && !dir.equals(start))
+					return FileVisitResult.SKIP_SUBTREE;
+
+				watchedDirectories.put(dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY), dir);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+				if (attributes.isRegularFile() && fileFilter.accept(file.toFile()))
+					files.add(file);
+				return FileVisitResult.CONTINUE;
+			}
+
+		});
+		return files;
+	}
+
+	private void close() {
+		try {
+			watchService.close();
+		}
+		catch (IOException e) {
+			log.warn("Failed to close the watch service of {}: {}", directory, e.getMessage());
+		}
+	}
+
+}
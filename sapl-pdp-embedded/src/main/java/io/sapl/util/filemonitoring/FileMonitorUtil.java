@@ -17,13 +17,17 @@
 
 import java.io.File;
 import java.io.FileFilter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 import org.apache.commons.io.monitor.FileAlterationMonitor;
 import org.apache.commons.io.monitor.FileAlterationObserver;
 
 import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
 
+@Slf4j
 @UtilityClass
 public class FileMonitorUtil {
 
@@ -43,6 +47,36 @@ static String getUserHomeProperty() {
 	}
 
 	public static Flux<FileEvent> monitorDirectory(final String watchDir, final FileFilter fileFilter) {
+		return monitorDirectory(watchDir, fileFilter, false);
+	}
+
+	/**
+	 * Monitors a directory for changes of the files matching the filter. The
+	 * directory is monitored by the watch service of the file system. If it cannot
+	 * be watched, e.g., because it does not exist (yet) or the file system does
+	 * not support watching, the directory is polled instead.
+	 *
+	 * @param watchDir   the directory to monitor
+	 * @param fileFilter selects the files to report events for
+	 * @param recursive  if true, the subdirectories are monitored as well. Only
+	 *                   supported by the watch service.
+	 * @return a Flux of the changes of the matching files
+	 */
+	public static Flux<FileEvent> monitorDirectory(final String watchDir, final FileFilter fileFilter,
+			boolean recursive) {
+		var directory = Paths.get(watchDir);
+		if (!Files.isDirectory(directory)) {
+			log.info("{} is not a directory. Falling back to polling.", watchDir);
+			return pollDirectory(watchDir, fileFilter);
+		}
+
+		return DirectoryWatcher.watch(directory, fileFilter, recursive).onErrorResume(e -> {
+			log.warn("Unable to watch {}: {}. Falling back to polling.", watchDir, e.getMessage());
+			return pollDirectory(watchDir, fileFilter);
+		});
+	}
+
+	private static Flux<FileEvent> pollDirectory(final String watchDir, final FileFilter fileFilter) {
 		return Flux.push(emitter -> {
 			var adaptor = new FileEventAdaptor(emitter);
 			var monitor = new FileAlterationMonitor(POLL_INTERVAL_IN_MS);
@@ -0,0 +1,146 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.pdp;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.grammar.sapl.SAPL;
+import io.sapl.interpreter.DefaultSAPLInterpreter;
+import io.sapl.pdp.config.PDPConfiguration;
+import io.sapl.prp.PolicyRetrievalResult;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+class DecisionCacheTest {
+
+	private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+
+	private static final DefaultSAPLInterpreter INTERPRETER = new DefaultSAPLInterpreter();
+
+	private static final AuthorizationSubscription SUBSCRIPTION = new AuthorizationSubscription(
+			JSON.textNode("willi"), JSON.textNode("read"), JSON.textNode("something"), JSON.nullNode());
+
+	private static final SAPL ATTRIBUTE_FREE = INTERPRETER.parse("policy \"free\" permit action == \"read\"");
+
+	private static final SAPL WITH_ATTRIBUTE = INTERPRETER
+			.parse("policy \"attribute\" permit where subject.<test.attribute> == true;");
+
+	private static final SAPL WITH_ENVIRONMENT_ATTRIBUTE = INTERPRETER
+			.parse("policy \"environment\" permit where <time.now> != undefined;");
+
+	private DecisionCache cache;
+
+	private PDPConfiguration configuration;
+
+	private AtomicInteger evaluations;
+
+	@BeforeEach
+	void setUp() {
+		cache         = new DecisionCache(100);
+		configuration = mock(PDPConfiguration.class);
+		evaluations   = new AtomicInteger();
+	}
+
+	@Test
+	void when_documentsAreAttributeFree_then_decisionIsEvaluatedOnce() {
+		var result = new PolicyRetrievalResult(List.of(ATTRIBUTE_FREE), false, true);
+		decideAndExpectPermit(configuration, result);
+		decideAndExpectPermit(configuration, result);
+		assertThat(evaluations.get(), is(1));
+		assertThat(cache.size(), is(1L));
+	}
+
+	@Test
+	void when_documentAccessesAttribute_then_decisionIsEvaluatedEachTime() {
+		var result = new PolicyRetrievalResult(List.of(ATTRIBUTE_FREE, WITH_ATTRIBUTE), false, true);
+		decideAndExpectPermit(configuration, result);
+		decideAndExpectPermit(configuration, result);
+		assertThat(evaluations.get(), is(2));
+		assertThat(cache.size(), is(0L));
+	}
+
+	@Test
+	void when_documentAccessesEnvironmentAttribute_then_decisionIsEvaluatedEachTime() {
+		var result = new PolicyRetrievalResult(List.of(WITH_ENVIRONMENT_ATTRIBUTE), false, true);
+		decideAndExpectPermit(configuration, result);
+		decideAndExpectPermit(configuration, result);
+		assertThat(evaluations.get(), is(2));
+	}
+
+	@Test
+	void when_configurationChanges_then_cacheIsInvalidated() {
+		var result = new PolicyRetrievalResult(List.of(ATTRIBUTE_FREE), false, true);
+		decideAndExpectPermit(configuration, result);
+		decideAndExpectPermit(mock(PDPConfiguration.class), result);
+		assertThat(evaluations.get(), is(2));
+		assertThat(cache.size(), is(1L));
+	}
+
+	@Test
+	void when_matchingDocumentsChange_then_decisionIsEvaluatedAgain() {
+		decideAndExpectPermit(configuration, new PolicyRetrievalResult(List.of(ATTRIBUTE_FREE), false, true));
+		var changedDocument = INTERPRETER.parse("policy \"free\" permit action == \"read\"");
+		decideAndExpectPermit(configuration, new PolicyRetrievalResult(List.of(changedDocument), false, true));
+		assertThat(evaluations.get(), is(2));
+	}
+
+	@Test
+	void when_subscriptionsDiffer_then_decisionsAreCachedSeparately() {
+		var result = new PolicyRetrievalResult(List.of(ATTRIBUTE_FREE), false, true);
+		decideAndExpectPermit(configuration, result);
+		var otherSubscription = new AuthorizationSubscription(JSON.textNode("hans"), JSON.textNode("read"),
+				JSON.textNode("something"), JSON.nullNode());
+		StepVerifier.create(cache.decide(configuration, otherSubscription, result, permit()))
+				.expectNext(AuthorizationDecision.PERMIT).verifyComplete();
+		assertThat(evaluations.get(), is(2));
+		assertThat(cache.size(), is(2L));
+	}
+
+	@Test
+	void when_decisionsDoNotComplete_then_nothingIsCached() {
+		var result = new PolicyRetrievalResult(List.of(ATTRIBUTE_FREE), false, true);
+		StepVerifier.create(cache.decide(configuration, SUBSCRIPTION, result,
+				() -> Flux.concat(Flux.just(AuthorizationDecision.PERMIT), Flux.never())))
+				.expectNext(AuthorizationDecision.PERMIT).thenCancel().verify();
+		assertThat(cache.size(), is(0L));
+	}
+
+	private void decideAndExpectPermit(PDPConfiguration configuration, PolicyRetrievalResult result) {
+		StepVerifier.create(cache.decide(configuration, SUBSCRIPTION, result, permit()))
+				.expectNext(AuthorizationDecision.PERMIT).verifyComplete();
+	}
+
+	private Supplier<Flux<AuthorizationDecision>> permit() {
+		return () -> {
+			evaluations.incrementAndGet();
+			return Flux.just(AuthorizationDecision.PERMIT);
+		};
+	}
+
+}
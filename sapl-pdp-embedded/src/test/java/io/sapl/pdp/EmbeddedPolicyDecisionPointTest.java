@@ -15,17 +15,23 @@
  */
 package io.sapl.pdp;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 
 import io.sapl.api.pdp.AuthorizationDecision;
@@ -35,6 +41,12 @@
 import io.sapl.api.pdp.MultiAuthorizationDecision;
 import io.sapl.api.pdp.MultiAuthorizationSubscription;
 import io.sapl.api.pdp.PolicyDecisionPoint;
+import io.sapl.grammar.sapl.CombiningAlgorithm;
+import io.sapl.grammar.sapl.SAPL;
+import io.sapl.grammar.sapl.impl.DenyOverridesCombiningAlgorithmImplCustom;
+import io.sapl.grammar.sapl.impl.SharedExpressionCache;
+import io.sapl.interpreter.DefaultSAPLInterpreter;
+import io.sapl.interpreter.context.AuthorizationContext;
 import io.sapl.interpreter.functions.AnnotationFunctionContext;
 import io.sapl.interpreter.pip.AnnotationAttributeContext;
 import io.sapl.pdp.config.FixedFunctionsAndAttributesPDPConfigurationProvider;
@@ -44,12 +56,17 @@
 import io.sapl.prp.PolicyRetrievalPoint;
 import io.sapl.prp.PolicyRetrievalResult;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 class EmbeddedPolicyDecisionPointTest {
 
 	private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
 
+	private static final AnnotationAttributeContext ATTRIBUTE_CONTEXT = new AnnotationAttributeContext();
+
+	private static final AnnotationFunctionContext FUNCTION_CONTEXT = new AnnotationFunctionContext();
+
 	private PolicyDecisionPoint pdp;
 
 	@BeforeEach
@@ -122,6 +139,172 @@ void decide_withInvalidPrpState_shouldReturnIntermediate() {
 				.verify();
 	}
 
+	@Test
+	void decide_withDecisionCache_shouldReturnSameDecisions() throws Exception {
+		var source      = new FileSystemVariablesAndCombinatorSource("src/test/resources/policies");
+		var provider    = new FixedFunctionsAndAttributesPDPConfigurationProvider(new AnnotationAttributeContext(),
+				new AnnotationFunctionContext(), source);
+		var document    = new DefaultSAPLInterpreter().parse("policy \"read\" permit action == \"read\"");
+		var prpMock     = mock(PolicyRetrievalPoint.class);
+		var embeddedPdp = new EmbeddedPolicyDecisionPoint(provider, prpMock, 100L);
+		when(prpMock.retrievePolicies())
+				.thenReturn(Flux.just(new PolicyRetrievalResult(List.of(document), false, true)));
+
+		var subscription = new AuthorizationSubscription(JSON.textNode("willi"), JSON.textNode("read"),
+				JSON.textNode("something"), JSON.nullNode());
+		for (var i = 0; i < 3; i++)
+			StepVerifier.create(embeddedPdp.decide(subscription))
+					.expectNextMatches(authzDecision -> authzDecision.getDecision() == Decision.PERMIT).thenCancel()
+					.verify();
+		embeddedPdp.dispose();
+	}
+
+	@Test
+	void decide_withSubscriptionDeduplication_shouldShareEvaluation() {
+		var combinator   = mockCombinator();
+		var providerMock = mock(PDPConfigurationProvider.class);
+		var prpMock      = mock(PolicyRetrievalPoint.class);
+		var embeddedPdp  = new EmbeddedPolicyDecisionPoint(providerMock, prpMock, 0L, true);
+		when(providerMock.pdpConfiguration())
+				.thenReturn(Flux.just(configWithVariables(combinator, Map.of())).concatWith(Flux.never()));
+		when(prpMock.retrievePolicies()).thenReturn(Flux.just(new PolicyRetrievalResult()));
+
+		var subscription = new AuthorizationSubscription(JSON.textNode("willi"), JSON.textNode("read"),
+				JSON.textNode("something"), JSON.nullNode());
+		var first        = embeddedPdp.decide(subscription).subscribe();
+		StepVerifier.create(embeddedPdp.decide(subscription))
+				.expectNextMatches(authzDecision -> authzDecision.getDecision() == Decision.PERMIT).thenCancel()
+				.verify();
+		first.dispose();
+
+		verify(combinator, times(1)).combineMatchingDocuments(any());
+		assertThat(embeddedPdp.getSubscriptionStatistics().get().getSharedSubscriptions(), is(1L));
+	}
+
+	@Test
+	void getSubscriptionStatistics_withoutDeduplication_shouldBeEmpty() {
+		var embeddedPdp = new EmbeddedPolicyDecisionPoint(mock(PDPConfigurationProvider.class),
+				mock(PolicyRetrievalPoint.class));
+
+		assertThat(embeddedPdp.getSubscriptionStatistics().isEmpty(), is(true));
+	}
+
+	@Test
+	void decide_whenUnreferencedVariableChanges_shouldKeepEvaluation() {
+		var combinator = mockCombinator();
+		var configs    = configsOneAfterAnother(configWithVariables(combinator, Map.of("other", JSON.textNode("a"))),
+				configWithVariables(combinator, Map.of("other", JSON.textNode("b"))));
+
+		StepVerifier.create(decideWithVariableReferencingPolicy(configs))
+				.expectNextMatches(authzDecision -> authzDecision.getDecision() == Decision.PERMIT)
+				.expectNoEvent(Duration.ofMillis(300)).thenCancel().verify();
+
+		verify(combinator, times(1)).combineMatchingDocuments(any());
+	}
+
+	@Test
+	void decide_whenReferencedVariableChanges_shouldReevaluate() {
+		var combinator = mockCombinator();
+		var configs    = configsOneAfterAnother(configWithVariables(combinator, Map.of("limit", JSON.numberNode(1))),
+				configWithVariables(combinator, Map.of("limit", JSON.numberNode(2))));
+
+		StepVerifier.create(decideWithVariableReferencingPolicy(configs))
+				.expectNextMatches(authzDecision -> authzDecision.getDecision() == Decision.PERMIT)
+				.expectNoEvent(Duration.ofMillis(300)).thenCancel().verify();
+
+		verify(combinator, times(2)).combineMatchingDocuments(any());
+	}
+
+	@Test
+	void decide_whenVariableOnlyReadByAttributeFinderChanges_shouldReevaluate() throws Exception {
+		var attributeContext = new AnnotationAttributeContext(new TestPIP());
+		var combinator       = new DenyOverridesCombiningAlgorithmImplCustom();
+		var configs          = configsOneAfterAnother(
+				new PDPConfiguration(attributeContext, FUNCTION_CONTEXT, Map.of("secret", JSON.textNode("a")),
+						combinator),
+				new PDPConfiguration(attributeContext, FUNCTION_CONTEXT, Map.of("secret", JSON.textNode("b")),
+						combinator));
+		var document         = new DefaultSAPLInterpreter()
+				.parse("policy \"secret\" permit where subject.<test.secret> == \"b\";");
+
+		StepVerifier.create(decideWithDocument(document, configs))
+				.expectNextMatches(authzDecision -> authzDecision.getDecision() == Decision.NOT_APPLICABLE)
+				.expectNextMatches(authzDecision -> authzDecision.getDecision() == Decision.PERMIT).thenCancel()
+				.verify();
+	}
+
+	@Test
+	void decide_whenCombiningAlgorithmChanges_shouldReevaluate() {
+		var combinator      = mockCombinator();
+		var otherCombinator = new DenyOverridesCombiningAlgorithmImplCustom();
+		var variables       = Map.<String, JsonNode>of("limit", JSON.numberNode(1));
+		var configs         = configsOneAfterAnother(configWithVariables(combinator, variables),
+				configWithVariables(otherCombinator, variables));
+
+		StepVerifier.create(decideWithVariableReferencingPolicy(configs))
+				.expectNextMatches(authzDecision -> authzDecision.getDecision() == Decision.PERMIT)
+				.expectNextMatches(authzDecision -> authzDecision.getDecision() == Decision.DENY).thenCancel()
+				.verify();
+	}
+
+	@Test
+	void decide_whenSameDocumentsAreRetrievedInOtherOrder_shouldKeepEvaluation() {
+		var combinator   = mockCombinator();
+		var interpreter  = new DefaultSAPLInterpreter();
+		var first        = interpreter.parse("policy \"first\" permit");
+		var second       = interpreter.parse("policy \"second\" permit");
+		var providerMock = mock(PDPConfigurationProvider.class);
+		var prpMock      = mock(PolicyRetrievalPoint.class);
+		when(providerMock.pdpConfiguration())
+				.thenReturn(Flux.just(configWithVariables(combinator, Map.of())).concatWith(Flux.never()));
+		// an incremental update appends new documents, a full retrieval returns
+		// them in index order
+		var incrementalResult = new PolicyRetrievalResult(List.of(second, first), false, true);
+		var fullResult        = new PolicyRetrievalResult(List.of(first, second), false, true);
+		when(prpMock.retrievePolicies()).thenReturn(Flux.concat(Mono.just(incrementalResult),
+				Mono.delay(Duration.ofMillis(100)).thenReturn(fullResult), Flux.never()));
+		var subscription = new AuthorizationSubscription(JSON.numberNode(10), JSON.nullNode(), JSON.nullNode(),
+				JSON.nullNode());
+
+		StepVerifier.create(new EmbeddedPolicyDecisionPoint(providerMock, prpMock).decide(subscription))
+				.expectNextMatches(authzDecision -> authzDecision.getDecision() == Decision.PERMIT)
+				.expectNoEvent(Duration.ofMillis(300)).thenCancel().verify();
+
+		verify(combinator, times(1)).combineMatchingDocuments(any());
+	}
+
+	private Flux<AuthorizationDecision> decideWithVariableReferencingPolicy(Flux<PDPConfiguration> configs) {
+		return decideWithDocument(new DefaultSAPLInterpreter().parse("policy \"limited\" deny where subject > limit;"),
+				configs);
+	}
+
+	private Flux<AuthorizationDecision> decideWithDocument(SAPL document, Flux<PDPConfiguration> configs) {
+		var providerMock = mock(PDPConfigurationProvider.class);
+		var prpMock      = mock(PolicyRetrievalPoint.class);
+		when(providerMock.pdpConfiguration()).thenReturn(configs.concatWith(Flux.never()));
+		when(prpMock.retrievePolicies())
+				.thenReturn(Flux.just(new PolicyRetrievalResult(List.of(document), false, true)));
+		var subscription = new AuthorizationSubscription(JSON.numberNode(10), JSON.nullNode(), JSON.nullNode(),
+				JSON.nullNode());
+		return new EmbeddedPolicyDecisionPoint(providerMock, prpMock).decide(subscription);
+	}
+
+	private static Flux<PDPConfiguration> configsOneAfterAnother(PDPConfiguration first, PDPConfiguration second) {
+		return Flux.concat(Mono.just(first), Mono.delay(Duration.ofMillis(100)).thenReturn(second));
+	}
+
+	private static CombiningAlgorithm mockCombinator() {
+		var combinator = mock(CombiningAlgorithm.class);
+		when(combinator.combineMatchingDocuments(any()))
+				.thenReturn(Flux.just(AuthorizationDecision.PERMIT).concatWith(Flux.never()));
+		return combinator;
+	}
+
+	private static PDPConfiguration configWithVariables(CombiningAlgorithm combinator,
+			Map<String, JsonNode> variables) {
+		return new PDPConfiguration(ATTRIBUTE_CONTEXT, FUNCTION_CONTEXT, variables, combinator);
+	}
+
 	@Test
 	void decide_withForbiddenAction_shouldReturnDeny() {
 		AuthorizationSubscription         simpleAuthzSubscription = new AuthorizationSubscription(
@@ -162,6 +345,33 @@ void decide_withMultiSubscription_shouldReturnDecision() {
 				&& iad.getAuthorizationDecision().equals(AuthorizationDecision.DENY)).thenCancel().verify();
 	}
 
+	@Test
+	void decideAll_withMultiSubscription_shouldShareExpressionCacheBetweenSubscriptions() {
+		var combinator   = mockCombinator();
+		var providerMock = mock(PDPConfigurationProvider.class);
+		var prpMock      = mock(PolicyRetrievalPoint.class);
+		var embeddedPdp  = new EmbeddedPolicyDecisionPoint(providerMock, prpMock);
+		var caches       = new ArrayList<SharedExpressionCache>();
+		when(providerMock.pdpConfiguration())
+				.thenReturn(Flux.just(configWithVariables(combinator, Map.of())).concatWith(Flux.never()));
+		when(prpMock.retrievePolicies()).thenReturn(Flux.deferContextual(ctx -> {
+			caches.add(AuthorizationContext.getSharedExpressionCache(ctx));
+			return Flux.just(new PolicyRetrievalResult());
+		}));
+
+		var multiAuthzSubscription = new MultiAuthorizationSubscription()
+				.addAuthorizationSubscription("id1", "willi", "read", "something")
+				.addAuthorizationSubscription("id2", "willi", "write", "something");
+		StepVerifier.create(embeddedPdp.decideAll(multiAuthzSubscription))
+				.expectNextMatches(
+						multiDecision -> multiDecision.getDecisionForSubscriptionWithId("id1") == Decision.PERMIT
+								&& multiDecision.getDecisionForSubscriptionWithId("id2") == Decision.PERMIT)
+				.thenCancel().verify();
+
+		assertThat(caches.size(), is(2));
+		assertThat(caches.get(0) != null && caches.get(0) == caches.get(1), is(true));
+	}
+
 	@Test
 	void decide_withMultiSubscriptionContainingTwoSubscriptions_shouldReturnTwoDecisions() {
 		final MultiAuthorizationSubscription multiAuthzSubscription = new MultiAuthorizationSubscription()
@@ -210,4 +420,30 @@ void decideAll_withMultiSubscriptionContainingTwoSubscriptions_shouldReturnTwoDe
 		}).thenCancel().verify();
 	}
 
+	@Test
+	void decideOnce_withSubscription_shouldCompleteAfterFirstDecision() {
+		var subscription = new AuthorizationSubscription(JSON.textNode("willi"), JSON.textNode("write"),
+				JSON.textNode("something"), JSON.nullNode());
+		StepVerifier.create(pdp.decideOnce(subscription))
+				.expectNextMatches(authzDecision -> authzDecision.getDecision() == Decision.DENY).verifyComplete();
+	}
+
+	@Test
+	void decideOnce_withEmptyMultiSubscription_shouldReturnIndeterminate() {
+		StepVerifier.create(pdp.decideOnce(new MultiAuthorizationSubscription()))
+				.expectNext(MultiAuthorizationDecision.indeterminate()).verifyComplete();
+	}
+
+	@Test
+	void decideOnce_withMultiSubscriptionContainingTwoSubscriptions_shouldCompleteWithTwoDecisions() {
+		var multiAuthzSubscription = new MultiAuthorizationSubscription()
+				.addAuthorizationSubscription("id1", "willi", "read", "something")
+				.addAuthorizationSubscription("id2", "willi", "write", "something");
+
+		StepVerifier.create(pdp.decideOnce(multiAuthzSubscription)).expectNextMatches(mad -> mad.size() == 2
+				&& mad.getAuthorizationDecisionForSubscriptionWithId("id1").getDecision() == Decision.DENY
+				&& mad.getAuthorizationDecisionForSubscriptionWithId("id2").getDecision() == Decision.DENY)
+				.verifyComplete();
+	}
+
 }
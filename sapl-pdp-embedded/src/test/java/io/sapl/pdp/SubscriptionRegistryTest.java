@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.pdp;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.AuthorizationSubscription;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+class SubscriptionRegistryTest {
+
+	private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+
+	private static final AuthorizationSubscription SUBSCRIPTION = new AuthorizationSubscription(
+			JSON.textNode("willi"), JSON.textNode("read"), JSON.textNode("something"), JSON.nullNode());
+
+	private SubscriptionRegistry registry;
+
+	private AtomicInteger evaluations;
+
+	private AtomicBoolean cancelled;
+
+	@BeforeEach
+	void setUp() {
+		registry    = new SubscriptionRegistry();
+		evaluations = new AtomicInteger();
+		cancelled   = new AtomicBoolean();
+	}
+
+	@Test
+	void when_equalSubscriptionsAreActive_then_decisionsAreEvaluatedOnce() {
+		var first  = registry.decide(SUBSCRIPTION, this::evaluate).subscribe();
+		var second = registry.decide(copyOf(SUBSCRIPTION), this::evaluate);
+
+		StepVerifier.create(second).expectNext(AuthorizationDecision.PERMIT).thenCancel().verify();
+		first.dispose();
+
+		assertThat(evaluations.get(), is(1));
+		var statistics = registry.statistics();
+		assertThat(statistics.getSubscriptions(), is(2L));
+		assertThat(statistics.getSharedSubscriptions(), is(1L));
+		assertThat(statistics.getDeduplicationRatio(), is(0.5D));
+	}
+
+	@Test
+	void when_objectFieldsAreOrderedDifferently_then_subscriptionsAreShared() {
+		var subject          = JSON.objectNode().put("name", "willi").put("role", "admin");
+		var reorderedSubject = JSON.objectNode().put("role", "admin").put("name", "willi");
+
+		var first = registry.decide(withSubject(subject), this::evaluate).subscribe();
+		StepVerifier.create(registry.decide(withSubject(reorderedSubject), this::evaluate))
+				.expectNext(AuthorizationDecision.PERMIT).thenCancel().verify();
+		first.dispose();
+
+		assertThat(evaluations.get(), is(1));
+	}
+
+	@Test
+	void when_subscriptionsDiffer_then_decisionsAreEvaluatedSeparately() {
+		var first = registry.decide(SUBSCRIPTION, this::evaluate).subscribe();
+		StepVerifier.create(registry.decide(withSubject(JSON.textNode("hugo")), this::evaluate))
+				.expectNext(AuthorizationDecision.PERMIT)
+				.then(() -> assertThat(registry.statistics().getActiveDecisionStreams(), is(2))).thenCancel()
+				.verify();
+		first.dispose();
+
+		assertThat(evaluations.get(), is(2));
+		assertThat(registry.statistics().getSharedSubscriptions(), is(0L));
+	}
+
+	@Test
+	void when_lastSubscriberCancels_then_decisionStreamIsDisposed() {
+		var first  = registry.decide(SUBSCRIPTION, this::evaluate).subscribe();
+		var second = registry.decide(SUBSCRIPTION, this::evaluate).subscribe();
+
+		first.dispose();
+		assertThat(cancelled.get(), is(false));
+		assertThat(registry.statistics().getActiveDecisionStreams(), is(1));
+
+		second.dispose();
+		assertThat(cancelled.get(), is(true));
+		assertThat(registry.statistics().getActiveDecisionStreams(), is(0));
+
+		StepVerifier.create(registry.decide(SUBSCRIPTION, this::evaluate)).expectNext(AuthorizationDecision.PERMIT)
+				.thenCancel().verify();
+		assertThat(evaluations.get(), is(2));
+	}
+
+	@Test
+	void when_noSubscriptions_then_deduplicationRatioIsZero() {
+		assertThat(registry.statistics().getDeduplicationRatio(), is(0D));
+	}
+
+	private Flux<AuthorizationDecision> evaluate(AuthorizationSubscription authzSubscription) {
+		evaluations.incrementAndGet();
+		return Flux.just(AuthorizationDecision.PERMIT).concatWith(Flux.never())
+				.doOnCancel(() -> cancelled.set(true));
+	}
+
+	private static AuthorizationSubscription copyOf(AuthorizationSubscription authzSubscription) {
+		return new AuthorizationSubscription(authzSubscription.getSubject().deepCopy(),
+				authzSubscription.getAction().deepCopy(), authzSubscription.getResource().deepCopy(),
+				authzSubscription.getEnvironment().deepCopy());
+	}
+
+	private static AuthorizationSubscription withSubject(JsonNode subject) {
+		return new AuthorizationSubscription(subject, JSON.textNode("read"), JSON.textNode("something"),
+				JSON.nullNode());
+	}
+
+}
@@ -37,4 +37,9 @@ public Flux<Val> upper(@Text Val value, Map<String, JsonNode> variables) {
 		return Flux.just(Val.of(value.get().asText().toUpperCase()));
 	}
 
+	@Attribute
+	public Flux<Val> secret(Val value, Map<String, JsonNode> variables) {
+		return Flux.just(Val.of(variables.get("secret")));
+	}
+
 }
@@ -65,6 +65,33 @@ void return_empty_optional_for_exception_during_config_load() throws Exception {
 		assertThat(variables.isEmpty(), is(true));
 	}
 
+	@Test
+	void when_configIsLoaded_then_algorithmAndVariablesAreProvidedAsOneSnapshot() {
+		var configProvider = new FileSystemVariablesAndCombinatorSource("src/test/resources/valid_config");
+		var snapshots = configProvider.getCombiningAlgorithmAndVariables().take(1L).collectList().block();
+		configProvider.dispose();
+
+		assertThat(snapshots.size(), is(1));
+		assertThat(snapshots.get(0).getT1().get() instanceof PermitUnlessDenyCombiningAlgorithm, is(true));
+		assertThat(snapshots.get(0).getT2().get().size(), is(2));
+	}
+
+	@Test
+	void when_configIsDeleted_then_snapshotContainsDefaultAlgorithmAndVariables() {
+		try (MockedStatic<FileMonitorUtil> mock = mockStatic(FileMonitorUtil.class)) {
+			mock.when(() -> FileMonitorUtil.monitorDirectory(any(), any()))
+					.thenReturn(Flux.just(new FileDeletedEvent(null)));
+			mock.when(() -> FileMonitorUtil.resolveHomeFolderIfPresent(any())).thenCallRealMethod();
+
+			var configProvider = new FileSystemVariablesAndCombinatorSource("src/test/resources/valid_config");
+			var snapshot = configProvider.getCombiningAlgorithmAndVariables().blockLast();
+			configProvider.dispose();
+
+			assertThat(snapshot.getT1().get() instanceof DenyUnlessPermitCombiningAlgorithm, is(true));
+			assertThat(snapshot.getT2().get().size(), is(0));
+		}
+	}
+
 	@Test
 	void test_process_watcher_event() {
 		try (MockedStatic<FileMonitorUtil> mock = mockStatic(FileMonitorUtil.class)) {
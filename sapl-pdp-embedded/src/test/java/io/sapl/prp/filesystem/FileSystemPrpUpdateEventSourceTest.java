@@ -18,9 +18,12 @@
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedConstruction;
@@ -29,10 +32,12 @@
 
 import io.sapl.interpreter.DefaultSAPLInterpreter;
 import io.sapl.prp.PrpUpdateEvent;
+import io.sapl.util.filemonitoring.FileChangedEvent;
 import io.sapl.util.filemonitoring.FileCreatedEvent;
 import io.sapl.util.filemonitoring.FileDeletedEvent;
 import io.sapl.util.filemonitoring.FileMonitorUtil;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 class FileSystemPrpUpdateEventSourceTest {
@@ -40,25 +45,54 @@ class FileSystemPrpUpdateEventSourceTest {
 	@Test
 	void testProcessFileEvent() {
 		var source = new FileSystemPrpUpdateEventSource("src/test/resources/it/empty", new DefaultSAPLInterpreter());
+		var created = new FileCreatedEvent(null);
+		var deleted = new FileDeletedEvent(null);
 
 		try (MockedConstruction<ImmutableFileIndex> mocked = Mockito.mockConstruction(ImmutableFileIndex.class,
 				(mock, context) -> {
-					when(mock.afterFileEvent(any())).thenReturn(mock);
+					when(mock.afterFileEvents(any())).thenReturn(mock);
 					when(mock.getUpdateEvent()).thenReturn(new PrpUpdateEvent(Collections.emptyList()));
 				})) {
 
 			try (MockedStatic<FileMonitorUtil> mock = mockStatic(FileMonitorUtil.class)) {
-				mock.when(() -> FileMonitorUtil.monitorDirectory(any(), any()))
-						.thenReturn(Flux.just(new FileCreatedEvent(null), new FileDeletedEvent(null)));
+				mock.when(() -> FileMonitorUtil.monitorDirectory(any(), any())).thenReturn(Flux.just(created, deleted));
 
 				var updates = source.getUpdates();
-				StepVerifier.create(updates).expectNextCount(2L).thenCancel().verify();
+				StepVerifier.create(updates).expectNextCount(2L).verifyComplete();
 
 				mock.verify(() -> FileMonitorUtil.monitorDirectory(any(), any()), times(1));
+				verify(mocked.constructed().get(0), times(1)).afterFileEvents(List.of(created, deleted));
 			}
 		}
 
 		source.dispose();
 	}
 
+	@Test
+	void when_fileEventsAreSeparatedByQuietPeriod_then_theyAreAppliedSeparately() {
+		var source = new FileSystemPrpUpdateEventSource("src/test/resources/it/empty", new DefaultSAPLInterpreter());
+		var created = new FileCreatedEvent(null);
+		var changed = new FileChangedEvent(null);
+		var deleted = new FileDeletedEvent(null);
+		var fileEvents = Flux.concat(Flux.just(created, changed),
+				Mono.delay(Duration.ofMillis(500)).thenReturn(deleted), Flux.never());
+
+		try (MockedConstruction<ImmutableFileIndex> mocked = Mockito.mockConstruction(ImmutableFileIndex.class,
+				(mock, context) -> {
+					when(mock.afterFileEvents(any())).thenReturn(mock);
+					when(mock.getUpdateEvent()).thenReturn(new PrpUpdateEvent(Collections.emptyList()));
+				})) {
+
+			try (MockedStatic<FileMonitorUtil> mock = mockStatic(FileMonitorUtil.class)) {
+				mock.when(() -> FileMonitorUtil.monitorDirectory(any(), any())).thenReturn(fileEvents);
+
+				StepVerifier.create(source.getUpdates()).expectNextCount(3L).thenCancel().verify(Duration.ofSeconds(5));
+
+				var index = mocked.constructed().get(0);
+				verify(index, times(1)).afterFileEvents(List.of(created, changed));
+				verify(index, times(1)).afterFileEvents(List.of(deleted));
+			}
+		}
+	}
+
 }
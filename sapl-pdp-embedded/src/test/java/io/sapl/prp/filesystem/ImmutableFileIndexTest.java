@@ -504,6 +504,51 @@ void when_initializingWithEmptyDirectory_and_tryUnloadingNonExisting_then_nothin
 		}
 	}
 
+	@Test
+	void when_batchCreatesAndChangesDocument_then_documentIsPublishedOnce() {
+		try (MockedStatic<Files> mockedFiles = mockStatic(Files.class)) {
+			var mockDirectoryStream = mock(DirectoryStream.class);
+			when(mockDirectoryStream.iterator()).thenReturn(List.of().iterator());
+			mockedFiles.when(() -> Files.newDirectoryStream(any(Path.class), any(String.class)))
+					.thenReturn(mockDirectoryStream);
+
+			var mockInterpreter = mock(SAPLInterpreter.class);
+			var mockFile = mockPolicyFile(POLICY_1_NAME, POLICY_1, SAPL_1, POLICY_1_NAME, mockedFiles, mockInterpreter);
+			var created = mock(FileCreatedEvent.class);
+			when(created.getFile()).thenReturn(mockFile);
+			var changed = mock(FileChangedEvent.class);
+			when(changed.getFile()).thenReturn(mockFile);
+
+			var sut = new ImmutableFileIndex(PATH, mockInterpreter);
+			sut = sut.afterFileEvents(List.of(created, changed));
+
+			assertThat(sut.getUpdateEvent().getUpdates(),
+					arrayContaining(isUpdateWithName(PrpUpdateEvent.Type.PUBLISH, POLICY_1_NAME)));
+		}
+	}
+
+	@Test
+	void when_batchCreatesAndDeletesDocument_then_updatesAreEmpty() {
+		try (MockedStatic<Files> mockedFiles = mockStatic(Files.class)) {
+			var mockDirectoryStream = mock(DirectoryStream.class);
+			when(mockDirectoryStream.iterator()).thenReturn(List.of().iterator());
+			mockedFiles.when(() -> Files.newDirectoryStream(any(Path.class), any(String.class)))
+					.thenReturn(mockDirectoryStream);
+
+			var mockInterpreter = mock(SAPLInterpreter.class);
+			var mockFile = mockPolicyFile(POLICY_1_NAME, POLICY_1, SAPL_1, POLICY_1_NAME, mockedFiles, mockInterpreter);
+			var created = mock(FileCreatedEvent.class);
+			when(created.getFile()).thenReturn(mockFile);
+			var deleted = mock(FileDeletedEvent.class);
+			when(deleted.getFile()).thenReturn(mockFile);
+
+			var sut = new ImmutableFileIndex(PATH, mockInterpreter);
+			sut = sut.afterFileEvents(List.of(created, deleted));
+
+			assertThat(sut.getUpdateEvent().getUpdates(), is(emptyArray()));
+		}
+	}
+
 	private File mockPolicyFile(String name, String document, SAPL sapl, String path, MockedStatic<Files> mockedFiles,
 			SAPLInterpreter mockInterpreter) {
 		var mockPath = mock(Path.class);
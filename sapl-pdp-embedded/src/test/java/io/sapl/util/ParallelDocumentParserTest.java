@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import io.sapl.api.interpreter.PolicyEvaluationException;
+import io.sapl.interpreter.DefaultSAPLInterpreter;
+import lombok.Lombok;
+
+class ParallelDocumentParserTest {
+
+	private static final int PARALLELISM = 4;
+
+	@Test
+	void when_parsingWithoutParallelism_then_sourcesAreParsedOnCallingThread() {
+		var callingThread = Thread.currentThread().getName();
+
+		var threadNames = ParallelDocumentParser.parseAll(List.of(1, 2, 3),
+				number -> Thread.currentThread().getName(), 1);
+
+		assertThat(threadNames, is(List.of(callingThread, callingThread, callingThread)));
+	}
+
+	@Test
+	void when_parsingNoSources_then_resultIsEmpty() {
+		assertThat(ParallelDocumentParser.parseAll(List.<String>of(), String::length), is(empty()));
+	}
+
+	@Test
+	void when_parsingManySources_then_resultsAreInOrderOfSources() {
+		var sources = IntStream.range(0, 500).boxed().collect(Collectors.toList());
+
+		var results = ParallelDocumentParser.parseAll(sources, number -> number * 2, PARALLELISM);
+
+		var expected = new ArrayList<Integer>();
+		for (var number : sources)
+			expected.add(number * 2);
+		assertThat(results, is(expected));
+	}
+
+	@Test
+	void when_parsingManySources_then_sourcesAreParsedOnParserThreads() {
+		var threadNames = ConcurrentHashMap.<String>newKeySet();
+		var sources = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+
+		ParallelDocumentParser.parseAll(sources, number -> threadNames.add(Thread.currentThread().getName()),
+				PARALLELISM);
+
+		assertThat(threadNames.stream().allMatch(name -> name.startsWith("sapl-parser-")), is(true));
+	}
+
+	@Test
+	void when_parsingSaplDocumentsInParallel_then_documentsAreParsedCorrectly() {
+		var interpreter = new DefaultSAPLInterpreter();
+		var sources = IntStream.range(0, 200)
+				.mapToObj(i -> "policy \"policy_" + i + "\" permit resource.type == \"type_" + i
+						+ "\" where subject.age > " + i + ";")
+				.collect(Collectors.toList());
+
+		var documents = ParallelDocumentParser.parseAll(sources, interpreter::parse, PARALLELISM);
+
+		for (var i = 0; i < sources.size(); i++)
+			assertThat(documents.get(i).getPolicyElement().getSaplName(), is("policy_" + i));
+	}
+
+	@Test
+	void when_parserThrows_then_exceptionIsPropagated() {
+		var interpreter = new DefaultSAPLInterpreter();
+		var sources = List.of("policy \"valid\" permit", "policy \"invalid\" permit where subject.<a.b>; +",
+				"policy \"other\" deny");
+
+		var exception = assertThrows(PolicyEvaluationException.class,
+				() -> ParallelDocumentParser.parseAll(sources, interpreter::parse, PARALLELISM));
+		assertThat(exception.getMessage(), startsWith("Parsing errors"));
+	}
+
+	@Test
+	void when_parserThrowsCheckedException_then_exceptionIsPropagatedUnwrapped() {
+		var sources = List.of(1, 2, 3);
+
+		assertThrows(IOException.class, () -> ParallelDocumentParser.parseAll(sources, number -> {
+			throw Lombok.sneakyThrow(new IOException("read error"));
+		}, PARALLELISM));
+	}
+
+	@Test
+	void when_sourcesAreParsed_then_eachSourceIsParsedOnce() {
+		var parsed = ConcurrentHashMap.<Integer>newKeySet();
+		var sources = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+
+		ParallelDocumentParser.parseAll(sources, parsed::add, PARALLELISM);
+
+		assertThat(parsed, is(Set.copyOf(sources)));
+	}
+
+}
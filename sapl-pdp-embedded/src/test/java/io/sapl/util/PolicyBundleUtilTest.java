@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.sapl.interpreter.BundledSAPLInterpreter;
+import io.sapl.interpreter.DefaultSAPLInterpreter;
+import io.sapl.interpreter.PolicyBundle;
+import io.sapl.interpreter.SAPLInterpreter;
+
+class PolicyBundleUtilTest {
+
+	private static final String POLICY = "policy \"bundled\" permit subject == \"alice\"";
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void when_directoryHasNoBundle_then_interpreterIsReturned() {
+		var interpreter = new DefaultSAPLInterpreter();
+
+		assertThat(PolicyBundleUtil.withBundleOfDirectory(tempDir, interpreter), is(sameInstance(interpreter)));
+	}
+
+	@Test
+	void when_directoryHasBundle_then_documentsAreLoadedFromBundle() throws IOException {
+		writeBundle(tempDir.resolve(PolicyBundle.BUNDLE_FILE_NAME));
+		var interpreter = mock(SAPLInterpreter.class);
+
+		var bundledInterpreter = PolicyBundleUtil.withBundleOfDirectory(tempDir, interpreter);
+
+		assertThat(bundledInterpreter, is(instanceOf(BundledSAPLInterpreter.class)));
+		assertThat(bundledInterpreter.parse(POLICY).getPolicyElement().getSaplName(), is("bundled"));
+		verify(interpreter, never()).parse(anyString());
+	}
+
+	@Test
+	void when_bundleOfDirectoryIsCorrupt_then_interpreterIsReturned() throws IOException {
+		Files.writeString(tempDir.resolve(PolicyBundle.BUNDLE_FILE_NAME), "not a bundle");
+		var interpreter = new DefaultSAPLInterpreter();
+
+		assertThat(PolicyBundleUtil.withBundleOfDirectory(tempDir, interpreter), is(sameInstance(interpreter)));
+	}
+
+	@Test
+	void when_jarHasNoBundle_then_interpreterIsReturned() throws IOException {
+		var interpreter = new DefaultSAPLInterpreter();
+
+		try (var jarFile = new ZipFile("src/test/resources/policies_in_jar.jar")) {
+			assertThat(PolicyBundleUtil.withBundleOfJar(jarFile, interpreter), is(sameInstance(interpreter)));
+		}
+	}
+
+	@Test
+	void when_jarHasBundle_then_documentsAreLoadedFromBundle() throws IOException {
+		var bundlePath = tempDir.resolve(PolicyBundle.BUNDLE_FILE_NAME);
+		writeBundle(bundlePath);
+		var jarPath = tempDir.resolve("policies.jar");
+		try (var out = new ZipOutputStream(Files.newOutputStream(jarPath))) {
+			out.putNextEntry(new ZipEntry("policies/" + PolicyBundle.BUNDLE_FILE_NAME));
+			out.write(Files.readAllBytes(bundlePath));
+			out.closeEntry();
+		}
+		var interpreter = mock(SAPLInterpreter.class);
+
+		try (var jarFile = new ZipFile(jarPath.toFile())) {
+			var bundledInterpreter = PolicyBundleUtil.withBundleOfJar(jarFile, interpreter);
+
+			assertThat(bundledInterpreter, is(instanceOf(BundledSAPLInterpreter.class)));
+			assertThat(bundledInterpreter.parse(POLICY).getPolicyElement().getSaplName(), is("bundled"));
+			verify(interpreter, never()).parse(anyString());
+		}
+	}
+
+	private static void writeBundle(Path bundlePath) throws IOException {
+		var bundle = new PolicyBundle();
+		bundle.add(POLICY, new DefaultSAPLInterpreter().parse(POLICY));
+		try (var out = Files.newOutputStream(bundlePath)) {
+			bundle.write(out);
+		}
+	}
+
+}
@@ -23,10 +23,17 @@
 import static org.mockito.Mockito.verify;
 
 import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 
 import org.apache.commons.io.monitor.FileAlterationMonitor;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.MockedConstruction;
 import org.mockito.Mockito;
 
@@ -36,6 +43,8 @@
 @Timeout(3)
 class FileMonitorUtilTest {
 
+	private static final FileFilter SAPL_FILES = file -> file.getName().endsWith(".sapl");
+
 	@Test
 	void resolve_home_folder_in_valid_path() {
 		var homePath = String.format("%shome%sjohndoe", File.separator, File.separator);
@@ -81,4 +90,112 @@ void throw_exception_in_monitor_start() throws Exception {
 		}
 	}
 
+	@Test
+	void when_fileIsCreated_then_createdEventIsEmitted(@TempDir Path dir) throws Exception {
+		var file = dir.resolve("policy.sapl");
+		var monitorFlux = FileMonitorUtil.monitorDirectory(dir.toString(), SAPL_FILES);
+
+		StepVerifier.create(monitorFlux).then(() -> write(file, "policy \"a\" permit"))
+				.expectNext(new FileCreatedEvent(file.toFile())).thenCancel().verify();
+	}
+
+	@Test
+	void when_fileIsChanged_then_changedEventIsEmitted(@TempDir Path dir) throws Exception {
+		var file = dir.resolve("policy.sapl");
+		Files.writeString(file, "policy \"a\" permit");
+		var monitorFlux = FileMonitorUtil.monitorDirectory(dir.toString(), SAPL_FILES);
+
+		StepVerifier.create(monitorFlux).then(() -> write(file, "policy \"a\" deny"))
+				.expectNext(new FileChangedEvent(file.toFile())).thenCancel().verify();
+	}
+
+	@Test
+	void when_fileIsDeleted_then_deletedEventIsEmitted(@TempDir Path dir) throws Exception {
+		var file = dir.resolve("policy.sapl");
+		Files.writeString(file, "policy \"a\" permit");
+		var monitorFlux = FileMonitorUtil.monitorDirectory(dir.toString(), SAPL_FILES);
+
+		StepVerifier.create(monitorFlux).then(() -> delete(file)).expectNext(new FileDeletedEvent(file.toFile()))
+				.thenCancel().verify();
+	}
+
+	@Test
+	void when_nonMatchingFileIsCreated_then_noEventIsEmitted(@TempDir Path dir) throws Exception {
+		var monitorFlux = FileMonitorUtil.monitorDirectory(dir.toString(), SAPL_FILES);
+
+		StepVerifier.create(monitorFlux).then(() -> write(dir.resolve("pdp.json"), "{}"))
+				.expectNoEvent(Duration.ofMillis(300)).thenCancel().verify();
+	}
+
+	@Test
+	void when_fileIsCreatedInSubdirectoryAndNotRecursive_then_noEventIsEmitted(@TempDir Path dir) throws Exception {
+		var subdirectory = Files.createDirectory(dir.resolve("sub"));
+		var monitorFlux = FileMonitorUtil.monitorDirectory(dir.toString(), SAPL_FILES);
+
+		StepVerifier.create(monitorFlux).then(() -> write(subdirectory.resolve("policy.sapl"), "policy \"a\" permit"))
+				.expectNoEvent(Duration.ofMillis(300)).thenCancel().verify();
+	}
+
+	@Test
+	void when_fileIsCreatedInSubdirectoryAndRecursive_then_eventIsEmitted(@TempDir Path dir) throws Exception {
+		var subdirectory = Files.createDirectory(dir.resolve("sub"));
+		var file = subdirectory.resolve("policy.sapl");
+		var monitorFlux = FileMonitorUtil.monitorDirectory(dir.toString(), SAPL_FILES, true);
+
+		StepVerifier.create(monitorFlux).then(() -> write(file, "policy \"a\" permit"))
+				.expectNext(new FileCreatedEvent(file.toFile())).thenCancel().verify();
+	}
+
+	@Test
+	void when_subdirectoryWithFileIsCreatedAndRecursive_then_fileIsReported(@TempDir Path dir) throws Exception {
+		var file = dir.resolve("sub").resolve("deeper").resolve("policy.sapl");
+		var monitorFlux = FileMonitorUtil.monitorDirectory(dir.toString(), SAPL_FILES, true);
+
+		StepVerifier.create(monitorFlux).then(() -> {
+			createDirectories(file.getParent());
+			write(file, "policy \"a\" permit");
+		}).expectNext(new FileCreatedEvent(file.toFile())).thenCancel().verify();
+	}
+
+	@Test
+	void when_subdirectoryIsDeletedAndRecursive_then_filesInItAreReportedDeleted(@TempDir Path dir)
+			throws Exception {
+		var subdirectory = Files.createDirectory(dir.resolve("sub"));
+		var file = subdirectory.resolve("policy.sapl");
+		Files.writeString(file, "policy \"a\" permit");
+		var monitorFlux = FileMonitorUtil.monitorDirectory(dir.toString(), SAPL_FILES, true);
+
+		StepVerifier.create(monitorFlux).then(() -> {
+			delete(file);
+			delete(subdirectory);
+		}).expectNext(new FileDeletedEvent(file.toFile())).thenCancel().verify();
+	}
+
+	private static void write(Path file, String content) {
+		try {
+			Files.writeString(file, content);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void createDirectories(Path directory) {
+		try {
+			Files.createDirectories(directory);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void delete(Path path) {
+		try {
+			Files.delete(path);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.pdp.remote;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.reactivestreams.Publisher;
+
+import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.api.pdp.IdentifiableAuthorizationDecision;
+import io.sapl.api.pdp.MultiplexedSubscriptionCommand;
+import lombok.RequiredArgsConstructor;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Shares a single streaming request to the PDP server between all
+ * subscriptions of a client. Subscriptions are added to and removed from the
+ * open connection by sending commands, and the decisions received are routed to
+ * the subscription with the matching ID.
+ *
+ * The connection is opened with the first subscription and closed with the
+ * last one. After a connection loss, all active subscriptions receive an
+ * INDETERMINATE decision and are subscribed again on the new connection.
+ */
+@RequiredArgsConstructor
+class MultiplexedDecisionConnection {
+
+	private final Function<Flux<MultiplexedSubscriptionCommand>, Flux<IdentifiableAuthorizationDecision>> transport;
+
+	private final Function<Flux<Long>, ? extends Publisher<?>> reconnect;
+
+	private final Map<String, ActiveSubscription> activeSubscriptions = new ConcurrentHashMap<>();
+
+	private final AtomicLong subscriptionIdSequence = new AtomicLong();
+
+	private final Object lock = new Object();
+
+	private Sinks.Many<MultiplexedSubscriptionCommand> commands;
+
+	private Disposable connection;
+
+	Flux<AuthorizationDecision> decide(AuthorizationSubscription authzSubscription) {
+		return Flux.defer(() -> {
+			var subscriptionId = Long.toString(subscriptionIdSequence.incrementAndGet());
+			var decisions      = Sinks.many().unicast().<AuthorizationDecision>onBackpressureBuffer();
+			subscribe(subscriptionId, new ActiveSubscription(authzSubscription, decisions));
+			return decisions.asFlux().doFinally(__ -> unsubscribe(subscriptionId));
+		});
+	}
+
+	int numberOfActiveSubscriptions() {
+		return activeSubscriptions.size();
+	}
+
+	private void subscribe(String subscriptionId, ActiveSubscription subscription) {
+		synchronized (lock) {
+			activeSubscriptions.put(subscriptionId, subscription);
+			if (connection == null)
+				connection = Flux.defer(this::openConnection)
+						.onErrorResume(error -> Flux.just(IdentifiableAuthorizationDecision.INDETERMINATE))
+						.repeatWhen(reconnect).subscribe(this::dispatch);
+			else
+				send(MultiplexedSubscriptionCommand.subscribe(subscriptionId, subscription.authzSubscription));
+		}
+	}
+
+	private void unsubscribe(String subscriptionId) {
+		synchronized (lock) {
+			if (activeSubscriptions.remove(subscriptionId) == null)
+				return;
+			if (activeSubscriptions.isEmpty()) {
+				connection.dispose();
+				connection = null;
+				commands   = null;
+			} else {
+				send(MultiplexedSubscriptionCommand.unsubscribe(subscriptionId));
+			}
+		}
+	}
+
+	private Flux<IdentifiableAuthorizationDecision> openConnection() {
+		synchronized (lock) {
+			// a new connection starts with the complete set of active subscriptions
+			commands = Sinks.many().unicast().onBackpressureBuffer();
+			activeSubscriptions.forEach((subscriptionId, subscription) -> send(
+					MultiplexedSubscriptionCommand.subscribe(subscriptionId, subscription.authzSubscription)));
+			return transport.apply(commands.asFlux());
+		}
+	}
+
+	private void send(MultiplexedSubscriptionCommand command) {
+		if (commands != null)
+			commands.tryEmitNext(command);
+	}
+
+	private void dispatch(IdentifiableAuthorizationDecision identifiableAuthzDecision) {
+		var subscriptionId = identifiableAuthzDecision.getAuthorizationSubscriptionId();
+		if (subscriptionId == null) {
+			activeSubscriptions.values()
+					.forEach(subscription -> subscription.decisions.tryEmitNext(AuthorizationDecision.INDETERMINATE));
+			return;
+		}
+		var subscription = activeSubscriptions.get(subscriptionId);
+		if (subscription != null)
+			subscription.decisions.tryEmitNext(identifiableAuthzDecision.getAuthorizationDecision());
+	}
+
+	@RequiredArgsConstructor
+	private static class ActiveSubscription {
+
+		private final AuthorizationSubscription authzSubscription;
+
+		private final Sinks.Many<AuthorizationDecision> decisions;
+
+	}
+
+}
@@ -29,11 +29,13 @@
 import io.sapl.api.pdp.IdentifiableAuthorizationDecision;
 import io.sapl.api.pdp.MultiAuthorizationDecision;
 import io.sapl.api.pdp.MultiAuthorizationSubscription;
+import io.sapl.api.pdp.MultiplexedSubscriptionCommand;
 import io.sapl.api.pdp.PolicyDecisionPoint;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.netty.http.client.HttpClient;
 import reactor.retry.Backoff;
 import reactor.retry.Repeat;
@@ -47,8 +49,16 @@ public class RemotePolicyDecisionPoint implements PolicyDecisionPoint {
 
 	private static final String MULTI_DECIDE_ALL = "/api/pdp/multi-decide-all";
 
+	private static final String DECIDE_ONCE = "/api/pdp/decide-once";
+
+	private static final String MULTI_DECIDE_ONCE = "/api/pdp/multi-decide-once";
+
+	private static final String MULTIPLEXED_DECIDE = "/api/pdp/multiplexed-decide";
+
 	private final WebClient client;
 
+	private final MultiplexedDecisionConnection multiplexedConnection;
+
 	@Setter
 	@Getter
 	private int firstBackoffMillis = 500;
@@ -61,6 +71,14 @@ public class RemotePolicyDecisionPoint implements PolicyDecisionPoint {
 	@Getter
 	private int backoffFactor = 2;
 
+	/**
+	 * If set, all authorization subscriptions share a single streaming connection
+	 * to the PDP server instead of opening one connection each.
+	 */
+	@Setter
+	@Getter
+	private boolean multiplexed = false;
+
 	public RemotePolicyDecisionPoint(String baseUrl, String clientKey, String clientSecret, SslContext sslContext) {
 		this(baseUrl, clientKey, clientSecret, HttpClient.create().secure(spec -> spec.sslContext(sslContext)));
 	}
@@ -72,6 +90,8 @@ public RemotePolicyDecisionPoint(String baseUrl, String clientKey, String client
 	public RemotePolicyDecisionPoint(String baseUrl, String clientKey, String clientSecret, HttpClient httpClient) {
 		client = WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient)).baseUrl(baseUrl)
 				.defaultHeaders(header -> header.setBasicAuth(clientKey, clientSecret)).build();
+		multiplexedConnection = new MultiplexedDecisionConnection(this::multiplexedDecide,
+				companion -> repeat().apply(companion));
 	}
 
 	private Repeat<?> repeat() {
@@ -83,6 +103,9 @@ private Repeat<?> repeat() {
 
 	@Override
 	public Flux<AuthorizationDecision> decide(AuthorizationSubscription authzSubscription) {
+		if (multiplexed)
+			return multiplexedConnection.decide(authzSubscription).distinctUntilChanged();
+
 		var type = new ParameterizedTypeReference<ServerSentEvent<AuthorizationDecision>>() {
 		};
 		return decide(DECIDE, type, authzSubscription)
@@ -108,6 +131,36 @@ public Flux<MultiAuthorizationDecision> decideAll(MultiAuthorizationSubscription
 				.distinctUntilChanged();
 	}
 
+	@Override
+	public Mono<AuthorizationDecision> decideOnce(AuthorizationSubscription authzSubscription) {
+		return decideOnce(DECIDE_ONCE, AuthorizationDecision.class, authzSubscription)
+				.defaultIfEmpty(AuthorizationDecision.INDETERMINATE)
+				.onErrorResume(__ -> Mono.just(AuthorizationDecision.INDETERMINATE));
+	}
+
+	@Override
+	public Mono<MultiAuthorizationDecision> decideOnce(MultiAuthorizationSubscription multiAuthzSubscription) {
+		return decideOnce(MULTI_DECIDE_ONCE, MultiAuthorizationDecision.class, multiAuthzSubscription)
+				.defaultIfEmpty(MultiAuthorizationDecision.indeterminate())
+				.onErrorResume(__ -> Mono.just(MultiAuthorizationDecision.indeterminate()));
+	}
+
+	private <T> Mono<T> decideOnce(String path, Class<T> type, Object authzSubscription) {
+		return client.post().uri(path).accept(MediaType.APPLICATION_JSON).contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(authzSubscription).retrieve().bodyToMono(type)
+				.doOnError(error -> log.error("Error : {}", error.getMessage()));
+	}
+
+	private Flux<IdentifiableAuthorizationDecision> multiplexedDecide(
+			Flux<MultiplexedSubscriptionCommand> commands) {
+		var type = new ParameterizedTypeReference<ServerSentEvent<IdentifiableAuthorizationDecision>>() {
+		};
+		return client.post().uri(MULTIPLEXED_DECIDE).accept(MediaType.APPLICATION_NDJSON)
+				.contentType(MediaType.APPLICATION_NDJSON).body(commands, MultiplexedSubscriptionCommand.class)
+				.retrieve().bodyToFlux(type).mapNotNull(ServerSentEvent::data)
+				.doOnError(error -> log.error("Error : {}", error.getMessage()));
+	}
+
 	private <T> Flux<T> decide(String path, ParameterizedTypeReference<ServerSentEvent<T>> type,
 			Object authzSubscription) {
 		return client.post().uri(path).accept(MediaType.APPLICATION_NDJSON).contentType(MediaType.APPLICATION_JSON)
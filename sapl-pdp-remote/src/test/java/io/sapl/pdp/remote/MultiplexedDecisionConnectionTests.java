@@ -0,0 +1,127 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.pdp.remote;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.api.pdp.IdentifiableAuthorizationDecision;
+import io.sapl.api.pdp.MultiplexedSubscriptionCommand;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class MultiplexedDecisionConnectionTests {
+
+	private static final AuthorizationSubscription READ = AuthorizationSubscription.of("subject", "read",
+			"resource");
+
+	private static final AuthorizationSubscription WRITE = AuthorizationSubscription.of("subject", "write",
+			"resource");
+
+	private final List<MultiplexedSubscriptionCommand> receivedCommands = new ArrayList<>();
+
+	private int numberOfConnections;
+
+	private boolean connectionCancelled;
+
+	private Sinks.Many<IdentifiableAuthorizationDecision> serverDecisions;
+
+	private MultiplexedDecisionConnection connection;
+
+	@BeforeEach
+	void setUp() {
+		connection = new MultiplexedDecisionConnection(this::transport, companion -> companion);
+	}
+
+	private Flux<IdentifiableAuthorizationDecision> transport(Flux<MultiplexedSubscriptionCommand> commands) {
+		numberOfConnections++;
+		serverDecisions = Sinks.many().unicast().onBackpressureBuffer();
+		commands.subscribe(receivedCommands::add);
+		return serverDecisions.asFlux().doOnCancel(() -> connectionCancelled = true);
+	}
+
+	private void emit(String subscriptionId, AuthorizationDecision decision) {
+		serverDecisions.tryEmitNext(new IdentifiableAuthorizationDecision(subscriptionId, decision));
+	}
+
+	@Test
+	void whenSubscribing_thenDecisionsAreRoutedById() {
+		StepVerifier.create(connection.decide(READ)).then(() -> emit("1", AuthorizationDecision.PERMIT))
+				.expectNext(AuthorizationDecision.PERMIT).then(() -> emit("2", AuthorizationDecision.DENY))
+				.then(() -> emit("1", AuthorizationDecision.DENY)).expectNext(AuthorizationDecision.DENY)
+				.thenCancel().verify();
+
+		assertThat(receivedCommands.get(0), is(MultiplexedSubscriptionCommand.subscribe("1", READ)));
+	}
+
+	@Test
+	void whenSubscribingTwice_thenBothSubscriptionsShareOneConnection() {
+		var read  = connection.decide(READ).subscribe();
+		var write = connection.decide(WRITE).subscribe();
+
+		assertThat(numberOfConnections, is(1));
+		assertThat(connection.numberOfActiveSubscriptions(), is(2));
+
+		read.dispose();
+		assertThat(connectionCancelled, is(false));
+		write.dispose();
+
+		assertThat(connectionCancelled, is(true));
+		assertThat(connection.numberOfActiveSubscriptions(), is(0));
+		assertThat(receivedCommands,
+				contains(MultiplexedSubscriptionCommand.subscribe("1", READ),
+						MultiplexedSubscriptionCommand.subscribe("2", WRITE),
+						MultiplexedSubscriptionCommand.unsubscribe("1")));
+	}
+
+	@Test
+	void whenConnectionFails_thenIndeterminateAndResubscribeOnNewConnection() {
+		var decisions = new ArrayList<AuthorizationDecision>();
+		var read      = connection.decide(READ).subscribe(decisions::add);
+		var write     = connection.decide(WRITE).subscribe();
+		write.dispose();
+		receivedCommands.clear();
+
+		serverDecisions.tryEmitError(new RuntimeException("connection lost"));
+
+		assertThat(decisions, contains(AuthorizationDecision.INDETERMINATE));
+		assertThat(numberOfConnections, is(2));
+		assertThat(receivedCommands, contains(MultiplexedSubscriptionCommand.subscribe("1", READ)));
+
+		emit("1", AuthorizationDecision.PERMIT);
+		assertThat(decisions, contains(AuthorizationDecision.INDETERMINATE, AuthorizationDecision.PERMIT));
+		read.dispose();
+	}
+
+	@Test
+	void whenAllSubscriptionsAreCancelled_thenNextSubscriptionOpensNewConnection() {
+		connection.decide(READ).subscribe().dispose();
+		connection.decide(WRITE).subscribe().dispose();
+
+		assertThat(numberOfConnections, is(2));
+	}
+
+}
@@ -21,6 +21,8 @@
 import static org.junit.jupiter.api.Assertions.assertAll;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.net.ssl.SSLException;
 
@@ -47,6 +49,8 @@
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import reactor.core.publisher.Hooks;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
 import reactor.test.StepVerifier;
 
 class RemotePolicyDecisionPointTests {
@@ -145,6 +149,69 @@ void whenSubscribingMultiDecide_thenGetResults() throws JsonProcessingException
 				.expectNext(decision1, decision2, indeterminate, decision1, decision2).thenCancel().verify();
 	}
 
+	@Test
+	void whenDecidingOnce_thenGetFirstResult() throws JsonProcessingException {
+		prepareJsonResponse(AuthorizationDecision.PERMIT);
+
+		var subscription = AuthorizationSubscription.of(SUBJECT, ACTION, RESOURCE);
+
+		StepVerifier.create(pdp.decideOnce(subscription)).expectNext(AuthorizationDecision.PERMIT).verifyComplete();
+	}
+
+	@Test
+	void whenDecidingOnceAndServerFails_thenIndeterminate() {
+		server.enqueue(new MockResponse().setResponseCode(HttpStatus.INTERNAL_SERVER_ERROR.value()));
+
+		var subscription = AuthorizationSubscription.of(SUBJECT, ACTION, RESOURCE);
+
+		StepVerifier.create(pdp.decideOnce(subscription)).expectNext(AuthorizationDecision.INDETERMINATE)
+				.verifyComplete();
+	}
+
+	@Test
+	void whenMultiDecidingOnce_thenGetResult() throws JsonProcessingException {
+		var decision = new MultiAuthorizationDecision();
+		decision.setAuthorizationDecisionForSubscriptionWithId(ID, AuthorizationDecision.PERMIT);
+		prepareJsonResponse(decision);
+
+		var subscription = new MultiAuthorizationSubscription().addAuthorizationSubscription(ID, SUBJECT, ACTION,
+				RESOURCE);
+
+		StepVerifier.create(pdp.decideOnce(subscription)).expectNext(decision).verifyComplete();
+	}
+
+	@Test
+	void whenMultiplexed_thenSubscriptionsShareOneConnection() throws JsonProcessingException {
+		// MockWebServer only answers after the complete request body has been
+		// received, so a minimal full-duplex server is used here.
+		var decision    = MAPPER.writeValueAsString(
+				new IdentifiableAuthorizationDecision("1", AuthorizationDecision.PERMIT));
+		var connections = new AtomicInteger();
+		var duplexServer = HttpServer.create().port(0)
+				.handle((request, response) -> response
+						.header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_EVENT_STREAM_VALUE)
+						.sendString(request.receive().asString().filter(command -> command.contains("SUBSCRIBE"))
+								.map(command -> "data: " + decision + "\n\n")))
+				.bindNow();
+		var multiplexedPdp = new RemotePolicyDecisionPoint("http://localhost:" + duplexServer.port(), "secret", "key",
+				HttpClient.create().doOnConnected(connection -> connections.incrementAndGet()));
+		multiplexedPdp.setMultiplexed(true);
+
+		var subscription = AuthorizationSubscription.of(SUBJECT, ACTION, RESOURCE);
+
+		StepVerifier.create(multiplexedPdp.decide(subscription)).expectNext(AuthorizationDecision.PERMIT)
+				.thenCancel().verify(Duration.ofSeconds(10));
+		assertAll(() -> assertThat(multiplexedPdp.isMultiplexed(), is(true)),
+				() -> assertThat(connections.get(), is(1)));
+		duplexServer.disposeNow();
+	}
+
+	private void prepareJsonResponse(Object decision) throws JsonProcessingException {
+		server.enqueue(new MockResponse()
+				.setHeader(HttpHeaders.CONTENT_TYPE.toString(), MediaType.APPLICATION_JSON_VALUE)
+				.setResponseCode(HttpStatus.OK.value()).setBody(MAPPER.writeValueAsString(decision)));
+	}
+
 	private void prepareDecisions(Object[] decisions) throws JsonProcessingException {
 		StringBuilder body = new StringBuilder();
 		for (var decision : decisions) {
@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.server.lt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Remembers successful username/password authentications for a limited time,
+ * so that clients presenting the same credentials again skip the expensive
+ * password verification of the delegate, e.g., BCrypt.
+ *
+ * The cache is keyed by an HMAC-SHA256 of the presented credentials with a
+ * random key generated on start-up. Thus, the raw credentials are not retained
+ * and failed authentications are never cached.
+ */
+public class CachingReactiveAuthenticationManager implements ReactiveAuthenticationManager {
+
+	private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+	private static final int HMAC_KEY_LENGTH = 32;
+
+	private final ReactiveAuthenticationManager delegate;
+
+	private final Cache<String, Authentication> authentications;
+
+	private final ThreadLocal<Mac> macs;
+
+	/**
+	 * @param delegate    verifies credentials which are not in the cache
+	 * @param timeToLive  how long a successful authentication is remembered
+	 * @param maximumSize the maximal number of remembered authentications
+	 */
+	public CachingReactiveAuthenticationManager(ReactiveAuthenticationManager delegate, Duration timeToLive,
+			long maximumSize) {
+		this(delegate, timeToLive, maximumSize, Ticker.systemTicker());
+	}
+
+	CachingReactiveAuthenticationManager(ReactiveAuthenticationManager delegate, Duration timeToLive,
+			long maximumSize, Ticker ticker) {
+		this.delegate   = delegate;
+		authentications = CacheBuilder.newBuilder().expireAfterWrite(timeToLive).maximumSize(maximumSize)
+				.ticker(ticker).build();
+
+		var hmacKey = new byte[HMAC_KEY_LENGTH];
+		new SecureRandom().nextBytes(hmacKey);
+		var keySpec = new SecretKeySpec(hmacKey, HMAC_ALGORITHM);
+		macs = ThreadLocal.withInitial(() -> createMac(keySpec));
+	}
+
+	private static Mac createMac(SecretKeySpec keySpec) {
+		try {
+			var mac = Mac.getInstance(HMAC_ALGORITHM);
+			mac.init(keySpec);
+			return mac;
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("HMAC-SHA256 is not available.", e);
+		}
+	}
+
+	@Override
+	public Mono<Authentication> authenticate(Authentication authentication) {
+		if (!(authentication instanceof UsernamePasswordAuthenticationToken)
+				|| authentication.getCredentials() == null)
+			return delegate.authenticate(authentication);
+
+		var key    = cacheKey(authentication.getName(), authentication.getCredentials().toString());
+		var cached = authentications.getIfPresent(key);
+		if (cached != null)
+			return Mono.just(cached);
+
+		return delegate.authenticate(authentication).doOnNext(authenticated -> {
+			if (authenticated.isAuthenticated())
+				authentications.put(key, authenticated);
+		});
+	}
+
+	private String cacheKey(String username, String password) {
+		var mac = macs.get();
+		mac.update(username.getBytes(StandardCharsets.UTF_8));
+		mac.update((byte) 0);
+		return Base64.getEncoder().encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+	}
+
+}
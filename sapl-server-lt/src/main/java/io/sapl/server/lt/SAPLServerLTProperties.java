@@ -15,6 +15,8 @@
  */
 package io.sapl.server.lt;
 
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 import lombok.Data;
@@ -27,4 +29,16 @@ public class SAPLServerLTProperties {
 
 	private String secret = "";
 
+	/**
+	 * How long a successful authentication of a client is remembered, so that
+	 * subsequent requests with the same credentials skip the password verification.
+	 * Set to zero to verify the password on every request.
+	 */
+	private Duration authenticationCacheTtl = Duration.ofMinutes(5);
+
+	/**
+	 * The maximal number of remembered authentications.
+	 */
+	private long authenticationCacheSize = 1_000;
+
 }
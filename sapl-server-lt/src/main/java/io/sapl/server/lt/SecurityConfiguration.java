@@ -18,9 +18,12 @@
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.core.userdetails.MapReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -38,7 +41,8 @@ public class SecurityConfiguration {
 
 	@Bean
 	@Profile("local")
-	public SecurityWebFilterChain securityFilterChainLocal(ServerHttpSecurity http) {
+	public SecurityWebFilterChain securityFilterChainLocal(ServerHttpSecurity http,
+			ReactiveAuthenticationManager authenticationManager) {
 		return http
 				.csrf()
 					.disable()
@@ -47,6 +51,7 @@ public SecurityWebFilterChain securityFilterChainLocal(ServerHttpSecurity http)
 					.anyExchange().authenticated()
 				.and()
 					.httpBasic()
+						.authenticationManager(authenticationManager)
 				.and()
 					.formLogin().disable()
 				.build();
@@ -66,6 +71,21 @@ public MapReactiveUserDetailsService userDetailsServiceLocal() {
 		return new MapReactiveUserDetailsService(client);
 	}
 
+	@Bean
+	@Profile("local")
+	public ReactiveAuthenticationManager authenticationManagerLocal(ReactiveUserDetailsService userDetailsService,
+			PasswordEncoder passwordEncoder) {
+		var authenticationManager = new UserDetailsRepositoryReactiveAuthenticationManager(userDetailsService);
+		authenticationManager.setPasswordEncoder(passwordEncoder);
+
+		var ttl = pdpProperties.getAuthenticationCacheTtl();
+		if (ttl.isZero())
+			return authenticationManager;
+
+		return new CachingReactiveAuthenticationManager(authenticationManager, ttl,
+				pdpProperties.getAuthenticationCacheSize());
+	}
+
 	@Bean
 	public PasswordEncoder passwordEncoder() {
 		return new BCryptPasswordEncoder();
@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2017-2022 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.server.lt;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import com.google.common.base.Ticker;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class CachingReactiveAuthenticationManagerTests {
+
+	private static final Duration TTL = Duration.ofMinutes(5);
+
+	private final AtomicLong nanos = new AtomicLong();
+
+	private final Ticker ticker = new Ticker() {
+		@Override
+		public long read() {
+			return nanos.get();
+		}
+	};
+
+	private ReactiveAuthenticationManager delegate;
+
+	private CachingReactiveAuthenticationManager authenticationManager;
+
+	@BeforeEach
+	void beforeEach() {
+		delegate              = mock(ReactiveAuthenticationManager.class);
+		authenticationManager = new CachingReactiveAuthenticationManager(delegate, TTL, 10, ticker);
+		when(delegate.authenticate(any())).thenAnswer(invocation -> {
+			Authentication presented = invocation.getArgument(0);
+			if ("secret".equals(presented.getCredentials()))
+				return Mono.just(UsernamePasswordAuthenticationToken.authenticated(presented.getName(), null,
+						presented.getAuthorities()));
+			return Mono.error(new BadCredentialsException("Invalid Credentials"));
+		});
+	}
+
+	@Test
+	void whenSameCredentialsArePresentedTwice_thenDelegateIsCalledOnce() {
+		StepVerifier.create(authenticationManager.authenticate(credentials("client", "secret")))
+				.expectNextMatches(Authentication::isAuthenticated).verifyComplete();
+		StepVerifier.create(authenticationManager.authenticate(credentials("client", "secret")))
+				.expectNextMatches(Authentication::isAuthenticated).verifyComplete();
+		verify(delegate, times(1)).authenticate(any());
+	}
+
+	@Test
+	void whenWrongCredentialsArePresented_thenTheyAreVerifiedEachTime() {
+		StepVerifier.create(authenticationManager.authenticate(credentials("client", "wrong")))
+				.expectError(BadCredentialsException.class).verify();
+		StepVerifier.create(authenticationManager.authenticate(credentials("client", "wrong")))
+				.expectError(BadCredentialsException.class).verify();
+		verify(delegate, times(2)).authenticate(any());
+	}
+
+	@Test
+	void whenDifferentPasswordIsPresentedForCachedUser_thenItIsVerified() {
+		StepVerifier.create(authenticationManager.authenticate(credentials("client", "secret")))
+				.expectNextCount(1).verifyComplete();
+		StepVerifier.create(authenticationManager.authenticate(credentials("client", "wrong")))
+				.expectError(BadCredentialsException.class).verify();
+		verify(delegate, times(2)).authenticate(any());
+	}
+
+	@Test
+	void whenTtlExpired_thenCredentialsAreVerifiedAgain() {
+		StepVerifier.create(authenticationManager.authenticate(credentials("client", "secret")))
+				.expectNextCount(1).verifyComplete();
+		nanos.addAndGet(TimeUnit.MINUTES.toNanos(6));
+		StepVerifier.create(authenticationManager.authenticate(credentials("client", "secret")))
+				.expectNextCount(1).verifyComplete();
+		verify(delegate, times(2)).authenticate(any());
+	}
+
+	@Test
+	void whenAuthenticationIsNoUsernamePassword_thenItIsDelegated() {
+		var token = new TestingAuthenticationToken("client", null);
+		when(delegate.authenticate(token)).thenReturn(Mono.just(token));
+		StepVerifier.create(authenticationManager.authenticate(token)).expectNext(token).verifyComplete();
+		StepVerifier.create(authenticationManager.authenticate(token)).expectNext(token).verifyComplete();
+		verify(delegate, times(2)).authenticate(token);
+	}
+
+	private static Authentication credentials(String username, String password) {
+		return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+	}
+
+}
@@ -19,6 +19,7 @@
 
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -32,18 +33,24 @@
 @Slf4j
 @Configuration
 @AutoConfigureAfter(PolicyInformationPointsAutoConfiguration.class)
+@EnableConfigurationProperties(EmbeddedPDPProperties.class)
 public class AttributeContextAutoConfiguration {
 
 	private final Collection<Object> policyInformationPoints;
 
-	public AttributeContextAutoConfiguration(ConfigurableApplicationContext applicationContext) {
+	private final EmbeddedPDPProperties pdpProperties;
+
+	public AttributeContextAutoConfiguration(ConfigurableApplicationContext applicationContext,
+			EmbeddedPDPProperties pdpProperties) {
 		policyInformationPoints = applicationContext.getBeansWithAnnotation(PolicyInformationPoint.class).values();
+		this.pdpProperties      = pdpProperties;
 	}
 
 	@Bean
 	@ConditionalOnMissingBean
 	public AttributeContext attributeContext() throws InitializationException {
 		var ctx = new AnnotationAttributeContext();
+		ctx.setAttributeStreamGracePeriod(pdpProperties.getAttributeStreamGracePeriod());
 		for (var entry : policyInformationPoints) {
 			log.trace("loading Policy Information Point: {}", entry.getClass().getSimpleName());
 			ctx.loadPolicyInformationPoint(entry);
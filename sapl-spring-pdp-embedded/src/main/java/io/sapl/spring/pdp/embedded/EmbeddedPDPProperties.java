@@ -15,12 +15,16 @@
  */
 package io.sapl.spring.pdp.embedded;
 
+import java.time.Duration;
+
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
+import io.sapl.interpreter.pip.AnnotationAttributeContext;
 import lombok.Data;
 
 @Data
@@ -76,6 +80,38 @@ public class EmbeddedPDPProperties {
 	@NotEmpty
 	private String policiesPath = "/policies";
 
+	/**
+	 * This property sets how long the attribute stream of a policy information point
+	 * stays connected after the last subscription using it has been cancelled.
+	 * Subscriptions for the same attribute within this period continue to use the
+	 * stream instead of invoking the policy information point again.
+	 */
+	@NotNull
+	private Duration attributeStreamGracePeriod = AnnotationAttributeContext.DEFAULT_ATTRIBUTE_STREAM_GRACE_PERIOD;
+
+	/**
+	 * This property sets the maximum number of decisions the PDP memorizes for
+	 * subscriptions which are only matched by documents not accessing any
+	 * attributes. The default value 0 disables the decision cache.
+	 */
+	@Min(0)
+	private long decisionCacheSize = 0L;
+
+	/**
+	 * If this property is set to true, concurrent subscriptions with equal subject,
+	 * action, resource, and environment share a single decision stream, which is
+	 * evaluated once and disposed when its last subscriber cancels.
+	 */
+	private boolean deduplicateSubscriptions = false;
+
+	/**
+	 * If this property is set to true, the attribute-free expressions of the
+	 * documents are compiled to closures when the documents are loaded. Only
+	 * expressions accessing attributes are then evaluated by the reactive
+	 * interpreter.
+	 */
+	private boolean compileExpressions = false;
+
 	public enum PDPDataSource {
 
 		RESOURCES, FILESYSTEM
@@ -17,6 +17,7 @@
 
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -31,18 +32,22 @@
 @Configuration
 @RequiredArgsConstructor
 @AutoConfigureAfter({ FunctionLibrariesAutoConfiguration.class, PolicyInformationPointsAutoConfiguration.class })
+@EnableConfigurationProperties(EmbeddedPDPProperties.class)
 public class PDPAutoConfiguration {
 
 	private final PolicyRetrievalPoint policyRetrievalPoint;
 
 	private final PDPConfigurationProvider configurationProvider;
 
+	private final EmbeddedPDPProperties pdpProperties;
+
 	@Bean
 	@ConditionalOnMissingBean
 	public PolicyDecisionPoint policyDecisionPoint() {
 		log.info("Deploying embedded Policy Decision Point. ConfigProvider: {} PRP: {}",
 				configurationProvider.getClass().getSimpleName(), policyRetrievalPoint.getClass().getSimpleName());
-		return new EmbeddedPolicyDecisionPoint(configurationProvider, policyRetrievalPoint);
+		return new EmbeddedPolicyDecisionPoint(configurationProvider, policyRetrievalPoint,
+				pdpProperties.getDecisionCacheSize(), pdpProperties.isDeduplicateSubscriptions());
 	}
 
 }
@@ -62,7 +62,8 @@ public PolicyRetrievalPoint policyRetrievalPoint() throws PolicyEvaluationExcept
 			// subscription scoped EvaluationContext handed over for lookup.
 			seedIndex = new CanonicalImmutableParsedDocumentIndex(attributeContext, functionContext);
 		}
-		return new GenericInMemoryIndexedPolicyRetrievalPoint(seedIndex, eventSource);
+		return new GenericInMemoryIndexedPolicyRetrievalPoint(seedIndex, eventSource,
+				pdpProperties.isCompileExpressions());
 	}
 
 }
@@ -58,6 +58,21 @@ void whenDefaultLibrariesArePresent_thenAFunctionContextIsPresentAndLoadedThem()
 				});
 	}
 
+	@Test
+	void whenGracePeriodIsConfigured_thenContextLoads() {
+		contextRunner.withPropertyValues("io.sapl.pdp.embedded.attributeStreamGracePeriod=5s").run(context -> {
+			assertThat(context).hasNotFailed();
+			assertThat(context).hasSingleBean(AttributeContext.class);
+		});
+	}
+
+	@Test
+	void whenGracePeriodIsNegative_thenContextFailsToLoad() {
+		contextRunner.withPropertyValues("io.sapl.pdp.embedded.attributeStreamGracePeriod=-5s").run(context -> {
+			assertThat(context).hasFailed();
+		});
+	}
+
 	@Test
 	void whenBadLibraryIsPresent_thenContextFailsToLoad() {
 		contextRunner.withBean(BadPolicyInformationPointLibrary.class, BadPolicyInformationPointLibrary::new)
@@ -43,6 +43,22 @@ void whenContextLoads_thenOneIsCreated() {
 		});
 	}
 
+	@Test
+	void whenDecisionCacheIsConfigured_thenContextLoads() {
+		contextRunner.withPropertyValues("io.sapl.pdp.embedded.decisionCacheSize=100").run(context -> {
+			assertThat(context).hasNotFailed();
+			assertThat(context).hasSingleBean(EmbeddedPolicyDecisionPoint.class);
+		});
+	}
+
+	@Test
+	void whenSubscriptionDeduplicationIsEnabled_thenStatisticsArePresent() {
+		contextRunner.withPropertyValues("io.sapl.pdp.embedded.deduplicateSubscriptions=true").run(context -> {
+			assertThat(context).hasNotFailed();
+			assertThat(context.getBean(EmbeddedPolicyDecisionPoint.class).getSubscriptionStatistics()).isPresent();
+		});
+	}
+
 	@Test
 	void whenAnotherPDPIsAlreadyPresent_thenDoNotLoadANewOne() {
 		contextRunner.withBean(PolicyDecisionPoint.class, () -> mock(PolicyDecisionPoint.class)).run(context -> {
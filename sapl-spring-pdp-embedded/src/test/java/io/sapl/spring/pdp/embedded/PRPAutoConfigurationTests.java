@@ -59,6 +59,15 @@ void whenPrpWithCanonicalIndexIsConfigured_thenOneIsCreated() {
 		});
 	}
 
+	@Test
+	void whenPrpWithCompiledExpressionsIsConfigured_thenOneIsCreated() {
+		contextRunner.withPropertyValues("io.sapl.pdp.embedded.compileExpressions=true").run(context -> {
+			assertThat(context).hasNotFailed();
+			assertThat(context).hasSingleBean(PolicyRetrievalPoint.class);
+			assertThat(context).hasSingleBean(GenericInMemoryIndexedPolicyRetrievalPoint.class);
+		});
+	}
+
 	@Test
 	void whenAnotherPRPIsAlreadyPresent_thenDoNotLoadANewOne() {
 		contextRunner.withBean(PolicyRetrievalPoint.class, () -> mock(PolicyRetrievalPoint.class)).run(context -> {
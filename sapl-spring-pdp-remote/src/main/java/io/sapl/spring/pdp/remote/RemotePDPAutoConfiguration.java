@@ -41,19 +41,21 @@ public class RemotePDPAutoConfiguration {
 	@ConditionalOnMissingBean
 	public PolicyDecisionPoint policyDecisionPoint() throws SSLException {
 		log.info("Binding to remote PDP server: {}", configuration.getHost());
+		RemotePolicyDecisionPoint pdp;
 		if (configuration.isIgnoreCertificates()) {
 			log.warn("INSECURE SSL SETTINGS! This demo uses an insecure SslContext for "
 					+ "testing purposes only. It will accept all certificates. "
 					+ "This is only for testing local servers with self-signed certificates easily. "
 					+ "NEVER USE THIS A CONFIGURATION IN PRODUCTION!");
 			var sslContext = SslContextBuilder.forClient().trustManager(InsecureTrustManagerFactory.INSTANCE).build();
-			return new RemotePolicyDecisionPoint(configuration.getHost(), configuration.getKey(),
+			pdp = new RemotePolicyDecisionPoint(configuration.getHost(), configuration.getKey(),
 					configuration.getSecret(), sslContext);
-
+		} else {
+			pdp = new RemotePolicyDecisionPoint(configuration.getHost(), configuration.getKey(),
+					configuration.getSecret());
 		}
-
-		return new RemotePolicyDecisionPoint(configuration.getHost(), configuration.getKey(),
-				configuration.getSecret());
+		pdp.setMultiplexed(configuration.isMultiplexed());
+		return pdp;
 	}
 
 }
@@ -40,4 +40,10 @@ public class RemotePDPProperties {
 
 	private boolean ignoreCertificates = false;
 
+	/**
+	 * If set, all authorization subscriptions of the application share a single
+	 * streaming connection to the PDP server.
+	 */
+	private boolean multiplexed = false;
+
 }
@@ -22,6 +22,7 @@
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 
 import io.sapl.api.pdp.PolicyDecisionPoint;
+import io.sapl.pdp.remote.RemotePolicyDecisionPoint;
 
 class RemotePDPAutoConfigurationTests {
 
@@ -48,4 +49,15 @@ void whenValidPropertiesArePresentWithIgnore_thenTheRemotePdpIsPresent() {
 				});
 	}
 
+	@Test
+	void whenMultiplexedIsSet_thenTheRemotePdpIsMultiplexed() {
+		contextRunner
+				.withPropertyValues("io.sapl.pdp.remote.host=https://localhost:8443", "io.sapl.pdp.remote.key=aKey",
+						"io.sapl.pdp.remote.secret=aSecret", "io.sapl.pdp.remote.multiplexed=true")
+				.run(context -> {
+					assertThat(context).hasNotFailed();
+					assertThat(context.getBean(RemotePolicyDecisionPoint.class).isMultiplexed()).isTrue();
+				});
+	}
+
 }
@@ -29,9 +29,12 @@
 import io.sapl.api.pdp.IdentifiableAuthorizationDecision;
 import io.sapl.api.pdp.MultiAuthorizationDecision;
 import io.sapl.api.pdp.MultiAuthorizationSubscription;
+import io.sapl.api.pdp.MultiplexedSubscriptionCommand;
 import io.sapl.api.pdp.PolicyDecisionPoint;
 import lombok.RequiredArgsConstructor;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.GroupedFlux;
+import reactor.core.publisher.Mono;
 
 /**
  * REST controller providing endpoints for a policy decision point. The endpoints can be
@@ -95,4 +98,72 @@ public Flux<ServerSentEvent<MultiAuthorizationDecision>> decideAll(
 				.map(decision -> ServerSentEvent.<MultiAuthorizationDecision>builder().data(decision).build());
 	}
 
+	/**
+	 * Delegates to {@link PolicyDecisionPoint#decideOnce(AuthorizationSubscription)}.
+	 * The response is a plain JSON document and the connection is released as soon as
+	 * the first decision is available.
+	 * @param authzSubscription the authorization subscription to be processed by the PDP.
+	 * @return a mono emitting the first authorization decision.
+	 * @see PolicyDecisionPoint#decideOnce(AuthorizationSubscription)
+	 */
+	@PostMapping(value = "/decide-once", produces = MediaType.APPLICATION_JSON_VALUE,
+			consumes = MediaType.APPLICATION_JSON_VALUE)
+	public Mono<AuthorizationDecision> decideOnce(@Valid @RequestBody AuthorizationSubscription authzSubscription) {
+		return pdp.decideOnce(authzSubscription).defaultIfEmpty(AuthorizationDecision.INDETERMINATE)
+				.onErrorResume(error -> Mono.just(AuthorizationDecision.INDETERMINATE));
+	}
+
+	/**
+	 * Delegates to {@link PolicyDecisionPoint#decideOnce(MultiAuthorizationSubscription)}.
+	 * The response is a plain JSON document and the connection is released as soon as
+	 * the first decision for each subscription is available.
+	 * @param multiAuthzSubscription the authorization multi-subscription to be processed
+	 * by the PDP.
+	 * @return a mono emitting a multi-decision containing the first authorization
+	 * decision for each of the individual authorization subscriptions contained in the
+	 * given {@code multiAuthzSubscription}.
+	 * @see PolicyDecisionPoint#decideOnce(MultiAuthorizationSubscription)
+	 */
+	@PostMapping(value = "/multi-decide-once", produces = MediaType.APPLICATION_JSON_VALUE,
+			consumes = MediaType.APPLICATION_JSON_VALUE)
+	public Mono<MultiAuthorizationDecision> decideOnce(
+			@Valid @RequestBody MultiAuthorizationSubscription multiAuthzSubscription) {
+		return pdp.decideOnce(multiAuthzSubscription).defaultIfEmpty(MultiAuthorizationDecision.indeterminate())
+				.onErrorResume(error -> Mono.just(MultiAuthorizationDecision.indeterminate()));
+	}
+
+	/**
+	 * Multiplexes any number of authorization subscriptions over a single
+	 * connection. The request body is a stream of commands adding and removing
+	 * authorization subscriptions by ID while the connection is open. The response
+	 * emits the authorization decisions of all currently active subscriptions,
+	 * each tagged with the ID of its subscription.
+	 * @param commands the stream of subscribe and unsubscribe commands.
+	 * @return a flux emitting the authorization decisions of all active
+	 * subscriptions.
+	 * @see MultiplexedSubscriptionCommand
+	 */
+	@PostMapping(value = "/multiplexed-decide", produces = MediaType.APPLICATION_NDJSON_VALUE,
+			consumes = MediaType.APPLICATION_NDJSON_VALUE)
+	public Flux<ServerSentEvent<IdentifiableAuthorizationDecision>> multiplexedDecide(
+			@RequestBody Flux<MultiplexedSubscriptionCommand> commands) {
+		return commands.filter(command -> command.getAuthorizationSubscriptionId() != null)
+				.groupBy(MultiplexedSubscriptionCommand::getAuthorizationSubscriptionId)
+				.flatMap(this::decideUntilUnsubscribed, Integer.MAX_VALUE)
+				.map(decision -> ServerSentEvent.<IdentifiableAuthorizationDecision>builder().data(decision).build());
+	}
+
+	private Flux<IdentifiableAuthorizationDecision> decideUntilUnsubscribed(
+			GroupedFlux<String, MultiplexedSubscriptionCommand> commandsForId) {
+		var subscriptionId = commandsForId.key();
+		return commandsForId.takeUntil(MultiplexedSubscriptionCommand::isUnsubscribe).switchMap(command -> {
+			if (command.isUnsubscribe())
+				return Flux.empty();
+			if (command.getAuthorizationSubscription() == null)
+				return Flux.just(AuthorizationDecision.INDETERMINATE);
+			return pdp.decide(command.getAuthorizationSubscription())
+					.onErrorResume(error -> Flux.just(AuthorizationDecision.INDETERMINATE));
+		}).map(decision -> new IdentifiableAuthorizationDecision(subscriptionId, decision));
+	}
+
 }
@@ -38,8 +38,10 @@
 import io.sapl.api.pdp.IdentifiableAuthorizationDecision;
 import io.sapl.api.pdp.MultiAuthorizationDecision;
 import io.sapl.api.pdp.MultiAuthorizationSubscription;
+import io.sapl.api.pdp.MultiplexedSubscriptionCommand;
 import io.sapl.api.pdp.PolicyDecisionPoint;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 @Import(PolicyDecisionPoint.class)
@@ -199,4 +201,131 @@ void subscribeToMultiDecisionsAllInvalidBody() {
 				.returnResult(IdentifiableAuthorizationDecision.class);
 	}
 
+	@Test
+	void decideOnceWithValidBody() {
+		when(pdp.decideOnce((AuthorizationSubscription) any(AuthorizationSubscription.class)))
+				.thenReturn(Mono.just(AuthorizationDecision.PERMIT));
+
+		var subscription = AuthorizationSubscription.of("subject", "action", "resource");
+
+		webClient.post().uri("/api/pdp/decide-once").contentType(MediaType.APPLICATION_JSON)
+				.header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+				.body(BodyInserters.fromValue(subscription)).exchange().expectStatus().isOk()
+				.expectBody(AuthorizationDecision.class).isEqualTo(AuthorizationDecision.PERMIT);
+
+		verify(pdp, times(1)).decideOnce(subscription);
+	}
+
+	@Test
+	void decideOnceWithValidProcessingError() {
+		when(pdp.decideOnce((AuthorizationSubscription) any(AuthorizationSubscription.class)))
+				.thenReturn(Mono.error(new RuntimeException()));
+
+		var subscription = AuthorizationSubscription.of("subject", "action", "resource");
+
+		webClient.post().uri("/api/pdp/decide-once").contentType(MediaType.APPLICATION_JSON)
+				.header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+				.body(BodyInserters.fromValue(subscription)).exchange().expectStatus().isOk()
+				.expectBody(AuthorizationDecision.class).isEqualTo(AuthorizationDecision.INDETERMINATE);
+	}
+
+	@Test
+	void decideOnceWithInvalidBody() {
+		webClient.post().uri("/api/pdp/decide-once").contentType(MediaType.APPLICATION_JSON)
+				.header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+				.body(BodyInserters.fromValue("INVALID BODY")).exchange().expectStatus().isBadRequest();
+	}
+
+	@Test
+	void multiDecideOnceWithValidBody() {
+		var multiAuthzDecision = new MultiAuthorizationDecision();
+		multiAuthzDecision.setAuthorizationDecisionForSubscriptionWithId("id1", AuthorizationDecision.PERMIT);
+		multiAuthzDecision.setAuthorizationDecisionForSubscriptionWithId("id2", AuthorizationDecision.DENY);
+		when(pdp.decideOnce((MultiAuthorizationSubscription) any(MultiAuthorizationSubscription.class)))
+				.thenReturn(Mono.just(multiAuthzDecision));
+
+		var multiAuthzSubscription = new MultiAuthorizationSubscription()
+				.addAuthorizationSubscription("id1", "subject", "action1", "resource")
+				.addAuthorizationSubscription("id2", "subject", "action2", "other resource");
+
+		webClient.post().uri("/api/pdp/multi-decide-once").contentType(MediaType.APPLICATION_JSON)
+				.header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+				.body(BodyInserters.fromValue(multiAuthzSubscription)).exchange().expectStatus().isOk()
+				.expectBody(MultiAuthorizationDecision.class).isEqualTo(multiAuthzDecision);
+
+		verify(pdp, times(1)).decideOnce(multiAuthzSubscription);
+	}
+
+	@Test
+	void multiDecideOnceProcessingError() {
+		when(pdp.decideOnce((MultiAuthorizationSubscription) any(MultiAuthorizationSubscription.class)))
+				.thenReturn(Mono.error(new RuntimeException()));
+
+		var multiAuthzSubscription = new MultiAuthorizationSubscription()
+				.addAuthorizationSubscription("id1", "subject", "action1", "resource");
+
+		webClient.post().uri("/api/pdp/multi-decide-once").contentType(MediaType.APPLICATION_JSON)
+				.header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+				.body(BodyInserters.fromValue(multiAuthzSubscription)).exchange().expectStatus().isOk()
+				.expectBody(MultiAuthorizationDecision.class).isEqualTo(MultiAuthorizationDecision.indeterminate());
+	}
+
+	@Test
+	void multiplexedDecideRoutesDecisionsById() {
+		var read  = AuthorizationSubscription.of("subject", "read", "resource");
+		var write = AuthorizationSubscription.of("subject", "write", "resource");
+		when(pdp.decide(read)).thenReturn(Flux.just(AuthorizationDecision.PERMIT));
+		when(pdp.decide(write)).thenReturn(Flux.just(AuthorizationDecision.DENY));
+
+		var commands = Flux.just(MultiplexedSubscriptionCommand.subscribe("id1", read),
+				MultiplexedSubscriptionCommand.subscribe("id2", write));
+
+		var result = webClient.post().uri("/api/pdp/multiplexed-decide").contentType(MediaType.APPLICATION_NDJSON)
+				.header(HttpHeaders.ACCEPT, MediaType.APPLICATION_NDJSON_VALUE)
+				.body(commands, MultiplexedSubscriptionCommand.class).exchange().expectStatus().isOk()
+				.returnResult(IdentifiableAuthorizationDecision.class);
+
+		StepVerifier.create(result.getResponseBody().collectList())
+				.expectNextMatches(decisions -> decisions.size() == 2
+						&& decisions.contains(new IdentifiableAuthorizationDecision("id1", AuthorizationDecision.PERMIT))
+						&& decisions.contains(new IdentifiableAuthorizationDecision("id2", AuthorizationDecision.DENY)))
+				.verifyComplete();
+	}
+
+	@Test
+	void multiplexedDecideStopsEvaluationOnUnsubscribe() {
+		var read = AuthorizationSubscription.of("subject", "read", "resource");
+		when(pdp.decide(read)).thenReturn(Flux.never());
+
+		var commands = Flux.just(MultiplexedSubscriptionCommand.subscribe("id1", read),
+				MultiplexedSubscriptionCommand.unsubscribe("id1"));
+
+		var result = webClient.post().uri("/api/pdp/multiplexed-decide").contentType(MediaType.APPLICATION_NDJSON)
+				.header(HttpHeaders.ACCEPT, MediaType.APPLICATION_NDJSON_VALUE)
+				.body(commands, MultiplexedSubscriptionCommand.class).exchange().expectStatus().isOk()
+				.returnResult(IdentifiableAuthorizationDecision.class);
+
+		StepVerifier.create(result.getResponseBody()).verifyComplete();
+	}
+
+	@Test
+	void multiplexedDecideWithProcessingErrorOrMissingSubscription() {
+		var read = AuthorizationSubscription.of("subject", "read", "resource");
+		when(pdp.decide(read)).thenReturn(Flux.error(new RuntimeException()));
+
+		var commands = Flux.just(MultiplexedSubscriptionCommand.subscribe("id1", read),
+				new MultiplexedSubscriptionCommand(MultiplexedSubscriptionCommand.Type.SUBSCRIBE, "id2", null));
+
+		var result = webClient.post().uri("/api/pdp/multiplexed-decide").contentType(MediaType.APPLICATION_NDJSON)
+				.header(HttpHeaders.ACCEPT, MediaType.APPLICATION_NDJSON_VALUE)
+				.body(commands, MultiplexedSubscriptionCommand.class).exchange().expectStatus().isOk()
+				.returnResult(IdentifiableAuthorizationDecision.class);
+
+		StepVerifier.create(result.getResponseBody().collectList()).expectNextMatches(decisions -> decisions
+				.size() == 2
+				&& decisions.contains(new IdentifiableAuthorizationDecision("id1", AuthorizationDecision.INDETERMINATE))
+				&& decisions.contains(new IdentifiableAuthorizationDecision("id2", AuthorizationDecision.INDETERMINATE)))
+				.verifyComplete();
+	}
+
 }